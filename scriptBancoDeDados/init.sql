@@ -1,3 +1,3 @@
 CREATE DATABASE tech_challenge_4_produtos;
 
-\c tech_challenge_4_produtos;
\ No newline at end of file
+\c tech_challenge_4_produtos;
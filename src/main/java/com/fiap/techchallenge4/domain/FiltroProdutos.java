@@ -0,0 +1,48 @@
+package com.fiap.techchallenge4.domain;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+// Faixas de preco e quantidade da listagem; os limites sao inclusivos e qualquer um pode faltar
+@Getter
+public class FiltroProdutos {
+
+    private BigDecimal precoMinimo;
+    private BigDecimal precoMaximo;
+    private Long quantidadeMinima;
+    private Long quantidadeMaxima;
+
+    public FiltroProdutos(final BigDecimal precoMinimo,
+                          final BigDecimal precoMaximo,
+                          final Long quantidadeMinima,
+                          final Long quantidadeMaxima) {
+        if ((Objects.nonNull(precoMinimo) && precoMinimo.signum() < 0) || (Objects.nonNull(precoMaximo) && precoMaximo.signum() < 0)) {
+            throw new IllegalArgumentException("FAIXA DE PRECO NAO PODE SER NEGATIVA!");
+        }
+        if (Objects.nonNull(precoMinimo) && Objects.nonNull(precoMaximo) && precoMinimo.compareTo(precoMaximo) > 0) {
+            throw new IllegalArgumentException("PRECO MINIMO NAO PODE SER MAIOR QUE O PRECO MAXIMO!");
+        }
+        if ((Objects.nonNull(quantidadeMinima) && quantidadeMinima < 0) || (Objects.nonNull(quantidadeMaxima) && quantidadeMaxima < 0)) {
+            throw new IllegalArgumentException("FAIXA DE QUANTIDADE NAO PODE SER NEGATIVA!");
+        }
+        if (Objects.nonNull(quantidadeMinima) && Objects.nonNull(quantidadeMaxima) && quantidadeMinima > quantidadeMaxima) {
+            throw new IllegalArgumentException("QUANTIDADE MINIMA NAO PODE SER MAIOR QUE A QUANTIDADE MAXIMA!");
+        }
+
+        this.precoMinimo = precoMinimo;
+        this.precoMaximo = precoMaximo;
+        this.quantidadeMinima = quantidadeMinima;
+        this.quantidadeMaxima = quantidadeMaxima;
+    }
+
+    public boolean filtraPreco() {
+        return Objects.nonNull(this.precoMinimo) || Objects.nonNull(this.precoMaximo);
+    }
+
+    public boolean filtraQuantidade() {
+        return Objects.nonNull(this.quantidadeMinima) || Objects.nonNull(this.quantidadeMaxima);
+    }
+
+}
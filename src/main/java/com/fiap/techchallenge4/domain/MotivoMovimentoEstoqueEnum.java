@@ -0,0 +1,13 @@
+package com.fiap.techchallenge4.domain;
+
+public enum MotivoMovimentoEstoqueEnum {
+
+    CADASTRO,
+    ENTRADA,
+    RETIRADA,
+    DEVOLUCAO,
+    IMPORTACAO,
+    REMOCAO
+    ;
+
+}
@@ -24,29 +24,39 @@ public class Produto {
                    final String descricao,
                    final BigDecimal preco,
                    final Long quantidade) {
+        validaNome(nome);
+        validaDescricao(descricao);
+        validaPreco(preco);
+
+        this.ean = new Ean(ean).getNumero();
+        this.nome = nome;
+        this.descricao = descricao;
+        this.preco = preco;
+        this.quantidade = new Quantidade(quantidade).getNumero();
+    }
+
+    public static void validaNome(final String nome) {
         if (Objects.isNull(nome) || nome.isEmpty()) {
             throw new IllegalArgumentException("NOME NAO PODE SER NULO OU VAZIO!");
         }
         if (nome.length() < 3 || nome.length() > 50) {
             throw new IllegalArgumentException("O NOME deve ter no mínimo 3 letras e no máximo 50 letras");
         }
+    }
 
+    public static void validaDescricao(final String descricao) {
         if (Objects.isNull(descricao) || descricao.isEmpty()) {
             throw new IllegalArgumentException("DESCRICAO NAO PODE SER NULO OU VAZIO!");
         }
         if (descricao.length() < 5 || descricao.length() > 50) {
             throw new IllegalArgumentException("A DESCRICAO deve ter no mínimo 5 letras e no máximo 50 letras");
         }
+    }
 
+    public static void validaPreco(final BigDecimal preco) {
         if (Objects.isNull(preco) || preco.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("PRECO NAO PODE SER NULO OU MENOR E IGUAL A ZERO!");
         }
-
-        this.ean = new Ean(ean).getNumero();
-        this.nome = nome;
-        this.descricao = descricao;
-        this.preco = preco;
-        this.quantidade = new Quantidade(quantidade).getNumero();
     }
 
 }
@@ -0,0 +1,13 @@
+package com.fiap.techchallenge4.domain;
+
+public enum StatusItemLoteEnum {
+
+    CRIADO,
+    ATUALIZADO,
+    CONFLITO,
+    INVALIDO,
+    NAO_ENCONTRADO,
+    ERRO
+    ;
+
+}
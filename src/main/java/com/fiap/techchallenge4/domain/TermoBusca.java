@@ -0,0 +1,56 @@
+package com.fiap.techchallenge4.domain;
+
+import lombok.Getter;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+// Palavras do termo de busca: so letras e numeros, em minusculas, sem repeticao
+@Getter
+public class TermoBusca {
+
+    private static final Pattern PALAVRA = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final Pattern ACENTO = Pattern.compile("\\p{M}+");
+    private static final int MAXIMO_PALAVRAS = 8;
+
+    private List<String> palavras;
+
+    public TermoBusca(final String termo) {
+        if (Objects.isNull(termo) || termo.isBlank()) {
+            throw new IllegalArgumentException("TERMO DE BUSCA NAO PODE SER NULO OU VAZIO!");
+        }
+
+        final var palavras = PALAVRA.matcher(termo.toLowerCase(Locale.ROOT))
+                .results()
+                .map(palavra -> palavra.group())
+                .distinct()
+                .limit(MAXIMO_PALAVRAS)
+                .toList();
+        if (palavras.isEmpty()) {
+            throw new IllegalArgumentException("TERMO DE BUSCA DEVE TER AO MENOS UMA LETRA OU NUMERO!");
+        }
+
+        this.palavras = palavras;
+    }
+
+    // "Feijão" e "feijao" viram a mesma palavra; o indice de sugestoes usa nos nomes e nos termos
+    public List<String> getPalavrasSemAcento() {
+        return this.palavras.stream().map(TermoBusca::semAcento).distinct().toList();
+    }
+
+    public static List<String> palavrasSemAcento(final String texto) {
+        return PALAVRA.matcher(semAcento(texto.toLowerCase(Locale.ROOT)))
+                .results()
+                .map(palavra -> palavra.group())
+                .distinct()
+                .toList();
+    }
+
+    private static String semAcento(final String palavra) {
+        return ACENTO.matcher(Normalizer.normalize(palavra, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+}
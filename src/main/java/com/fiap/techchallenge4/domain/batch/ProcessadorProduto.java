@@ -1,6 +1,7 @@
 package com.fiap.techchallenge4.domain.batch;
 
 import com.fiap.techchallenge4.domain.Produto;
+import com.fiap.techchallenge4.infrastructure.batch.ProdutoImportado;
 import com.fiap.techchallenge4.infrastructure.model.ProdutoEntity;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.stereotype.Component;
@@ -12,13 +13,27 @@ public class ProcessadorProduto implements ItemProcessor<Produto, ProdutoEntity>
 
     @Override
     public ProdutoEntity process(Produto item) throws Exception {
-        return ProdutoEntity.builder()
-                .ean(item.getEan())
-                .nome(item.getNome())
-                .descricao(item.getDescricao())
-                .preco(item.getPreco())
-                .quantidade(item.getQuantidade())
+        final var produto = new Produto(
+                item.getEan(),
+                item.getNome(),
+                item.getDescricao(),
+                item.getPreco(),
+                item.getQuantidade()
+        );
+
+        final var produtoEntity = ProdutoEntity.builder()
+                .ean(produto.getEan())
+                .nome(produto.getNome())
+                .descricao(produto.getDescricao())
+                .preco(produto.getPreco())
+                .quantidade(produto.getQuantidade())
                 .dataDeCriacao(LocalDateTime.now())
                 .build();
+
+        if (item instanceof ProdutoImportado produtoImportado) {
+            produtoEntity.setArquivoDeOrigem(produtoImportado.getArquivo());
+            produtoEntity.setLinhaDeOrigem(produtoImportado.getLinha());
+        }
+        return produtoEntity;
     }
 }
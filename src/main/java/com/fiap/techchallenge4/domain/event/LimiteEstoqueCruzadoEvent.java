@@ -0,0 +1,5 @@
+package com.fiap.techchallenge4.domain.event;
+
+// Publicado quando uma gravacao leva o estoque de um produto para o limite ou abaixo dele (abaixo = true),
+// ou o tira de la (abaixo = false). Quem publica ja tem as quantidades de antes e depois em maos
+public record LimiteEstoqueCruzadoEvent(Long ean, long quantidade, long limite, boolean abaixo) {}
@@ -0,0 +1,23 @@
+package com.fiap.techchallenge4.domain.event;
+
+// Publicado pelo ProdutoEntityListener a cada gravacao de produto; quantidade nula indica que o produto foi removido
+// e importacao indica que a gravacao veio do job de importacao. O nome vai junto para o indice de sugestoes
+public record ProdutoAlteradoEvent(Long ean, Long quantidade, boolean importacao, String nome) {
+
+    public ProdutoAlteradoEvent(final Long ean, final Long quantidade) {
+        this(ean, quantidade, false);
+    }
+
+    public ProdutoAlteradoEvent(final Long ean, final Long quantidade, final boolean importacao) {
+        this(ean, quantidade, importacao, null);
+    }
+
+    public static ProdutoAlteradoEvent removido(final Long ean) {
+        return new ProdutoAlteradoEvent(ean, null);
+    }
+
+    public boolean foiRemovido() {
+        return this.quantidade == null;
+    }
+
+}
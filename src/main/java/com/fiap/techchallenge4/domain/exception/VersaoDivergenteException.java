@@ -0,0 +1,10 @@
+package com.fiap.techchallenge4.domain.exception;
+
+// O ETag informado pelo cliente (If-Match) nao e mais o do produto gravado
+public class VersaoDivergenteException extends RuntimeException {
+
+    public VersaoDivergenteException(final String mensagem) {
+        super(mensagem);
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.fiap.techchallenge4.infrastructure.agendamento;
+
+import com.fiap.techchallenge4.infrastructure.repository.LeaseAgendamentoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Lease no banco para que so uma replica execute cada disparo do agendamento.
+// Enquanto a tarefa roda o lease e renovado; ao terminar ele e mantido ate a duracao minima,
+// para que outra replica com o relogio um pouco atrasado nao execute o mesmo disparo.
+// Tarefas que so disparam um trabalho assincrono (o job de importacao) usam executaAteConcluir,
+// que segura o lease ate o future devolvido completar, sem prender a thread do agendamento
+@Component
+public class LeaseAgendamento implements DisposableBean {
+
+    private final LeaseAgendamentoRepository repository;
+    private final MeterRegistry meterRegistry;
+    private final Duration duracao;
+    private final Duration duracaoMinima;
+    private final Duration intervaloRenovacao;
+    private final String dono;
+    private final ScheduledExecutorService renovador;
+
+    public LeaseAgendamento(final LeaseAgendamentoRepository repository,
+                            final MeterRegistry meterRegistry,
+                            @Value("${app.agendamento.lease.duracao:PT10M}") final Duration duracao,
+                            @Value("${app.agendamento.lease.duracao-minima:PT1M}") final Duration duracaoMinima,
+                            @Value("${app.agendamento.lease.intervalo-renovacao:PT30S}") final Duration intervaloRenovacao) {
+        this.repository = repository;
+        this.meterRegistry = meterRegistry;
+        this.duracao = duracao;
+        this.duracaoMinima = duracaoMinima;
+        this.intervaloRenovacao = intervaloRenovacao;
+        this.dono = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID();
+        this.renovador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            final var thread = new Thread(tarefa, "lease-agendamento");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean executa(final String nome, final Runnable tarefa) {
+        return this.executaAteConcluir(nome, () -> {
+            tarefa.run();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    public boolean executaAteConcluir(final String nome, final Supplier<? extends CompletionStage<?>> tarefa) {
+        final var inicio = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        if (!this.adquire(nome, inicio)) {
+            System.out.println("Agendamento " + nome + " ja esta em execucao em outra replica");
+            this.meterRegistry.counter("agendamento.lease", "nome", nome, "resultado", "ignorado").increment();
+            return false;
+        }
+        this.meterRegistry.counter("agendamento.lease", "nome", nome, "resultado", "adquirido").increment();
+
+        final var renovacao = this.renovador.scheduleAtFixedRate(
+                () -> this.renova(nome, inicio, LocalDateTime.now().plus(this.duracao)),
+                this.intervaloRenovacao.toMillis(),
+                this.intervaloRenovacao.toMillis(),
+                TimeUnit.MILLISECONDS
+        );
+        final Runnable libera = () -> {
+            renovacao.cancel(false);
+            final var minimo = inicio.plus(this.duracaoMinima);
+            final var agora = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            this.renova(nome, inicio, agora.isAfter(minimo) ? agora : minimo);
+        };
+
+        final CompletionStage<?> fim;
+        try {
+            fim = tarefa.get();
+        } catch (RuntimeException e) {
+            libera.run();
+            throw e;
+        }
+        fim.whenComplete((resultado, erro) -> libera.run());
+        return true;
+    }
+
+    private boolean adquire(final String nome, final LocalDateTime agora) {
+        final var ate = agora.plus(this.duracao);
+        if (this.repository.adquire(nome, this.dono, agora, ate) > 0) {
+            return true;
+        }
+        try {
+            return this.repository.cria(nome, this.dono, agora, ate) > 0;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private void renova(final String nome, final LocalDateTime desde, final LocalDateTime ate) {
+        try {
+            if (this.repository.renova(nome, this.dono, desde, ate) == 0) {
+                System.out.println("Lease do agendamento " + nome + " foi perdido");
+                this.meterRegistry.counter("agendamento.lease", "nome", nome, "resultado", "perdido").increment();
+            }
+        } catch (Exception e) {
+            System.out.println("Erro ao renovar o lease do agendamento " + nome + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        this.renovador.shutdownNow();
+    }
+
+}
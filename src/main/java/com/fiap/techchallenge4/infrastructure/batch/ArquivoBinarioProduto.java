@@ -0,0 +1,70 @@
+package com.fiap.techchallenge4.infrastructure.batch;
+
+import com.fiap.techchallenge4.domain.Produto;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+// Formato binario de importacao (.prodbin, opcionalmente .prodbin.gz ou .prodbin.zst):
+// cabecalho "PRD2" e, para cada produto, um byte 1 seguido de ean, nome, descricao, escala do preco,
+// preco sem escala e quantidade. Os numeros sao varints zigzag (7 bits por byte, o bit alto indica que ha mais
+// um byte): um EAN de 13 digitos ocupa 7 bytes e quantidade e escala costumam ocupar 1, contra 8 e 4 de tamanho
+// fixo. Nome e descricao sao UTF-8 prefixados pelo tamanho em varint. Com isso um registro fica uns 10 bytes
+// menor que a linha do CSV equivalente. Um byte 0 fecha o arquivo, para que um arquivo truncado seja detectado
+public final class ArquivoBinarioProduto {
+
+    public static final String EXTENSAO = ".prodbin";
+    public static final int CABECALHO = 0x50524432;
+    public static final byte REGISTRO = 1;
+    public static final byte FIM = 0;
+    public static final int TAMANHO_MAXIMO_TEXTO = 65_535;
+
+    private ArquivoBinarioProduto() {
+    }
+
+    public static boolean ehBinario(final Resource recurso) {
+        final var nome = Objects.requireNonNullElse(recurso.getFilename(), "").toLowerCase();
+        return nome.endsWith(EXTENSAO) || nome.endsWith(EXTENSAO + ".gz") || nome.endsWith(EXTENSAO + ".zst");
+    }
+
+    public static void escreve(final OutputStream destino, final Iterable<? extends Produto> produtos) throws IOException {
+        final var saida = new DataOutputStream(new BufferedOutputStream(destino, 64 * 1024));
+        saida.writeInt(CABECALHO);
+        for (var produto : produtos) {
+            saida.writeByte(REGISTRO);
+            escreveNumero(saida, produto.getEan());
+            escreveTexto(saida, produto.getNome());
+            escreveTexto(saida, produto.getDescricao());
+            escreveNumero(saida, produto.getPreco().scale());
+            escreveNumero(saida, produto.getPreco().unscaledValue().longValueExact());
+            escreveNumero(saida, produto.getQuantidade());
+        }
+        saida.writeByte(FIM);
+        saida.flush();
+    }
+
+    // Zigzag leva os negativos para impares (-1 vira 1), para que numeros pequenos ocupem poucos bytes com sinal
+    private static void escreveNumero(final DataOutputStream saida, final long numero) throws IOException {
+        var restante = (numero << 1) ^ (numero >> 63);
+        while ((restante & ~0x7FL) != 0) {
+            saida.writeByte((int) ((restante & 0x7F) | 0x80));
+            restante >>>= 7;
+        }
+        saida.writeByte((int) restante);
+    }
+
+    private static void escreveTexto(final DataOutputStream saida, final String texto) throws IOException {
+        final var bytes = texto.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > TAMANHO_MAXIMO_TEXTO) {
+            throw new IllegalArgumentException("TEXTO MAIOR QUE " + TAMANHO_MAXIMO_TEXTO + " BYTES!");
+        }
+        escreveNumero(saida, bytes.length);
+        saida.write(bytes);
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.fiap.techchallenge4.infrastructure.batch;
+
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// Compara o arquivo atual com a copia da ultima importacao e separa so as linhas novas ou alteradas.
+// A copia anterior vira um conjunto de hashes de 64 bits, entao a memoria nao depende do tamanho das linhas.
+// A copia do arquivo atual fica como candidata e so substitui a anterior em confirma, depois que as
+// alteracoes foram importadas; se o disparo ou o job falhar, a proxima comparacao gera as mesmas alteracoes.
+// O arquivo de alteracoes comeca com um comentario (#, ignorado pelo reader) que entra no hash do conteudo:
+// as mesmas alteracoes geradas de novo depois de uma falha mantem a identificacao e retomam a importacao,
+// e alteracoes iguais de outro ciclo (um valor que volta ao anterior e muda de novo) sao outro arquivo
+public final class ArquivoDeAlteracoes {
+
+    private ArquivoDeAlteracoes() {
+    }
+
+    public static long gera(final Resource atual,
+                            final Path anterior,
+                            final Path alteracoes,
+                            final String cabecalho) {
+        final var hashesAnteriores = new ConjuntoDeHashes();
+        final var novoAnterior = candidata(anterior);
+        var linhasAlteradas = 0L;
+
+        try {
+            Files.createDirectories(anterior.getParent());
+            if (Files.exists(anterior)) {
+                try (var leitor = Files.newBufferedReader(anterior, StandardCharsets.UTF_8)) {
+                    String linha;
+                    while ((linha = leitor.readLine()) != null) {
+                        hashesAnteriores.adiciona(hash(linha));
+                    }
+                }
+            }
+
+            try (var leitor = new BufferedReader(new InputStreamReader(atual.getInputStream(), StandardCharsets.UTF_8));
+                 var escritorAlteracoes = Files.newBufferedWriter(alteracoes, StandardCharsets.UTF_8);
+                 var escritorAnterior = Files.newBufferedWriter(novoAnterior, StandardCharsets.UTF_8)) {
+                escritorAlteracoes.write("# " + cabecalho);
+                escritorAlteracoes.newLine();
+                String linha;
+                while ((linha = leitor.readLine()) != null) {
+                    escritorAnterior.write(linha);
+                    escritorAnterior.newLine();
+                    if (!linha.isBlank() && !hashesAnteriores.contem(hash(linha))) {
+                        escritorAlteracoes.write(linha);
+                        escritorAlteracoes.newLine();
+                        linhasAlteradas++;
+                    }
+                }
+            }
+            return linhasAlteradas;
+        } catch (IOException e) {
+            throw new UncheckedIOException("NAO FOI POSSIVEL GERAR O ARQUIVO DE ALTERACOES!", e);
+        }
+    }
+
+    public static void confirma(final Path anterior) {
+        try {
+            Files.move(candidata(anterior), anterior, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("NAO FOI POSSIVEL CONFIRMAR A COPIA DO ARQUIVO IMPORTADO!", e);
+        }
+    }
+
+    private static Path candidata(final Path anterior) {
+        return anterior.resolveSibling(anterior.getFileName() + ".tmp");
+    }
+
+    // FNV-1a de 64 bits
+    static long hash(final String linha) {
+        var hash = 0xcbf29ce484222325L;
+        for (var i = 0; i < linha.length(); i++) {
+            hash ^= linha.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static final class ConjuntoDeHashes {
+
+        private long[] tabela = new long[1024];
+        private int tamanho;
+
+        void adiciona(final long hash) {
+            if ((this.tamanho + 1) * 4L > this.tabela.length * 3L) {
+                this.redimensiona();
+            }
+            if (insere(this.tabela, hash)) {
+                this.tamanho++;
+            }
+        }
+
+        boolean contem(final long hash) {
+            final var mascara = this.tabela.length - 1;
+            var posicao = (int) (hash ^ (hash >>> 32)) & mascara;
+            while (this.tabela[posicao] != 0) {
+                if (this.tabela[posicao] == hash) {
+                    return true;
+                }
+                posicao = (posicao + 1) & mascara;
+            }
+            return false;
+        }
+
+        private void redimensiona() {
+            final var novaTabela = new long[this.tabela.length * 2];
+            for (var hash : this.tabela) {
+                if (hash != 0) {
+                    insere(novaTabela, hash);
+                }
+            }
+            this.tabela = novaTabela;
+        }
+
+        private static boolean insere(final long[] tabela, final long hash) {
+            final var mascara = tabela.length - 1;
+            var posicao = (int) (hash ^ (hash >>> 32)) & mascara;
+            while (tabela[posicao] != 0) {
+                if (tabela[posicao] == hash) {
+                    return false;
+                }
+                posicao = (posicao + 1) & mascara;
+            }
+            tabela[posicao] = hash;
+            return true;
+        }
+
+    }
+
+}
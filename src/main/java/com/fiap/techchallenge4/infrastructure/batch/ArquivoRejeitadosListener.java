@@ -0,0 +1,105 @@
+package com.fiap.techchallenge4.infrastructure.batch;
+
+import com.fiap.techchallenge4.domain.Produto;
+import com.fiap.techchallenge4.infrastructure.model.ProdutoEntity;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.file.FlatFileParseException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+
+// Grava cada linha rejeitada com o motivo, abrindo o arquivo so no primeiro descarte
+public class ArquivoRejeitadosListener implements SkipListener<Produto, ProdutoEntity>, StepExecutionListener {
+
+    public static final String CHAVE_ARQUIVO_REJEITADOS = "arquivoRejeitados";
+
+    private final Path diretorio;
+    private Path arquivo;
+    private BufferedWriter escritor;
+
+    public ArquivoRejeitadosListener(final Path diretorio) {
+        this.diretorio = diretorio;
+    }
+
+    @Override
+    public void beforeStep(final StepExecution stepExecution) {
+        this.arquivo = this.diretorio.resolve("rejeitados-" + stepExecution.getJobExecution().getJobId() + ".csv");
+    }
+
+    @Override
+    public void onSkipInRead(final Throwable t) {
+        if (t instanceof FlatFileParseException erro) {
+            this.registra(erro.getInput(), "linha " + erro.getLineNumber() + ": " + motivo(erro));
+            return;
+        }
+        this.registra("", motivo(t));
+    }
+
+    @Override
+    public void onSkipInProcess(final Produto item, final Throwable t) {
+        this.registra(linha(item.getEan(), item.getNome(), item.getDescricao(), item.getPreco(), item.getQuantidade()), motivo(t));
+    }
+
+    @Override
+    public void onSkipInWrite(final ProdutoEntity item, final Throwable t) {
+        this.registra(linha(item.getEan(), item.getNome(), item.getDescricao(), item.getPreco(), item.getQuantidade()), motivo(t));
+    }
+
+    @Override
+    public ExitStatus afterStep(final StepExecution stepExecution) {
+        if (Objects.nonNull(this.escritor)) {
+            try {
+                this.escritor.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                this.escritor = null;
+            }
+            stepExecution.getExecutionContext().putString(CHAVE_ARQUIVO_REJEITADOS, this.arquivo.toString());
+        }
+        return stepExecution.getExitStatus();
+    }
+
+    private void registra(final String conteudo, final String motivo) {
+        try {
+            if (Objects.isNull(this.escritor)) {
+                Files.createDirectories(this.diretorio);
+                this.escritor = Files.newBufferedWriter(this.arquivo, StandardCharsets.UTF_8, CREATE, APPEND);
+            }
+            this.escritor.write(conteudo);
+            this.escritor.write(';');
+            this.escritor.write(motivo);
+            this.escritor.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("NAO FOI POSSIVEL GRAVAR O ARQUIVO DE REJEITADOS!", e);
+        }
+    }
+
+    private static String linha(final Object... campos) {
+        final var linha = new StringBuilder();
+        for (var i = 0; i < campos.length; i++) {
+            if (i > 0) {
+                linha.append(',');
+            }
+            linha.append(Objects.toString(campos[i], ""));
+        }
+        return linha.toString();
+    }
+
+    private static String motivo(final Throwable t) {
+        final var causa = Objects.nonNull(t.getCause()) ? t.getCause() : t;
+        return Objects.toString(causa.getMessage(), causa.getClass().getSimpleName()).replace('\n', ' ');
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.fiap.techchallenge4.infrastructure.batch;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.UUID;
+
+// Os uploads ficam em <diretorio-base>/upload so enquanto servem: saem quando a importacao termina com sucesso
+// (LimpezaUploadListener) e, os que falharam e nao foram reenviados, depois de app.importacao.upload.retencao
+@Component
+public class ArquivosImportacao {
+
+    public static final String ARQUIVO_PADRAO = "classpath:produtos.csv";
+
+    private final Path diretorioBase;
+    private final Path diretorioUpload;
+    private final Duration retencaoUpload;
+
+    public ArquivosImportacao(@Value("${app.importacao.diretorio-base}") final String diretorioBase,
+                              @Value("${app.importacao.upload.retencao:P1D}") final Duration retencaoUpload) {
+        this.diretorioBase = Path.of(diretorioBase).toAbsolutePath().normalize();
+        this.diretorioUpload = this.diretorioBase.resolve("upload");
+        this.retencaoUpload = retencaoUpload;
+    }
+
+    public Path diretorio(final String nome) {
+        return this.diretorioBase.resolve(nome);
+    }
+
+    public String resolve(final String caminho) {
+        if (Objects.isNull(caminho) || caminho.isBlank()) {
+            throw new IllegalArgumentException("CAMINHO DO ARQUIVO NAO PODE SER NULO OU VAZIO!");
+        }
+
+        final var arquivo = this.diretorioBase.resolve(caminho).toAbsolutePath().normalize();
+        if (!arquivo.startsWith(this.diretorioBase)) {
+            throw new IllegalArgumentException("O ARQUIVO DEVE ESTAR DENTRO DO DIRETORIO DE IMPORTACAO!");
+        }
+        if (!Files.isReadable(arquivo)) {
+            throw new IllegalArgumentException("ARQUIVO DE IMPORTACAO NAO ENCONTRADO!");
+        }
+        return arquivo.toString();
+    }
+
+    // O Tomcat ja grava o upload em disco, o transferTo so move o arquivo temporario para o destino
+    public String armazena(final MultipartFile arquivo) {
+        if (Objects.isNull(arquivo) || arquivo.isEmpty()) {
+            throw new IllegalArgumentException("ARQUIVO NAO PODE SER NULO OU VAZIO!");
+        }
+
+        final var nomeOriginal = Path.of(Objects.requireNonNullElse(arquivo.getOriginalFilename(), "produtos.csv"))
+                .getFileName()
+                .toString();
+        try {
+            Files.createDirectories(this.diretorioUpload);
+            final var destino = this.diretorioUpload.resolve(UUID.randomUUID() + "-" + nomeOriginal);
+            arquivo.transferTo(destino);
+            return destino.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException("NAO FOI POSSIVEL ARMAZENAR O ARQUIVO DE IMPORTACAO!", e);
+        }
+    }
+
+    // Arquivos fora de upload (entrada, agendamento, classpath) nao sao deste controle
+    public void removeUpload(final String arquivo) {
+        if (Objects.isNull(arquivo) || arquivo.equals(ARQUIVO_PADRAO)) {
+            return;
+        }
+        final var caminho = Path.of(arquivo).toAbsolutePath().normalize();
+        if (!caminho.startsWith(this.diretorioUpload)) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(caminho);
+        } catch (IOException e) {
+            System.out.println("Não foi possível remover o upload " + caminho + ": " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.importacao.upload.intervalo-limpeza-ms:3600000}")
+    public void expiraUploads() {
+        if (!Files.isDirectory(this.diretorioUpload)) {
+            return;
+        }
+        final var limite = FileTime.from(Instant.now().minus(this.retencaoUpload));
+        try (var arquivos = Files.list(this.diretorioUpload)) {
+            arquivos.filter(Files::isRegularFile)
+                    .filter(arquivo -> {
+                        try {
+                            return Files.getLastModifiedTime(arquivo).compareTo(limite) < 0;
+                        } catch (IOException e) {
+                            return false;
+                        }
+                    })
+                    .forEach(arquivo -> this.removeUpload(arquivo.toString()));
+        } catch (IOException e) {
+            System.out.println("Não foi possível listar os uploads: " + e.getMessage());
+        }
+    }
+
+    public static String identificador(final String arquivo) {
+        final var identificadores = new StringBuilder();
+        for (var recurso : recursos(arquivo)) {
+            identificadores.append(((RecursoDescompactado) recurso).identificador());
+        }
+        return hash(identificadores.toString());
+    }
+
+    public static String hash(final String valor) {
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(valor.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static Resource[] recursos(final String arquivo) {
+        if (Objects.isNull(arquivo) || arquivo.equals(ARQUIVO_PADRAO)) {
+            return new Resource[] { new RecursoDescompactado(new ClassPathResource("produtos.csv")) };
+        }
+
+        final var caminho = Path.of(arquivo);
+        if (!Files.isDirectory(caminho)) {
+            return new Resource[] { new RecursoDescompactado(new FileSystemResource(caminho)) };
+        }
+
+        try (var arquivos = Files.list(caminho)) {
+            return arquivos
+                    .filter(Files::isRegularFile)
+                    .filter(item -> !item.getFileName().toString().startsWith("."))
+                    .sorted()
+                    .map(item -> new RecursoDescompactado(new FileSystemResource(item)))
+                    .toArray(Resource[]::new);
+        } catch (IOException e) {
+            throw new UncheckedIOException("NAO FOI POSSIVEL LISTAR O DIRETORIO DE IMPORTACAO!", e);
+        }
+    }
+
+}
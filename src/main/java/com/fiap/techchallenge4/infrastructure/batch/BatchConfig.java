@@ -4,29 +4,71 @@ import com.fiap.techchallenge4.domain.Produto;
 import com.fiap.techchallenge4.domain.batch.ProcessadorProduto;
 import com.fiap.techchallenge4.infrastructure.model.ProdutoEntity;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.SkipListener;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
-import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.MultiResourceItemReader;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.file.builder.MultiResourceItemReaderBuilder;
 import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import java.nio.file.Path;
+
 @Configuration
 public class BatchConfig {
 
+    @Bean
+    public ThreadPoolTaskExecutor importacaoTaskExecutor(@Value("${app.importacao.execucoes-simultaneas:2}") final int execucoesSimultaneas,
+                                                         @Value("${app.importacao.fila-maxima:10}") final int filaMaxima) {
+        final var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(execucoesSimultaneas);
+        executor.setMaxPoolSize(execucoesSimultaneas);
+        executor.setQueueCapacity(filaMaxima);
+        executor.setThreadNamePrefix("importacao-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    @Bean
+    public JobLauncher importacaoJobLauncher(JobRepository jobRepository,
+                                             ThreadPoolTaskExecutor importacaoTaskExecutor) throws Exception {
+        final var jobLauncher = new TaskExecutorJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.setTaskExecutor(importacaoTaskExecutor);
+        jobLauncher.afterPropertiesSet();
+        return jobLauncher;
+    }
+
     @Bean
     public Job importaProdutos(JobRepository jobRepository,
-                               Step step) {
+                               Step step,
+                               InvalidacaoCacheListener invalidacaoCacheListener,
+                               RecargaIndiceBuscaListener recargaIndiceBuscaListener,
+                               LimpezaUploadListener limpezaUploadListener,
+                               FimImportacaoListener fimImportacaoListener) {
         return new JobBuilder("importaProdutos", jobRepository)
-                .incrementer(new RunIdIncrementer())
+                .listener(invalidacaoCacheListener)
+                .listener(recargaIndiceBuscaListener)
+                .listener(limpezaUploadListener)
+                .listener(fimImportacaoListener)
                 .start(step)
                 .build();
     }
@@ -36,27 +78,56 @@ public class BatchConfig {
                      PlatformTransactionManager transactionManager,
                      ItemReader<Produto> reader,
                      ItemProcessor<Produto, ProdutoEntity> processor,
-                     ItemWriter<ProdutoEntity> writer) {
+                     ItemWriter<ProdutoEntity> writer,
+                     ArquivoRejeitadosListener rejeitadosListener,
+                     @Value("${app.importacao.limite-ignorados:1000}") final int limiteIgnorados,
+                     @Value("${app.importacao.tentativas:3}") final int tentativas,
+                     @Value("${app.importacao.espera-inicial-tentativa-ms:200}") final long esperaInicial) {
+        final var backOffPolicy = new ExponentialBackOffPolicy();
+        backOffPolicy.setInitialInterval(esperaInicial);
+
         return new StepBuilder("step", jobRepository)
                 .<Produto, ProdutoEntity>chunk(15, transactionManager)
                 .reader(reader)
                 .processor(processor)
                 .writer(writer)
+                .faultTolerant()
+                .skip(FlatFileParseException.class)
+                .skip(IllegalArgumentException.class)
+                .skipLimit(limiteIgnorados)
+                .retry(TransientDataAccessException.class)
+                .retry(RecoverableDataAccessException.class)
+                .retryLimit(tentativas)
+                .backOffPolicy(backOffPolicy)
+                .listener((SkipListener<Produto, ProdutoEntity>) rejeitadosListener)
+                .listener((StepExecutionListener) rejeitadosListener)
                 .build();
     }
 
     @Bean
-    public ItemReader<Produto> reader() {
+    @StepScope
+    public ArquivoRejeitadosListener rejeitadosListener(@Value("${app.importacao.diretorio-base}") final String diretorioBase) {
+        return new ArquivoRejeitadosListener(Path.of(diretorioBase, "rejeitados"));
+    }
+
+    @Bean
+    @StepScope
+    public MultiResourceItemReader<Produto> reader(@Value("#{jobParameters['arquivo']}") final String arquivo) {
         BeanWrapperFieldSetMapper<Produto> fieldSetMapper = new BeanWrapperFieldSetMapper<>();
-        fieldSetMapper.setTargetType(Produto.class);
+        fieldSetMapper.setTargetType(ProdutoImportado.class);
 
-        return new FlatFileItemReaderBuilder<Produto>()
+        final var leitorCsv = new FlatFileItemReaderBuilder<Produto>()
                 .name("productItemReader")
-                .resource(new ClassPathResource("produtos.csv"))
                 .delimited()
                 .names("ean", "nome", "descricao", "preco", "quantidade")
                 .fieldSetMapper(fieldSetMapper)
                 .build();
+
+        return new MultiResourceItemReaderBuilder<Produto>()
+                .name("arquivosItemReader")
+                .resources(ArquivosImportacao.recursos(arquivo))
+                .delegate(new LeitorPorFormato(leitorCsv, new LeitorBinarioProduto("productItemReader")))
+                .build();
     }
 
     @Bean
@@ -0,0 +1,54 @@
+package com.fiap.techchallenge4.infrastructure.batch;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+// O importacaoJobLauncher devolve a execucao assim que o job entra no executor; quem precisa do fim
+// (o lease do agendamento, por exemplo) pede aqui um future que completa com o status final do job
+@Component
+public class FimImportacaoListener implements JobExecutionListener {
+
+    private final JobExplorer jobExplorer;
+    private final Map<Long, CompletableFuture<BatchStatus>> aguardando = new ConcurrentHashMap<>();
+
+    public FimImportacaoListener(final JobExplorer jobExplorer) {
+        this.jobExplorer = jobExplorer;
+    }
+
+    public CompletableFuture<BatchStatus> aguarda(final Long id) {
+        if (Objects.isNull(id)) {
+            return CompletableFuture.completedFuture(BatchStatus.UNKNOWN);
+        }
+        final var fim = this.aguardando.computeIfAbsent(id, chave -> new CompletableFuture<>());
+
+        // O job pode ter terminado antes do future ser registrado
+        final var execucao = this.jobExplorer.getJobExecution(id);
+        if (Objects.isNull(execucao)) {
+            this.completa(id, BatchStatus.UNKNOWN);
+        } else if (!execucao.isRunning()) {
+            this.completa(id, execucao.getStatus());
+        }
+        return fim;
+    }
+
+    @Override
+    public void afterJob(final JobExecution jobExecution) {
+        this.completa(jobExecution.getId(), jobExecution.getStatus());
+    }
+
+    private void completa(final Long id, final BatchStatus status) {
+        final var fim = this.aguardando.remove(id);
+        if (Objects.nonNull(fim)) {
+            fim.complete(status);
+        }
+    }
+
+}
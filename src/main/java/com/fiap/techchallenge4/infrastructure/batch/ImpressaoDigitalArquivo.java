@@ -0,0 +1,43 @@
+package com.fiap.techchallenge4.infrastructure.batch;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public record ImpressaoDigitalArquivo(
+        long tamanho,
+        long modificadoEm
+) {
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    public static ImpressaoDigitalArquivo de(final Resource recurso) {
+        try {
+            return new ImpressaoDigitalArquivo(recurso.contentLength(), recurso.lastModified());
+        } catch (IOException e) {
+            throw new UncheckedIOException("NAO FOI POSSIVEL LER OS DADOS DO ARQUIVO DE IMPORTACAO!", e);
+        }
+    }
+
+    // Hash do conteudo lido em blocos, sem carregar o arquivo inteiro na memoria
+    public static String hashDoConteudo(final Resource recurso) {
+        try (var entrada = recurso.getInputStream()) {
+            final var digest = MessageDigest.getInstance("SHA-256");
+            final var buffer = new byte[TAMANHO_BUFFER];
+            int lidos;
+            while ((lidos = entrada.read(buffer)) != -1) {
+                digest.update(buffer, 0, lidos);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException("NAO FOI POSSIVEL LER O ARQUIVO DE IMPORTACAO!", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
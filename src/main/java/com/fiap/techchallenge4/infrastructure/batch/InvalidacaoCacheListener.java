@@ -0,0 +1,24 @@
+package com.fiap.techchallenge4.infrastructure.batch;
+
+import com.fiap.techchallenge4.infrastructure.cache.CacheProduto;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.stereotype.Component;
+
+// Invalida o cache de produtos uma vez ao fim da importacao, mesmo que ela falhe no meio:
+// os chunks ja gravados tambem alteraram produtos
+@Component
+public class InvalidacaoCacheListener implements JobExecutionListener {
+
+    private final CacheProduto cacheProduto;
+
+    public InvalidacaoCacheListener(final CacheProduto cacheProduto) {
+        this.cacheProduto = cacheProduto;
+    }
+
+    @Override
+    public void afterJob(final JobExecution jobExecution) {
+        this.cacheProduto.invalidaTodos();
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.fiap.techchallenge4.infrastructure.batch;
+
+import com.fiap.techchallenge4.domain.Produto;
+import org.springframework.batch.item.NonTransientResourceException;
+import org.springframework.batch.item.file.ResourceAwareItemReaderItemStream;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+// Le o formato de ArquivoBinarioProduto sem parse de texto. A validacao continua no ProcessadorProduto,
+// igual ao CSV, e a contagem de itens do AbstractItemCountingItemStreamItemReader permite retomar a leitura
+public class LeitorBinarioProduto extends AbstractItemCountingItemStreamItemReader<Produto>
+        implements ResourceAwareItemReaderItemStream<Produto> {
+
+    private Resource recurso;
+    private DataInputStream entrada;
+
+    public LeitorBinarioProduto(final String nome) {
+        this.setName(nome);
+    }
+
+    @Override
+    public void setResource(final Resource recurso) {
+        this.recurso = recurso;
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        // Bufferizado: os varints sao lidos byte a byte
+        this.entrada = new DataInputStream(new BufferedInputStream(this.recurso.getInputStream(), 64 * 1024));
+        if (this.entrada.readInt() != ArquivoBinarioProduto.CABECALHO) {
+            throw new NonTransientResourceException("ARQUIVO BINARIO INVALIDO: " + this.recurso.getDescription());
+        }
+    }
+
+    @Override
+    protected Produto doRead() throws Exception {
+        try {
+            final var marcador = this.entrada.readByte();
+            if (marcador == ArquivoBinarioProduto.FIM) {
+                return null;
+            }
+            if (marcador != ArquivoBinarioProduto.REGISTRO) {
+                throw new NonTransientResourceException("ARQUIVO BINARIO CORROMPIDO: " + this.recurso.getDescription());
+            }
+
+            final var produto = new ProdutoImportado();
+            produto.setEan(this.leNumero());
+            produto.setNome(this.leTexto());
+            produto.setDescricao(this.leTexto());
+            final var escala = this.leNumero();
+            if (escala != (int) escala) {
+                throw new NonTransientResourceException("ARQUIVO BINARIO CORROMPIDO: " + this.recurso.getDescription());
+            }
+            produto.setPreco(new BigDecimal(BigInteger.valueOf(this.leNumero()), (int) escala));
+            produto.setQuantidade(this.leNumero());
+            return produto;
+        } catch (EOFException e) {
+            throw new NonTransientResourceException("ARQUIVO BINARIO TRUNCADO: " + this.recurso.getDescription(), e);
+        }
+    }
+
+    // Varint zigzag de ArquivoBinarioProduto; um long ocupa no maximo 10 bytes
+    private long leNumero() throws IOException {
+        var resultado = 0L;
+        for (var deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+            final var parte = this.entrada.readByte();
+            resultado |= (long) (parte & 0x7F) << deslocamento;
+            if ((parte & 0x80) == 0) {
+                return (resultado >>> 1) ^ -(resultado & 1);
+            }
+        }
+        throw new NonTransientResourceException("ARQUIVO BINARIO CORROMPIDO: " + this.recurso.getDescription());
+    }
+
+    private String leTexto() throws IOException {
+        final var tamanho = this.leNumero();
+        if (tamanho < 0 || tamanho > ArquivoBinarioProduto.TAMANHO_MAXIMO_TEXTO) {
+            throw new NonTransientResourceException("ARQUIVO BINARIO CORROMPIDO: " + this.recurso.getDescription());
+        }
+        final var bytes = new byte[(int) tamanho];
+        this.entrada.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (this.entrada != null) {
+            this.entrada.close();
+            this.entrada = null;
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.fiap.techchallenge4.infrastructure.batch;
+
+import com.fiap.techchallenge4.domain.Produto;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.ResourceAwareItemReaderItemStream;
+import org.springframework.core.io.Resource;
+
+// Delegate do MultiResourceItemReader que escolhe o leitor pela extensao de cada arquivo.
+// Os dois leitores usam o mesmo nome, entao a posicao salva no ExecutionContext vale para qualquer formato
+public class LeitorPorFormato implements ResourceAwareItemReaderItemStream<Produto> {
+
+    private final ResourceAwareItemReaderItemStream<Produto> leitorCsv;
+    private final ResourceAwareItemReaderItemStream<Produto> leitorBinario;
+    private ResourceAwareItemReaderItemStream<Produto> atual;
+
+    public LeitorPorFormato(final ResourceAwareItemReaderItemStream<Produto> leitorCsv,
+                            final ResourceAwareItemReaderItemStream<Produto> leitorBinario) {
+        this.leitorCsv = leitorCsv;
+        this.leitorBinario = leitorBinario;
+        this.atual = leitorCsv;
+    }
+
+    @Override
+    public void setResource(final Resource recurso) {
+        this.atual = ArquivoBinarioProduto.ehBinario(recurso) ? this.leitorBinario : this.leitorCsv;
+        this.atual.setResource(recurso);
+    }
+
+    @Override
+    public Produto read() throws Exception {
+        return this.atual.read();
+    }
+
+    @Override
+    public void open(final ExecutionContext executionContext) {
+        this.atual.open(executionContext);
+    }
+
+    @Override
+    public void update(final ExecutionContext executionContext) {
+        this.atual.update(executionContext);
+    }
+
+    @Override
+    public void close() {
+        this.atual.close();
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.fiap.techchallenge4.infrastructure.batch;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.stereotype.Component;
+
+// Remove o upload importado com sucesso. Um upload que falhou fica para o restart ate expirar
+// (ArquivosImportacao.expiraUploads); reenviar o mesmo conteudo retoma a mesma instancia do job
+@Component
+public class LimpezaUploadListener implements JobExecutionListener {
+
+    private final ArquivosImportacao arquivosImportacao;
+
+    public LimpezaUploadListener(final ArquivosImportacao arquivosImportacao) {
+        this.arquivosImportacao = arquivosImportacao;
+    }
+
+    @Override
+    public void afterJob(final JobExecution jobExecution) {
+        if (jobExecution.getStatus() == BatchStatus.COMPLETED) {
+            this.arquivosImportacao.removeUpload(jobExecution.getJobParameters().getString("arquivo"));
+        }
+    }
+
+}
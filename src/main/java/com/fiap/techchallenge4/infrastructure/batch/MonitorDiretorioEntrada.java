@@ -0,0 +1,300 @@
+package com.fiap.techchallenge4.infrastructure.batch;
+
+import com.fiap.techchallenge4.useCase.ProdutoUseCase;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Importa os arquivos deixados em <diretorio-base>/entrada assim que chegam.
+// Cada arquivo e movido para processando antes do job (o move atomico e a "posse" do arquivo,
+// entao varias replicas podem observar o mesmo diretorio) e depois para processados ou falhos.
+// Quem grava na entrada deve gravar com outro nome (.tmp, .part ou oculto) e renomear ao terminar.
+// Um arquivo que ficou em processando (a replica caiu no meio) e retomado na subida e nas varreduras, quando
+// nenhuma execucao do job para o mesmo conteudo esta ativa: a identificacao e o hash do conteudo, entao o
+// restart continua da ultima linha gravada
+@Component
+@ConditionalOnProperty(name = "app.importacao.entrada.habilitado", havingValue = "true")
+public class MonitorDiretorioEntrada implements DisposableBean {
+
+    private static final String JOB = "importaProdutos";
+
+    private final ProdutoUseCase service;
+    private final JobExplorer jobExplorer;
+    private final JobRepository jobRepository;
+    private final Path entrada;
+    private final Path processando;
+    private final Path processados;
+    private final Path falhos;
+    private final long estabilidadeMs;
+    private final long intervaloVerificacaoMs;
+    private final long esperaRecuperacaoMs;
+    private final ExecutorService importacoes;
+    private final Set<Path> emAndamento = ConcurrentHashMap.newKeySet();
+    private volatile WatchService watchService;
+    private volatile boolean ativo;
+
+    public MonitorDiretorioEntrada(final ProdutoUseCase service,
+                                   final JobExplorer jobExplorer,
+                                   final JobRepository jobRepository,
+                                   final ArquivosImportacao arquivosImportacao,
+                                   @Value("${app.importacao.entrada.execucoes-simultaneas:2}") final int execucoesSimultaneas,
+                                   @Value("${app.importacao.entrada.estabilidade-ms:1000}") final long estabilidadeMs,
+                                   @Value("${app.importacao.entrada.intervalo-verificacao-ms:1000}") final long intervaloVerificacaoMs,
+                                   @Value("${app.importacao.entrada.espera-recuperacao-ms:300000}") final long esperaRecuperacaoMs) {
+        this.service = service;
+        this.jobExplorer = jobExplorer;
+        this.jobRepository = jobRepository;
+        this.entrada = arquivosImportacao.diretorio("entrada");
+        this.processando = arquivosImportacao.diretorio("processando");
+        this.processados = arquivosImportacao.diretorio("processados");
+        this.falhos = arquivosImportacao.diretorio("falhos");
+        this.estabilidadeMs = estabilidadeMs;
+        this.intervaloVerificacaoMs = intervaloVerificacaoMs;
+        this.esperaRecuperacaoMs = esperaRecuperacaoMs;
+        this.importacoes = Executors.newFixedThreadPool(execucoesSimultaneas, tarefa -> {
+            final var thread = new Thread(tarefa, "importacao-entrada");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicia() throws IOException {
+        for (var diretorio : new Path[] { this.entrada, this.processando, this.processados, this.falhos }) {
+            Files.createDirectories(diretorio);
+        }
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.entrada.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.ativo = true;
+        this.recuperaProcessando();
+
+        final var observador = new Thread(this::observa, "monitor-diretorio-entrada");
+        observador.setDaemon(true);
+        observador.start();
+        System.out.println("Observando novos arquivos de importação em " + this.entrada);
+    }
+
+    // O evento so acorda a varredura: arquivos que ainda estao sendo gravados, que ja estavam
+    // no diretorio na subida ou que se perderam num OVERFLOW sao pegos pela listagem
+    private void observa() {
+        while (this.ativo) {
+            try {
+                final var chave = this.watchService.poll(this.intervaloVerificacaoMs, TimeUnit.MILLISECONDS);
+                if (Objects.nonNull(chave)) {
+                    chave.pollEvents();
+                    chave.reset();
+                }
+                this.varre();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            } catch (Exception e) {
+                System.out.println("Erro ao verificar o diretório de entrada: " + e.getMessage());
+            }
+        }
+    }
+
+    public void varre() {
+        this.recuperaProcessando();
+        final var limite = System.currentTimeMillis() - this.estabilidadeMs;
+        try (var arquivos = Files.list(this.entrada)) {
+            arquivos.filter(Files::isRegularFile)
+                    .filter(MonitorDiretorioEntrada::arquivoCompleto)
+                    .filter(arquivo -> ultimaModificacao(arquivo) <= limite)
+                    .sorted()
+                    .filter(this.emAndamento::add)
+                    .forEach(arquivo -> this.importacoes.execute(() -> {
+                        try {
+                            this.processa(arquivo);
+                        } finally {
+                            this.emAndamento.remove(arquivo);
+                        }
+                    }));
+        } catch (IOException e) {
+            throw new UncheckedIOException("NAO FOI POSSIVEL LISTAR O DIRETORIO DE ENTRADA!", e);
+        }
+    }
+
+    // A data de modificacao do arquivo em processando e a hora em que ele foi pego (ver processa): antes de
+    // espera-recuperacao a replica que o pegou pode ainda estar disparando o job
+    public void recuperaProcessando() {
+        final var limite = System.currentTimeMillis() - this.esperaRecuperacaoMs;
+        try (var arquivos = Files.list(this.processando)) {
+            arquivos.filter(Files::isRegularFile)
+                    .filter(arquivo -> ultimaModificacao(arquivo) <= limite)
+                    .sorted()
+                    .filter(this.emAndamento::add)
+                    .forEach(arquivo -> {
+                        if (!this.abandonado(arquivo)) {
+                            this.emAndamento.remove(arquivo);
+                            return;
+                        }
+                        System.out.println("Retomando a importação do arquivo " + arquivo.getFileName());
+                        this.importacoes.execute(() -> {
+                            try {
+                                this.importa(arquivo);
+                            } finally {
+                                this.emAndamento.remove(arquivo);
+                            }
+                        });
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException("NAO FOI POSSIVEL LISTAR O DIRETORIO DE PROCESSAMENTO!", e);
+        }
+    }
+
+    // Uma execucao STARTED sem atualizacao ha mais de espera-recuperacao e de uma replica que caiu: fica FAILED,
+    // senao o restart seria recusado como execucao em andamento
+    private boolean abandonado(final Path arquivo) {
+        final String identificador;
+        try {
+            identificador = ArquivosImportacao.identificador(arquivo.toString());
+        } catch (UncheckedIOException e) {
+            return false;
+        }
+        final var limite = LocalDateTime.now().minus(Duration.ofMillis(this.esperaRecuperacaoMs));
+        for (var execucao : this.jobExplorer.findRunningJobExecutions(JOB)) {
+            if (!identificador.equals(execucao.getJobParameters().getString("identificador"))) {
+                continue;
+            }
+            if (ultimaAtualizacao(execucao).isAfter(limite)) {
+                return false;
+            }
+            this.marcaComoFalha(execucao);
+        }
+        return true;
+    }
+
+    private static LocalDateTime ultimaAtualizacao(final JobExecution execucao) {
+        var ultima = Objects.requireNonNullElse(execucao.getLastUpdated(), execucao.getCreateTime());
+        for (var passo : execucao.getStepExecutions()) {
+            if (Objects.nonNull(passo.getLastUpdated()) && passo.getLastUpdated().isAfter(ultima)) {
+                ultima = passo.getLastUpdated();
+            }
+        }
+        return ultima;
+    }
+
+    private void marcaComoFalha(final JobExecution execucao) {
+        final var agora = LocalDateTime.now();
+        for (var passo : execucao.getStepExecutions()) {
+            if (passo.getStatus().isRunning()) {
+                passo.setStatus(BatchStatus.FAILED);
+                passo.setExitStatus(ExitStatus.FAILED);
+                passo.setEndTime(agora);
+                this.jobRepository.update(passo);
+            }
+        }
+        execucao.setStatus(BatchStatus.FAILED);
+        execucao.setExitStatus(ExitStatus.FAILED.addExitDescription("EXECUCAO ABANDONADA"));
+        execucao.setEndTime(agora);
+        this.jobRepository.update(execucao);
+    }
+
+    public void processa(final Path arquivo) {
+        final var emProcessamento = this.processando.resolve(arquivo.getFileName());
+        try {
+            Files.move(arquivo, emProcessamento, StandardCopyOption.ATOMIC_MOVE);
+            Files.setLastModifiedTime(emProcessamento, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (NoSuchFileException e) {
+            // Outra replica pegou o arquivo primeiro
+            return;
+        } catch (IOException e) {
+            System.out.println("Não foi possível mover o arquivo " + arquivo + ": " + e.getMessage());
+            return;
+        }
+        this.emAndamento.add(emProcessamento);
+        try {
+            this.importa(emProcessamento);
+        } finally {
+            this.emAndamento.remove(emProcessamento);
+        }
+    }
+
+    private void importa(final Path emProcessamento) {
+        Long id = null;
+        var status = BatchStatus.FAILED;
+        try {
+            id = this.service.importa(emProcessamento.toString());
+            status = this.aguardaFinalizacao(id);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            System.out.println("Erro ao importar o arquivo " + emProcessamento + ": " + e.getMessage());
+        }
+
+        final var destino = status == BatchStatus.COMPLETED ? this.processados : this.falhos;
+        final var nome = (Objects.nonNull(id) ? id + "-" : "") + emProcessamento.getFileName();
+        try {
+            Files.move(emProcessamento, destino.resolve(nome), StandardCopyOption.ATOMIC_MOVE);
+            System.out.println("Arquivo " + emProcessamento.getFileName() + " importado com status " + status);
+        } catch (IOException e) {
+            System.out.println("Não foi possível mover o arquivo " + emProcessamento + ": " + e.getMessage());
+        }
+    }
+
+    private BatchStatus aguardaFinalizacao(final Long id) throws InterruptedException {
+        while (true) {
+            final var status = this.service.statusImportacao(id);
+            if (Objects.isNull(status)) {
+                return BatchStatus.UNKNOWN;
+            }
+            final var batchStatus = BatchStatus.valueOf(status.status());
+            if (!batchStatus.isRunning()) {
+                return batchStatus;
+            }
+            Thread.sleep(this.intervaloVerificacaoMs);
+        }
+    }
+
+    private static boolean arquivoCompleto(final Path arquivo) {
+        final var nome = arquivo.getFileName().toString();
+        return !nome.startsWith(".") && !nome.endsWith(".tmp") && !nome.endsWith(".part");
+    }
+
+    private static long ultimaModificacao(final Path arquivo) {
+        try {
+            return Files.getLastModifiedTime(arquivo).toMillis();
+        } catch (IOException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        this.ativo = false;
+        this.importacoes.shutdownNow();
+        if (Objects.nonNull(this.watchService)) {
+            this.watchService.close();
+        }
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.fiap.techchallenge4.infrastructure.batch;
+
+import com.fiap.techchallenge4.domain.Produto;
+import lombok.Getter;
+import org.springframework.batch.item.ItemCountAware;
+import org.springframework.batch.item.ResourceAware;
+import org.springframework.core.io.Resource;
+
+// Produto lido do arquivo, com o arquivo e a linha de origem preenchidos pelo reader
+@Getter
+public class ProdutoImportado extends Produto implements ItemCountAware, ResourceAware {
+
+    private String arquivo;
+    private int linha;
+
+    @Override
+    public void setItemCount(final int count) {
+        this.linha = count;
+    }
+
+    @Override
+    public void setResource(final Resource resource) {
+        if (resource instanceof RecursoDescompactado recurso) {
+            this.arquivo = recurso.identificador();
+        }
+    }
+
+}
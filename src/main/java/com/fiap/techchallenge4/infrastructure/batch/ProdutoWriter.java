@@ -1,30 +1,98 @@
 package com.fiap.techchallenge4.infrastructure.batch;
 
+import com.fiap.techchallenge4.domain.MotivoMovimentoEstoqueEnum;
+import com.fiap.techchallenge4.infrastructure.estoque.AlertaEstoqueBaixo;
+import com.fiap.techchallenge4.infrastructure.model.ImportacaoArquivoEntity;
+import com.fiap.techchallenge4.infrastructure.model.MovimentoEstoqueEntity;
 import com.fiap.techchallenge4.infrastructure.model.ProdutoEntity;
+import com.fiap.techchallenge4.infrastructure.repository.ImportacaoArquivoRepository;
+import com.fiap.techchallenge4.infrastructure.repository.MovimentoEstoqueRepository;
 import com.fiap.techchallenge4.infrastructure.repository.ProdutoRepository;
 import org.springframework.batch.item.Chunk;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Component
 public class ProdutoWriter implements ItemWriter<ProdutoEntity> {
 
     private final ProdutoRepository repository;
+    private final ImportacaoArquivoRepository importacaoArquivoRepository;
+    private final MovimentoEstoqueRepository movimentoEstoqueRepository;
+    private final AlertaEstoqueBaixo alertaEstoqueBaixo;
 
-    public ProdutoWriter(final ProdutoRepository repository) {
+    public ProdutoWriter(final ProdutoRepository repository,
+                         final ImportacaoArquivoRepository importacaoArquivoRepository,
+                         final MovimentoEstoqueRepository movimentoEstoqueRepository,
+                         final AlertaEstoqueBaixo alertaEstoqueBaixo) {
         this.repository = repository;
+        this.importacaoArquivoRepository = importacaoArquivoRepository;
+        this.movimentoEstoqueRepository = movimentoEstoqueRepository;
+        this.alertaEstoqueBaixo = alertaEstoqueBaixo;
     }
 
+    // A ultima linha aplicada de cada arquivo e gravada na mesma transacao do chunk,
+    // assim um restart ou uma nova execucao do mesmo arquivo nao soma a quantidade de novo
     @Override
     public void write(Chunk<? extends ProdutoEntity> chunk) throws Exception {
-        chunk.getItems().forEach(produto -> {
-            this.repository.findById(produto.getEan())
-                    .ifPresentOrElse(produtoNaBase -> {
-                        produto.setQuantidade(produto.getQuantidade() + produtoNaBase.getQuantidade());
-                        this.repository.save(produto);
-                    },
-                    () -> this.repository.save(produto)
-            );
+        final var importacoes = this.importacaoArquivoRepository.findAllById(
+                chunk.getItems().stream()
+                        .map(ProdutoEntity::getArquivoDeOrigem)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet())
+        )
+                .stream()
+                .collect(Collectors.toMap(ImportacaoArquivoEntity::getIdentificador, Function.identity()));
+
+        final var produtos = chunk.getItems().stream()
+                .filter(produto -> {
+                    final var importacao = importacoes.get(produto.getArquivoDeOrigem());
+                    return Objects.isNull(importacao) || produto.getLinhaDeOrigem() > importacao.getUltimaLinha();
+                })
+                .toList();
+
+        final var produtosNaBase = new HashMap<Long, ProdutoEntity>();
+        this.repository.findAllById(produtos.stream().map(ProdutoEntity::getEan).toList())
+                .forEach(produtoNaBase -> produtosNaBase.put(produtoNaBase.getEan(), produtoNaBase));
+
+        final var movimentos = new ArrayList<MovimentoEstoqueEntity>(produtos.size());
+        produtos.forEach(produto -> {
+            movimentos.add(new MovimentoEstoqueEntity(
+                    produto.getEan(),
+                    produto.getQuantidade(),
+                    MotivoMovimentoEstoqueEnum.IMPORTACAO,
+                    Objects.nonNull(produto.getArquivoDeOrigem())
+                            ? produto.getArquivoDeOrigem() + ":" + produto.getLinhaDeOrigem()
+                            : "importacao"
+            ));
+            final var produtoNaBase = produtosNaBase.get(produto.getEan());
+            if (Objects.nonNull(produtoNaBase)) {
+                produto.setQuantidade(produto.getQuantidade() + produtoNaBase.getQuantidade());
+                produto.setVersao(produtoNaBase.getVersao());
+                produto.setDataDeCriacao(produtoNaBase.getDataDeCriacao());
+                this.alertaEstoqueBaixo.verifica(produto.getEan(), produtoNaBase.getQuantidade(), produto.getQuantidade());
+            } else {
+                produto.setNovo(true);
+            }
+            produtosNaBase.put(produto.getEan(), this.repository.save(produto));
+
+            if (Objects.nonNull(produto.getArquivoDeOrigem())) {
+                final var importacao = importacoes.computeIfAbsent(
+                        produto.getArquivoDeOrigem(),
+                        arquivo -> new ImportacaoArquivoEntity(arquivo, 0, null)
+                );
+                importacao.setUltimaLinha(Math.max(importacao.getUltimaLinha(), produto.getLinhaDeOrigem()));
+                importacao.setDataDeAtualizacao(LocalDateTime.now());
+            }
         });
+
+        this.movimentoEstoqueRepository.saveAll(movimentos);
+        this.importacaoArquivoRepository.saveAll(importacoes.values());
     }
 }
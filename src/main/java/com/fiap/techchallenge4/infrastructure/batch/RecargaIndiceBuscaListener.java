@@ -0,0 +1,24 @@
+package com.fiap.techchallenge4.infrastructure.batch;
+
+import com.fiap.techchallenge4.infrastructure.busca.IndiceBuscaProduto;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.stereotype.Component;
+
+// Recarrega o indice de sugestoes ao fim da importacao, mesmo que ela falhe no meio:
+// os chunks ja gravados tambem alteraram produtos
+@Component
+public class RecargaIndiceBuscaListener implements JobExecutionListener {
+
+    private final IndiceBuscaProduto indiceBuscaProduto;
+
+    public RecargaIndiceBuscaListener(final IndiceBuscaProduto indiceBuscaProduto) {
+        this.indiceBuscaProduto = indiceBuscaProduto;
+    }
+
+    @Override
+    public void afterJob(final JobExecution jobExecution) {
+        this.indiceBuscaProduto.recarrega();
+    }
+
+}
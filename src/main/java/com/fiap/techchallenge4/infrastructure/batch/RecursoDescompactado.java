@@ -0,0 +1,87 @@
+package com.fiap.techchallenge4.infrastructure.batch;
+
+import com.github.luben.zstd.ZstdInputStream;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+
+public class RecursoDescompactado extends AbstractResource {
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private final Resource recurso;
+    private String identificador;
+
+    public RecursoDescompactado(final Resource recurso) {
+        this.recurso = recurso;
+    }
+
+    // Identifica o arquivo pelo SHA-256 do conteudo como foi gravado (antes de descompactar): o mesmo conteudo
+    // com outro nome, caminho ou data e o mesmo arquivo, e um conteudo diferente nunca herda o progresso de outro
+    public String identificador() {
+        if (Objects.isNull(this.identificador)) {
+            this.identificador = ImpressaoDigitalArquivo.hashDoConteudo(this.recurso);
+        }
+        return this.identificador;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        final var entrada = new BufferedInputStream(this.recurso.getInputStream(), TAMANHO_BUFFER);
+        final var nome = Objects.requireNonNullElse(this.recurso.getFilename(), "").toLowerCase();
+        if (nome.endsWith(".gz")) {
+            return new GZIPInputStream(entrada, TAMANHO_BUFFER);
+        }
+        if (nome.endsWith(".zst")) {
+            return new BufferedInputStream(new ZstdInputStream(entrada), TAMANHO_BUFFER);
+        }
+        return entrada;
+    }
+
+    @Override
+    public boolean exists() {
+        return this.recurso.exists();
+    }
+
+    @Override
+    public boolean isReadable() {
+        return this.recurso.isReadable();
+    }
+
+    @Override
+    public String getFilename() {
+        return this.recurso.getFilename();
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return this.recurso.contentLength();
+    }
+
+    @Override
+    public long lastModified() throws IOException {
+        return this.recurso.lastModified();
+    }
+
+    @Override
+    public String getDescription() {
+        return this.recurso.getDescription();
+    }
+
+    @Override
+    public boolean equals(final Object outro) {
+        return this == outro
+                || (outro instanceof RecursoDescompactado recursoDescompactado && this.recurso.equals(recursoDescompactado.recurso));
+    }
+
+    @Override
+    public int hashCode() {
+        return this.recurso.hashCode();
+    }
+
+}
@@ -0,0 +1,290 @@
+package com.fiap.techchallenge4.infrastructure.busca;
+
+import com.fiap.techchallenge4.domain.TermoBusca;
+import com.fiap.techchallenge4.domain.event.ProdutoAlteradoEvent;
+import com.fiap.techchallenge4.infrastructure.controller.dto.SugestaoProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.repository.ProdutoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+// Indice invertido dos nomes dos produtos em memoria, para as sugestoes (autocomplete) sem ir ao banco.
+// A base e imutavel: as palavras sem acento ordenadas, cada uma com os EANs num long[] ordenado, e o prefixo
+// e uma busca binaria no vetor de palavras. As alteracoes chegam pelos ProdutoAlteradoEvent depois do commit
+// e ficam num mapa pequeno por cima da base, que e remontada quando ele passa do limite. A leitura nao usa lock:
+// o estado e trocado inteiro. A importacao e as outras instancias aparecem na recarga
+@Component
+public class IndiceBuscaProduto implements ApplicationRunner {
+
+    private static final int TAMANHO_PAGINA = 10_000;
+    private static final long[] NENHUM = new long[0];
+
+    private final ProdutoRepository repository;
+    private final int limiteAlteracoes;
+    private volatile Estado estado = new Estado(Base.monta(Map.of()), Map.of(), false);
+    private List<ProdutoAlteradoEvent> alteracoesDuranteRecarga;
+
+    public IndiceBuscaProduto(final ProdutoRepository repository,
+                              @Value("${app.produto.sugestoes.limite-alteracoes:1000}") final int limiteAlteracoes) {
+        this.repository = repository;
+        this.limiteAlteracoes = limiteAlteracoes;
+    }
+
+    @Override
+    public void run(final ApplicationArguments args) {
+        this.recarrega();
+    }
+
+    // Falso ate a primeira recarga terminar: quem chama deve buscar no banco
+    public boolean carregado() {
+        return this.estado.carregado();
+    }
+
+    // Produtos cujo nome tem, para cada palavra, uma palavra comecando com ela; na ordem do EAN
+    public List<SugestaoProdutoDTO> sugere(final List<String> palavras, final int limite) {
+        final var atual = this.estado;
+        final var daBase = atual.base().busca(palavras);
+        final var alterados = atual.alterados().entrySet().stream()
+                .filter(alterado -> Objects.nonNull(alterado.getValue()) && alterado.getValue().contemTodas(palavras))
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+
+        final var sugestoes = new ArrayList<SugestaoProdutoDTO>(limite);
+        var i = 0;
+        var j = 0;
+        while (sugestoes.size() < limite && (i < daBase.length || j < alterados.size())) {
+            if (j < alterados.size() && (i >= daBase.length || alterados.get(j) <= daBase[i])) {
+                final var ean = alterados.get(j++);
+                sugestoes.add(new SugestaoProdutoDTO(ean, atual.alterados().get(ean).nome()));
+            } else {
+                final var ean = daBase[i++];
+                if (!atual.alterados().containsKey(ean)) {
+                    sugestoes.add(new SugestaoProdutoDTO(ean, atual.base().nomes().get(ean)));
+                }
+            }
+        }
+        return sugestoes;
+    }
+
+    // A importacao grava sem avisar produto a produto: o RecargaIndiceBuscaListener recarrega ao fim do job
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void aoAlterarProduto(final ProdutoAlteradoEvent evento) {
+        if (evento.importacao() || (!evento.foiRemovido() && Objects.isNull(evento.nome()))) {
+            return;
+        }
+        this.aplica(evento);
+        if (Objects.nonNull(this.alteracoesDuranteRecarga)) {
+            this.alteracoesDuranteRecarga.add(evento);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.produto.sugestoes.intervalo-recarga-ms:300000}",
+            fixedDelayString = "${app.produto.sugestoes.intervalo-recarga-ms:300000}")
+    public void recarrega() {
+        synchronized (this) {
+            this.alteracoesDuranteRecarga = new ArrayList<>();
+        }
+
+        final var nomes = new HashMap<Long, String>();
+        try {
+            var ultimoEan = 0L;
+            while (true) {
+                final var pagina = this.repository.buscaNomes(ultimoEan, PageRequest.ofSize(TAMANHO_PAGINA));
+                for (var produto : pagina) {
+                    if (Objects.nonNull(produto.getNome())) {
+                        nomes.put(produto.getEan(), produto.getNome());
+                    }
+                    ultimoEan = produto.getEan();
+                }
+                if (pagina.size() < TAMANHO_PAGINA) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                this.alteracoesDuranteRecarga = null;
+            }
+            System.out.println("Não foi possível recarregar o índice de busca: " + e.getMessage());
+            return;
+        }
+
+        final var base = Base.monta(nomes);
+        // Eventos que chegaram durante a leitura podem ser mais novos que o que foi lido
+        synchronized (this) {
+            this.estado = new Estado(base, Map.of(), true);
+            for (var evento : this.alteracoesDuranteRecarga) {
+                this.aplica(evento);
+            }
+            this.alteracoesDuranteRecarga = null;
+        }
+        System.out.println("Índice de busca carregado com " + nomes.size() + " produtos");
+    }
+
+    private void aplica(final ProdutoAlteradoEvent evento) {
+        final var atual = this.estado;
+        final var nome = evento.foiRemovido() ? null : evento.nome();
+        // A maioria das gravacoes so muda o estoque
+        if (Objects.equals(atual.nome(evento.ean()), nome)) {
+            return;
+        }
+
+        final var alterados = new HashMap<>(atual.alterados());
+        alterados.put(evento.ean(), Objects.isNull(nome) ? null : new Documento(nome, TermoBusca.palavrasSemAcento(nome)));
+        if (alterados.size() <= this.limiteAlteracoes) {
+            this.estado = new Estado(atual.base(), Collections.unmodifiableMap(alterados), atual.carregado());
+            return;
+        }
+
+        final var nomes = new HashMap<>(atual.base().nomes());
+        alterados.forEach((ean, documento) -> {
+            if (Objects.isNull(documento)) {
+                nomes.remove(ean);
+            } else {
+                nomes.put(ean, documento.nome());
+            }
+        });
+        this.estado = new Estado(Base.monta(nomes), Map.of(), atual.carregado());
+    }
+
+    // alterados: EAN -> nome gravado depois da montagem da base, ou null se o produto foi removido
+    private record Estado(Base base, Map<Long, Documento> alterados, boolean carregado) {
+
+        private String nome(final Long ean) {
+            if (this.alterados.containsKey(ean)) {
+                final var documento = this.alterados.get(ean);
+                return Objects.isNull(documento) ? null : documento.nome();
+            }
+            return this.base.nomes().get(ean);
+        }
+
+    }
+
+    private record Documento(String nome, List<String> palavras) {
+
+        private boolean contemTodas(final List<String> prefixos) {
+            return prefixos.stream().allMatch(prefixo -> this.palavras.stream().anyMatch(palavra -> palavra.startsWith(prefixo)));
+        }
+
+    }
+
+    private record Base(String[] palavras, long[][] eans, Map<Long, String> nomes) {
+
+        // Percorrendo os produtos na ordem do EAN cada lista de EANs ja sai ordenada
+        private static Base monta(final Map<Long, String> nomes) {
+            final var listas = new TreeMap<String, Lista>();
+            final var eans = nomes.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            for (var ean : eans) {
+                for (var palavra : TermoBusca.palavrasSemAcento(nomes.get(ean))) {
+                    listas.computeIfAbsent(palavra, ignorada -> new Lista()).adiciona(ean);
+                }
+            }
+
+            final var palavras = new String[listas.size()];
+            final var postagens = new long[listas.size()][];
+            var i = 0;
+            for (var lista : listas.entrySet()) {
+                palavras[i] = lista.getKey();
+                postagens[i] = lista.getValue().compacta();
+                i++;
+            }
+            return new Base(palavras, postagens, Map.copyOf(nomes));
+        }
+
+        private long[] busca(final List<String> prefixos) {
+            long[] resultado = null;
+            for (var prefixo : prefixos) {
+                final var comPrefixo = this.comPrefixo(prefixo);
+                resultado = Objects.isNull(resultado) ? comPrefixo : intersecao(resultado, comPrefixo);
+                if (resultado.length == 0) {
+                    break;
+                }
+            }
+            return Objects.isNull(resultado) ? NENHUM : resultado;
+        }
+
+        // As palavras com o prefixo ficam juntas no vetor ordenado, a partir do ponto de insercao do prefixo
+        private long[] comPrefixo(final String prefixo) {
+            var inicio = Arrays.binarySearch(this.palavras, prefixo);
+            if (inicio < 0) {
+                inicio = -inicio - 1;
+            }
+            var fim = inicio;
+            var total = 0;
+            while (fim < this.palavras.length && this.palavras[fim].startsWith(prefixo)) {
+                total += this.eans[fim].length;
+                fim++;
+            }
+            if (fim - inicio <= 1) {
+                return fim == inicio ? NENHUM : this.eans[inicio];
+            }
+
+            final var todos = new long[total];
+            var posicao = 0;
+            for (var i = inicio; i < fim; i++) {
+                System.arraycopy(this.eans[i], 0, todos, posicao, this.eans[i].length);
+                posicao += this.eans[i].length;
+            }
+            Arrays.sort(todos);
+            var distintos = 0;
+            for (var i = 0; i < todos.length; i++) {
+                if (i == 0 || todos[i] != todos[i - 1]) {
+                    todos[distintos++] = todos[i];
+                }
+            }
+            return Arrays.copyOf(todos, distintos);
+        }
+
+        private static long[] intersecao(final long[] a, final long[] b) {
+            final var resultado = new long[Math.min(a.length, b.length)];
+            var i = 0;
+            var j = 0;
+            var tamanho = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] == b[j]) {
+                    resultado[tamanho++] = a[i];
+                    i++;
+                    j++;
+                } else if (a[i] < b[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return Arrays.copyOf(resultado, tamanho);
+        }
+
+    }
+
+    private static final class Lista {
+
+        private long[] valores = new long[4];
+        private int tamanho;
+
+        private void adiciona(final long valor) {
+            if (this.tamanho == this.valores.length) {
+                this.valores = Arrays.copyOf(this.valores, this.tamanho * 2);
+            }
+            this.valores[this.tamanho++] = valor;
+        }
+
+        private long[] compacta() {
+            return Arrays.copyOf(this.valores, this.tamanho);
+        }
+
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.fiap.techchallenge4.infrastructure.cache;
+
+import com.fiap.techchallenge4.infrastructure.controller.dto.PaginaProdutosDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Paginas da busca por texto guardadas por pouco tempo: os termos mais buscados saem da memoria e buscas iguais
+// que chegam juntas esperam uma unica consulta ao banco. Nao ha invalidacao, uma alteracao aparece depois do ttl
+@Component
+public class CacheBuscaProduto {
+
+    private final Cache<Chave, PaginaProdutosDTO> paginas;
+    private final Counter acertos;
+    private final Counter falhas;
+
+    public CacheBuscaProduto(final MeterRegistry meterRegistry,
+                             @Value("${app.produto.busca.cache.tamanho-maximo:1000}") final long tamanhoMaximo,
+                             @Value("${app.produto.busca.cache.ttl:PT10S}") final Duration ttl) {
+        this.paginas = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttl)
+                .build();
+        this.acertos = meterRegistry.counter("cache.busca.produto.acessos", "resultado", "acerto");
+        this.falhas = meterRegistry.counter("cache.busca.produto.acessos", "resultado", "falha");
+    }
+
+    public PaginaProdutosDTO busca(final List<String> palavras,
+                                   final String pagina,
+                                   final int tamanho,
+                                   final Supplier<PaginaProdutosDTO> carregador) {
+        final var chave = new Chave(palavras, pagina, tamanho);
+        final var encontrada = this.paginas.getIfPresent(chave);
+        if (encontrada != null) {
+            this.acertos.increment();
+            return encontrada;
+        }
+        this.falhas.increment();
+        return this.paginas.get(chave, ignorada -> carregador.get());
+    }
+
+    private record Chave(List<String> palavras, String pagina, int tamanho) {}
+
+}
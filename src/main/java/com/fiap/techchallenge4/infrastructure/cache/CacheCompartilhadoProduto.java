@@ -0,0 +1,26 @@
+package com.fiap.techchallenge4.infrastructure.cache;
+
+import com.fiap.techchallenge4.infrastructure.controller.dto.ProdutoDTO;
+
+// Nivel compartilhado entre as instancias. As invalidacoes publicadas chegam a todas as instancias inscritas,
+// inclusive a que publicou; ean nulo invalida todos os produtos
+public interface CacheCompartilhadoProduto {
+
+    ProdutoDTO busca(final Long ean);
+
+    // Nao sobrescreve uma versao mais nova do produto nem um produto invalidado ha menos de app.cache.tombstone:
+    // quem grava pode ter lido o produto antes da gravacao que invalidou
+    void grava(final ProdutoDTO produto);
+
+    void invalida(final Long ean);
+
+    void invalidaTodos();
+
+    void inscreve(final OuvinteInvalidacao ouvinte);
+
+    @FunctionalInterface
+    interface OuvinteInvalidacao {
+        void aoInvalidar(Long ean, long publicadoEm);
+    }
+
+}
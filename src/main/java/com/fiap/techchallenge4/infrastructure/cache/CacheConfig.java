@@ -0,0 +1,42 @@
+package com.fiap.techchallenge4.infrastructure.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.cache.compartilhado.tipo", havingValue = "memoria", matchIfMissing = true)
+    public CacheCompartilhadoProduto memoriaCacheCompartilhadoProduto(@Value("${app.cache.tombstone:PT10S}") final Duration tombstone) {
+        return new MemoriaCacheCompartilhadoProduto(tombstone);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.cache.compartilhado.tipo", havingValue = "redis")
+    public RedisMessageListenerContainer invalidacaoListenerContainer(final RedisConnectionFactory connectionFactory) {
+        final var container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.cache.compartilhado.tipo", havingValue = "redis")
+    public CacheCompartilhadoProduto redisCacheCompartilhadoProduto(final StringRedisTemplate redisTemplate,
+                                                                    final RedisMessageListenerContainer invalidacaoListenerContainer,
+                                                                    final ObjectMapper objectMapper,
+                                                                    @Value("${app.cache.compartilhado.ttl:PT10M}") final Duration ttl,
+                                                                    @Value("${app.cache.tombstone:PT10S}") final Duration tombstone,
+                                                                    @Value("${app.cache.compartilhado.canal:produto-invalidacao}") final String canal) {
+        return new RedisCacheCompartilhadoProduto(redisTemplate, invalidacaoListenerContainer, objectMapper, ttl, tombstone, canal);
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.fiap.techchallenge4.infrastructure.cache;
+
+import com.fiap.techchallenge4.domain.event.ProdutoAlteradoEvent;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ProdutoDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Cache de leitura de produtos em dois niveis: near-cache local (Caffeine) e o CacheCompartilhadoProduto.
+// Gravacoes fora da importacao invalidam o produto em todas as instancias; a importacao invalida tudo
+// de uma vez quando o job termina, em vez de uma mensagem por linha.
+// Cada invalidacao deixa uma marca numerada por app.cache.tombstone: uma carga que comecou antes dela leu um
+// produto que pode ser anterior a gravacao e nao e guardada. Entre duas versoes do mesmo produto fica a mais nova
+@Component
+public class CacheProduto {
+
+    private final Cache<Long, ProdutoDTO> local;
+    private final Cache<Long, Long> invalidacoes;
+    private final AtomicLong sequencia = new AtomicLong();
+    private volatile long todosInvalidadosEm;
+    private final CacheCompartilhadoProduto compartilhado;
+    private final Counter acertosLocal;
+    private final Counter falhasLocal;
+    private final Counter acertosCompartilhado;
+    private final Counter falhasCompartilhado;
+    private final Counter errosCompartilhado;
+    private final Counter buscasNoBanco;
+    private final Timer atrasoInvalidacao;
+
+    public CacheProduto(final CacheCompartilhadoProduto compartilhado,
+                        final MeterRegistry meterRegistry,
+                        @Value("${app.cache.local.tamanho-maximo:10000}") final long tamanhoMaximo,
+                        @Value("${app.cache.local.ttl:PT30S}") final Duration ttl,
+                        @Value("${app.cache.tombstone:PT10S}") final Duration tombstone) {
+        this.local = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttl)
+                .build();
+        this.invalidacoes = Caffeine.newBuilder()
+                .expireAfterWrite(tombstone)
+                .build();
+        this.compartilhado = compartilhado;
+        this.acertosLocal = meterRegistry.counter("cache.produto.acessos", "nivel", "local", "resultado", "acerto");
+        this.falhasLocal = meterRegistry.counter("cache.produto.acessos", "nivel", "local", "resultado", "falha");
+        this.acertosCompartilhado = meterRegistry.counter("cache.produto.acessos", "nivel", "compartilhado", "resultado", "acerto");
+        this.falhasCompartilhado = meterRegistry.counter("cache.produto.acessos", "nivel", "compartilhado", "resultado", "falha");
+        this.errosCompartilhado = meterRegistry.counter("cache.produto.erros", "nivel", "compartilhado");
+        this.buscasNoBanco = meterRegistry.counter("cache.produto.banco");
+        this.atrasoInvalidacao = meterRegistry.timer("cache.produto.invalidacao.atraso");
+        this.compartilhado.inscreve(this::aoReceberInvalidacao);
+    }
+
+    // Produto inexistente nao e guardado: o carregador e chamado de novo na proxima busca
+    public ProdutoDTO busca(final Long ean, final Function<Long, ProdutoDTO> carregador) {
+        var produto = this.local.getIfPresent(ean);
+        if (Objects.nonNull(produto)) {
+            this.acertosLocal.increment();
+            return produto;
+        }
+        this.falhasLocal.increment();
+        final var inicio = this.sequencia.get();
+
+        produto = this.buscaNoCompartilhado(ean);
+        if (Objects.nonNull(produto)) {
+            this.acertosCompartilhado.increment();
+            this.guardaLocal(ean, produto, inicio);
+            return produto;
+        }
+        this.falhasCompartilhado.increment();
+
+        this.buscasNoBanco.increment();
+        produto = carregador.apply(ean);
+        if (Objects.nonNull(produto) && this.guardaLocal(ean, produto, inicio)) {
+            this.gravaNoCompartilhado(produto);
+        }
+        return produto;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarProduto(final ProdutoAlteradoEvent evento) {
+        if (evento.importacao()) {
+            return;
+        }
+        this.marcaInvalidado(evento.ean());
+        try {
+            this.compartilhado.invalida(evento.ean());
+        } catch (RuntimeException e) {
+            this.errosCompartilhado.increment();
+            System.out.println("Não foi possível invalidar o produto no cache compartilhado: " + e.getMessage());
+        }
+    }
+
+    public void invalidaTodos() {
+        this.marcaInvalidado(null);
+        try {
+            this.compartilhado.invalidaTodos();
+        } catch (RuntimeException e) {
+            this.errosCompartilhado.increment();
+            System.out.println("Não foi possível invalidar o cache compartilhado: " + e.getMessage());
+        }
+    }
+
+    private void aoReceberInvalidacao(final Long ean, final long publicadoEm) {
+        this.marcaInvalidado(ean);
+        this.atrasoInvalidacao.record(Math.max(0, System.currentTimeMillis() - publicadoEm), TimeUnit.MILLISECONDS);
+    }
+
+    // A marca e gravada antes de remover o produto: um guardaLocal concorrente ou ja ve a marca,
+    // ou guarda antes e o produto e removido logo em seguida
+    private void marcaInvalidado(final Long ean) {
+        final var marca = this.sequencia.incrementAndGet();
+        if (Objects.isNull(ean)) {
+            this.todosInvalidadosEm = marca;
+            this.local.invalidateAll();
+            return;
+        }
+        this.invalidacoes.put(ean, marca);
+        this.local.invalidate(ean);
+    }
+
+    private boolean guardaLocal(final Long ean, final ProdutoDTO produto, final long inicio) {
+        final var guardou = new boolean[1];
+        this.local.asMap().compute(ean, (chave, atual) -> {
+            if (this.todosInvalidadosEm > inicio
+                    || Objects.requireNonNullElse(this.invalidacoes.getIfPresent(chave), 0L) > inicio) {
+                return atual;
+            }
+            if (Objects.nonNull(atual) && versao(atual) > versao(produto)) {
+                return atual;
+            }
+            guardou[0] = true;
+            return produto;
+        });
+        return guardou[0];
+    }
+
+    static long versao(final ProdutoDTO produto) {
+        return Objects.requireNonNullElse(produto.versao(), 0L);
+    }
+
+    // Com o nivel compartilhado fora do ar a leitura segue para o banco
+    private ProdutoDTO buscaNoCompartilhado(final Long ean) {
+        try {
+            return this.compartilhado.busca(ean);
+        } catch (RuntimeException e) {
+            this.errosCompartilhado.increment();
+            return null;
+        }
+    }
+
+    private void gravaNoCompartilhado(final ProdutoDTO produto) {
+        try {
+            this.compartilhado.grava(produto);
+        } catch (RuntimeException e) {
+            this.errosCompartilhado.increment();
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.fiap.techchallenge4.infrastructure.cache;
+
+import com.fiap.techchallenge4.infrastructure.controller.dto.ProdutoDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Substituto do Redis para uma unica instancia e para os testes: mesmo contrato, sem rede
+public class MemoriaCacheCompartilhadoProduto implements CacheCompartilhadoProduto {
+
+    private static final Duration TOMBSTONE = Duration.ofSeconds(10);
+
+    private final Map<Long, ProdutoDTO> produtos = new ConcurrentHashMap<>();
+    private final Cache<Long, Boolean> invalidados;
+    private final List<OuvinteInvalidacao> ouvintes = new CopyOnWriteArrayList<>();
+
+    public MemoriaCacheCompartilhadoProduto() {
+        this(TOMBSTONE);
+    }
+
+    public MemoriaCacheCompartilhadoProduto(final Duration tombstone) {
+        this.invalidados = Caffeine.newBuilder()
+                .expireAfterWrite(tombstone)
+                .build();
+    }
+
+    @Override
+    public ProdutoDTO busca(final Long ean) {
+        return this.produtos.get(ean);
+    }
+
+    @Override
+    public void grava(final ProdutoDTO produto) {
+        this.produtos.compute(produto.ean(), (ean, atual) -> {
+            if (Objects.nonNull(this.invalidados.getIfPresent(ean))) {
+                return atual;
+            }
+            if (Objects.nonNull(atual) && CacheProduto.versao(atual) > CacheProduto.versao(produto)) {
+                return atual;
+            }
+            return produto;
+        });
+    }
+
+    @Override
+    public void invalida(final Long ean) {
+        this.produtos.compute(ean, (chave, atual) -> {
+            this.invalidados.put(chave, Boolean.TRUE);
+            return null;
+        });
+        this.notifica(ean);
+    }
+
+    @Override
+    public void invalidaTodos() {
+        this.produtos.clear();
+        this.invalidados.invalidateAll();
+        this.notifica(null);
+    }
+
+    @Override
+    public void inscreve(final OuvinteInvalidacao ouvinte) {
+        this.ouvintes.add(ouvinte);
+    }
+
+    private void notifica(final Long ean) {
+        final var agora = System.currentTimeMillis();
+        this.ouvintes.forEach(ouvinte -> ouvinte.aoInvalidar(ean, agora));
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.fiap.techchallenge4.infrastructure.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ProdutoDTO;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Produtos em JSON com TTL nas chaves produto:<geracao>:<ean>. Invalidar todos so incrementa a geracao,
+// sem varrer chaves; as chaves da geracao anterior expiram pelo TTL. Invalidar um produto troca o JSON pela
+// marca de invalidacao, que expira em app.cache.tombstone; a gravacao e um script que respeita a marca e a versao.
+// Mensagens no canal: "<ean>;<publicadoEm>" ou "*;<publicadoEm>"
+public class RedisCacheCompartilhadoProduto implements CacheCompartilhadoProduto {
+
+    private static final String CHAVE_GERACAO = "produto:geracao";
+    private static final String TODOS = "*";
+    private static final String INVALIDADO = "-";
+    private static final RedisScript<Long> GRAVA = new DefaultRedisScript<>("""
+            local atual = redis.call('GET', KEYS[1])
+            if atual == ARGV[1] then
+                return 0
+            end
+            if atual then
+                local lido, produto = pcall(cjson.decode, atual)
+                if lido and type(produto.versao) == 'number' and produto.versao > tonumber(ARGV[2]) then
+                    return 0
+                end
+            end
+            redis.call('SET', KEYS[1], ARGV[3], 'PX', ARGV[4])
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration tombstone;
+    private final ChannelTopic canal;
+    private final List<OuvinteInvalidacao> ouvintes = new CopyOnWriteArrayList<>();
+    private volatile long geracao;
+
+    public RedisCacheCompartilhadoProduto(final StringRedisTemplate redisTemplate,
+                                          final RedisMessageListenerContainer listenerContainer,
+                                          final ObjectMapper objectMapper,
+                                          final Duration ttl,
+                                          final Duration tombstone,
+                                          final String canal) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.tombstone = tombstone;
+        this.canal = new ChannelTopic(canal);
+        listenerContainer.addMessageListener(
+                (mensagem, padrao) -> this.recebe(new String(mensagem.getBody(), StandardCharsets.UTF_8)),
+                this.canal
+        );
+        this.geracao = this.leGeracao();
+    }
+
+    @Override
+    public ProdutoDTO busca(final Long ean) {
+        final var json = this.redisTemplate.opsForValue().get(this.chave(ean));
+        if (Objects.isNull(json) || INVALIDADO.equals(json)) {
+            return null;
+        }
+        try {
+            return this.objectMapper.readValue(json, ProdutoDTO.class);
+        } catch (JsonProcessingException e) {
+            this.redisTemplate.delete(this.chave(ean));
+            return null;
+        }
+    }
+
+    @Override
+    public void grava(final ProdutoDTO produto) {
+        try {
+            this.redisTemplate.execute(
+                    GRAVA,
+                    List.of(this.chave(produto.ean())),
+                    INVALIDADO,
+                    String.valueOf(CacheProduto.versao(produto)),
+                    this.objectMapper.writeValueAsString(produto),
+                    String.valueOf(this.ttl.toMillis())
+            );
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void invalida(final Long ean) {
+        this.redisTemplate.opsForValue().set(this.chave(ean), INVALIDADO, this.tombstone);
+        this.redisTemplate.convertAndSend(this.canal.getTopic(), ean + ";" + System.currentTimeMillis());
+    }
+
+    @Override
+    public void invalidaTodos() {
+        this.geracao = Objects.requireNonNullElse(this.redisTemplate.opsForValue().increment(CHAVE_GERACAO), 0L);
+        this.redisTemplate.convertAndSend(this.canal.getTopic(), TODOS + ";" + System.currentTimeMillis());
+    }
+
+    @Override
+    public void inscreve(final OuvinteInvalidacao ouvinte) {
+        this.ouvintes.add(ouvinte);
+    }
+
+    private void recebe(final String mensagem) {
+        final var partes = mensagem.split(";");
+        final var ean = TODOS.equals(partes[0]) ? null : Long.valueOf(partes[0]);
+        if (Objects.isNull(ean)) {
+            this.geracao = this.leGeracao();
+        }
+        final var publicadoEm = Long.parseLong(partes[1]);
+        this.ouvintes.forEach(ouvinte -> ouvinte.aoInvalidar(ean, publicadoEm));
+    }
+
+    private long leGeracao() {
+        try {
+            final var valor = this.redisTemplate.opsForValue().get(CHAVE_GERACAO);
+            return Objects.isNull(valor) ? 0 : Long.parseLong(valor);
+        } catch (RuntimeException e) {
+            System.out.println("Redis indisponivel, usando a geracao " + this.geracao + " do cache: " + e.getMessage());
+            return this.geracao;
+        }
+    }
+
+    private String chave(final Long ean) {
+        return "produto:" + this.geracao + ":" + ean;
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.fiap.techchallenge4.infrastructure.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ProdutoDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+// JSON do produto ja serializado, e a variante gzip, por versao do produto. A chave inclui a data da gravacao
+// porque um produto removido e cadastrado de novo volta para a versao 0. Tamanho maximo 0 desliga o cache
+@Component
+public class CorposProduto {
+
+    public static final String SUFIXO_GZIP = "-gzip";
+
+    private final ObjectMapper objectMapper;
+    private final Cache<ChaveCorpo, Corpo> corpos;
+
+    public CorposProduto(final ObjectMapper objectMapper,
+                         @Value("${app.produto.corpos.tamanho-maximo:10000}") final long tamanhoMaximo) {
+        this.objectMapper = objectMapper;
+        this.corpos = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .build();
+    }
+
+    public Corpo corpo(final ProdutoDTO produto) {
+        return this.corpos.get(
+                new ChaveCorpo(produto.ean(), produto.versao(), produto.dataDeAtualizacao()),
+                chave -> new Corpo(this.serializa(produto))
+        );
+    }
+
+    // Versao e o instante da gravacao em milissegundos: a versao sozinha se repete quando o produto e recadastrado
+    public static String etag(final ProdutoDTO produto) {
+        final var atualizadoEm = Objects.isNull(produto.dataDeAtualizacao())
+                ? 0
+                : produto.dataDeAtualizacao().toInstant(ZoneOffset.UTC).toEpochMilli();
+        return produto.ean() + "-" + produto.versao() + "-" + Long.toHexString(atualizadoEm);
+    }
+
+    // ETags do If-Match (os da busca, com ou sem -gzip), sem W/ e aspas. Sem cabecalho ou com * nao ha condicao;
+    // o produto so e alterado se o ETag dele, inteiro, for um dos enviados, senao o PUT responde 412
+    public static Set<String> etagsDoIfMatch(final String ifMatch) {
+        if (Objects.isNull(ifMatch) || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        final var etags = new HashSet<String>();
+        for (var etag : ifMatch.split(",")) {
+            final var valor = etag.trim().replaceFirst("^W/", "").replace("\"", "");
+            etags.add(valor.endsWith(SUFIXO_GZIP) ? valor.substring(0, valor.length() - SUFIXO_GZIP.length()) : valor);
+        }
+        return etags;
+    }
+
+    public static boolean aceitaGzip(final String acceptEncoding) {
+        if (Objects.isNull(acceptEncoding)) {
+            return false;
+        }
+        for (var codificacao : acceptEncoding.split(",")) {
+            final var partes = codificacao.trim().split(";");
+            if (partes[0].trim().equalsIgnoreCase("gzip")) {
+                return partes.length == 1 || !partes[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private byte[] serializa(final ProdutoDTO produto) {
+        try {
+            return this.objectMapper.writeValueAsBytes(produto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record ChaveCorpo(Long ean, Long versao, LocalDateTime dataDeAtualizacao) {
+    }
+
+    public static final class Corpo {
+
+        private final byte[] json;
+        private volatile byte[] gzip;
+
+        private Corpo(final byte[] json) {
+            this.json = json;
+        }
+
+        public byte[] json() {
+            return this.json;
+        }
+
+        // Compactado so na primeira vez que um cliente pede gzip
+        public byte[] gzip() {
+            var compactado = this.gzip;
+            if (Objects.isNull(compactado)) {
+                final var saida = new ByteArrayOutputStream(this.json.length);
+                try (var gzipOutputStream = new GZIPOutputStream(saida)) {
+                    gzipOutputStream.write(this.json);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                compactado = saida.toByteArray();
+                this.gzip = compactado;
+            }
+            return compactado;
+        }
+
+    }
+
+}
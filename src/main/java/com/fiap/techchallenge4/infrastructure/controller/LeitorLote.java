@@ -0,0 +1,94 @@
+package com.fiap.techchallenge4.infrastructure.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.techchallenge4.domain.StatusItemLoteEnum;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ItemLoteDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ResultadoItemLoteDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+// Le o array do lote item a item, sem montar a lista inteira em memoria, e grava em sub-lotes:
+// cada sub-lote e uma transacao, e uma falha no banco so marca os itens daquele sub-lote com ERRO
+@Component
+public class LeitorLote {
+
+    private final ObjectMapper objectMapper;
+    private final int tamanhoSubLote;
+
+    public LeitorLote(final ObjectMapper objectMapper,
+                      @Value("${app.produto.lote.tamanho-sub-lote:500}") final int tamanhoSubLote) {
+        this.objectMapper = objectMapper;
+        this.tamanhoSubLote = tamanhoSubLote;
+    }
+
+    public <T> List<ResultadoItemLoteDTO> processa(final InputStream corpo,
+                                                   final Class<T> tipo,
+                                                   final Function<List<ItemLoteDTO<T>>, List<ResultadoItemLoteDTO>> gravacao) throws IOException {
+        final var resultados = new ArrayList<ResultadoItemLoteDTO>();
+        final var subLote = new ArrayList<ItemLoteDTO<T>>(this.tamanhoSubLote);
+        var indice = 0;
+        try (var parser = this.objectMapper.createParser(corpo)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("O LOTE DEVE SER UM ARRAY JSON!");
+            }
+
+            try {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    final JsonNode item = parser.readValueAsTree();
+                    try {
+                        // Um null no array vira null no treeToValue: e item invalido, nao chega na gravacao
+                        final var valor = this.objectMapper.treeToValue(item, tipo);
+                        if (Objects.isNull(valor)) {
+                            resultados.add(new ResultadoItemLoteDTO(indice, null, StatusItemLoteEnum.INVALIDO, "ITEM NAO PODE SER NULO!"));
+                        } else {
+                            subLote.add(new ItemLoteDTO<>(indice, valor));
+                        }
+                    } catch (JsonProcessingException e) {
+                        resultados.add(new ResultadoItemLoteDTO(indice, null, StatusItemLoteEnum.INVALIDO, "ITEM EM FORMATO INVALIDO!"));
+                    }
+                    indice++;
+
+                    if (subLote.size() == this.tamanhoSubLote) {
+                        resultados.addAll(this.grava(subLote, gravacao));
+                        subLote.clear();
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                // O que ja foi gravado fica; o resultado aponta onde a leitura parou
+                resultados.add(new ResultadoItemLoteDTO(indice, null, StatusItemLoteEnum.INVALIDO, "JSON MALFORMADO, OS ITENS SEGUINTES NAO FORAM LIDOS!"));
+            }
+        }
+        resultados.addAll(this.grava(subLote, gravacao));
+
+        resultados.sort(Comparator.comparingInt(ResultadoItemLoteDTO::indice));
+        return resultados;
+    }
+
+    private <T> List<ResultadoItemLoteDTO> grava(final List<ItemLoteDTO<T>> subLote,
+                                                 final Function<List<ItemLoteDTO<T>>, List<ResultadoItemLoteDTO>> gravacao) {
+        if (subLote.isEmpty()) {
+            return List.of();
+        }
+        try {
+            return gravacao.apply(List.copyOf(subLote));
+        } catch (DataAccessException e) {
+            System.out.println("Erro ao gravar sub-lote: " + e.getMessage());
+            return subLote.stream()
+                    .map(item -> new ResultadoItemLoteDTO(item.indice(), null, StatusItemLoteEnum.ERRO, "NAO FOI POSSIVEL GRAVAR O ITEM, TENTE NOVAMENTE!"))
+                    .toList();
+        }
+    }
+
+}
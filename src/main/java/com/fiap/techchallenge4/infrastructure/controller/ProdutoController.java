@@ -1,16 +1,40 @@
 package com.fiap.techchallenge4.infrastructure.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fiap.techchallenge4.infrastructure.controller.admissao.Admissao;
+import com.fiap.techchallenge4.infrastructure.controller.admissao.PrioridadeRequisicaoEnum;
+import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaParcialProdutoDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaProdutoLoteDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.CriaProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.FiltroProdutosDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.PaginaProdutosDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.ProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ResultadoItemLoteDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.StatusImportacaoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.SugestaoProdutoDTO;
 import com.fiap.techchallenge4.useCase.ProdutoUseCase;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.net.URI;
+import java.time.ZoneId;
+import java.util.List;
 import java.util.Objects;
 
 import static com.fiap.techchallenge4.infrastructure.controller.ProdutoController.URL_PRODUTO;
@@ -25,23 +49,60 @@ public class ProdutoController {
 
 	public static final String URL_PRODUTO = "/produto";
 	public static final String URL_PRODUTO_IMPORTA = URL_PRODUTO + "/importa";
+	public static final String URL_PRODUTO_IMPORTA_COM_ID = URL_PRODUTO_IMPORTA + "/{id}";
 	public static final String URL_PRODUTO_COM_EAN = URL_PRODUTO + "/{ean}";
+	public static final String URL_PRODUTO_LOTE = URL_PRODUTO + "/lote";
+	public static final String URL_PRODUTO_BUSCA = URL_PRODUTO + "/busca";
+	public static final String URL_PRODUTO_SUGESTOES = URL_PRODUTO + "/sugestoes";
+	public static final String MEDIA_TYPE_MERGE_PATCH = "application/merge-patch+json";
 	public static final String URL_PRODUTO_COM_EAN_E_QUANTIDADE = URL_PRODUTO + "/estoque/{ean}/{quantidade}";
 
 	private final ProdutoUseCase service;
+	private final CorposProduto corposProduto;
+	private final LeitorLote leitorLote;
 
-	public ProdutoController(final ProdutoUseCase service) {
+	public ProdutoController(final ProdutoUseCase service,
+							 final CorposProduto corposProduto,
+							 final LeitorLote leitorLote) {
 		this.service = service;
+		this.corposProduto = corposProduto;
+		this.leitorLote = leitorLote;
 	}
 
 	@Operation(
-			summary = "Serviço para importar produtos"
+			summary = "Serviço para importar produtos de um arquivo enviado, de um caminho no servidor ou do arquivo padrão"
 	)
+	@Admissao(PrioridadeRequisicaoEnum.MINIMA)
 	@PostMapping("/importa")
-	public ResponseEntity<Void> importa() {
-		this.service.importa();
+	public ResponseEntity<Long> importa(@RequestParam(value = "arquivo", required = false) final MultipartFile arquivo,
+										@RequestParam(value = "caminho", required = false) final String caminho) {
+		final Long id;
+		if(Objects.nonNull(arquivo)) {
+			id = this.service.importa(arquivo);
+		} else if(Objects.nonNull(caminho)) {
+			id = this.service.importa(caminho);
+		} else {
+			id = this.service.importa();
+		}
 		return ResponseEntity
-				.status(HttpStatus.OK)
+				.status(HttpStatus.ACCEPTED)
+				.location(URI.create(URL_PRODUTO_IMPORTA + "/" + id))
+				.body(id);
+	}
+
+	@Operation(
+			summary = "Serviço para acompanhar uma importação de produtos"
+	)
+	@GetMapping("/importa/{id}")
+	public ResponseEntity<StatusImportacaoDTO> statusImportacao(@PathVariable("id") final Long id) {
+		final var status = this.service.statusImportacao(id);
+		if(Objects.nonNull(status)) {
+			return ResponseEntity
+					.status(HttpStatus.OK)
+					.body(status);
+		}
+		return ResponseEntity
+				.status(HttpStatus.NO_CONTENT)
 				.build();
 	}
 
@@ -61,13 +122,38 @@ public class ProdutoController {
 				.build();
 	}
 
+	// If-Match com o ETag da busca: 412 se o produto mudou desde a leitura. Sem If-Match,
+	// uma gravacao concorrente entre a leitura e o update responde 409
 	@Operation(
 			summary = "Serviço para atualizar um produto"
 	)
 	@PutMapping("/{ean}")
 	public ResponseEntity<Void> atualiza(@PathVariable("ean") final Long ean,
+										 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
 										 @RequestBody @Valid final AtualizaProdutoDTO dadosProduto) {
-		final var atualizou = this.service.atualiza(ean, dadosProduto);
+		final var atualizou = this.service.atualiza(ean, dadosProduto, CorposProduto.etagsDoIfMatch(ifMatch));
+		if(atualizou) {
+			return ResponseEntity
+					.status(HttpStatus.OK)
+					.build();
+		}
+		return ResponseEntity
+				.status(HttpStatus.NO_CONTENT)
+				.build();
+	}
+
+	// JSON merge patch: so os campos enviados sao alterados, e o update leva so as colunas que mudaram
+	@Operation(
+			summary = "Serviço para alterar parte dos dados de um produto"
+	)
+	@io.swagger.v3.oas.annotations.parameters.RequestBody(
+			content = @Content(mediaType = MEDIA_TYPE_MERGE_PATCH, schema = @Schema(implementation = AtualizaParcialProdutoDTO.class))
+	)
+	@PatchMapping(value = "/{ean}", consumes = { MEDIA_TYPE_MERGE_PATCH, MediaType.APPLICATION_JSON_VALUE })
+	public ResponseEntity<Void> atualizaParcial(@PathVariable("ean") final Long ean,
+												@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
+												@RequestBody final JsonNode patch) {
+		final var atualizou = this.service.atualizaParcial(ean, AtualizaParcialProdutoDTO.de(patch), CorposProduto.etagsDoIfMatch(ifMatch));
 		if(atualizou) {
 			return ResponseEntity
 					.status(HttpStatus.OK)
@@ -78,6 +164,35 @@ public class ProdutoController {
 				.build();
 	}
 
+	// O corpo e lido em streaming pelo LeitorLote; a resposta traz o status de cada item pelo indice no array
+	@Operation(
+			summary = "Serviço para cadastrar produtos em lote"
+	)
+	@io.swagger.v3.oas.annotations.parameters.RequestBody(
+			content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, array = @ArraySchema(schema = @Schema(implementation = CriaProdutoDTO.class)))
+	)
+	@PostMapping(value = "/lote", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<List<ResultadoItemLoteDTO>> cadastraLote(final HttpServletRequest request) throws IOException {
+		final var resultados = this.leitorLote.processa(request.getInputStream(), CriaProdutoDTO.class, this.service::cadastraLote);
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(resultados);
+	}
+
+	@Operation(
+			summary = "Serviço para atualizar produtos em lote"
+	)
+	@io.swagger.v3.oas.annotations.parameters.RequestBody(
+			content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, array = @ArraySchema(schema = @Schema(implementation = AtualizaProdutoLoteDTO.class)))
+	)
+	@PutMapping(value = "/lote", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<List<ResultadoItemLoteDTO>> atualizaLote(final HttpServletRequest request) throws IOException {
+		final var resultados = this.leitorLote.processa(request.getInputStream(), AtualizaProdutoLoteDTO.class, this.service::atualizaLote);
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(resultados);
+	}
+
 	@Operation(
 			summary = "Serviço para deletar um produto"
 	)
@@ -94,25 +209,96 @@ public class ProdutoController {
 				.build();
 	}
 
+	// Um If-None-Match ou If-Modified-Since que ainda vale responde 304 antes de pegar o corpo; senao o produto
+	// vem do cache e o JSON (ou o gzip) ja serializado do CorposProduto
 	@Operation(
 			summary = "Serviço para buscar um produto"
 	)
+	@ApiResponse(
+			responseCode = "200",
+			content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProdutoDTO.class))
+	)
 	@GetMapping("/{ean}")
-	public ResponseEntity<ProdutoDTO> busca(@PathVariable("ean") final Long ean) {
+	public ResponseEntity<byte[]> busca(@PathVariable("ean") final Long ean,
+										@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding,
+										final WebRequest requisicao) {
 		final var produto = this.service.busca(ean);
 		if(Objects.nonNull(produto)) {
-			return ResponseEntity
+			final var gzip = CorposProduto.aceitaGzip(acceptEncoding);
+			final var etag = CorposProduto.etag(produto) + (gzip ? CorposProduto.SUFIXO_GZIP : "");
+			final var atualizadoEm = Objects.isNull(produto.dataDeAtualizacao())
+					? -1
+					: produto.dataDeAtualizacao().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+			// O checkNotModified ja grava ETag e Last-Modified na resposta 304
+			if(requisicao.checkNotModified(etag, atualizadoEm)) {
+				return ResponseEntity
+						.status(HttpStatus.NOT_MODIFIED)
+						.varyBy(HttpHeaders.ACCEPT_ENCODING)
+						.build();
+			}
+			final var corpo = this.corposProduto.corpo(produto);
+			final var resposta = ResponseEntity
 					.status(HttpStatus.OK)
-					.body(produto);
+					.contentType(MediaType.APPLICATION_JSON)
+					.varyBy(HttpHeaders.ACCEPT_ENCODING)
+					.eTag(etag);
+			if(atualizadoEm >= 0) {
+				resposta.lastModified(atualizadoEm);
+			}
+			if(gzip) {
+				resposta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+				return resposta.body(corpo.gzip());
+			}
+			return resposta.body(corpo.json());
 		}
 		return ResponseEntity
 				.status(HttpStatus.NO_CONTENT)
 				.build();
 	}
 
+	// Faixas de preco e quantidade (limites inclusivos, ex.: quantidadeMaxima=4 para reposicao), paginadas pelo
+	// cursor proximaPagina; com filtro de preco a ordem e pelo preco, senao pelo EAN
+	@Operation(
+			summary = "Serviço para listar produtos por faixa de preço e de quantidade"
+	)
+	@GetMapping
+	public ResponseEntity<PaginaProdutosDTO> lista(@ParameterObject final FiltroProdutosDTO filtro,
+												   @RequestParam(value = "pagina", required = false) final String pagina,
+												   @RequestParam(value = "tamanho", defaultValue = "20") final int tamanho) {
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(this.service.lista(filtro, pagina, tamanho));
+	}
+
+	// Prefixo das palavras de nome e descricao, por relevancia; a proxima pagina vem do campo proximaPagina
+	@Operation(
+			summary = "Serviço para buscar produtos pelo nome ou descrição"
+	)
+	@GetMapping("/busca")
+	public ResponseEntity<PaginaProdutosDTO> buscaPorTexto(@RequestParam("q") final String termo,
+														   @RequestParam(value = "pagina", required = false) final String pagina,
+														   @RequestParam(value = "tamanho", defaultValue = "20") final int tamanho) {
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(this.service.buscaPorTexto(termo, pagina, tamanho));
+	}
+
+	// Autocomplete pelo nome, respondido do indice em memoria; acentos sao ignorados ("feij" encontra "Feijão")
+	@Operation(
+			summary = "Serviço para sugerir produtos pelo início das palavras do nome"
+	)
+	@GetMapping("/sugestoes")
+	public ResponseEntity<List<SugestaoProdutoDTO>> sugere(@RequestParam("q") final String termo,
+														   @RequestParam(value = "limite", defaultValue = "10") final int limite) {
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(this.service.sugere(termo, limite));
+	}
+
 	@Operation(
 			summary = "Serviço para verificar se um produto tem estoque"
 	)
+	@Admissao(PrioridadeRequisicaoEnum.ALTA)
 	@GetMapping("/estoque/{ean}/{quantidade}")
 	public ResponseEntity<Boolean> temEstoque(@PathVariable("ean") final Long ean,
 											  @PathVariable("quantidade") final Long quantidade) {
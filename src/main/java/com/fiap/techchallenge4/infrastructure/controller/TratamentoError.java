@@ -1,6 +1,11 @@
 package com.fiap.techchallenge4.infrastructure.controller;
 
+import com.fiap.techchallenge4.domain.exception.VersaoDivergenteException;
+import com.fiap.techchallenge4.infrastructure.controller.admissao.RequisicaoRecusadaException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -14,4 +19,24 @@ public class TratamentoError {
 		return ex.getMessage();
 	}
 
+	@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+	@ExceptionHandler(VersaoDivergenteException.class)
+	public String trataVersaoDivergente(VersaoDivergenteException ex) {
+		return ex.getMessage();
+	}
+
+	@ResponseStatus(HttpStatus.CONFLICT)
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public String trataGravacaoConcorrente(OptimisticLockingFailureException ex) {
+		return "O PRODUTO FOI ALTERADO POR OUTRA GRAVACAO, TENTE NOVAMENTE!";
+	}
+
+	@ExceptionHandler(RequisicaoRecusadaException.class)
+	public ResponseEntity<String> trataRequisicaoRecusada(RequisicaoRecusadaException ex) {
+		return ResponseEntity
+				.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getTenteNovamenteEm().toSeconds())))
+				.body(ex.getMessage());
+	}
+
 }
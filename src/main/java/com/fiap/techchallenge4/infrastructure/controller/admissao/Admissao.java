@@ -0,0 +1,15 @@
+package com.fiap.techchallenge4.infrastructure.controller.admissao;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Prioridade do endpoint no controle de admissao. Sem a anotacao, GET e NORMAL e as escritas sao BAIXA
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Admissao {
+
+    PrioridadeRequisicaoEnum value();
+
+}
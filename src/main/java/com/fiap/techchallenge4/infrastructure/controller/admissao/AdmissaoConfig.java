@@ -0,0 +1,26 @@
+package com.fiap.techchallenge4.infrastructure.controller.admissao;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import static com.fiap.techchallenge4.infrastructure.controller.ProdutoController.URL_PRODUTO;
+
+@Configuration
+@EnableConfigurationProperties(AdmissaoProperties.class)
+public class AdmissaoConfig implements WebMvcConfigurer {
+
+    private final ControleAdmissao controleAdmissao;
+
+    public AdmissaoConfig(final ControleAdmissao controleAdmissao) {
+        this.controleAdmissao = controleAdmissao;
+    }
+
+    @Override
+    public void addInterceptors(final InterceptorRegistry registry) {
+        registry.addInterceptor(this.controleAdmissao)
+                .addPathPatterns(URL_PRODUTO, URL_PRODUTO + "/**");
+    }
+
+}
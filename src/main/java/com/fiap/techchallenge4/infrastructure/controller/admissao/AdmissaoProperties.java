@@ -0,0 +1,36 @@
+package com.fiap.techchallenge4.infrastructure.controller.admissao;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.admissao")
+public record AdmissaoProperties(
+
+        @DefaultValue("true")
+        boolean habilitado,
+
+        // Requisicoes simultaneas em todos os endpoints; deve ficar abaixo das threads do Tomcat
+        @DefaultValue("150")
+        int capacidade,
+
+        @DefaultValue("20")
+        int limiteInicial,
+
+        @DefaultValue("2")
+        int limiteMinimo,
+
+        @DefaultValue("150")
+        int limiteMaximo,
+
+        // Uma requisicao mais lenta que a latencia de referencia do endpoint vezes a tolerancia reduz o limite
+        @DefaultValue("2.0")
+        double toleranciaLatencia,
+
+        @DefaultValue("0.9")
+        double fatorReducao,
+
+        @DefaultValue("PT1S")
+        Duration tenteNovamenteEm
+) {}
@@ -0,0 +1,132 @@
+package com.fiap.techchallenge4.infrastructure.controller.admissao;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Recusa na hora (503 com Retry-After, pelo TratamentoError) as requisicoes que passariam do que a aplicacao
+// consegue atender, em vez de deixa-las na fila do Tomcat. Duas barreiras: a capacidade total, da qual cada
+// prioridade so ocupa uma fracao (temEstoque passa enquanto as escritas e a importacao ja sao recusadas),
+// e o LimiteAdaptativo de cada endpoint, que encolhe quando o endpoint fica lento
+@Component
+public class ControleAdmissao implements HandlerInterceptor {
+
+    private static final String ATRIBUTO_ADMISSAO = ControleAdmissao.class.getName() + ".admissao";
+
+    private final AdmissaoProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private final Map<Method, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public ControleAdmissao(final AdmissaoProperties properties,
+                            final MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("http.admissao.em.andamento", this.emAndamento, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(final HttpServletRequest request,
+                             final HttpServletResponse response,
+                             final Object handler) {
+        if (!this.properties.habilitado() || !(handler instanceof HandlerMethod metodo)) {
+            return true;
+        }
+        final var endpoint = this.endpoints.computeIfAbsent(metodo.getMethod(), chave -> this.registra(metodo, request));
+
+        if (!this.ocupaCapacidade(endpoint.prioridade())) {
+            endpoint.recusadasPorCapacidade().increment();
+            throw new RequisicaoRecusadaException(this.properties.tenteNovamenteEm());
+        }
+        if (!endpoint.limite().tentaAdquirir()) {
+            this.emAndamento.decrementAndGet();
+            endpoint.recusadasPorLimite().increment();
+            throw new RequisicaoRecusadaException(this.properties.tenteNovamenteEm());
+        }
+
+        request.setAttribute(ATRIBUTO_ADMISSAO, new Admitida(endpoint, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(final HttpServletRequest request,
+                                final HttpServletResponse response,
+                                final Object handler,
+                                final Exception ex) {
+        if (!(request.getAttribute(ATRIBUTO_ADMISSAO) instanceof Admitida admitida)) {
+            return;
+        }
+        request.removeAttribute(ATRIBUTO_ADMISSAO);
+        this.emAndamento.decrementAndGet();
+        admitida.endpoint().limite().libera(System.nanoTime() - admitida.inicio());
+    }
+
+    private boolean ocupaCapacidade(final PrioridadeRequisicaoEnum prioridade) {
+        final var vagas = Math.max(1, (int) (this.properties.capacidade() * prioridade.getFracaoDaCapacidade()));
+        while (true) {
+            final var atual = this.emAndamento.get();
+            if (atual >= vagas) {
+                return false;
+            }
+            if (this.emAndamento.compareAndSet(atual, atual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private Endpoint registra(final HandlerMethod metodo, final HttpServletRequest request) {
+        final var nome = metodo.getMethod().getName();
+        final var admissao = metodo.getMethodAnnotation(Admissao.class);
+        final var prioridade = Objects.nonNull(admissao)
+                ? admissao.value()
+                : HttpMethod.GET.matches(request.getMethod()) ? PrioridadeRequisicaoEnum.NORMAL : PrioridadeRequisicaoEnum.BAIXA;
+
+        final var limite = new LimiteAdaptativo(
+                this.properties.limiteInicial(),
+                this.properties.limiteMinimo(),
+                this.properties.limiteMaximo(),
+                this.properties.toleranciaLatencia(),
+                this.properties.fatorReducao()
+        );
+        Gauge.builder("http.admissao.limite", limite, LimiteAdaptativo::limite)
+                .tag("endpoint", nome)
+                .register(this.meterRegistry);
+
+        return new Endpoint(
+                prioridade,
+                limite,
+                this.recusadas(nome, prioridade, "capacidade"),
+                this.recusadas(nome, prioridade, "limite-endpoint")
+        );
+    }
+
+    private Counter recusadas(final String endpoint,
+                              final PrioridadeRequisicaoEnum prioridade,
+                              final String motivo) {
+        return this.meterRegistry.counter("http.admissao.recusadas",
+                "endpoint", endpoint,
+                "prioridade", prioridade.name(),
+                "motivo", motivo);
+    }
+
+    private record Endpoint(PrioridadeRequisicaoEnum prioridade,
+                            LimiteAdaptativo limite,
+                            Counter recusadasPorCapacidade,
+                            Counter recusadasPorLimite) {}
+
+    private record Admitida(Endpoint endpoint, long inicio) {}
+
+}
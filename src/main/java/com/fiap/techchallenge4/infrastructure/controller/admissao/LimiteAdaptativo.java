@@ -0,0 +1,73 @@
+package com.fiap.techchallenge4.infrastructure.controller.admissao;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Limite de requisicoes simultaneas de um endpoint ajustado por AIMD: uma requisicao dentro da latencia esperada,
+// com mais da metade do limite ocupado, soma 1 ao limite; uma requisicao lenta multiplica o limite pelo fator de reducao.
+// A latencia esperada e uma media movel lenta das latencias do proprio endpoint, entao um endpoint naturalmente
+// lento (importa) nao e comparado com um rapido (temEstoque). A entrada nao espera: sem vaga a requisicao e recusada
+public class LimiteAdaptativo {
+
+    private static final double PESO_REFERENCIA = 0.05;
+
+    private final int minimo;
+    private final int maximo;
+    private final double toleranciaLatencia;
+    private final double fatorReducao;
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private volatile int limiteAtual;
+    private double limite;
+    private double latenciaReferencia;
+
+    public LimiteAdaptativo(final int inicial,
+                            final int minimo,
+                            final int maximo,
+                            final double toleranciaLatencia,
+                            final double fatorReducao) {
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.toleranciaLatencia = toleranciaLatencia;
+        this.fatorReducao = fatorReducao;
+        this.limite = Math.max(minimo, Math.min(maximo, inicial));
+        this.limiteAtual = (int) this.limite;
+    }
+
+    public boolean tentaAdquirir() {
+        while (true) {
+            final var atual = this.emAndamento.get();
+            if (atual >= this.limiteAtual) {
+                return false;
+            }
+            if (this.emAndamento.compareAndSet(atual, atual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void libera(final long latenciaNanos) {
+        final var ocupadas = this.emAndamento.getAndDecrement();
+        synchronized (this) {
+            if (this.latenciaReferencia == 0) {
+                this.latenciaReferencia = latenciaNanos;
+            }
+            final var latenciaAceitavel = this.latenciaReferencia * this.toleranciaLatencia;
+            if (latenciaNanos > latenciaAceitavel) {
+                this.limite = Math.max(this.minimo, this.limite * this.fatorReducao);
+            } else if (ocupadas * 2 >= this.limite) {
+                this.limite = Math.min(this.maximo, this.limite + 1);
+            }
+            // Amostras lentas entram limitadas, para a sobrecarga nao virar a nova referencia de uma vez
+            this.latenciaReferencia += PESO_REFERENCIA * (Math.min(latenciaNanos, latenciaAceitavel) - this.latenciaReferencia);
+            this.limiteAtual = (int) this.limite;
+        }
+    }
+
+    public int limite() {
+        return this.limiteAtual;
+    }
+
+    public int emAndamento() {
+        return this.emAndamento.get();
+    }
+
+}
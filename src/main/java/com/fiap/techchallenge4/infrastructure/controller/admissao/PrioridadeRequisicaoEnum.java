@@ -0,0 +1,22 @@
+package com.fiap.techchallenge4.infrastructure.controller.admissao;
+
+// Fracao da capacidade total que cada prioridade pode ocupar: com a aplicacao cheia as de menor
+// prioridade sao recusadas primeiro e a folga que sobra fica para as de maior prioridade
+public enum PrioridadeRequisicaoEnum {
+
+    ALTA(1.0),
+    NORMAL(0.8),
+    BAIXA(0.6),
+    MINIMA(0.3);
+
+    private final double fracaoDaCapacidade;
+
+    PrioridadeRequisicaoEnum(final double fracaoDaCapacidade) {
+        this.fracaoDaCapacidade = fracaoDaCapacidade;
+    }
+
+    public double getFracaoDaCapacidade() {
+        return this.fracaoDaCapacidade;
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.fiap.techchallenge4.infrastructure.controller.admissao;
+
+import java.time.Duration;
+
+// A aplicacao esta no limite de requisicoes simultaneas para o endpoint ou para a prioridade da requisicao
+public class RequisicaoRecusadaException extends RuntimeException {
+
+    private final Duration tenteNovamenteEm;
+
+    public RequisicaoRecusadaException(final Duration tenteNovamenteEm) {
+        super("SERVICO SOBRECARREGADO, TENTE NOVAMENTE EM INSTANTES!");
+        this.tenteNovamenteEm = tenteNovamenteEm;
+    }
+
+    public Duration getTenteNovamenteEm() {
+        return this.tenteNovamenteEm;
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.fiap.techchallenge4.infrastructure.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.Set;
+
+// JSON merge patch (RFC 7396) do produto: so os campos presentes mudam, e campo nulo aqui e campo ausente.
+// Os campos do produto sao obrigatorios, entao um null explicito (remover o campo) e rejeitado. A quantidade
+// continua mudando pelo PUT e pelos eventos de estoque, que somam ou retiram em vez de sobrescrever
+public record AtualizaParcialProdutoDTO(
+
+		@JsonInclude(JsonInclude.Include.NON_NULL)
+		String nome,
+
+		@JsonInclude(JsonInclude.Include.NON_NULL)
+		String descricao,
+
+		@JsonInclude(JsonInclude.Include.NON_NULL)
+		BigDecimal preco
+) {
+
+	private static final Set<String> CAMPOS = Set.of("nome", "descricao", "preco");
+
+	public static AtualizaParcialProdutoDTO de(final JsonNode patch) {
+		if (Objects.isNull(patch) || !patch.isObject()) {
+			throw new IllegalArgumentException("O PATCH DEVE SER UM OBJETO JSON!");
+		}
+		patch.fieldNames().forEachRemaining(campo -> {
+			if (!CAMPOS.contains(campo)) {
+				throw new IllegalArgumentException("CAMPO " + campo.toUpperCase() + " NAO PODE SER ALTERADO PELO PATCH!");
+			}
+			if (patch.get(campo).isNull()) {
+				throw new IllegalArgumentException("CAMPO " + campo.toUpperCase() + " NAO PODE SER REMOVIDO!");
+			}
+		});
+		if (patch.has("nome") && !patch.get("nome").isTextual()
+				|| patch.has("descricao") && !patch.get("descricao").isTextual()
+				|| patch.has("preco") && !patch.get("preco").isNumber()) {
+			throw new IllegalArgumentException("CAMPOS EM FORMATO INVALIDO!");
+		}
+
+		return new AtualizaParcialProdutoDTO(
+				patch.has("nome") ? patch.get("nome").asText() : null,
+				patch.has("descricao") ? patch.get("descricao").asText() : null,
+				patch.has("preco") ? patch.get("preco").decimalValue() : null
+		);
+	}
+
+}
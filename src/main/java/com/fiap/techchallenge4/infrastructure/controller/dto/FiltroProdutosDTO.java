@@ -0,0 +1,11 @@
+package com.fiap.techchallenge4.infrastructure.controller.dto;
+
+import java.math.BigDecimal;
+
+public record FiltroProdutosDTO(
+
+		BigDecimal precoMinimo,
+		BigDecimal precoMaximo,
+		Long quantidadeMinima,
+		Long quantidadeMaxima
+) {}
@@ -0,0 +1,8 @@
+package com.fiap.techchallenge4.infrastructure.controller.dto;
+
+// Item de um lote com a sua posicao no array enviado, para o resultado apontar o item certo
+public record ItemLoteDTO<T>(
+
+		int indice,
+		T item
+) {}
@@ -0,0 +1,13 @@
+package com.fiap.techchallenge4.infrastructure.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+public record PaginaProdutosDTO(
+
+		List<ProdutoDTO> produtos,
+
+		@JsonInclude(JsonInclude.Include.NON_NULL)
+		String proximaPagina
+) {}
@@ -10,5 +10,7 @@ public record ProdutoDTO(
 		String descricao,
 		BigDecimal preco,
 		Long quantidade,
-		LocalDateTime dataDeCriacao
+		LocalDateTime dataDeCriacao,
+		Long versao,
+		LocalDateTime dataDeAtualizacao
 ) {}
@@ -0,0 +1,17 @@
+package com.fiap.techchallenge4.infrastructure.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fiap.techchallenge4.domain.StatusItemLoteEnum;
+
+public record ResultadoItemLoteDTO(
+
+		int indice,
+
+		@JsonInclude(JsonInclude.Include.NON_NULL)
+		Long ean,
+
+		StatusItemLoteEnum status,
+
+		@JsonInclude(JsonInclude.Include.NON_NULL)
+		String mensagem
+) {}
@@ -0,0 +1,16 @@
+package com.fiap.techchallenge4.infrastructure.controller.dto;
+
+import java.time.LocalDateTime;
+
+public record StatusImportacaoDTO(
+
+		Long id,
+		String status,
+		long lidos,
+		long escritos,
+		long ignorados,
+		double itensPorSegundo,
+		LocalDateTime inicio,
+		LocalDateTime fim,
+		String arquivoRejeitados
+) {}
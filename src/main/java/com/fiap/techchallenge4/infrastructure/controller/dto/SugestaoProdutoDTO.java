@@ -0,0 +1,7 @@
+package com.fiap.techchallenge4.infrastructure.controller.dto;
+
+public record SugestaoProdutoDTO(
+
+		Long ean,
+		String nome
+) {}
@@ -0,0 +1,75 @@
+package com.fiap.techchallenge4.infrastructure.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// So entra em acao com app.datasource.replica.habilitado=true, senao o Spring Boot cria o DataSource unico padrao
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "habilitado", havingValue = "true")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class DataSourceConfig {
+
+    @Bean
+    public DataSource dataSourcePrimario(final DataSourceProperties properties) {
+        final var dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primario");
+        return dataSource;
+    }
+
+    @Bean
+    public DataSource dataSourceReplica(final ReplicaDataSourceProperties properties) {
+        final var dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(properties.url())
+                .username(properties.username())
+                .password(properties.password())
+                .driverClassName(properties.driverClassName())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public MonitorAtrasoReplica monitorAtrasoReplica(@Qualifier("dataSourceReplica") final DataSource dataSourceReplica,
+                                                     final ReplicaDataSourceProperties properties) {
+        final var monitor = new MonitorAtrasoReplica(
+                dataSourceReplica,
+                properties.consultaAtraso(),
+                properties.atrasoMaximoSegundos()
+        );
+        monitor.verificaAtraso();
+        return monitor;
+    }
+
+    // O LazyConnectionDataSourceProxy adia a escolha da conexao ate o primeiro comando SQL,
+    // quando a transacao ja esta marcada como readOnly
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("dataSourcePrimario") final DataSource dataSourcePrimario,
+                                 @Qualifier("dataSourceReplica") final DataSource dataSourceReplica,
+                                 final MonitorAtrasoReplica monitorAtrasoReplica) {
+        final var roteamento = new RoteamentoDataSource(monitorAtrasoReplica);
+        roteamento.setTargetDataSources(Map.of(
+                TipoDataSourceEnum.PRIMARIO, dataSourcePrimario,
+                TipoDataSourceEnum.REPLICA, dataSourceReplica
+        ));
+        roteamento.setDefaultTargetDataSource(dataSourcePrimario);
+        roteamento.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(roteamento);
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.fiap.techchallenge4.infrastructure.datasource;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+// Leituras que aceitam o atraso da replica: so as transacoes abertas aqui vao para ela (RoteamentoDataSource).
+// Qualquer outra leitura, mesmo readOnly, vai para o primario. Hoje passam por aqui a listagem e a busca por
+// texto, que nao guardam o que leem alem do TTL do cache de busca
+@Component
+public class LeituraReplica {
+
+    public static final String NOME_TRANSACAO = "leitura-replica";
+
+    private final TransactionTemplate transacao;
+
+    public LeituraReplica(final PlatformTransactionManager transactionManager) {
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.transacao.setReadOnly(true);
+        this.transacao.setName(NOME_TRANSACAO);
+    }
+
+    public <T> T executa(final Supplier<T> leitura) {
+        return this.transacao.execute(status -> leitura.get());
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.fiap.techchallenge4.infrastructure.datasource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.Objects;
+
+public class MonitorAtrasoReplica {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String consultaAtraso;
+    private final double atrasoMaximoSegundos;
+    private volatile boolean replicaDisponivel;
+
+    public MonitorAtrasoReplica(final DataSource dataSourceReplica,
+                                final String consultaAtraso,
+                                final double atrasoMaximoSegundos) {
+        this.jdbcTemplate = new JdbcTemplate(dataSourceReplica);
+        this.consultaAtraso = consultaAtraso;
+        this.atrasoMaximoSegundos = atrasoMaximoSegundos;
+    }
+
+    public boolean replicaDisponivel() {
+        return this.replicaDisponivel;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.intervalo-verificacao-ms:5000}")
+    public void verificaAtraso() {
+        try {
+            final var atraso = this.jdbcTemplate.queryForObject(this.consultaAtraso, Double.class);
+            final var disponivel = Objects.nonNull(atraso) && atraso <= this.atrasoMaximoSegundos;
+            if (disponivel != this.replicaDisponivel) {
+                System.out.println("Replica de leitura " + (disponivel ? "disponivel" : "indisponivel") + ", atraso: " + atraso + "s");
+            }
+            this.replicaDisponivel = disponivel;
+        } catch (Exception e) {
+            if (this.replicaDisponivel) {
+                System.out.println("Replica de leitura indisponivel: " + e.getMessage());
+            }
+            this.replicaDisponivel = false;
+        }
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.fiap.techchallenge4.infrastructure.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public record ReplicaDataSourceProperties(
+
+        @DefaultValue("false")
+        boolean habilitado,
+
+        String url,
+        String username,
+        String password,
+        String driverClassName,
+
+        @DefaultValue("5")
+        double atrasoMaximoSegundos,
+
+        @DefaultValue("SELECT 0")
+        String consultaAtraso
+) {}
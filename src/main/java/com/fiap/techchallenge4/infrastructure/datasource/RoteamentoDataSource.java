@@ -0,0 +1,26 @@
+package com.fiap.techchallenge4.infrastructure.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Vai para a replica so a transacao aberta pela LeituraReplica (um @Transactional que participa dela nao muda
+// o nome); as demais, mesmo readOnly, ficam no primario
+public class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    private final MonitorAtrasoReplica monitor;
+
+    public RoteamentoDataSource(final MonitorAtrasoReplica monitor) {
+        this.monitor = monitor;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && LeituraReplica.NOME_TRANSACAO.equals(TransactionSynchronizationManager.getCurrentTransactionName())
+                && this.monitor.replicaDisponivel()) {
+            return TipoDataSourceEnum.REPLICA;
+        }
+        return TipoDataSourceEnum.PRIMARIO;
+    }
+
+}
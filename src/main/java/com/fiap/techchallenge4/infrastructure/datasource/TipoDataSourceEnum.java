@@ -0,0 +1,9 @@
+package com.fiap.techchallenge4.infrastructure.datasource;
+
+public enum TipoDataSourceEnum {
+
+    PRIMARIO,
+    REPLICA
+    ;
+
+}
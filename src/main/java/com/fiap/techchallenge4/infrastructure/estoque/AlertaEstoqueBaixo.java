@@ -0,0 +1,116 @@
+package com.fiap.techchallenge4.infrastructure.estoque;
+
+import com.fiap.techchallenge4.domain.event.LimiteEstoqueCruzadoEvent;
+import com.fiap.techchallenge4.infrastructure.producer.ProducerAlertaEstoque;
+import com.fiap.techchallenge4.infrastructure.producer.request.AlertaEstoqueDTO;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Detecta quando o estoque de um produto cruza o limite configurado e avisa pelo binding alertaEstoque-out-0.
+// A comparacao usa as quantidades de antes e depois que quem grava ja tem em maos, sem consulta extra.
+// O alerta so sai depois do commit e, por EAN, no maximo um a cada intervalo-minimo: um produto que fica
+// oscilando em torno do limite gera um alerta e, ao fim do intervalo, so mais um se a situacao final mudou
+@Component
+@EnableConfigurationProperties(AlertaEstoqueProperties.class)
+public class AlertaEstoqueBaixo {
+
+    public static final String ESTOQUE_BAIXO = "ESTOQUE_BAIXO";
+    public static final String ESTOQUE_NORMALIZADO = "ESTOQUE_NORMALIZADO";
+
+    private final AlertaEstoqueProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProducerAlertaEstoque producer;
+    private final Map<Long, Situacao> situacoes = new ConcurrentHashMap<>();
+
+    public AlertaEstoqueBaixo(final AlertaEstoqueProperties properties,
+                              final ApplicationEventPublisher eventPublisher,
+                              final ProducerAlertaEstoque producer) {
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.producer = producer;
+    }
+
+    // Chamado dentro da transacao que grava a nova quantidade
+    public void verifica(final Long ean, final long quantidadeAnterior, final long quantidadeAtual) {
+        if (!this.properties.habilitado() || quantidadeAnterior == quantidadeAtual) {
+            return;
+        }
+        final var limite = this.properties.limite(ean);
+        final var abaixo = quantidadeAtual <= limite;
+        if (abaixo != quantidadeAnterior <= limite) {
+            this.eventPublisher.publishEvent(new LimiteEstoqueCruzadoEvent(ean, quantidadeAtual, limite, abaixo));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoCruzarLimite(final LimiteEstoqueCruzadoEvent evento) {
+        final var agora = System.currentTimeMillis();
+        final var enviar = new LimiteEstoqueCruzadoEvent[1];
+        this.situacoes.compute(evento.ean(), (ean, situacao) -> {
+            if (Objects.isNull(situacao)) {
+                enviar[0] = evento;
+                return new Situacao(evento.abaixo(), agora, null);
+            }
+            if (agora - situacao.ultimoEnvio() < this.properties.intervaloMinimo().toMillis()) {
+                return new Situacao(situacao.abaixo(), situacao.ultimoEnvio(), evento);
+            }
+            if (situacao.abaixo() == evento.abaixo()) {
+                return new Situacao(situacao.abaixo(), situacao.ultimoEnvio(), null);
+            }
+            enviar[0] = evento;
+            return new Situacao(evento.abaixo(), agora, null);
+        });
+        if (Objects.nonNull(enviar[0])) {
+            this.envia(enviar[0]);
+        }
+    }
+
+    // Fecha os intervalos vencidos: envia a situacao final de quem cruzou o limite durante o intervalo
+    // e esquece os EANs parados, para o mapa nao crescer com o catalogo
+    @Scheduled(fixedDelayString = "${app.estoque.alerta.intervalo-verificacao-ms:10000}")
+    public void enviaPendentes() {
+        final var limite = System.currentTimeMillis() - this.properties.intervaloMinimo().toMillis();
+        for (var ean : this.situacoes.keySet()) {
+            final var enviar = new LimiteEstoqueCruzadoEvent[1];
+            this.situacoes.computeIfPresent(ean, (chave, situacao) -> {
+                if (situacao.ultimoEnvio() > limite) {
+                    return situacao;
+                }
+                final var pendente = situacao.pendente();
+                if (Objects.isNull(pendente) || pendente.abaixo() == situacao.abaixo()) {
+                    return null;
+                }
+                enviar[0] = pendente;
+                return new Situacao(pendente.abaixo(), System.currentTimeMillis(), null);
+            });
+            if (Objects.nonNull(enviar[0])) {
+                this.envia(enviar[0]);
+            }
+        }
+    }
+
+    private void envia(final LimiteEstoqueCruzadoEvent evento) {
+        try {
+            this.producer.envia(new AlertaEstoqueDTO(
+                    evento.ean(),
+                    evento.quantidade(),
+                    evento.limite(),
+                    evento.abaixo() ? ESTOQUE_BAIXO : ESTOQUE_NORMALIZADO,
+                    LocalDateTime.now()
+            ));
+        } catch (RuntimeException e) {
+            System.out.println("Não foi possível enviar o alerta de estoque do produto " + evento.ean() + ": " + e.getMessage());
+        }
+    }
+
+    private record Situacao(boolean abaixo, long ultimoEnvio, LimiteEstoqueCruzadoEvent pendente) {}
+
+}
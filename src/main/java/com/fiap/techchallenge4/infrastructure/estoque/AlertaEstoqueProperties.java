@@ -0,0 +1,29 @@
+package com.fiap.techchallenge4.infrastructure.estoque;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "app.estoque.alerta")
+public record AlertaEstoqueProperties(
+
+        @DefaultValue("false")
+        boolean habilitado,
+
+        @DefaultValue("10")
+        long limitePadrao,
+
+        // Limite por EAN, ex.: app.estoque.alerta.limites.7894900011517=50
+        Map<Long, Long> limites,
+
+        @DefaultValue("PT5M")
+        Duration intervaloMinimo
+) {
+
+    public long limite(final long ean) {
+        return this.limites == null ? this.limitePadrao : this.limites.getOrDefault(ean, this.limitePadrao);
+    }
+
+}
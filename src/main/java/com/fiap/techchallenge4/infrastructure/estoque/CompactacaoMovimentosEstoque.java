@@ -0,0 +1,97 @@
+package com.fiap.techchallenge4.infrastructure.estoque;
+
+import com.fiap.techchallenge4.infrastructure.agendamento.LeaseAgendamento;
+import com.fiap.techchallenge4.infrastructure.model.MovimentoEstoqueDiarioEntity;
+import com.fiap.techchallenge4.infrastructure.model.MovimentoEstoqueDiarioId;
+import com.fiap.techchallenge4.infrastructure.repository.MovimentoEstoqueDiarioRepository;
+import com.fiap.techchallenge4.infrastructure.repository.MovimentoEstoqueRepository;
+import com.fiap.techchallenge4.infrastructure.repository.TotalMovimentosEstoque;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Objects;
+
+// Junta os movimentos de estoque mais antigos que a retencao em totais diarios por EAN e motivo e remove os detalhados
+// (TRUNCATE da particao do dia no PostgreSQL e, depois do commit, DETACH e DROP dela, ver ParticoesMovimentoEstoque).
+// Um dia por transacao, do mais antigo para o mais recente; o lease garante que so uma replica compacta por vez
+@Component
+public class CompactacaoMovimentosEstoque {
+
+    private final MovimentoEstoqueRepository movimentoEstoqueRepository;
+    private final MovimentoEstoqueDiarioRepository movimentoEstoqueDiarioRepository;
+    private final ParticoesMovimentoEstoque particoesMovimentoEstoque;
+    private final LeaseAgendamento leaseAgendamento;
+    private final TransactionTemplate transacao;
+    private final Duration retencao;
+
+    public CompactacaoMovimentosEstoque(final MovimentoEstoqueRepository movimentoEstoqueRepository,
+                                        final MovimentoEstoqueDiarioRepository movimentoEstoqueDiarioRepository,
+                                        final ParticoesMovimentoEstoque particoesMovimentoEstoque,
+                                        final LeaseAgendamento leaseAgendamento,
+                                        final PlatformTransactionManager transactionManager,
+                                        @Value("${app.estoque.movimentos.retencao:P7D}") final Duration retencao) {
+        this.movimentoEstoqueRepository = movimentoEstoqueRepository;
+        this.movimentoEstoqueDiarioRepository = movimentoEstoqueDiarioRepository;
+        this.particoesMovimentoEstoque = particoesMovimentoEstoque;
+        this.leaseAgendamento = leaseAgendamento;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.retencao = retencao;
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.estoque.movimentos.intervalo-compactacao-ms:3600000}",
+            initialDelayString = "${app.estoque.movimentos.intervalo-compactacao-ms:3600000}"
+    )
+    public void agenda() {
+        this.leaseAgendamento.executa("compactaMovimentosEstoque", this::compacta);
+    }
+
+    public void compacta() {
+        final var limite = LocalDate.now().minusDays(this.retencao.toDays());
+        var compactados = 0L;
+        var maisAntigo = this.movimentoEstoqueRepository.buscaDataDoMovimentoMaisAntigo();
+        while (Objects.nonNull(maisAntigo) && maisAntigo.toLocalDate().isBefore(limite)) {
+            final var dia = maisAntigo.toLocalDate();
+            compactados += Objects.requireNonNullElse(this.transacao.execute(estado -> this.compactaDia(dia)), 0L);
+            this.particoesMovimentoEstoque.removeParticao(dia);
+            maisAntigo = this.movimentoEstoqueRepository.buscaDataDoMovimentoMaisAntigo();
+        }
+        this.particoesMovimentoEstoque.removeParticoesVaziasAntesDe(limite);
+        if (compactados > 0) {
+            System.out.println("Movimentos de estoque compactados: " + compactados);
+        }
+    }
+
+    private long compactaDia(final LocalDate dia) {
+        this.particoesMovimentoEstoque.bloqueiaDia(dia);
+        final var inicio = dia.atStartOfDay();
+        final var fim = dia.plusDays(1).atStartOfDay();
+        final var totais = this.movimentoEstoqueRepository.totaliza(inicio, fim);
+
+        // Movimentos do dia gravados depois de uma compactacao (relogio atrasado em outra replica) somam no total existente
+        final var diarios = new HashMap<MovimentoEstoqueDiarioId, MovimentoEstoqueDiarioEntity>();
+        this.movimentoEstoqueDiarioRepository.findAllById(
+                totais.stream().map(total -> new MovimentoEstoqueDiarioId(total.getEan(), dia, total.getMotivo())).toList()
+        ).forEach(diario -> diarios.put(diario.getId(), diario));
+
+        for (var total : totais) {
+            final var diario = diarios.computeIfAbsent(
+                    new MovimentoEstoqueDiarioId(total.getEan(), dia, total.getMotivo()),
+                    id -> new MovimentoEstoqueDiarioEntity(id, 0, 0)
+            );
+            diario.setTotal(diario.getTotal() + total.getTotal());
+            diario.setMovimentos(diario.getMovimentos() + total.getMovimentos());
+        }
+        this.movimentoEstoqueDiarioRepository.saveAll(diarios.values());
+
+        this.particoesMovimentoEstoque.esvaziaDia(dia);
+        return totais.stream().mapToLong(TotalMovimentosEstoque::getMovimentos).sum();
+    }
+
+}
@@ -0,0 +1,288 @@
+package com.fiap.techchallenge4.infrastructure.estoque;
+
+import com.fiap.techchallenge4.domain.event.ProdutoAlteradoEvent;
+import com.fiap.techchallenge4.infrastructure.cache.CacheCompartilhadoProduto;
+import com.fiap.techchallenge4.infrastructure.repository.ProdutoRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Quantidade em estoque por EAN em arrays de long com enderecamento aberto, para responder o temEstoque
+// sem ir ao banco. A leitura nao usa lock nem aloca; as escritas sao serializadas e chegam pelos
+// ProdutoAlteradoEvent depois do commit. Alteracoes feitas por outras instancias chegam pelo canal de invalidacao
+// do cache compartilhado e deixam o EAN desconhecido, para a proxima leitura ir ao banco. A invalidacao de todos
+// os produtos (fim de uma importacao) recarrega o indice em segundo plano em vez de esvazia-lo: ate a recarga
+// terminar o temEstoque responde com as quantidades de antes da importacao, sem mandar todo o trafego ao banco
+@Component
+public class IndiceEstoque implements DisposableBean {
+
+    public static final long AUSENTE = -1;
+
+    private static final long REMOVIDO = -1;
+    private static final long DESCONHECIDO = -2;
+    private static final int TAMANHO_PAGINA = 10_000;
+
+    private final ProdutoRepository repository;
+    private volatile Tabela tabela = new Tabela(1024);
+    private List<ProdutoAlteradoEvent> alteracoesDuranteRecarga;
+    private List<Long> invalidacoesDuranteRecarga;
+    private volatile long invalidacoes;
+    private final Object recarregando = new Object();
+    private final AtomicBoolean recargaPendente = new AtomicBoolean();
+    private final ExecutorService recargas;
+
+    public IndiceEstoque(final ProdutoRepository repository,
+                         final CacheCompartilhadoProduto compartilhado) {
+        this.repository = repository;
+        this.recargas = Executors.newSingleThreadExecutor(tarefa -> {
+            final var thread = new Thread(tarefa, "indice-estoque-recarga");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compartilhado.inscreve((ean, publicadoEm) -> this.invalida(ean));
+    }
+
+    // AUSENTE quando o produto nao esta no indice: quem chama deve consultar o banco
+    public long quantidade(final long ean) {
+        return this.tabela.busca(ean);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void aoAlterarProduto(final ProdutoAlteradoEvent evento) {
+        this.aplica(evento);
+        if (Objects.nonNull(this.alteracoesDuranteRecarga)) {
+            this.alteracoesDuranteRecarga.add(evento);
+        }
+    }
+
+    // Ean nulo agenda uma recarga. A invalidacao tambem chega na instancia que gravou, depois do
+    // ProdutoAlteradoEvent: custa uma ida ao banco, mas evita guardar uma quantidade que outra instancia ja mudou
+    public synchronized void invalida(final Long ean) {
+        this.invalidacoes++;
+        if (Objects.isNull(ean)) {
+            this.agendaRecarga();
+            return;
+        }
+        this.tabela = this.tabela.grava(ean, DESCONHECIDO);
+        if (Objects.nonNull(this.invalidacoesDuranteRecarga)) {
+            this.invalidacoesDuranteRecarga.add(ean);
+        }
+    }
+
+    // Pegar antes de ler o produto do banco e passar para o carregaSeAusente
+    public long marca() {
+        return this.invalidacoes;
+    }
+
+    // Produto lido do banco fora de um evento: nao sobrescreve o que ja chegou por evento
+    public void carregaSeAusente(final long ean, final long quantidade) {
+        this.carregaSeAusente(ean, quantidade, this.marca());
+    }
+
+    // Uma invalidacao depois da marca pode ser de uma gravacao que a leitura nao viu: nao guarda nada
+    public synchronized void carregaSeAusente(final long ean, final long quantidade, final long marca) {
+        if (this.invalidacoes == marca && this.tabela.ausente(ean)) {
+            this.tabela = this.tabela.grava(ean, quantidade);
+        }
+    }
+
+    // Na subida quem chama e o SnapshotEstoque, depois de tentar carregar o snapshot local
+    @Scheduled(initialDelayString = "${app.estoque.indice.intervalo-recarga-ms:300000}",
+            fixedDelayString = "${app.estoque.indice.intervalo-recarga-ms:300000}")
+    public void recarrega() {
+        synchronized (this.recarregando) {
+            this.recarregaTabela();
+        }
+    }
+
+    // Varias invalidacoes seguidas viram uma recarga so; uma que chega durante a recarga agenda mais uma,
+    // porque a leitura em andamento pode ser de antes da importacao
+    private void agendaRecarga() {
+        if (this.recargaPendente.compareAndSet(false, true)) {
+            this.recargas.execute(() -> {
+                this.recargaPendente.set(false);
+                this.recarrega();
+            });
+        }
+    }
+
+    private void recarregaTabela() {
+        synchronized (this) {
+            this.alteracoesDuranteRecarga = new ArrayList<>();
+            this.invalidacoesDuranteRecarga = new ArrayList<>();
+        }
+
+        var nova = new Tabela(this.tabela.capacidade());
+        var total = 0;
+        try {
+            var ultimoEan = 0L;
+            while (true) {
+                final var pagina = this.repository.buscaEstoques(ultimoEan, PageRequest.ofSize(TAMANHO_PAGINA));
+                for (var estoque : pagina) {
+                    nova = nova.grava(estoque.getEan(), estoque.getQuantidade());
+                    ultimoEan = estoque.getEan();
+                }
+                total += pagina.size();
+                if (pagina.size() < TAMANHO_PAGINA) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                this.alteracoesDuranteRecarga = null;
+                this.invalidacoesDuranteRecarga = null;
+            }
+            System.out.println("Não foi possível recarregar o índice de estoque: " + e.getMessage());
+            return;
+        }
+
+        // Eventos que chegaram durante a leitura podem ser mais novos que o que foi lido
+        synchronized (this) {
+            for (var evento : this.alteracoesDuranteRecarga) {
+                nova = evento.foiRemovido()
+                        ? nova.grava(evento.ean(), REMOVIDO)
+                        : nova.grava(evento.ean(), evento.quantidade());
+            }
+            for (var ean : this.invalidacoesDuranteRecarga) {
+                nova = nova.grava(ean, DESCONHECIDO);
+            }
+            this.alteracoesDuranteRecarga = null;
+            this.invalidacoesDuranteRecarga = null;
+            this.tabela = nova;
+        }
+        System.out.println("Índice de estoque carregado com " + total + " produtos");
+    }
+
+    public void percorre(final ConsumidorEstoque consumidor) {
+        this.tabela.percorre(consumidor);
+    }
+
+    @Override
+    public void destroy() {
+        this.recargas.shutdownNow();
+    }
+
+    private void aplica(final ProdutoAlteradoEvent evento) {
+        this.tabela = evento.foiRemovido()
+                ? this.tabela.grava(evento.ean(), REMOVIDO)
+                : this.tabela.grava(evento.ean(), evento.quantidade());
+    }
+
+    @FunctionalInterface
+    public interface ConsumidorEstoque {
+        void aceita(long ean, long quantidade);
+    }
+
+    // Sondagem linear; EAN 0 marca posicao vazia. Na insercao a quantidade e gravada antes do EAN,
+    // entao quem le o EAN ja enxerga a quantidade. Produtos removidos ficam com REMOVIDO e os invalidados
+    // com DESCONHECIDO ate a proxima recarga
+    private static final class Tabela {
+
+        private final AtomicLongArray eans;
+        private final AtomicLongArray quantidades;
+        private final int mascara;
+        private int ocupadas;
+
+        private Tabela(final int capacidade) {
+            this.eans = new AtomicLongArray(capacidade);
+            this.quantidades = new AtomicLongArray(capacidade);
+            this.mascara = capacidade - 1;
+        }
+
+        private int capacidade() {
+            return this.eans.length();
+        }
+
+        private long busca(final long ean) {
+            var posicao = espalha(ean) & this.mascara;
+            while (true) {
+                final var atual = this.eans.get(posicao);
+                if (atual == 0) {
+                    return AUSENTE;
+                }
+                if (atual == ean) {
+                    final var quantidade = this.quantidades.get(posicao);
+                    return quantidade < 0 ? AUSENTE : quantidade;
+                }
+                posicao = (posicao + 1) & this.mascara;
+            }
+        }
+
+        private boolean ausente(final long ean) {
+            var posicao = espalha(ean) & this.mascara;
+            while (true) {
+                final var atual = this.eans.get(posicao);
+                if (atual == 0) {
+                    return true;
+                }
+                if (atual == ean) {
+                    return this.quantidades.get(posicao) == DESCONHECIDO;
+                }
+                posicao = (posicao + 1) & this.mascara;
+            }
+        }
+
+        // Retorna a propria tabela ou, quando passa da metade, uma copia com o dobro da capacidade
+        private Tabela grava(final long ean, final long quantidade) {
+            var posicao = espalha(ean) & this.mascara;
+            while (true) {
+                final var atual = this.eans.get(posicao);
+                if (atual == ean) {
+                    this.quantidades.set(posicao, quantidade);
+                    return this;
+                }
+                if (atual == 0) {
+                    if ((this.ocupadas + 1) * 2 > this.capacidade()) {
+                        return this.dobra().grava(ean, quantidade);
+                    }
+                    this.quantidades.set(posicao, quantidade);
+                    this.eans.set(posicao, ean);
+                    this.ocupadas++;
+                    return this;
+                }
+                posicao = (posicao + 1) & this.mascara;
+            }
+        }
+
+        private void percorre(final ConsumidorEstoque consumidor) {
+            for (var i = 0; i < this.capacidade(); i++) {
+                final var ean = this.eans.get(i);
+                final var quantidade = this.quantidades.get(i);
+                if (ean != 0 && quantidade >= 0) {
+                    consumidor.aceita(ean, quantidade);
+                }
+            }
+        }
+
+        private Tabela dobra() {
+            var nova = new Tabela(this.capacidade() * 2);
+            for (var i = 0; i < this.capacidade(); i++) {
+                final var ean = this.eans.get(i);
+                if (ean != 0) {
+                    nova = nova.grava(ean, this.quantidades.get(i));
+                }
+            }
+            return nova;
+        }
+
+        private static int espalha(final long ean) {
+            var hash = ean;
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            return (int) hash;
+        }
+
+    }
+
+}
@@ -0,0 +1,181 @@
+package com.fiap.techchallenge4.infrastructure.estoque;
+
+import com.fiap.techchallenge4.infrastructure.repository.MovimentoEstoqueRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+// No PostgreSQL o tb_movimento_estoque e particionado por dia (db/migration/postgresql/V1): as particoes dos
+// proximos dias sao criadas antes de serem necessarias e a particao DEFAULT recebe o que cair fora delas (um dia ja
+// compactado, um relogio muito adiantado). Um dia ja compactado e esvaziado com TRUNCATE da particao dentro da
+// transacao da compactacao, que so bloqueia a particao do dia; a particao vazia sai depois, fora da transacao, com
+// DETACH e DROP. Sem particionamento (H2 nos testes ou tabela criada pelo Hibernate) o dia e apagado pelo intervalo
+// de datas, que usa o indice ix_movimento_estoque_data
+@Component
+public class ParticoesMovimentoEstoque implements ApplicationRunner {
+
+    public static final String TABELA = "tb_movimento_estoque";
+    public static final String PARTICAO_PADRAO = TABELA + "_padrao";
+    private static final DateTimeFormatter SUFIXO = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MovimentoEstoqueRepository movimentoEstoqueRepository;
+    private final boolean habilitado;
+    private final int diasAFrente;
+    private final Duration esperaMaximaDetach;
+    private volatile Boolean particionada;
+
+    public ParticoesMovimentoEstoque(final JdbcTemplate jdbcTemplate,
+                                     final MovimentoEstoqueRepository movimentoEstoqueRepository,
+                                     @Value("${app.estoque.movimentos.particionamento.habilitado:false}") final boolean habilitado,
+                                     @Value("${app.estoque.movimentos.particionamento.dias-a-frente:7}") final int diasAFrente,
+                                     @Value("${app.estoque.movimentos.particionamento.espera-maxima-detach:PT2S}") final Duration esperaMaximaDetach) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.movimentoEstoqueRepository = movimentoEstoqueRepository;
+        this.habilitado = habilitado;
+        this.diasAFrente = diasAFrente;
+        this.esperaMaximaDetach = esperaMaximaDetach;
+    }
+
+    // Antes do readiness: um insert sem particao para o dia falharia
+    @Override
+    public void run(final ApplicationArguments args) {
+        this.criaParticoesFuturas();
+    }
+
+    public boolean particionada() {
+        if (!this.habilitado) {
+            return false;
+        }
+        if (this.particionada == null) {
+            final var particoes = this.jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid WHERE c.relname = ?",
+                    Integer.class,
+                    TABELA
+            );
+            this.particionada = particoes != null && particoes > 0;
+            if (!this.particionada) {
+                System.out.println("Tabela " + TABELA + " não é particionada, os movimentos compactados serão apagados por intervalo");
+            }
+        }
+        return this.particionada;
+    }
+
+    @Scheduled(cron = "${app.estoque.movimentos.particionamento.cron:0 0 1 * * *}")
+    public void criaParticoesFuturas() {
+        if (!this.particionada()) {
+            return;
+        }
+        this.jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + PARTICAO_PADRAO + " PARTITION OF " + TABELA + " DEFAULT");
+        final var hoje = LocalDate.now();
+        for (var dia = hoje; !dia.isAfter(hoje.plusDays(this.diasAFrente)); dia = dia.plusDays(1)) {
+            try {
+                this.jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + particao(dia) + " PARTITION OF " + TABELA
+                        + " FOR VALUES FROM ('" + dia + "') TO ('" + dia.plusDays(1) + "')");
+            } catch (DataAccessException e) {
+                // A DEFAULT ja tem movimentos do dia: eles continuam la e sao compactados por intervalo
+                System.out.println("Não foi possível criar a partição " + particao(dia) + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Na transacao da compactacao, antes de totalizar: nenhum movimento do dia entra entre a soma e a remocao
+    public void bloqueiaDia(final LocalDate dia) {
+        if (!this.particionada()) {
+            return;
+        }
+        final var tabela = this.existe(particao(dia)) ? particao(dia) : PARTICAO_PADRAO;
+        if (this.existe(tabela)) {
+            this.jdbcTemplate.execute("LOCK TABLE " + tabela + " IN EXCLUSIVE MODE");
+        }
+    }
+
+    // Na transacao da compactacao: o TRUNCATE so bloqueia a particao do dia, nunca o tb_movimento_estoque
+    public void esvaziaDia(final LocalDate dia) {
+        if (this.particionada() && this.existe(particao(dia))) {
+            this.jdbcTemplate.execute("TRUNCATE TABLE " + particao(dia));
+            return;
+        }
+        this.movimentoEstoqueRepository.removePeriodo(dia.atStartOfDay(), dia.plusDays(1).atStartOfDay());
+    }
+
+    // Fora de transacao, depois da compactacao do dia. Se o DETACH nao conseguir o lock a tempo a particao vazia
+    // fica para removeParticoesVaziasAntesDe
+    public void removeParticao(final LocalDate dia) {
+        if (this.particionada()) {
+            this.remove(particao(dia));
+        }
+    }
+
+    // Particoes vazias anteriores ao limite (dias sem movimento, que a compactacao nunca visita)
+    public void removeParticoesVaziasAntesDe(final LocalDate limite) {
+        if (!this.particionada()) {
+            return;
+        }
+        final var particoes = this.jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = ?",
+                String.class,
+                TABELA
+        );
+        for (var particao : particoes) {
+            final var sufixo = particao.substring(particao.lastIndexOf('_') + 1);
+            if (!sufixo.matches("\\d{8}") || !LocalDate.parse(sufixo, SUFIXO).isBefore(limite)) {
+                continue;
+            }
+            final var vazia = Boolean.TRUE.equals(this.jdbcTemplate.queryForObject(
+                    "SELECT NOT EXISTS (SELECT 1 FROM " + particao + ")", Boolean.class));
+            if (vazia) {
+                this.remove(particao);
+            }
+        }
+    }
+
+    // DETACH ... CONCURRENTLY nao bloqueia os inserts no tb_movimento_estoque, mas o PostgreSQL nao o permite
+    // enquanto existe a particao DEFAULT; nesse caso o DETACH comum pega o ACCESS EXCLUSIVE so pela alteracao do
+    // catalogo e desiste depois de espera-maxima-detach, para nao enfileirar as gravacoes de estoque atras dele
+    private void remove(final String particao) {
+        try {
+            if (!this.existe(particao)) {
+                return;
+            }
+            if (this.existe(PARTICAO_PADRAO)) {
+                this.jdbcTemplate.execute((ConnectionCallback<Void>) conexao -> {
+                    try (var comando = conexao.createStatement()) {
+                        comando.execute("SET lock_timeout = " + this.esperaMaximaDetach.toMillis());
+                        try {
+                            comando.execute("ALTER TABLE " + TABELA + " DETACH PARTITION " + particao);
+                        } finally {
+                            comando.execute("RESET lock_timeout");
+                        }
+                    }
+                    return null;
+                });
+            } else {
+                this.jdbcTemplate.execute("ALTER TABLE " + TABELA + " DETACH PARTITION " + particao + " CONCURRENTLY");
+            }
+            this.jdbcTemplate.execute("DROP TABLE IF EXISTS " + particao);
+        } catch (DataAccessException e) {
+            System.out.println("Não foi possível remover a partição " + particao + ": " + e.getMessage());
+        }
+    }
+
+    private boolean existe(final String tabela) {
+        return Boolean.TRUE.equals(this.jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, tabela));
+    }
+
+    public static String particao(final LocalDate dia) {
+        return TABELA + "_" + dia.format(SUFIXO);
+    }
+
+}
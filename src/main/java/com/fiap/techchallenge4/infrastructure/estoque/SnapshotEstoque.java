@@ -0,0 +1,123 @@
+package com.fiap.techchallenge4.infrastructure.estoque;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+// Grava periodicamente o indice de estoque em disco para que, depois de um deploy, ele volte do arquivo
+// mapeado em memoria antes do readiness, em vez de ler a tabela inteira do banco. A reconciliacao com o banco
+// roda em segundo plano. Formato: cabecalho, versao, data da gravacao (epoch ms), total e pares ean/quantidade
+@Component
+public class SnapshotEstoque implements ApplicationRunner {
+
+    private static final int CABECALHO = 0x45535431;
+    private static final int VERSAO = 1;
+
+    private final IndiceEstoque indiceEstoque;
+    private final Path arquivo;
+    private final Duration idadeMaxima;
+
+    public SnapshotEstoque(final IndiceEstoque indiceEstoque,
+                           @Value("${app.estoque.snapshot.arquivo:${java.io.tmpdir}/indice-estoque.snapshot}") final String arquivo,
+                           @Value("${app.estoque.snapshot.idade-maxima:PT1H}") final Duration idadeMaxima) {
+        this.indiceEstoque = indiceEstoque;
+        this.arquivo = Path.of(arquivo);
+        this.idadeMaxima = idadeMaxima;
+    }
+
+    // Roda antes do ApplicationReadyEvent, entao o readiness so fica UP com o indice preenchido
+    @Override
+    public void run(final ApplicationArguments args) {
+        final var carregados = this.carrega();
+        if (carregados < 0) {
+            this.indiceEstoque.recarrega();
+            return;
+        }
+
+        System.out.println("Índice de estoque carregado do snapshot com " + carregados + " produtos");
+        final var reconciliacao = new Thread(this.indiceEstoque::recarrega, "reconcilia-indice-estoque");
+        reconciliacao.setDaemon(true);
+        reconciliacao.start();
+    }
+
+    // Retorna quantos produtos foram carregados, ou -1 se nao ha snapshot valido e recente
+    public int carrega() {
+        if (!Files.isRegularFile(this.arquivo)) {
+            return -1;
+        }
+
+        try (var canal = FileChannel.open(this.arquivo, StandardOpenOption.READ)) {
+            final var buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (buffer.getInt() != CABECALHO || buffer.getInt() != VERSAO) {
+                System.out.println("Snapshot de estoque em formato desconhecido: " + this.arquivo);
+                return -1;
+            }
+            final var gravadoEm = buffer.getLong();
+            if (System.currentTimeMillis() - gravadoEm >= this.idadeMaxima.toMillis()) {
+                System.out.println("Snapshot de estoque antigo demais, ignorado");
+                return -1;
+            }
+
+            final var total = buffer.getInt();
+            if (buffer.remaining() != total * 2L * Long.BYTES) {
+                System.out.println("Snapshot de estoque incompleto: " + this.arquivo);
+                return -1;
+            }
+            for (var i = 0; i < total; i++) {
+                this.indiceEstoque.carregaSeAusente(buffer.getLong(), buffer.getLong());
+            }
+            return total;
+        } catch (IOException | BufferUnderflowException e) {
+            System.out.println("Não foi possível ler o snapshot de estoque: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    // Grava num arquivo temporario e renomeia, para que uma queda no meio nao deixe um snapshot pela metade
+    @Scheduled(initialDelayString = "${app.estoque.snapshot.intervalo-ms:60000}",
+            fixedDelayString = "${app.estoque.snapshot.intervalo-ms:60000}")
+    public void grava() {
+        final var temporario = this.arquivo.resolveSibling(this.arquivo.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(this.arquivo.toAbsolutePath().getParent());
+            final var conteudo = new ByteArrayOutputStream();
+            final var registros = new DataOutputStream(conteudo);
+            final var total = new int[1];
+            this.indiceEstoque.percorre((ean, quantidade) -> {
+                try {
+                    registros.writeLong(ean);
+                    registros.writeLong(quantidade);
+                    total[0]++;
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            try (var saida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporario)))) {
+                saida.writeInt(CABECALHO);
+                saida.writeInt(VERSAO);
+                saida.writeLong(System.currentTimeMillis());
+                saida.writeInt(total[0]);
+                conteudo.writeTo(saida);
+            }
+            Files.move(temporario, this.arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | IllegalStateException e) {
+            System.out.println("Não foi possível gravar o snapshot de estoque: " + e.getMessage());
+        }
+    }
+
+}
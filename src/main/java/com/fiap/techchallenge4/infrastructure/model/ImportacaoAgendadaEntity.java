@@ -0,0 +1,30 @@
+package com.fiap.techchallenge4.infrastructure.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "tb_importacao_agendada")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportacaoAgendadaEntity {
+
+    @Id
+    private String arquivo;
+    private long tamanho;
+    private long modificadoEm;
+    private String hash;
+    private String arquivoImportado;
+    private Long idExecucao;
+    private LocalDateTime dataDeAtualizacao;
+
+}
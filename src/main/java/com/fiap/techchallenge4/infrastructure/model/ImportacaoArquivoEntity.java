@@ -0,0 +1,26 @@
+package com.fiap.techchallenge4.infrastructure.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "tb_importacao_arquivo")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportacaoArquivoEntity {
+
+    @Id
+    private String identificador;
+    private long ultimaLinha;
+    private LocalDateTime dataDeAtualizacao;
+
+}
@@ -0,0 +1,27 @@
+package com.fiap.techchallenge4.infrastructure.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "tb_lease_agendamento")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaseAgendamentoEntity {
+
+    @Id
+    private String nome;
+    private LocalDateTime bloqueadoAte;
+    private LocalDateTime bloqueadoEm;
+    private String bloqueadoPor;
+
+}
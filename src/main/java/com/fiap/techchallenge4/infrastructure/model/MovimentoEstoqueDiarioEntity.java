@@ -0,0 +1,25 @@
+package com.fiap.techchallenge4.infrastructure.model;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Movimentos de estoque ja compactados: total e quantidade de movimentos por EAN, dia e motivo
+@Entity
+@Table(name = "tb_movimento_estoque_diario")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimentoEstoqueDiarioEntity {
+
+    @EmbeddedId
+    private MovimentoEstoqueDiarioId id;
+    private long total;
+    private long movimentos;
+
+}
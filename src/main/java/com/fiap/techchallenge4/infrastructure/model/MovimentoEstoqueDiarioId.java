@@ -0,0 +1,25 @@
+package com.fiap.techchallenge4.infrastructure.model;
+
+import com.fiap.techchallenge4.domain.MotivoMovimentoEstoqueEnum;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimentoEstoqueDiarioId implements Serializable {
+
+    private Long ean;
+    private LocalDate dia;
+    @Enumerated(EnumType.STRING)
+    private MotivoMovimentoEstoqueEnum motivo;
+
+}
@@ -0,0 +1,52 @@
+package com.fiap.techchallenge4.infrastructure.model;
+
+import com.fiap.techchallenge4.domain.MotivoMovimentoEstoqueEnum;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Livro de movimentos de estoque, so recebe inserts: a soma dos deltas de um EAN e a quantidade do produto.
+// O id vem de uma sequence com alocacao em blocos para os inserts sairem em batch (IDENTITY desliga o batch)
+@Entity
+@Table(name = "tb_movimento_estoque", indexes = @Index(name = "ix_movimento_estoque_data", columnList = "dataDoMovimento"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimentoEstoqueEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sq_movimento_estoque")
+    @SequenceGenerator(name = "sq_movimento_estoque", sequenceName = "sq_movimento_estoque", allocationSize = 50)
+    private Long id;
+    private Long ean;
+    private long delta;
+    @Enumerated(EnumType.STRING)
+    private MotivoMovimentoEstoqueEnum motivo;
+    private String origem;
+    private LocalDateTime dataDoMovimento;
+
+    public MovimentoEstoqueEntity(final Long ean,
+                                  final long delta,
+                                  final MotivoMovimentoEstoqueEnum motivo,
+                                  final String origem) {
+        this.ean = ean;
+        this.delta = delta;
+        this.motivo = motivo;
+        this.origem = origem;
+        this.dataDoMovimento = LocalDateTime.now();
+    }
+
+}
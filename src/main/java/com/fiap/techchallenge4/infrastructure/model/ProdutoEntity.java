@@ -1,30 +1,103 @@
 package com.fiap.techchallenge4.infrastructure.model;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.Column;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.springframework.data.domain.Persistable;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "tb_produto")
+@EntityListeners(ProdutoEntityListener.class)
+@DynamicUpdate
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class ProdutoEntity {
+public class ProdutoEntity implements Persistable<Long> {
 
     @Id
     private Long ean;
+    @Column(length = 50)
     private String nome;
+    @Column(length = 50)
     private String descricao;
+    @Column(precision = 12, scale = 2)
     private BigDecimal preco;
     private long quantidade;
     private LocalDateTime dataDeCriacao;
 
+    // Versao e data da ultima gravacao, usadas no ETag e no Last-Modified da busca.
+    // A versao e o controle otimista: quem grava um produto ja cadastrado com uma entidade nova
+    // deve copiar a versao lida, e o update falha se outra gravacao chegou antes.
+    // Com @DynamicUpdate o update so leva as colunas alteradas (um novo preco nao regrava a descricao)
+    @Version
+    @ColumnDefault("0")
+    private long versao;
+    private LocalDateTime dataDeAtualizacao;
+
+    // Origem do produto quando ele vem da importacao, usada para nao aplicar a mesma linha duas vezes
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private String arquivoDeOrigem;
+
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private long linhaDeOrigem;
+
+    // Marcado pelo cadastro em lote, que ja sabe que o EAN nao existe: o save vira persist (insert em batch)
+    // em vez do merge, que faria um select por produto antes do insert
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean novo;
+
+    public ProdutoEntity(final Long ean,
+                         final String nome,
+                         final String descricao,
+                         final BigDecimal preco,
+                         final long quantidade,
+                         final LocalDateTime dataDeCriacao) {
+        this.ean = ean;
+        this.nome = nome;
+        this.descricao = descricao;
+        this.preco = preco;
+        this.quantidade = quantidade;
+        this.dataDeCriacao = dataDeCriacao;
+    }
+
+    @Override
+    public Long getId() {
+        return this.ean;
+    }
+
+    @Override
+    public boolean isNew() {
+        return this.novo;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void marcaAtualizacao() {
+        this.dataDeAtualizacao = LocalDateTime.now();
+    }
+
 }
@@ -0,0 +1,37 @@
+package com.fiap.techchallenge4.infrastructure.model;
+
+import com.fiap.techchallenge4.domain.event.ProdutoAlteradoEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Objects;
+
+// Publica um ProdutoAlteradoEvent para qualquer gravacao feita pelo JPA (use cases, importacao, consumer),
+// sem que cada caminho de escrita precise lembrar de avisar. O Hibernate cria o listener pelo Spring
+public class ProdutoEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProdutoEntityListener(final ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void aoGravar(final ProdutoEntity produto) {
+        this.eventPublisher.publishEvent(new ProdutoAlteradoEvent(
+                produto.getEan(),
+                produto.getQuantidade(),
+                Objects.nonNull(produto.getArquivoDeOrigem()),
+                produto.getNome()
+        ));
+    }
+
+    @PostRemove
+    public void aoRemover(final ProdutoEntity produto) {
+        this.eventPublisher.publishEvent(ProdutoAlteradoEvent.removido(produto.getEan()));
+    }
+
+}
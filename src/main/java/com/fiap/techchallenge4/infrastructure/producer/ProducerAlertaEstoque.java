@@ -0,0 +1,22 @@
+package com.fiap.techchallenge4.infrastructure.producer;
+
+import com.fiap.techchallenge4.infrastructure.producer.request.AlertaEstoqueDTO;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ProducerAlertaEstoque {
+
+    public static final String BINDING = "alertaEstoque-out-0";
+
+    private final StreamBridge streamBridge;
+
+    public ProducerAlertaEstoque(final StreamBridge streamBridge) {
+        this.streamBridge = streamBridge;
+    }
+
+    public boolean envia(final AlertaEstoqueDTO alerta) {
+        return this.streamBridge.send(BINDING, alerta);
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.fiap.techchallenge4.infrastructure.producer.request;
+
+import java.time.LocalDateTime;
+
+public record AlertaEstoqueDTO(
+		Long ean,
+		Long quantidade,
+		Long limite,
+		String tipo,
+		LocalDateTime dataHora
+) {}
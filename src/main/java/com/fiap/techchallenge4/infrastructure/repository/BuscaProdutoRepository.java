@@ -0,0 +1,14 @@
+package com.fiap.techchallenge4.infrastructure.repository;
+
+import com.fiap.techchallenge4.domain.FiltroProdutos;
+import com.fiap.techchallenge4.infrastructure.model.ProdutoEntity;
+
+import java.util.List;
+
+public interface BuscaProdutoRepository {
+
+    List<ProdutoEncontrado> buscaPorTexto(List<String> palavras, PosicaoBuscaProduto depoisDe, int limite);
+
+    List<ProdutoEntity> lista(FiltroProdutos filtro, PosicaoListaProduto depoisDe, int limite);
+
+}
@@ -0,0 +1,151 @@
+package com.fiap.techchallenge4.infrastructure.repository;
+
+import com.fiap.techchallenge4.domain.FiltroProdutos;
+import com.fiap.techchallenge4.infrastructure.datasource.LeituraReplica;
+import com.fiap.techchallenge4.infrastructure.model.ProdutoEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+// Busca por prefixo das palavras de nome e descricao. No PostgreSQL usa a coluna gerada tb_produto.busca
+// (tsvector com o nome de peso A e a descricao de peso B) e o indice GIN ix_produto_busca, ordenando por ts_rank;
+// sem full-text (H2 nos testes) cai num LIKE por palavra, sem relevancia, na ordem do EAN.
+// A listagem com filtros de preco e quantidade pagina pelo indice do preco ou pela chave (ver lista).
+// As duas consultas leem da replica quando ela esta habilitada e em dia (LeituraReplica)
+public class BuscaProdutoRepositoryImpl implements BuscaProdutoRepository {
+
+    private static final String COLUNAS = "p.ean, p.nome, p.descricao, p.preco, p.quantidade, p.data_de_criacao, p.versao, p.data_de_atualizacao";
+
+    private static final RowMapper<ProdutoEntity> PRODUTO = (rs, linha) -> {
+        final var produto = new ProdutoEntity(
+                rs.getLong("ean"),
+                rs.getString("nome"),
+                rs.getString("descricao"),
+                rs.getBigDecimal("preco"),
+                rs.getLong("quantidade"),
+                rs.getObject("data_de_criacao", LocalDateTime.class)
+        );
+        produto.setVersao(rs.getLong("versao"));
+        produto.setDataDeAtualizacao(rs.getObject("data_de_atualizacao", LocalDateTime.class));
+        return produto;
+    };
+
+    private static final RowMapper<ProdutoEncontrado> PRODUTO_ENCONTRADO =
+            (rs, linha) -> new ProdutoEncontrado(PRODUTO.mapRow(rs, linha), rs.getFloat("relevancia"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final LeituraReplica leituraReplica;
+    private final boolean textoCompleto;
+
+    public BuscaProdutoRepositoryImpl(final NamedParameterJdbcTemplate jdbcTemplate,
+                                      final LeituraReplica leituraReplica,
+                                      @Value("${app.produto.busca.texto-completo:false}") final boolean textoCompleto) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leituraReplica = leituraReplica;
+        this.textoCompleto = textoCompleto;
+    }
+
+    @Override
+    public List<ProdutoEncontrado> buscaPorTexto(final List<String> palavras,
+                                                 final PosicaoBuscaProduto depoisDe,
+                                                 final int limite) {
+        final var parametros = new MapSqlParameterSource("limite", limite);
+        if (Objects.nonNull(depoisDe)) {
+            parametros.addValue("relevancia", depoisDe.relevancia());
+            parametros.addValue("ean", depoisDe.ean());
+        }
+        final var sql = this.textoCompleto
+                ? sqlTextoCompleto(palavras, depoisDe, parametros)
+                : sqlLike(palavras, depoisDe, parametros);
+        return this.leituraReplica.executa(() -> this.jdbcTemplate.query(sql, parametros, PRODUTO_ENCONTRADO));
+    }
+
+    // A subconsulta escolhe so o EAN da pagina pelo indice (preco, ean) ou pela chave; as linhas completas sao
+    // lidas depois pela chave, no maximo limite delas. Com filtro de preco a ordem e (preco, ean), senao o EAN.
+    // Quantidade nao tem indice, para as gravacoes de estoque continuarem HOT: o filtro de quantidade e conferido
+    // na linha, e uma faixa que quase nenhum produto atende percorre boa parte da tabela ate encher a pagina
+    @Override
+    public List<ProdutoEntity> lista(final FiltroProdutos filtro,
+                                     final PosicaoListaProduto depoisDe,
+                                     final int limite) {
+        final var coluna = filtro.filtraPreco() ? "preco" : null;
+        final var parametros = new MapSqlParameterSource("limite", limite);
+        final var condicoes = new StringBuilder(" WHERE 1 = 1");
+        if (Objects.nonNull(filtro.getPrecoMinimo())) {
+            condicoes.append(" AND preco >= :precoMinimo");
+            parametros.addValue("precoMinimo", filtro.getPrecoMinimo());
+        }
+        if (Objects.nonNull(filtro.getPrecoMaximo())) {
+            condicoes.append(" AND preco <= :precoMaximo");
+            parametros.addValue("precoMaximo", filtro.getPrecoMaximo());
+        }
+        if (Objects.nonNull(filtro.getQuantidadeMinima())) {
+            condicoes.append(" AND quantidade >= :quantidadeMinima");
+            parametros.addValue("quantidadeMinima", filtro.getQuantidadeMinima());
+        }
+        if (Objects.nonNull(filtro.getQuantidadeMaxima())) {
+            condicoes.append(" AND quantidade <= :quantidadeMaxima");
+            parametros.addValue("quantidadeMaxima", filtro.getQuantidadeMaxima());
+        }
+        if (Objects.nonNull(depoisDe)) {
+            parametros.addValue("ean", depoisDe.ean());
+            if (Objects.isNull(coluna) || Objects.isNull(depoisDe.valor())) {
+                condicoes.append(" AND ean > :ean");
+            } else {
+                // Comparacao de linha: o indice posiciona direto no primeiro produto depois do cursor
+                condicoes.append(" AND (").append(coluna).append(", ean) > (:valor, :ean)");
+                parametros.addValue("valor", new BigDecimal(depoisDe.valor()));
+            }
+        }
+        final var ordem = Objects.isNull(coluna) ? "ean" : coluna + ", ean";
+
+        final var sql = "SELECT " + COLUNAS
+                + " FROM tb_produto p JOIN (SELECT ean FROM tb_produto" + condicoes
+                + " ORDER BY " + ordem + " LIMIT :limite) pagina ON pagina.ean = p.ean"
+                + " ORDER BY " + (Objects.isNull(coluna) ? "p.ean" : "p." + coluna + ", p.ean");
+        return this.leituraReplica.executa(() -> this.jdbcTemplate.query(sql, parametros, PRODUTO));
+    }
+
+    // As palavras so tem letras e numeros (TermoBusca), entao podem ir para o to_tsquery como "palavra:*"
+    private static String sqlTextoCompleto(final List<String> palavras,
+                                           final PosicaoBuscaProduto depoisDe,
+                                           final MapSqlParameterSource parametros) {
+        parametros.addValue("consulta", palavras.stream().map(palavra -> palavra + ":*").collect(Collectors.joining(" & ")));
+        return "SELECT " + COLUNAS + ", ts_rank(p.busca, q.consulta) AS relevancia"
+                + " FROM tb_produto p, to_tsquery('simple', :consulta) AS q(consulta)"
+                + " WHERE p.busca @@ q.consulta"
+                + (Objects.nonNull(depoisDe)
+                    ? " AND (ts_rank(p.busca, q.consulta) < :relevancia OR (ts_rank(p.busca, q.consulta) = :relevancia AND p.ean > :ean))"
+                    : "")
+                + " ORDER BY relevancia DESC, p.ean"
+                + " LIMIT :limite";
+    }
+
+    private static String sqlLike(final List<String> palavras,
+                                  final PosicaoBuscaProduto depoisDe,
+                                  final MapSqlParameterSource parametros) {
+        final var condicoes = new StringBuilder();
+        for (var i = 0; i < palavras.size(); i++) {
+            parametros.addValue("inicio" + i, palavras.get(i) + "%");
+            parametros.addValue("meio" + i, "% " + palavras.get(i) + "%");
+            condicoes.append(" AND (LOWER(p.nome) LIKE :inicio").append(i)
+                    .append(" OR LOWER(p.nome) LIKE :meio").append(i)
+                    .append(" OR LOWER(p.descricao) LIKE :inicio").append(i)
+                    .append(" OR LOWER(p.descricao) LIKE :meio").append(i).append(")");
+        }
+        return "SELECT " + COLUNAS + ", CAST(0 AS REAL) AS relevancia"
+                + " FROM tb_produto p"
+                + " WHERE 1 = 1" + condicoes
+                + (Objects.nonNull(depoisDe) ? " AND p.ean > :ean" : "")
+                + " ORDER BY p.ean"
+                + " LIMIT :limite";
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.fiap.techchallenge4.infrastructure.repository;
+
+public interface EstoqueProduto {
+
+    Long getEan();
+
+    long getQuantidade();
+
+}
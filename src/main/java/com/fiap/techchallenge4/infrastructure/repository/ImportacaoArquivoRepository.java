@@ -0,0 +1,7 @@
+package com.fiap.techchallenge4.infrastructure.repository;
+
+import com.fiap.techchallenge4.infrastructure.model.ImportacaoArquivoEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ImportacaoArquivoRepository extends JpaRepository<ImportacaoArquivoEntity, String> {
+}
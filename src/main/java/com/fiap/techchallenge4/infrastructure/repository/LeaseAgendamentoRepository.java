@@ -0,0 +1,41 @@
+package com.fiap.techchallenge4.infrastructure.repository;
+
+import com.fiap.techchallenge4.infrastructure.model.LeaseAgendamentoEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface LeaseAgendamentoRepository extends JpaRepository<LeaseAgendamentoEntity, String> {
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO tb_lease_agendamento (nome, bloqueado_ate, bloqueado_em, bloqueado_por) VALUES (:nome, :ate, :agora, :dono)",
+            nativeQuery = true)
+    int cria(@Param("nome") String nome,
+             @Param("dono") String dono,
+             @Param("agora") LocalDateTime agora,
+             @Param("ate") LocalDateTime ate);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE LeaseAgendamentoEntity l SET l.bloqueadoAte = :ate, l.bloqueadoEm = :agora, l.bloqueadoPor = :dono " +
+            "WHERE l.nome = :nome AND l.bloqueadoAte <= :agora")
+    int adquire(@Param("nome") String nome,
+                @Param("dono") String dono,
+                @Param("agora") LocalDateTime agora,
+                @Param("ate") LocalDateTime ate);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE LeaseAgendamentoEntity l SET l.bloqueadoAte = :ate " +
+            "WHERE l.nome = :nome AND l.bloqueadoPor = :dono AND l.bloqueadoEm = :desde")
+    int renova(@Param("nome") String nome,
+               @Param("dono") String dono,
+               @Param("desde") LocalDateTime desde,
+               @Param("ate") LocalDateTime ate);
+
+}
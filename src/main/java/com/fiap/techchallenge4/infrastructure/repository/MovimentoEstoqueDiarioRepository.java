@@ -0,0 +1,9 @@
+package com.fiap.techchallenge4.infrastructure.repository;
+
+import com.fiap.techchallenge4.infrastructure.model.MovimentoEstoqueDiarioEntity;
+import com.fiap.techchallenge4.infrastructure.model.MovimentoEstoqueDiarioId;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface MovimentoEstoqueDiarioRepository extends JpaRepository<MovimentoEstoqueDiarioEntity, MovimentoEstoqueDiarioId> {
+
+}
@@ -0,0 +1,25 @@
+package com.fiap.techchallenge4.infrastructure.repository;
+
+import com.fiap.techchallenge4.infrastructure.model.MovimentoEstoqueEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface MovimentoEstoqueRepository extends JpaRepository<MovimentoEstoqueEntity, Long> {
+
+    @Query("SELECT MIN(m.dataDoMovimento) FROM MovimentoEstoqueEntity m")
+    LocalDateTime buscaDataDoMovimentoMaisAntigo();
+
+    @Query("SELECT m.ean AS ean, m.motivo AS motivo, SUM(m.delta) AS total, COUNT(m) AS movimentos FROM MovimentoEstoqueEntity m " +
+            "WHERE m.dataDoMovimento >= :inicio AND m.dataDoMovimento < :fim GROUP BY m.ean, m.motivo")
+    List<TotalMovimentosEstoque> totaliza(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    @Modifying
+    @Query("DELETE FROM MovimentoEstoqueEntity m WHERE m.dataDoMovimento >= :inicio AND m.dataDoMovimento < :fim")
+    int removePeriodo(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+}
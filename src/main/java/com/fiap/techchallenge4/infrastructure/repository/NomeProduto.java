@@ -0,0 +1,9 @@
+package com.fiap.techchallenge4.infrastructure.repository;
+
+public interface NomeProduto {
+
+    Long getEan();
+
+    String getNome();
+
+}
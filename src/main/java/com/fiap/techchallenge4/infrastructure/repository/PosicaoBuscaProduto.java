@@ -0,0 +1,28 @@
+package com.fiap.techchallenge4.infrastructure.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+// Ultimo produto de uma pagina da busca, na ordem (relevancia desc, ean): a proxima pagina comeca depois dele.
+// O float vai como texto e volta identico, entao a comparacao de igualdade com o ts_rank e exata
+public record PosicaoBuscaProduto(float relevancia, long ean) {
+
+    public String codifica() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((this.relevancia + ":" + this.ean).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PosicaoBuscaProduto decodifica(final String pagina) {
+        if (Objects.isNull(pagina) || pagina.isBlank()) {
+            return null;
+        }
+        try {
+            final var partes = new String(Base64.getUrlDecoder().decode(pagina), StandardCharsets.UTF_8).split(":");
+            return new PosicaoBuscaProduto(Float.parseFloat(partes[0]), Long.parseLong(partes[1]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("PAGINA INVALIDA!");
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.fiap.techchallenge4.infrastructure.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+// Ultimo produto de uma pagina da listagem: valor da coluna de ordenacao (preco ou vazio
+// quando a ordem e so pelo EAN) e o EAN. A proxima pagina comeca depois dele
+public record PosicaoListaProduto(String valor, long ean) {
+
+    public String codifica() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((Objects.requireNonNullElse(this.valor, "") + ":" + this.ean).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PosicaoListaProduto decodifica(final String pagina) {
+        if (Objects.isNull(pagina) || pagina.isBlank()) {
+            return null;
+        }
+        try {
+            final var texto = new String(Base64.getUrlDecoder().decode(pagina), StandardCharsets.UTF_8);
+            final var separador = texto.lastIndexOf(':');
+            final var valor = texto.substring(0, separador);
+            return new PosicaoListaProduto(valor.isEmpty() ? null : valor, Long.parseLong(texto.substring(separador + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("PAGINA INVALIDA!");
+        }
+    }
+
+}
@@ -0,0 +1,5 @@
+package com.fiap.techchallenge4.infrastructure.repository;
+
+import com.fiap.techchallenge4.infrastructure.model.ProdutoEntity;
+
+public record ProdutoEncontrado(ProdutoEntity produto, float relevancia) {}
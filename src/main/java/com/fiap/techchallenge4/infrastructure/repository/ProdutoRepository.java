@@ -1,7 +1,19 @@
 package com.fiap.techchallenge4.infrastructure.repository;
 
 import com.fiap.techchallenge4.infrastructure.model.ProdutoEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ProdutoRepository extends JpaRepository<ProdutoEntity, Long>, BuscaProdutoRepository {
+
+    @Query("SELECT p.ean AS ean, p.quantidade AS quantidade FROM ProdutoEntity p WHERE p.ean > :depoisDe ORDER BY p.ean")
+    List<EstoqueProduto> buscaEstoques(@Param("depoisDe") Long depoisDe, Pageable pagina);
+
+    @Query("SELECT p.ean AS ean, p.nome AS nome FROM ProdutoEntity p WHERE p.ean > :depoisDe ORDER BY p.ean")
+    List<NomeProduto> buscaNomes(@Param("depoisDe") Long depoisDe, Pageable pagina);
 
-public interface ProdutoRepository extends JpaRepository<ProdutoEntity, Long> {
 }
@@ -0,0 +1,15 @@
+package com.fiap.techchallenge4.infrastructure.repository;
+
+import com.fiap.techchallenge4.domain.MotivoMovimentoEstoqueEnum;
+
+public interface TotalMovimentosEstoque {
+
+    Long getEan();
+
+    MotivoMovimentoEstoqueEnum getMotivo();
+
+    long getTotal();
+
+    long getMovimentos();
+
+}
@@ -1,23 +1,61 @@
 package com.fiap.techchallenge4.useCase;
 
 import com.fiap.techchallenge4.infrastructure.consumer.response.AtualizaEstoqueDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaParcialProdutoDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaProdutoLoteDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.CriaProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.FiltroProdutosDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ItemLoteDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.PaginaProdutosDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.ProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ResultadoItemLoteDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.StatusImportacaoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.SugestaoProdutoDTO;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+import java.util.Set;
 
 public interface ProdutoUseCase {
 
-    void importa();
+    Long importa();
+
+    Long importa(final String caminho);
+
+    Long importa(final MultipartFile arquivo);
+
+    StatusImportacaoDTO statusImportacao(final Long id);
 
     boolean cadastra(final CriaProdutoDTO produto);
 
     boolean atualiza(final Long ean,
-                     final AtualizaProdutoDTO dadosProduto);
+                     final AtualizaProdutoDTO dadosProduto,
+                     final Set<String> etagsEsperados);
+
+    boolean atualizaParcial(final Long ean,
+                            final AtualizaParcialProdutoDTO alteracoes,
+                            final Set<String> etagsEsperados);
+
+    List<ResultadoItemLoteDTO> cadastraLote(final List<ItemLoteDTO<CriaProdutoDTO>> itens);
+
+    List<ResultadoItemLoteDTO> atualizaLote(final List<ItemLoteDTO<AtualizaProdutoLoteDTO>> itens);
 
     boolean deleta(final Long ean);
 
     ProdutoDTO busca(final Long ean);
 
+    PaginaProdutosDTO buscaPorTexto(final String termo,
+                                    final String pagina,
+                                    final int tamanho);
+
+    List<SugestaoProdutoDTO> sugere(final String termo,
+                                    final int limite);
+
+    PaginaProdutosDTO lista(final FiltroProdutosDTO filtro,
+                            final String pagina,
+                            final int tamanho);
+
     Boolean temEstoque(final Long ean,
                        final Long quantidade);
 
@@ -1,22 +1,149 @@
 package com.fiap.techchallenge4.useCase;
 
+import com.fiap.techchallenge4.infrastructure.agendamento.LeaseAgendamento;
+import com.fiap.techchallenge4.infrastructure.batch.ArquivoDeAlteracoes;
+import com.fiap.techchallenge4.infrastructure.batch.ArquivosImportacao;
+import com.fiap.techchallenge4.infrastructure.batch.FimImportacaoListener;
+import com.fiap.techchallenge4.infrastructure.batch.ImpressaoDigitalArquivo;
+import com.fiap.techchallenge4.infrastructure.model.ImportacaoAgendadaEntity;
+import com.fiap.techchallenge4.infrastructure.repository.ImportacaoAgendadaRepository;
 import com.fiap.techchallenge4.useCase.impl.ProdutoUseCaseImpl;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class ScheduleUseCase {
 
+    private static final List<String> STATUS_PARA_RETOMAR = List.of("FAILED", "STOPPED", "ABANDONED");
+
     private final ProdutoUseCaseImpl service;
+    private final ImportacaoAgendadaRepository repository;
+    private final ArquivosImportacao arquivosImportacao;
+    private final LeaseAgendamento leaseAgendamento;
+    private final FimImportacaoListener fimImportacao;
+    private final String arquivo;
+    private final boolean somenteLinhasAlteradas;
 
-    public ScheduleUseCase(final ProdutoUseCaseImpl service) {
+    public ScheduleUseCase(final ProdutoUseCaseImpl service,
+                           final ImportacaoAgendadaRepository repository,
+                           final ArquivosImportacao arquivosImportacao,
+                           final LeaseAgendamento leaseAgendamento,
+                           final FimImportacaoListener fimImportacao,
+                           @Value("${app.importacao.agendamento.arquivo:" + ArquivosImportacao.ARQUIVO_PADRAO + "}") final String arquivo,
+                           @Value("${app.importacao.agendamento.somente-linhas-alteradas:false}") final boolean somenteLinhasAlteradas) {
         this.service = service;
+        this.repository = repository;
+        this.arquivosImportacao = arquivosImportacao;
+        this.leaseAgendamento = leaseAgendamento;
+        this.fimImportacao = fimImportacao;
+        this.arquivo = arquivo;
+        this.somenteLinhasAlteradas = somenteLinhasAlteradas;
     }
 
     //TODO: Executa de 10 em 10 minutos, no minuto 00. Exemplo: 20:00 / 20:10 / 20:20
+    // O lease fica com esta replica ate o job disparado terminar, nao so ate o disparo
     @Scheduled(cron = "0 0/10 * * * ?")
     public void importaProdutos() {
-        this.service.importa();
+        this.leaseAgendamento.executaAteConcluir("importaProdutos", this::importaSeAlterado);
+    }
+
+    private CompletableFuture<?> importaSeAlterado() {
+        final var caminho = ArquivosImportacao.ARQUIVO_PADRAO.equals(this.arquivo)
+                ? this.arquivo
+                : this.arquivosImportacao.resolve(this.arquivo);
+        final var recurso = ArquivosImportacao.recursos(caminho)[0];
+        final var impressaoDigital = ImpressaoDigitalArquivo.de(recurso);
+        final var ultimaImportacao = this.repository.findById(caminho)
+                .orElseGet(() -> ImportacaoAgendadaEntity.builder().arquivo(caminho).build());
+
+        // Tamanho e data iguais: nem le o arquivo
+        if (Objects.nonNull(ultimaImportacao.getHash())
+                && ultimaImportacao.getTamanho() == impressaoDigital.tamanho()
+                && ultimaImportacao.getModificadoEm() == impressaoDigital.modificadoEm()) {
+            return this.retomaSeFalhou(ultimaImportacao);
+        }
+
+        // Arquivo tocado mas com o mesmo conteudo: so atualiza tamanho e data
+        final var hash = ImpressaoDigitalArquivo.hashDoConteudo(recurso);
+        if (hash.equals(ultimaImportacao.getHash())) {
+            System.out.println("Arquivo de importação sem alterações");
+            atualizaImpressaoDigital(ultimaImportacao, impressaoDigital, hash);
+            this.repository.save(ultimaImportacao);
+            return this.retomaSeFalhou(ultimaImportacao);
+        }
+
+        // Impressao digital e copia anterior so avancam com o job concluido: se o disparo ou o job falhar,
+        // o proximo disparo ve o arquivo como alterado e importa de novo as mesmas linhas
+        final Path anterior;
+        final String arquivoImportado;
+        final Long idExecucao;
+        if (this.somenteLinhasAlteradas) {
+            final var diretorio = this.arquivosImportacao.diretorio("agendamento");
+            final var alteracoes = diretorio.resolve("alteracoes-" + hash + ".csv");
+            anterior = diretorio.resolve("anterior-" + ArquivosImportacao.hash(caminho) + ".csv");
+            final var linhasAlteradas = ArquivoDeAlteracoes.gera(recurso, anterior, alteracoes,
+                    "alteracoes de " + caminho + " depois da execucao " + ultimaImportacao.getIdExecucao());
+            System.out.println("Linhas alteradas no arquivo de importação: " + linhasAlteradas);
+            arquivoImportado = alteracoes.toString();
+            idExecucao = this.service.importa(arquivoImportado);
+        } else {
+            anterior = null;
+            arquivoImportado = caminho;
+            idExecucao = this.importa(caminho);
+        }
+
+        return this.fimImportacao.aguarda(idExecucao)
+                .thenAccept(status -> {
+                    if (status != BatchStatus.COMPLETED) {
+                        System.out.println("Importação agendada terminou com status " + status + ", o arquivo será importado de novo");
+                        return;
+                    }
+                    if (Objects.nonNull(anterior)) {
+                        ArquivoDeAlteracoes.confirma(anterior);
+                    }
+                    atualizaImpressaoDigital(ultimaImportacao, impressaoDigital, hash);
+                    ultimaImportacao.setArquivoImportado(arquivoImportado);
+                    ultimaImportacao.setIdExecucao(idExecucao);
+                    this.repository.save(ultimaImportacao);
+                });
+    }
+
+    private static void atualizaImpressaoDigital(final ImportacaoAgendadaEntity importacao,
+                                                 final ImpressaoDigitalArquivo impressaoDigital,
+                                                 final String hash) {
+        importacao.setTamanho(impressaoDigital.tamanho());
+        importacao.setModificadoEm(impressaoDigital.modificadoEm());
+        importacao.setHash(hash);
+        importacao.setDataDeAtualizacao(LocalDateTime.now());
+    }
+
+    private CompletableFuture<?> retomaSeFalhou(final ImportacaoAgendadaEntity ultimaImportacao) {
+        if (Objects.isNull(ultimaImportacao.getIdExecucao())) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final var status = this.service.statusImportacao(ultimaImportacao.getIdExecucao());
+        if (Objects.nonNull(status) && STATUS_PARA_RETOMAR.contains(status.status())) {
+            System.out.println("Retomando importação que falhou");
+            ultimaImportacao.setIdExecucao(this.importa(ultimaImportacao.getArquivoImportado()));
+            this.repository.save(ultimaImportacao);
+            return this.fimImportacao.aguarda(ultimaImportacao.getIdExecucao());
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private Long importa(final String caminho) {
+        if (ArquivosImportacao.ARQUIVO_PADRAO.equals(caminho)) {
+            return this.service.importa();
+        }
+        return this.service.importa(caminho);
     }
 
 }
@@ -1,51 +1,196 @@
 package com.fiap.techchallenge4.useCase.impl;
 
 import com.fiap.techchallenge4.domain.Ean;
+import com.fiap.techchallenge4.domain.FiltroProdutos;
+import com.fiap.techchallenge4.domain.MotivoMovimentoEstoqueEnum;
 import com.fiap.techchallenge4.domain.Produto;
 import com.fiap.techchallenge4.domain.Quantidade;
 import com.fiap.techchallenge4.domain.StatusEstoqueEnum;
+import com.fiap.techchallenge4.domain.StatusItemLoteEnum;
+import com.fiap.techchallenge4.domain.TermoBusca;
+import com.fiap.techchallenge4.domain.exception.VersaoDivergenteException;
+import com.fiap.techchallenge4.infrastructure.batch.ArquivoRejeitadosListener;
+import com.fiap.techchallenge4.infrastructure.batch.ArquivosImportacao;
+import com.fiap.techchallenge4.infrastructure.busca.IndiceBuscaProduto;
+import com.fiap.techchallenge4.infrastructure.cache.CacheBuscaProduto;
+import com.fiap.techchallenge4.infrastructure.cache.CacheProduto;
 import com.fiap.techchallenge4.infrastructure.consumer.response.AtualizaEstoqueDTO;
+import com.fiap.techchallenge4.infrastructure.controller.CorposProduto;
+import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaParcialProdutoDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaProdutoLoteDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.CriaProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.FiltroProdutosDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ItemLoteDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.PaginaProdutosDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.ProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ResultadoItemLoteDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.StatusImportacaoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.SugestaoProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.estoque.AlertaEstoqueBaixo;
+import com.fiap.techchallenge4.infrastructure.estoque.IndiceEstoque;
+import com.fiap.techchallenge4.infrastructure.model.MovimentoEstoqueEntity;
 import com.fiap.techchallenge4.infrastructure.model.ProdutoEntity;
+import com.fiap.techchallenge4.infrastructure.repository.MovimentoEstoqueRepository;
+import com.fiap.techchallenge4.infrastructure.repository.PosicaoBuscaProduto;
+import com.fiap.techchallenge4.infrastructure.repository.PosicaoListaProduto;
 import com.fiap.techchallenge4.infrastructure.repository.ProdutoRepository;
 import com.fiap.techchallenge4.useCase.ProdutoUseCase;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class ProdutoUseCaseImpl implements ProdutoUseCase {
 
+    // Origem gravada nos movimentos de estoque
+    private static final String ORIGEM_API = "api";
+    private static final String ORIGEM_LOTE = "lote";
+    private static final String ORIGEM_EVENTO_ESTOQUE = "evento-estoque";
+
+    private static final int TAMANHO_MAXIMO_PAGINA = 100;
+    private static final int LIMITE_MAXIMO_SUGESTOES = 50;
+
     private final ProdutoRepository repository;
     private final JobLauncher jobLauncher;
     private final Job importaProdutosJob;
+    private final JobExplorer jobExplorer;
+    private final ArquivosImportacao arquivosImportacao;
+    private final IndiceEstoque indiceEstoque;
+    private final CacheProduto cacheProduto;
+    private final CacheBuscaProduto cacheBuscaProduto;
+    private final IndiceBuscaProduto indiceBuscaProduto;
+    private final MovimentoEstoqueRepository movimentoEstoqueRepository;
+    private final AlertaEstoqueBaixo alertaEstoqueBaixo;
+    private final TransactionTemplate transacao;
+    private final int tentativasAtualizacaoEstoque;
 
     public ProdutoUseCaseImpl(final ProdutoRepository repository,
-                              final JobLauncher jobLauncher,
-                              final Job importaProdutosJob) {
+                              @Qualifier("importacaoJobLauncher") final JobLauncher jobLauncher,
+                              final Job importaProdutosJob,
+                              final JobExplorer jobExplorer,
+                              final ArquivosImportacao arquivosImportacao,
+                              final IndiceEstoque indiceEstoque,
+                              final CacheProduto cacheProduto,
+                              final CacheBuscaProduto cacheBuscaProduto,
+                              final IndiceBuscaProduto indiceBuscaProduto,
+                              final MovimentoEstoqueRepository movimentoEstoqueRepository,
+                              final AlertaEstoqueBaixo alertaEstoqueBaixo,
+                              final PlatformTransactionManager transactionManager,
+                              @Value("${app.estoque.atualizacao.tentativas:3}") final int tentativasAtualizacaoEstoque) {
         this.repository = repository;
         this.jobLauncher = jobLauncher;
         this.importaProdutosJob = importaProdutosJob;
+        this.jobExplorer = jobExplorer;
+        this.arquivosImportacao = arquivosImportacao;
+        this.indiceEstoque = indiceEstoque;
+        this.cacheProduto = cacheProduto;
+        this.cacheBuscaProduto = cacheBuscaProduto;
+        this.indiceBuscaProduto = indiceBuscaProduto;
+        this.movimentoEstoqueRepository = movimentoEstoqueRepository;
+        this.alertaEstoqueBaixo = alertaEstoqueBaixo;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.tentativasAtualizacaoEstoque = tentativasAtualizacaoEstoque;
+    }
+
+
+    @Override
+    public Long importa() {
+        return this.iniciaImportacao(ArquivosImportacao.ARQUIVO_PADRAO);
     }
 
+    @Override
+    public Long importa(final String caminho) {
+        return this.iniciaImportacao(this.arquivosImportacao.resolve(caminho));
+    }
 
     @Override
-    public void importa() {
+    public Long importa(final MultipartFile arquivo) {
+        return this.iniciaImportacao(this.arquivosImportacao.armazena(arquivo));
+    }
+
+    // So o conteudo (SHA-256) define a instancia do job; o caminho vai como parametro nao identificador.
+    // Se a execucao anterior falhou o Spring Batch retoma do ultimo chunk gravado, mesmo que o conteudo chegue
+    // por outro upload, e se ja terminou o arquivo nao e importado de novo
+    private Long iniciaImportacao(final String arquivo) {
+        final var params = new JobParametersBuilder()
+                .addString("arquivo", arquivo, false)
+                .addString("identificador", ArquivosImportacao.identificador(arquivo))
+                .toJobParameters();
         try {
-            final var params = new JobParametersBuilder()
-                    .addString("JobID", String.valueOf(System.currentTimeMillis()))
-                    .toJobParameters();
-            this.jobLauncher.run(this.importaProdutosJob, params);
+            return this.jobLauncher.run(this.importaProdutosJob, params).getId();
+        } catch (JobInstanceAlreadyCompleteException | JobExecutionAlreadyRunningException e) {
+            System.out.println("Arquivo já importado ou em importação");
+            final var instancia = this.jobExplorer.getJobInstance(this.importaProdutosJob.getName(), params);
+            return this.jobExplorer.getLastJobExecution(instancia).getId();
         } catch (Exception e) {
-            e.printStackTrace();
+            throw new IllegalStateException("NAO FOI POSSIVEL INICIAR A IMPORTACAO!", e);
+        }
+
+    }
+
+    @Override
+    public StatusImportacaoDTO statusImportacao(final Long id) {
+        final var execucao = this.jobExplorer.getJobExecution(id);
+        if(Objects.isNull(execucao)) {
+            System.out.println("Importação não encontrada");
+            return null;
+        }
+
+        var lidos = 0L;
+        var escritos = 0L;
+        var ignorados = 0L;
+        String arquivoRejeitados = null;
+        for (var passo : execucao.getStepExecutions()) {
+            lidos += passo.getReadCount();
+            escritos += passo.getWriteCount();
+            ignorados += passo.getSkipCount();
+            if(passo.getExecutionContext().containsKey(ArquivoRejeitadosListener.CHAVE_ARQUIVO_REJEITADOS)) {
+                arquivoRejeitados = passo.getExecutionContext().getString(ArquivoRejeitadosListener.CHAVE_ARQUIVO_REJEITADOS);
+            }
         }
 
+        var itensPorSegundo = 0.0;
+        if(Objects.nonNull(execucao.getStartTime())) {
+            final var fim = Objects.nonNull(execucao.getEndTime()) ? execucao.getEndTime() : LocalDateTime.now();
+            final var milissegundos = Duration.between(execucao.getStartTime(), fim).toMillis();
+            if(milissegundos > 0) {
+                itensPorSegundo = escritos * 1000.0 / milissegundos;
+            }
+        }
+
+        return new StatusImportacaoDTO(
+                execucao.getId(),
+                execucao.getStatus().name(),
+                lidos,
+                escritos,
+                ignorados,
+                itensPorSegundo,
+                execucao.getStartTime(),
+                execucao.getEndTime(),
+                arquivoRejeitados
+        );
     }
 
     @Override
@@ -58,28 +203,37 @@ public class ProdutoUseCaseImpl implements ProdutoUseCase {
                 dadosProduto.quantidade()
         );
 
-        final var produtoNaBase = this.repository.findById(dadosProduto.ean());
-        if(produtoNaBase.isEmpty()) {
-            var produtoEntity = new ProdutoEntity(
-                    produto.getEan(),
-                    produto.getNome(),
-                    produto.getDescricao(),
-                    produto.getPreco(),
-                    produto.getQuantidade(),
-                    LocalDateTime.now()
-            );
+        return Boolean.TRUE.equals(this.transacao.execute(status -> {
+            final var produtoNaBase = this.repository.findById(dadosProduto.ean());
+            if(produtoNaBase.isEmpty()) {
+                var produtoEntity = new ProdutoEntity(
+                        produto.getEan(),
+                        produto.getNome(),
+                        produto.getDescricao(),
+                        produto.getPreco(),
+                        produto.getQuantidade(),
+                        LocalDateTime.now()
+                );
+                produtoEntity.setNovo(true);
 
-            this.repository.save(produtoEntity);
-            return true;
-        }
-        System.out.println("Produto já cadastrado");
-        return false;
+                this.repository.save(produtoEntity);
+                this.movimentoEstoqueRepository.save(new MovimentoEstoqueEntity(
+                        produto.getEan(), produto.getQuantidade(), MotivoMovimentoEstoqueEnum.CADASTRO, ORIGEM_API));
+                return true;
+            }
+            System.out.println("Produto já cadastrado");
+            return false;
+        }));
 
     }
 
+    // Leitura e gravacao na mesma transacao de escrita (a leitura vai para o primario, nunca para a replica).
+    // O produto lido e alterado no lugar: o update so leva as colunas que mudaram, e a versao vai no WHERE.
+    // Com etagsEsperados (If-Match) o produto so e alterado se o ETag atual for um deles
     @Override
     public boolean atualiza(final Long ean,
-                            final AtualizaProdutoDTO dadosProduto) {
+                            final AtualizaProdutoDTO dadosProduto,
+                            final Set<String> etagsEsperados) {
         final var produto = new Produto(
                 ean,
                 dadosProduto.nome(),
@@ -88,70 +242,311 @@ public class ProdutoUseCaseImpl implements ProdutoUseCase {
                 dadosProduto.quantidade()
         );
 
-        final var produtoNaBase = this.repository.findById(ean);
-        if(produtoNaBase.isEmpty()) {
-            System.out.println("Produto não está cadastrado");
-            return false;
+        return Boolean.TRUE.equals(this.transacao.execute(status -> {
+            final var produtoEntity = this.pegaProdutoParaAlterar(ean, etagsEsperados);
+            if(Objects.isNull(produtoEntity)) {
+                return false;
+            }
+
+            produtoEntity.setNome(produto.getNome());
+            produtoEntity.setDescricao(produto.getDescricao());
+            produtoEntity.setPreco(produto.getPreco());
+            produtoEntity.setQuantidade(produtoEntity.getQuantidade() + produto.getQuantidade());
+
+            this.repository.save(produtoEntity);
+            this.movimentoEstoqueRepository.save(new MovimentoEstoqueEntity(
+                    produto.getEan(), produto.getQuantidade(), MotivoMovimentoEstoqueEnum.ENTRADA, ORIGEM_API));
+            return true;
+        }));
+
+    }
+
+    @Override
+    public boolean atualizaParcial(final Long ean,
+                                   final AtualizaParcialProdutoDTO alteracoes,
+                                   final Set<String> etagsEsperados) {
+        final var eanObjeto = new Ean(ean);
+        if(Objects.nonNull(alteracoes.nome())) {
+            Produto.validaNome(alteracoes.nome());
+        }
+        if(Objects.nonNull(alteracoes.descricao())) {
+            Produto.validaDescricao(alteracoes.descricao());
+        }
+        if(Objects.nonNull(alteracoes.preco())) {
+            Produto.validaPreco(alteracoes.preco());
         }
 
-        var produtoEntity = new ProdutoEntity(
-                produto.getEan(),
-                produto.getNome(),
-                produto.getDescricao(),
-                produto.getPreco(),
-                produto.getQuantidade() + produtoNaBase.get().getQuantidade(),
-                LocalDateTime.now()
-        );
+        return Boolean.TRUE.equals(this.transacao.execute(status -> {
+            final var produtoEntity = this.pegaProdutoParaAlterar(eanObjeto.getNumero(), etagsEsperados);
+            if(Objects.isNull(produtoEntity)) {
+                return false;
+            }
+
+            if(Objects.nonNull(alteracoes.nome())) {
+                produtoEntity.setNome(alteracoes.nome());
+            }
+            if(Objects.nonNull(alteracoes.descricao())) {
+                produtoEntity.setDescricao(alteracoes.descricao());
+            }
+            if(Objects.nonNull(alteracoes.preco())) {
+                produtoEntity.setPreco(alteracoes.preco());
+            }
 
-        this.repository.save(produtoEntity);
-        return true;
+            this.repository.save(produtoEntity);
+            return true;
+        }));
 
     }
 
+    private ProdutoEntity pegaProdutoParaAlterar(final Long ean,
+                                                 final Set<String> etagsEsperados) {
+        final var produtoEntity = this.pegaProdutoNaBaseDeDados(ean);
+        if(Objects.nonNull(etagsEsperados)
+                && (Objects.isNull(produtoEntity) || !etagsEsperados.contains(CorposProduto.etag(paraDTO(produtoEntity))))) {
+            throw new VersaoDivergenteException("O PRODUTO FOI ALTERADO, BUSQUE A VERSAO ATUAL!");
+        }
+        return produtoEntity;
+    }
+
+    // Cada chamada e um sub-lote do LeitorLote: uma consulta para todos os EANs e os inserts em batch no commit
+    @Override
+    @Transactional
+    public List<ResultadoItemLoteDTO> cadastraLote(final List<ItemLoteDTO<CriaProdutoDTO>> itens) {
+        final var resultados = new ArrayList<ResultadoItemLoteDTO>(itens.size());
+        final var validos = new LinkedHashMap<Long, Produto>();
+        final var indices = new HashMap<Long, Integer>();
+        for (var item : itens) {
+            final var dadosProduto = item.item();
+            final Produto produto;
+            try {
+                produto = new Produto(
+                        dadosProduto.ean(),
+                        dadosProduto.nome(),
+                        dadosProduto.descricao(),
+                        dadosProduto.preco(),
+                        dadosProduto.quantidade()
+                );
+            } catch (IllegalArgumentException e) {
+                resultados.add(new ResultadoItemLoteDTO(item.indice(), dadosProduto.ean(), StatusItemLoteEnum.INVALIDO, e.getMessage()));
+                continue;
+            }
+            if (Objects.nonNull(validos.putIfAbsent(produto.getEan(), produto))) {
+                resultados.add(new ResultadoItemLoteDTO(item.indice(), produto.getEan(), StatusItemLoteEnum.CONFLITO, "EAN REPETIDO NO LOTE!"));
+                continue;
+            }
+            indices.put(produto.getEan(), item.indice());
+        }
+
+        final var cadastrados = this.buscaPorEan(validos.keySet());
+        final var novos = new ArrayList<ProdutoEntity>(validos.size());
+        final var movimentos = new ArrayList<MovimentoEstoqueEntity>(validos.size());
+        for (var produto : validos.values()) {
+            final var indice = indices.get(produto.getEan());
+            if (cadastrados.containsKey(produto.getEan())) {
+                resultados.add(new ResultadoItemLoteDTO(indice, produto.getEan(), StatusItemLoteEnum.CONFLITO, "PRODUTO JA CADASTRADO!"));
+                continue;
+            }
+            final var produtoEntity = new ProdutoEntity(
+                    produto.getEan(),
+                    produto.getNome(),
+                    produto.getDescricao(),
+                    produto.getPreco(),
+                    produto.getQuantidade(),
+                    LocalDateTime.now()
+            );
+            produtoEntity.setNovo(true);
+            novos.add(produtoEntity);
+            movimentos.add(new MovimentoEstoqueEntity(produto.getEan(), produto.getQuantidade(), MotivoMovimentoEstoqueEnum.CADASTRO, ORIGEM_LOTE));
+            resultados.add(new ResultadoItemLoteDTO(indice, produto.getEan(), StatusItemLoteEnum.CRIADO, null));
+        }
+
+        this.repository.saveAll(novos);
+        this.movimentoEstoqueRepository.saveAll(movimentos);
+        return resultados;
+    }
+
+    // Os produtos carregados ficam gerenciados na transacao: os updates saem em batch no commit
+    @Override
+    @Transactional
+    public List<ResultadoItemLoteDTO> atualizaLote(final List<ItemLoteDTO<AtualizaProdutoLoteDTO>> itens) {
+        final var resultados = new ArrayList<ResultadoItemLoteDTO>(itens.size());
+        final var validos = new ArrayList<ItemLoteDTO<Produto>>(itens.size());
+        for (var item : itens) {
+            final var dadosProduto = item.item();
+            try {
+                validos.add(new ItemLoteDTO<>(item.indice(), new Produto(
+                        dadosProduto.ean(),
+                        dadosProduto.nome(),
+                        dadosProduto.descricao(),
+                        dadosProduto.preco(),
+                        dadosProduto.quantidade()
+                )));
+            } catch (IllegalArgumentException e) {
+                resultados.add(new ResultadoItemLoteDTO(item.indice(), dadosProduto.ean(), StatusItemLoteEnum.INVALIDO, e.getMessage()));
+            }
+        }
+
+        final var cadastrados = this.buscaPorEan(validos.stream().map(item -> item.item().getEan()).toList());
+        final var movimentos = new ArrayList<MovimentoEstoqueEntity>(validos.size());
+        for (var item : validos) {
+            final var produto = item.item();
+            final var produtoEntity = cadastrados.get(produto.getEan());
+            if (Objects.isNull(produtoEntity)) {
+                resultados.add(new ResultadoItemLoteDTO(item.indice(), produto.getEan(), StatusItemLoteEnum.NAO_ENCONTRADO, "PRODUTO NAO ESTA CADASTRADO!"));
+                continue;
+            }
+            produtoEntity.setNome(produto.getNome());
+            produtoEntity.setDescricao(produto.getDescricao());
+            produtoEntity.setPreco(produto.getPreco());
+            produtoEntity.setQuantidade(produtoEntity.getQuantidade() + produto.getQuantidade());
+            movimentos.add(new MovimentoEstoqueEntity(produto.getEan(), produto.getQuantidade(), MotivoMovimentoEstoqueEnum.ENTRADA, ORIGEM_LOTE));
+            resultados.add(new ResultadoItemLoteDTO(item.indice(), produto.getEan(), StatusItemLoteEnum.ATUALIZADO, null));
+        }
+        this.movimentoEstoqueRepository.saveAll(movimentos);
+        return resultados;
+    }
+
+    private Map<Long, ProdutoEntity> buscaPorEan(final Iterable<Long> eans) {
+        final var produtos = new HashMap<Long, ProdutoEntity>();
+        this.repository.findAllById(eans).forEach(produto -> produtos.put(produto.getEan(), produto));
+        return produtos;
+    }
+
     @Override
     public boolean deleta(final Long ean) {
         final var eanObjeto = new Ean(ean);
 
-        final var produtoNaBase = this.repository.findById(eanObjeto.getNumero());
-        if(produtoNaBase.isEmpty()) {
-            System.out.println("Produto não está cadastrado");
-            return false;
-        }
-        this.repository.deleteById(eanObjeto.getNumero());
-        return true;
+        return Boolean.TRUE.equals(this.transacao.execute(status -> {
+            final var produtoNaBase = this.repository.findById(eanObjeto.getNumero());
+            if(produtoNaBase.isEmpty()) {
+                System.out.println("Produto não está cadastrado");
+                return false;
+            }
+            this.repository.deleteById(eanObjeto.getNumero());
+            this.movimentoEstoqueRepository.save(new MovimentoEstoqueEntity(
+                    eanObjeto.getNumero(), -produtoNaBase.get().getQuantidade(), MotivoMovimentoEstoqueEnum.REMOCAO, ORIGEM_API));
+            return true;
+        }));
 
     }
 
+    // Sem @Transactional: um acerto no cache nao abre transacao. A carga depois de uma falha le do primario,
+    // dentro de uma transacao de escrita: a replica atrasada devolveria o produto de antes da invalidacao
     @Override
     public ProdutoDTO busca(final Long ean) {
         final var eanObjeto = new Ean(ean);
 
-        final var produtoNaBase = this.pegaProdutoNaBaseDeDados(eanObjeto.getNumero());
+        return this.cacheProduto.busca(eanObjeto.getNumero(), this::buscaNaBaseDeDados);
+    }
+
+    private ProdutoDTO buscaNaBaseDeDados(final Long ean) {
+        final var produtoNaBase = this.transacao.execute(status -> this.pegaProdutoNaBaseDeDados(ean));
         if(Objects.isNull(produtoNaBase)) {
             System.out.println("Produto não está cadastrado");
             return null;
         }
+        return paraDTO(produtoNaBase);
+    }
+
+    // Busca uma linha a mais que o tamanho so para saber se existe proxima pagina
+    @Override
+    public PaginaProdutosDTO buscaPorTexto(final String termo,
+                                           final String pagina,
+                                           final int tamanho) {
+        final var termoBusca = new TermoBusca(termo);
+        if(tamanho < 1 || tamanho > TAMANHO_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("TAMANHO DA PAGINA DEVE SER ENTRE 1 E " + TAMANHO_MAXIMO_PAGINA + "!");
+        }
+        final var depoisDe = PosicaoBuscaProduto.decodifica(pagina);
+
+        return this.cacheBuscaProduto.busca(termoBusca.getPalavras(), pagina, tamanho, () -> {
+            final var encontrados = this.repository.buscaPorTexto(termoBusca.getPalavras(), depoisDe, tamanho + 1);
+            final var produtos = encontrados.stream()
+                    .limit(tamanho)
+                    .map(encontrado -> paraDTO(encontrado.produto()))
+                    .toList();
+            if(encontrados.size() <= tamanho) {
+                return new PaginaProdutosDTO(produtos, null);
+            }
+            final var ultimo = encontrados.get(tamanho - 1);
+            return new PaginaProdutosDTO(produtos, new PosicaoBuscaProduto(ultimo.relevancia(), ultimo.produto().getEan()).codifica());
+        });
+    }
+
+    // Do indice em memoria; antes da primeira carga (ou se ela falhou) a busca vai ao banco
+    @Override
+    public List<SugestaoProdutoDTO> sugere(final String termo,
+                                           final int limite) {
+        final var termoBusca = new TermoBusca(termo);
+        if(limite < 1 || limite > LIMITE_MAXIMO_SUGESTOES) {
+            throw new IllegalArgumentException("LIMITE DE SUGESTOES DEVE SER ENTRE 1 E " + LIMITE_MAXIMO_SUGESTOES + "!");
+        }
+
+        if(this.indiceBuscaProduto.carregado()) {
+            return this.indiceBuscaProduto.sugere(termoBusca.getPalavrasSemAcento(), limite);
+        }
+        return this.repository.buscaPorTexto(termoBusca.getPalavras(), null, limite).stream()
+                .map(encontrado -> new SugestaoProdutoDTO(encontrado.produto().getEan(), encontrado.produto().getNome()))
+                .toList();
+    }
+
+    // O cursor guarda o valor da coluna pela qual o repositorio ordenou a pagina
+    @Override
+    public PaginaProdutosDTO lista(final FiltroProdutosDTO filtro,
+                                   final String pagina,
+                                   final int tamanho) {
+        final var filtroProdutos = new FiltroProdutos(filtro.precoMinimo(), filtro.precoMaximo(), filtro.quantidadeMinima(), filtro.quantidadeMaxima());
+        if(tamanho < 1 || tamanho > TAMANHO_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("TAMANHO DA PAGINA DEVE SER ENTRE 1 E " + TAMANHO_MAXIMO_PAGINA + "!");
+        }
+        final var depoisDe = PosicaoListaProduto.decodifica(pagina);
+
+        final var encontrados = this.repository.lista(filtroProdutos, depoisDe, tamanho + 1);
+        final var produtos = encontrados.stream()
+                .limit(tamanho)
+                .map(ProdutoUseCaseImpl::paraDTO)
+                .toList();
+        if(encontrados.size() <= tamanho) {
+            return new PaginaProdutosDTO(produtos, null);
+        }
+        final var ultimo = encontrados.get(tamanho - 1);
+        final var valor = filtroProdutos.filtraPreco() ? ultimo.getPreco().toPlainString() : null;
+        return new PaginaProdutosDTO(produtos, new PosicaoListaProduto(valor, ultimo.getEan()).codifica());
+    }
+
+    private static ProdutoDTO paraDTO(final ProdutoEntity produtoNaBase) {
         return new ProdutoDTO(
                 produtoNaBase.getEan(),
                 produtoNaBase.getNome(),
                 produtoNaBase.getDescricao(),
                 produtoNaBase.getPreco(),
                 produtoNaBase.getQuantidade(),
-                produtoNaBase.getDataDeCriacao()
+                produtoNaBase.getDataDeCriacao(),
+                produtoNaBase.getVersao(),
+                Objects.requireNonNullElse(produtoNaBase.getDataDeAtualizacao(), produtoNaBase.getDataDeCriacao())
         );
 
     }
 
+    // Sem @Transactional: quando o produto esta no indice nao abre transacao nem pega conexao. Na falta le do
+    // primario, como a busca: a quantidade lida fica no indice ate a proxima recarga e a replica pode estar atrasada
     @Override
     public Boolean temEstoque(final Long ean,
                               final Long quantidade) {
         final var eanObjeto = new Ean(ean);
         final var quantidadeObjeto = new Quantidade(quantidade);
 
-        final var produto = this.pegaProdutoNaBaseDeDados(eanObjeto.getNumero());
+        final var emEstoque = this.indiceEstoque.quantidade(eanObjeto.getNumero());
+        if(emEstoque != IndiceEstoque.AUSENTE) {
+            return emEstoque >= quantidadeObjeto.getNumero();
+        }
+
+        final var marca = this.indiceEstoque.marca();
+        final var produto = this.transacao.execute(status -> this.pegaProdutoNaBaseDeDados(eanObjeto.getNumero()));
         if(Objects.isNull(produto)) {
             return null;
         }
+        this.indiceEstoque.carregaSeAusente(produto.getEan(), produto.getQuantidade(), marca);
         return produto.getQuantidade() >= quantidadeObjeto.getNumero();
 
     }
@@ -165,43 +560,51 @@ public class ProdutoUseCaseImpl implements ProdutoUseCase {
         return produtoNaBase.get();
     }
 
+    // Uma gravacao concorrente (outra replica, um PUT ou a importacao) faz o update falhar pela versao:
+    // o evento e reaplicado sobre o produto relido, ate o limite de tentativas
     @Override
     public void atualizaEstoque(final AtualizaEstoqueDTO evento) {
         final var eanObjeto = new Ean(evento.ean());
         final var quantidadeObjeto = new Quantidade(evento.quantidade());
         final var status = StatusEstoqueEnum.pegaStatusEnum(evento.statusEstoque());
 
+        for (var tentativa = 1; ; tentativa++) {
+            try {
+                this.transacao.executeWithoutResult(estado -> this.aplicaAtualizacaoDeEstoque(eanObjeto, quantidadeObjeto, status));
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                if(tentativa >= this.tentativasAtualizacaoEstoque) {
+                    throw e;
+                }
+                System.out.println("Produto alterado durante a atualização de estoque, tentando novamente");
+            }
+        }
+    }
+
+    private void aplicaAtualizacaoDeEstoque(final Ean eanObjeto,
+                                            final Quantidade quantidadeObjeto,
+                                            final StatusEstoqueEnum status) {
         final var produto = this.pegaProdutoNaBaseDeDados(eanObjeto.getNumero());
         if(Objects.nonNull(produto)) {
-            var novaQuantidade = produto.getQuantidade();
+            final var quantidadeAnterior = produto.getQuantidade();
 
             if(status.equals(StatusEstoqueEnum.RETIRA_DO_ESTOQUE) && produto.getQuantidade() >= quantidadeObjeto.getNumero()) {
-                novaQuantidade = produto.getQuantidade() - quantidadeObjeto.getNumero();
-                var produtoEntity = new ProdutoEntity(
-                        produto.getEan(),
-                        produto.getNome(),
-                        produto.getDescricao(),
-                        produto.getPreco(),
-                        novaQuantidade,
-                        LocalDateTime.now()
-                );
+                produto.setQuantidade(produto.getQuantidade() - quantidadeObjeto.getNumero());
 
-                this.repository.save(produtoEntity);
+                this.repository.save(produto);
+                this.alertaEstoqueBaixo.verifica(produto.getEan(), quantidadeAnterior, produto.getQuantidade());
+                this.movimentoEstoqueRepository.save(new MovimentoEstoqueEntity(
+                        produto.getEan(), -quantidadeObjeto.getNumero(), MotivoMovimentoEstoqueEnum.RETIRADA, ORIGEM_EVENTO_ESTOQUE));
                 return;
             }
 
             else if (status.equals(StatusEstoqueEnum.VOLTA_PARA_O_ESTOQUE)) {
-                novaQuantidade = produto.getQuantidade() + quantidadeObjeto.getNumero();
-                var produtoEntity = new ProdutoEntity(
-                        produto.getEan(),
-                        produto.getNome(),
-                        produto.getDescricao(),
-                        produto.getPreco(),
-                        novaQuantidade,
-                        LocalDateTime.now()
-                );
+                produto.setQuantidade(produto.getQuantidade() + quantidadeObjeto.getNumero());
 
-                this.repository.save(produtoEntity);
+                this.repository.save(produto);
+                this.alertaEstoqueBaixo.verifica(produto.getEan(), quantidadeAnterior, produto.getQuantidade());
+                this.movimentoEstoqueRepository.save(new MovimentoEstoqueEntity(
+                        produto.getEan(), quantidadeObjeto.getNumero(), MotivoMovimentoEstoqueEnum.DEVOLUCAO, ORIGEM_EVENTO_ESTOQUE));
                 return;
             }
 
@@ -209,4 +612,4 @@ public class ProdutoUseCaseImpl implements ProdutoUseCase {
         System.out.println("Produto não tem estoque suficiente");
     }
 
-}
+}
\ No newline at end of file
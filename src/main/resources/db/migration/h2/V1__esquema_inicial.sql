@@ -0,0 +1,57 @@
+-- Mesmo esquema de db/migration/postgresql, sem particionamento e sem fillfactor, que o H2 nao tem
+
+CREATE TABLE tb_produto (
+    ean bigint NOT NULL PRIMARY KEY,
+    nome varchar(50),
+    descricao varchar(50),
+    preco numeric(12, 2),
+    quantidade bigint NOT NULL,
+    data_de_criacao timestamp(6),
+    versao bigint DEFAULT 0 NOT NULL,
+    data_de_atualizacao timestamp(6)
+);
+
+CREATE TABLE tb_importacao_agendada (
+    arquivo varchar(255) NOT NULL PRIMARY KEY,
+    tamanho bigint NOT NULL,
+    modificado_em bigint NOT NULL,
+    hash varchar(255),
+    arquivo_importado varchar(255),
+    id_execucao bigint,
+    data_de_atualizacao timestamp(6)
+);
+
+CREATE TABLE tb_importacao_arquivo (
+    identificador varchar(255) NOT NULL PRIMARY KEY,
+    ultima_linha bigint NOT NULL,
+    data_de_atualizacao timestamp(6)
+);
+
+CREATE TABLE tb_lease_agendamento (
+    nome varchar(255) NOT NULL PRIMARY KEY,
+    bloqueado_ate timestamp(6),
+    bloqueado_em timestamp(6),
+    bloqueado_por varchar(255)
+);
+
+CREATE SEQUENCE sq_movimento_estoque INCREMENT BY 50;
+
+CREATE TABLE tb_movimento_estoque (
+    id bigint NOT NULL PRIMARY KEY,
+    ean bigint,
+    delta bigint NOT NULL,
+    motivo varchar(255),
+    origem varchar(255),
+    data_do_movimento timestamp(6) NOT NULL
+);
+
+CREATE INDEX ix_movimento_estoque_data ON tb_movimento_estoque (data_do_movimento);
+
+CREATE TABLE tb_movimento_estoque_diario (
+    ean bigint NOT NULL,
+    dia date NOT NULL,
+    motivo varchar(255) NOT NULL,
+    total bigint NOT NULL,
+    movimentos bigint NOT NULL,
+    PRIMARY KEY (ean, dia, motivo)
+);
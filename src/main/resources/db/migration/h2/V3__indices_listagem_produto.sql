@@ -0,0 +1,2 @@
+-- Mesmo indice de db/migration/postgresql/V3
+CREATE INDEX ix_produto_preco ON tb_produto (preco, ean);
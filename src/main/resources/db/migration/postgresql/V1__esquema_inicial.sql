@@ -0,0 +1,91 @@
+-- Esquema da aplicacao, antes gerado pelo ddl-auto do Hibernate. Bancos que ja tinham as tabelas entram pelo
+-- baseline (spring.flyway.baseline-version=0) e passam por este script: os CREATE sao IF NOT EXISTS, e as colunas
+-- do tb_produto que o Hibernate pode nao ter criado sao adicionadas e preenchidas logo abaixo
+
+CREATE TABLE IF NOT EXISTS tb_produto (
+    ean bigint NOT NULL PRIMARY KEY,
+    nome varchar(50),
+    descricao varchar(50),
+    preco numeric(12, 2),
+    quantidade bigint NOT NULL,
+    data_de_criacao timestamp(6),
+    versao bigint DEFAULT 0 NOT NULL,
+    data_de_atualizacao timestamp(6)
+);
+
+-- Bancos anteriores ao controle de versao (ETag e update otimista) nao tem versao nem data_de_atualizacao;
+-- nos que tem, o ddl-auto criou a versao aceitando nulo
+ALTER TABLE tb_produto
+    ADD COLUMN IF NOT EXISTS versao bigint NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS data_de_atualizacao timestamp(6);
+
+UPDATE tb_produto SET versao = 0 WHERE versao IS NULL;
+
+UPDATE tb_produto SET data_de_atualizacao = data_de_criacao WHERE data_de_atualizacao IS NULL;
+
+ALTER TABLE tb_produto
+    ALTER COLUMN versao SET DEFAULT 0,
+    ALTER COLUMN versao SET NOT NULL;
+
+-- Nome e descricao tem no maximo 50 letras (Produto.validaNome e validaDescricao). O ddl-auto criava
+-- varchar(255), entao um valor maior so existe se foi gravado sem passar pelo dominio: ele e cortado em 50 letras
+-- para o ALTER nao abortar a migration
+ALTER TABLE tb_produto
+    ALTER COLUMN nome TYPE varchar(50) USING left(nome, 50),
+    ALTER COLUMN descricao TYPE varchar(50) USING left(descricao, 50),
+    ALTER COLUMN preco TYPE numeric(12, 2);
+
+-- A maioria das gravacoes so muda quantidade, versao e data_de_atualizacao, que nao tem indice: com espaco livre
+-- na pagina a nova versao da linha fica na mesma pagina (HOT update) e o indice da chave nao e regravado
+ALTER TABLE tb_produto SET (fillfactor = 80);
+
+CREATE TABLE IF NOT EXISTS tb_importacao_agendada (
+    arquivo varchar(255) NOT NULL PRIMARY KEY,
+    tamanho bigint NOT NULL,
+    modificado_em bigint NOT NULL,
+    hash varchar(255),
+    arquivo_importado varchar(255),
+    id_execucao bigint,
+    data_de_atualizacao timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS tb_importacao_arquivo (
+    identificador varchar(255) NOT NULL PRIMARY KEY,
+    ultima_linha bigint NOT NULL,
+    data_de_atualizacao timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS tb_lease_agendamento (
+    nome varchar(255) NOT NULL PRIMARY KEY,
+    bloqueado_ate timestamp(6),
+    bloqueado_em timestamp(6),
+    bloqueado_por varchar(255)
+);
+
+-- Livro de movimentos de estoque particionado por dia: a compactacao remove um dia inteiro com DROP da particao.
+-- As particoes de hoje e dos proximos dias sao criadas pela aplicacao (ParticoesMovimentoEstoque); a chave
+-- primaria inclui a data porque toda constraint unica de tabela particionada precisa conter a chave de particao.
+-- Num banco criado pelo ddl-auto a tabela ja existe sem particao e o CREATE abaixo nao a converte: ela continua
+-- sem particao e a compactacao apaga cada dia por intervalo de datas (ParticoesMovimentoEstoque.particionada)
+CREATE SEQUENCE IF NOT EXISTS sq_movimento_estoque INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS tb_movimento_estoque (
+    id bigint NOT NULL,
+    ean bigint,
+    delta bigint NOT NULL,
+    motivo varchar(255),
+    origem varchar(255),
+    data_do_movimento timestamp(6) NOT NULL,
+    PRIMARY KEY (id, data_do_movimento)
+) PARTITION BY RANGE (data_do_movimento);
+
+CREATE INDEX IF NOT EXISTS ix_movimento_estoque_data ON tb_movimento_estoque (data_do_movimento);
+
+CREATE TABLE IF NOT EXISTS tb_movimento_estoque_diario (
+    ean bigint NOT NULL,
+    dia date NOT NULL,
+    motivo varchar(255) NOT NULL,
+    total bigint NOT NULL,
+    movimentos bigint NOT NULL,
+    PRIMARY KEY (ean, dia, motivo)
+);
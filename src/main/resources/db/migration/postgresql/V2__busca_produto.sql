@@ -0,0 +1,8 @@
+-- Busca por nome e descricao (GET /produto/busca). A coluna gerada e recalculada pelo proprio banco em toda
+-- gravacao; como as gravacoes de estoque nao mudam nome nem descricao o valor indexado fica igual e o update
+-- continua HOT
+ALTER TABLE tb_produto ADD COLUMN IF NOT EXISTS busca tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(nome, '')), 'A') || setweight(to_tsvector('simple', coalesce(descricao, '')), 'B')
+) STORED;
+
+CREATE INDEX IF NOT EXISTS ix_produto_busca ON tb_produto USING gin (busca);
@@ -0,0 +1,8 @@
+-- Filtro de preco da listagem (GET /produto). A listagem percorre o indice na ordem (preco, ean) e so depois le
+-- as linhas da pagina pela chave, onde tambem confere o filtro de quantidade. Quantidade fica fora de qualquer
+-- indice: as gravacoes de estoque so mudam quantidade, versao e data_de_atualizacao e continuam HOT com o
+-- fillfactor da V1. Preco muda pouco, entao este indice quase nao pesa nas gravacoes.
+-- CONCURRENTLY para nao bloquear gravacoes enquanto o indice e criado. O Flyway roda o script fora de transacao,
+-- o que exige spring.flyway.postgresql.transactional-lock=false. Se a criacao falhar no meio o indice fica INVALID
+-- e o IF NOT EXISTS nao o recria: apague-o com DROP INDEX CONCURRENTLY antes de subir de novo
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_produto_preco ON tb_produto (preco, ean);
@@ -0,0 +1,76 @@
+package com.fiap.techchallenge4.integrados;
+
+import com.fiap.techchallenge4.domain.MotivoMovimentoEstoqueEnum;
+import com.fiap.techchallenge4.infrastructure.estoque.CompactacaoMovimentosEstoque;
+import com.fiap.techchallenge4.infrastructure.model.MovimentoEstoqueDiarioId;
+import com.fiap.techchallenge4.infrastructure.model.MovimentoEstoqueEntity;
+import com.fiap.techchallenge4.infrastructure.repository.MovimentoEstoqueDiarioRepository;
+import com.fiap.techchallenge4.infrastructure.repository.MovimentoEstoqueRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@SpringBootTest
+public class CompactacaoMovimentosEstoqueIT {
+
+    @Autowired
+    CompactacaoMovimentosEstoque compactacao;
+
+    @Autowired
+    MovimentoEstoqueRepository movimentoEstoqueRepository;
+
+    @Autowired
+    MovimentoEstoqueDiarioRepository movimentoEstoqueDiarioRepository;
+
+    @BeforeEach
+    void inicializaLimpezaDoDatabase() {
+        this.movimentoEstoqueRepository.deleteAllInBatch();
+        this.movimentoEstoqueDiarioRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void compacta_agrupaPorDiaEanEMotivo_eMantemOsRecentes() {
+
+        var antigo = LocalDate.now().minusDays(30);
+        this.movimentoEstoqueRepository.saveAll(List.of(
+                movimento(1L, -3, MotivoMovimentoEstoqueEnum.RETIRADA, antigo.atTime(9, 0)),
+                movimento(1L, -2, MotivoMovimentoEstoqueEnum.RETIRADA, antigo.atTime(18, 0)),
+                movimento(1L, 4, MotivoMovimentoEstoqueEnum.DEVOLUCAO, antigo.atTime(12, 0)),
+                movimento(2L, 10, MotivoMovimentoEstoqueEnum.ENTRADA, antigo.plusDays(1).atTime(0, 0)),
+                movimento(1L, -1, MotivoMovimentoEstoqueEnum.RETIRADA, LocalDateTime.now())
+        ));
+
+        this.compactacao.compacta();
+
+        var restantes = this.movimentoEstoqueRepository.findAll();
+        Assertions.assertEquals(1, restantes.size());
+        Assertions.assertEquals(-1, restantes.get(0).getDelta());
+
+        Assertions.assertEquals(3, this.movimentoEstoqueDiarioRepository.count());
+        var retiradas = this.movimentoEstoqueDiarioRepository
+                .findById(new MovimentoEstoqueDiarioId(1L, antigo, MotivoMovimentoEstoqueEnum.RETIRADA))
+                .get();
+        Assertions.assertEquals(-5, retiradas.getTotal());
+        Assertions.assertEquals(2, retiradas.getMovimentos());
+        Assertions.assertEquals(10, this.movimentoEstoqueDiarioRepository
+                .findById(new MovimentoEstoqueDiarioId(2L, antigo.plusDays(1), MotivoMovimentoEstoqueEnum.ENTRADA))
+                .get()
+                .getTotal());
+    }
+
+    private static MovimentoEstoqueEntity movimento(final Long ean,
+                                                    final long delta,
+                                                    final MotivoMovimentoEstoqueEnum motivo,
+                                                    final LocalDateTime dataDoMovimento) {
+        final var movimento = new MovimentoEstoqueEntity(ean, delta, motivo, "teste");
+        movimento.setDataDoMovimento(dataDoMovimento);
+        return movimento;
+    }
+
+}
@@ -4,24 +4,45 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaProdutoDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.CriaProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.PaginaProdutosDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ResultadoItemLoteDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.StatusImportacaoDTO;
 import com.fiap.techchallenge4.infrastructure.model.ProdutoEntity;
+import com.fiap.techchallenge4.infrastructure.repository.ImportacaoArquivoRepository;
+import com.fiap.techchallenge4.infrastructure.repository.MovimentoEstoqueRepository;
 import com.fiap.techchallenge4.infrastructure.repository.ProdutoRepository;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.test.JobRepositoryTestUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.util.FileSystemUtils;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 import static com.fiap.techchallenge4.infrastructure.controller.ProdutoController.*;
 
@@ -40,9 +61,27 @@ public class ProdutoControllerIT {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    ImportacaoArquivoRepository importacaoArquivoRepository;
+
+    @Autowired
+    MovimentoEstoqueRepository movimentoEstoqueRepository;
+
+    @Autowired
+    JobRepository jobRepository;
+
+    @Value("${app.importacao.diretorio-base}")
+    String diretorioImportacao;
+
     @BeforeEach
-    void inicializaLimpezaDoDatabase() {
+    void inicializaLimpezaDoDatabase() throws IOException {
         this.produtoRepository.deleteAll();
+        this.importacaoArquivoRepository.deleteAll();
+        this.movimentoEstoqueRepository.deleteAllInBatch();
+        new JobRepositoryTestUtils(this.jobRepository).removeJobExecutions();
+        // O banco dos testes e em memoria e os ids dos jobs recomecam a cada execucao: um rejeitados-<id>.csv
+        // de uma execucao anterior receberia as linhas do job novo
+        FileSystemUtils.deleteRecursively(Path.of(this.diretorioImportacao, "rejeitados"));
     }
 
     @AfterAll
@@ -50,22 +89,131 @@ public class ProdutoControllerIT {
         this.produtoRepository.deleteAll();
     }
 
-    @Test
-    public void importa_salvaNaBaseDeDados() throws Exception {
+    private StatusImportacaoDTO importaEAguardaFinalizacao() throws Exception {
+        return this.importaEAguardaFinalizacao(MockMvcRequestBuilders.post(URL_PRODUTO_IMPORTA)
+                .contentType(MediaType.APPLICATION_JSON));
+    }
+
+    private StatusImportacaoDTO importaEAguardaFinalizacao(final MockHttpServletRequestBuilder requisicao) throws Exception {
+        var resposta = this.mockMvc
+                .perform(requisicao)
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isAccepted()
+                )
+                .andReturn();
+        var id = Long.valueOf(resposta.getResponse().getContentAsString());
+
+        StatusImportacaoDTO status = null;
+        for (var tentativa = 0; tentativa < 100 && (status == null || !List.of("COMPLETED", "FAILED").contains(status.status())); tentativa++) {
+            Thread.sleep(100);
+            var respostaStatus = this.mockMvc
+                    .perform(MockMvcRequestBuilders.get(URL_PRODUTO_IMPORTA_COM_ID, id))
+                    .andExpect(MockMvcResultMatchers
+                            .status()
+                            .isOk()
+                    )
+                    .andReturn();
+            status = this.objectMapper
+                    .readValue(respostaStatus.getResponse().getContentAsString(), StatusImportacaoDTO.class);
+        }
+        Assertions.assertEquals("COMPLETED", status.status());
+        return status;
+    }
 
+    @Test
+    public void statusImportacao_naoEncontrada() throws Exception {
         this.mockMvc
-                .perform(MockMvcRequestBuilders.post(URL_PRODUTO_IMPORTA)
-                        .contentType(MediaType.APPLICATION_JSON))
+                .perform(MockMvcRequestBuilders.get(URL_PRODUTO_IMPORTA_COM_ID, Long.MAX_VALUE))
                 .andExpect(MockMvcResultMatchers
                         .status()
-                        .isOk()
+                        .isNoContent()
                 );
+    }
+
+    @Test
+    public void importa_salvaNaBaseDeDados() throws Exception {
+
+        this.importaEAguardaFinalizacao();
 
         var produtos = this.produtoRepository.findAll();
 
         Assertions.assertEquals(10, produtos.size());
     }
 
+    @Test
+    public void importa_arquivoEnviadoCompactado_salvaNaBaseDeDados() throws Exception {
+        var conteudo = new ByteArrayOutputStream();
+        try (var saida = new GZIPOutputStream(conteudo)) {
+            saida.write("""
+                    1111111111,Alface,Verdura,5.00,10
+                    2222222222,Laranja,Fruta,3.00,20
+                    """.getBytes(StandardCharsets.UTF_8));
+        }
+
+        this.importaEAguardaFinalizacao(MockMvcRequestBuilders.multipart(URL_PRODUTO_IMPORTA)
+                .file(new MockMultipartFile("arquivo", "produtos.csv.gz", "application/gzip", conteudo.toByteArray())));
+
+        var produtos = this.produtoRepository.findAll();
+
+        Assertions.assertEquals(2, produtos.size());
+    }
+
+    @Test
+    public void importa_linhasInvalidas_ignoraEGravaArquivoDeRejeitados() throws Exception {
+        var conteudo = """
+                1111111111,Alface,Verdura,5.00,10
+                2222222222,La,Fruta,3.00,20
+                3333333333,Ancho,Carne,30.00,1001
+                abc,Cenoura,Vegetal,3.00,13
+                5555555555,Arroz,Carboidrato,15.00,7
+                """;
+
+        var status = this.importaEAguardaFinalizacao(MockMvcRequestBuilders.multipart(URL_PRODUTO_IMPORTA)
+                .file(new MockMultipartFile("arquivo", "produtos.csv", "text/csv", conteudo.getBytes(StandardCharsets.UTF_8))));
+
+        var produtos = this.produtoRepository.findAll();
+        var rejeitados = Files.readAllLines(Path.of(status.arquivoRejeitados()));
+
+        Assertions.assertEquals(2, produtos.size());
+        Assertions.assertEquals(3, status.ignorados());
+        Assertions.assertEquals(3, rejeitados.size());
+        Assertions.assertTrue(rejeitados.stream().anyMatch(linha -> linha.startsWith("2222222222,La,Fruta,3.00,20;O NOME")));
+        Assertions.assertTrue(rejeitados.stream().anyMatch(linha -> linha.startsWith("3333333333,Ancho,Carne,30.00,1001;QUANTIDADE")));
+        Assertions.assertTrue(rejeitados.stream().anyMatch(linha -> linha.startsWith("abc,Cenoura,Vegetal,3.00,13;linha 4")));
+    }
+
+    @Test
+    public void importa_mesmoArquivoDuasVezes_naoSomaQuantidadeDeNovo() throws Exception {
+        var arquivo = Path.of(this.diretorioImportacao, "fornecedor-" + System.nanoTime() + ".csv");
+        Files.createDirectories(arquivo.getParent());
+        Files.writeString(arquivo, """
+                1111111111,Alface,Verdura,5.00,10
+                2222222222,Laranja,Fruta,3.00,20
+                """);
+
+        var primeira = this.importaEAguardaFinalizacao(MockMvcRequestBuilders.post(URL_PRODUTO_IMPORTA)
+                .param("caminho", arquivo.getFileName().toString()));
+        var segunda = this.importaEAguardaFinalizacao(MockMvcRequestBuilders.post(URL_PRODUTO_IMPORTA)
+                .param("caminho", arquivo.getFileName().toString()));
+
+        var alface = this.produtoRepository.findById(1111111111L).get();
+
+        Assertions.assertEquals(primeira.id(), segunda.id());
+        Assertions.assertEquals(10, alface.getQuantidade());
+    }
+
+    @Test
+    public void importa_caminhoForaDoDiretorio_retornaBadRequest() throws Exception {
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.post(URL_PRODUTO_IMPORTA)
+                        .param("caminho", "../../etc/passwd"))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isBadRequest()
+                );
+    }
+
     @Test
     public void importa_salvaNaBaseDeDados_produtoExistente_adicionaQuantidade() throws Exception {
 
@@ -78,13 +226,7 @@ public class ProdutoControllerIT {
                         .dataDeCriacao(LocalDateTime.now())
                 .build());
 
-        this.mockMvc
-                .perform(MockMvcRequestBuilders.post(URL_PRODUTO_IMPORTA)
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(MockMvcResultMatchers
-                        .status()
-                        .isOk()
-                );
+        this.importaEAguardaFinalizacao();
 
         var produtos = this.produtoRepository.findAll();
         var laranja = produtos.stream().filter(produto -> produto.getEan().equals(2222222222L)).findFirst().get();
@@ -110,13 +252,7 @@ public class ProdutoControllerIT {
                 .dataDeCriacao(LocalDateTime.now())
                 .build());
 
-        this.mockMvc
-                .perform(MockMvcRequestBuilders.post(URL_PRODUTO_IMPORTA)
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(MockMvcResultMatchers
-                        .status()
-                        .isOk()
-                );
+        this.importaEAguardaFinalizacao();
 
         var produtos = this.produtoRepository.findAll();
         var laranja = produtos.stream().filter(produto -> produto.getEan().equals(2222222222L)).findFirst().get();
@@ -130,6 +266,87 @@ public class ProdutoControllerIT {
         Assertions.assertNotNull(laranja.getDataDeCriacao());
     }
 
+    @Test
+    public void cadastraLote_deveRetornar200_salvaOsNovos_eInformaOsDemais() throws Exception {
+
+        this.produtoRepository.save(ProdutoEntity.builder()
+                .ean(7894900011518L)
+                .nome("Produto 2")
+                .descricao("Descricao 2")
+                .preco(new BigDecimal("11.50"))
+                .quantidade(20)
+                .dataDeCriacao(LocalDateTime.now())
+                .build());
+
+        var resposta = this.mockMvc
+                .perform(MockMvcRequestBuilders.post(URL_PRODUTO_LOTE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [
+                                    {"ean": 7894900011517, "nome": "Produto 1", "descricao": "Descricao 1", "preco": 10.50, "quantidade": 10},
+                                    {"ean": 7894900011518, "nome": "Produto 2", "descricao": "Descricao 2", "preco": 11.50, "quantidade": 20},
+                                    {"ean": 7894900011519, "nome": "", "descricao": "Descricao 3", "preco": 12.50, "quantidade": 30},
+                                    {"ean": 7894900011520, "nome": "Produto 4", "descricao": "Descricao 4", "preco": 13.50, "quantidade": 40}
+                                ]
+                                """)
+                )
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isOk()
+                )
+                .andReturn();
+
+        var resultados = this.objectMapper.readValue(resposta.getResponse().getContentAsString(), new TypeReference<List<ResultadoItemLoteDTO>>() {});
+        Assertions.assertEquals(List.of("CRIADO", "CONFLITO", "INVALIDO", "CRIADO"),
+                resultados.stream().map(resultado -> resultado.status().name()).toList());
+
+        var produtos = this.produtoRepository.findAll();
+        Assertions.assertEquals(3, produtos.size());
+        var produto = this.produtoRepository.findById(7894900011520L).get();
+        Assertions.assertEquals("Produto 4", produto.getNome());
+        Assertions.assertEquals(40, produto.getQuantidade());
+        Assertions.assertNotNull(produto.getDataDeCriacao());
+    }
+
+    @Test
+    public void atualizaLote_deveRetornar200_atualizaOsCadastrados() throws Exception {
+
+        this.produtoRepository.save(ProdutoEntity.builder()
+                .ean(7894900011517L)
+                .nome("Produto 1")
+                .descricao("Descricao 1")
+                .preco(new BigDecimal("10.50"))
+                .quantidade(10)
+                .dataDeCriacao(LocalDateTime.now())
+                .build());
+
+        var resposta = this.mockMvc
+                .perform(MockMvcRequestBuilders.put(URL_PRODUTO_LOTE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [
+                                    {"ean": 7894900011517, "nome": "Produto novo", "descricao": "Descricao nova", "preco": 20.50, "quantidade": 5},
+                                    {"ean": 7894900011518, "nome": "Produto 2", "descricao": "Descricao 2", "preco": 11.50, "quantidade": 20}
+                                ]
+                                """)
+                )
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isOk()
+                )
+                .andReturn();
+
+        var resultados = this.objectMapper.readValue(resposta.getResponse().getContentAsString(), new TypeReference<List<ResultadoItemLoteDTO>>() {});
+        Assertions.assertEquals(List.of("ATUALIZADO", "NAO_ENCONTRADO"),
+                resultados.stream().map(resultado -> resultado.status().name()).toList());
+
+        var produto = this.produtoRepository.findById(7894900011517L).get();
+        Assertions.assertEquals("Produto novo", produto.getNome());
+        Assertions.assertEquals(new BigDecimal("20.50"), produto.getPreco());
+        Assertions.assertEquals(15, produto.getQuantidade());
+        Assertions.assertEquals(1, produto.getVersao());
+    }
+
     @Test
     public void cadastra_deveRetornar201_salvaNaBaseDeDados() throws Exception {
 
@@ -354,6 +571,311 @@ public class ProdutoControllerIT {
         Assertions.assertEquals(responseApp.getDataDeCriacao(), produto.getDataDeCriacao());
     }
 
+    @Test
+    public void buscaPorTexto_prefixoDasPalavras_paginaPeloCursor() throws Exception {
+        this.produtoRepository.saveAll(List.of(
+                new ProdutoEntity(1111111111L, "Arroz Integral", "Pacote de 1kg", new BigDecimal("10.00"), 5, LocalDateTime.now()),
+                new ProdutoEntity(2222222222L, "Feijao Carioca", "Arroz de brinde", new BigDecimal("8.00"), 5, LocalDateTime.now()),
+                new ProdutoEntity(3333333333L, "Arroz Parboilizado", "Pacote de 5kg", new BigDecimal("25.00"), 5, LocalDateTime.now()),
+                new ProdutoEntity(4444444444L, "Macarrao", "Espaguete", new BigDecimal("4.00"), 5, LocalDateTime.now())
+        ));
+
+        var primeira = this.objectMapper.readValue(this.mockMvc
+                .perform(MockMvcRequestBuilders.get(URL_PRODUTO_BUSCA)
+                        .param("q", "arr")
+                        .param("tamanho", "2"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(), PaginaProdutosDTO.class);
+
+        var segunda = this.objectMapper.readValue(this.mockMvc
+                .perform(MockMvcRequestBuilders.get(URL_PRODUTO_BUSCA)
+                        .param("q", "arr")
+                        .param("tamanho", "2")
+                        .param("pagina", primeira.proximaPagina()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(), PaginaProdutosDTO.class);
+
+        Assertions.assertEquals(List.of(1111111111L, 2222222222L), primeira.produtos().stream().map(ProdutoDTO::ean).toList());
+        Assertions.assertEquals(List.of(3333333333L), segunda.produtos().stream().map(ProdutoDTO::ean).toList());
+        Assertions.assertNull(segunda.proximaPagina());
+    }
+
+    @Test
+    public void lista_faixaDeQuantidade_paginaNaOrdemDoEan() throws Exception {
+        this.produtoRepository.saveAll(List.of(
+                new ProdutoEntity(1111111111L, "Arroz Integral", "Pacote de 1kg", new BigDecimal("10.00"), 3, LocalDateTime.now()),
+                new ProdutoEntity(2222222222L, "Feijao Carioca", "Pacote de 1kg", new BigDecimal("8.00"), 1, LocalDateTime.now()),
+                new ProdutoEntity(3333333333L, "Macarrao", "Espaguete", new BigDecimal("4.00"), 3, LocalDateTime.now()),
+                new ProdutoEntity(4444444444L, "Azeite", "Extra virgem", new BigDecimal("40.00"), 50, LocalDateTime.now())
+        ));
+
+        var primeira = this.lista(Map.of("quantidadeMaxima", "4", "tamanho", "2"));
+        var segunda = this.lista(Map.of("quantidadeMaxima", "4", "tamanho", "2", "pagina", primeira.proximaPagina()));
+
+        Assertions.assertEquals(List.of(1111111111L, 2222222222L), primeira.produtos().stream().map(ProdutoDTO::ean).toList());
+        Assertions.assertEquals(List.of(3333333333L), segunda.produtos().stream().map(ProdutoDTO::ean).toList());
+        Assertions.assertNull(segunda.proximaPagina());
+    }
+
+    @Test
+    public void lista_faixaDePrecoEQuantidade_ordenaPeloPreco() throws Exception {
+        this.produtoRepository.saveAll(List.of(
+                new ProdutoEntity(1111111111L, "Arroz Integral", "Pacote de 1kg", new BigDecimal("10.00"), 3, LocalDateTime.now()),
+                new ProdutoEntity(2222222222L, "Feijao Carioca", "Pacote de 1kg", new BigDecimal("8.00"), 1, LocalDateTime.now()),
+                new ProdutoEntity(3333333333L, "Macarrao", "Espaguete", new BigDecimal("4.00"), 30, LocalDateTime.now()),
+                new ProdutoEntity(4444444444L, "Azeite", "Extra virgem", new BigDecimal("40.00"), 2, LocalDateTime.now())
+        ));
+
+        var primeira = this.lista(Map.of("precoMinimo", "5", "precoMaximo", "40", "quantidadeMaxima", "10", "tamanho", "1"));
+        var segunda = this.lista(Map.of("precoMinimo", "5", "precoMaximo", "40", "quantidadeMaxima", "10", "pagina", primeira.proximaPagina()));
+
+        Assertions.assertEquals(List.of(2222222222L), primeira.produtos().stream().map(ProdutoDTO::ean).toList());
+        Assertions.assertEquals(List.of(1111111111L, 4444444444L), segunda.produtos().stream().map(ProdutoDTO::ean).toList());
+    }
+
+    @Test
+    public void lista_faixaInvertida_deveRetornar400() throws Exception {
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.get(URL_PRODUTO).param("precoMinimo", "10").param("precoMaximo", "5"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    private PaginaProdutosDTO lista(final Map<String, String> parametros) throws Exception {
+        var requisicao = MockMvcRequestBuilders.get(URL_PRODUTO);
+        parametros.forEach(requisicao::param);
+        return this.objectMapper.readValue(this.mockMvc
+                .perform(requisicao)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(), PaginaProdutosDTO.class);
+    }
+
+    @Test
+    public void sugere_produtosGravados_apareceNoIndiceSemAcento() throws Exception {
+        this.produtoRepository.saveAll(List.of(
+                new ProdutoEntity(1111111111L, "Feijão Carioca", "Pacote de 1kg", new BigDecimal("8.00"), 5, LocalDateTime.now()),
+                new ProdutoEntity(2222222222L, "Feijoada Pronta", "Lata de 400g", new BigDecimal("15.00"), 5, LocalDateTime.now()),
+                new ProdutoEntity(3333333333L, "Arroz Integral", "Pacote de 5kg", new BigDecimal("25.00"), 5, LocalDateTime.now())
+        ));
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.get(URL_PRODUTO_SUGESTOES).param("q", "feij"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].nome").value("Feijão Carioca"));
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.get(URL_PRODUTO_SUGESTOES).param("q", "feijao car"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].ean").value(1111111111L));
+    }
+
+    @Test
+    public void buscaPorTexto_semLetrasOuNumeros_deveRetornar400() throws Exception {
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.get(URL_PRODUTO_BUSCA).param("q", "%%"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    public void busca_deveRetornar304_etagNaoMudou() throws Exception {
+
+        this.produtoRepository.save(ProdutoEntity.builder()
+                .ean(7894900011517L)
+                .nome("Produto Teste")
+                .descricao("Descricao do Produto Teste")
+                .preco(new BigDecimal("100"))
+                .quantidade(100L)
+                .dataDeCriacao(LocalDateTime.now())
+                .build());
+
+        var etag = this.mockMvc
+                .perform(MockMvcRequestBuilders.get(URL_PRODUTO_COM_EAN.replace("{ean}", "7894900011517")))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        var response = this.mockMvc
+                .perform(MockMvcRequestBuilders.get(URL_PRODUTO_COM_EAN.replace("{ean}", "7894900011517"))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isNotModified()
+                )
+                .andReturn();
+
+        Assertions.assertEquals("", response.getResponse().getContentAsString());
+    }
+
+    @Test
+    public void busca_deveRetornar200_produtoAtualizadoDepoisDoEtag() throws Exception {
+
+        this.produtoRepository.save(ProdutoEntity.builder()
+                .ean(7894900011517L)
+                .nome("Produto Teste")
+                .descricao("Descricao do Produto Teste")
+                .preco(new BigDecimal("100"))
+                .quantidade(100L)
+                .dataDeCriacao(LocalDateTime.now())
+                .build());
+
+        var etag = this.mockMvc
+                .perform(MockMvcRequestBuilders.get(URL_PRODUTO_COM_EAN.replace("{ean}", "7894900011517")))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.put(URL_PRODUTO_COM_EAN.replace("{ean}", "7894900011517"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "nome": "Produto Teste",
+                                  "descricao": "Descricao do Produto Teste",
+                                  "preco": 100,
+                                  "quantidade": 1
+                                }
+                                """))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.get(URL_PRODUTO_COM_EAN.replace("{ean}", "7894900011517"))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isOk()
+                )
+                .andExpect(MockMvcResultMatchers.jsonPath("$.quantidade").value(101))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.versao").value(1));
+    }
+
+    @Test
+    public void atualiza_comIfMatch_deveRetornar412_quandoOProdutoMudouDepoisDaLeitura() throws Exception {
+
+        this.produtoRepository.save(ProdutoEntity.builder()
+                .ean(7894900011517L)
+                .nome("Produto Teste")
+                .descricao("Descricao do Produto Teste")
+                .preco(new BigDecimal("100"))
+                .quantidade(100L)
+                .dataDeCriacao(LocalDateTime.now())
+                .build());
+
+        var etag = this.mockMvc
+                .perform(MockMvcRequestBuilders.get(URL_PRODUTO_COM_EAN.replace("{ean}", "7894900011517")))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        var atualizacao = """
+                {
+                  "nome": "Produto Teste",
+                  "descricao": "Descricao do Produto Teste",
+                  "preco": 100,
+                  "quantidade": 1
+                }
+                """;
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.put(URL_PRODUTO_COM_EAN.replace("{ean}", "7894900011517"))
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(atualizacao))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.put(URL_PRODUTO_COM_EAN.replace("{ean}", "7894900011517"))
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(atualizacao))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+
+        var produto = this.produtoRepository.findById(7894900011517L).get();
+        Assertions.assertEquals(101, produto.getQuantidade());
+        Assertions.assertEquals(1, produto.getVersao());
+    }
+
+    @Test
+    public void atualizaParcial_deveRetornar200_alteraSoOPreco() throws Exception {
+
+        var dataDeCriacao = LocalDateTime.of(2024, 1, 10, 8, 30);
+        this.produtoRepository.save(ProdutoEntity.builder()
+                .ean(7894900011517L)
+                .nome("Produto Teste")
+                .descricao("Descricao do Produto Teste")
+                .preco(new BigDecimal("100.00"))
+                .quantidade(100L)
+                .dataDeCriacao(dataDeCriacao)
+                .build());
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.patch(URL_PRODUTO_COM_EAN.replace("{ean}", "7894900011517"))
+                        .contentType(MEDIA_TYPE_MERGE_PATCH)
+                        .content("""
+                                { "preco": 89.90 }
+                                """))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        var produto = this.produtoRepository.findById(7894900011517L).get();
+        Assertions.assertEquals(new BigDecimal("89.90"), produto.getPreco());
+        Assertions.assertEquals("Produto Teste", produto.getNome());
+        Assertions.assertEquals("Descricao do Produto Teste", produto.getDescricao());
+        Assertions.assertEquals(100, produto.getQuantidade());
+        Assertions.assertEquals(dataDeCriacao, produto.getDataDeCriacao());
+        Assertions.assertEquals(1, produto.getVersao());
+    }
+
+    @Test
+    public void atualizaParcial_deveRetornar400_campoQueNaoPodeSerAlterado() throws Exception {
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.patch(URL_PRODUTO_COM_EAN.replace("{ean}", "7894900011517"))
+                        .contentType(MEDIA_TYPE_MERGE_PATCH)
+                        .content("""
+                                { "quantidade": 10 }
+                                """))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    public void movimentosDeEstoque_somamAQuantidadeDoProduto() throws Exception {
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.post(URL_PRODUTO)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                { "ean": 7894900011517, "nome": "Produto Teste", "descricao": "Descricao do Produto Teste", "preco": 100, "quantidade": 50 }
+                                """))
+                .andExpect(MockMvcResultMatchers.status().isCreated());
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.put(URL_PRODUTO_COM_EAN.replace("{ean}", "7894900011517"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                { "nome": "Produto Teste", "descricao": "Descricao do Produto Teste", "preco": 100, "quantidade": 5 }
+                                """))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        var movimentos = this.movimentoEstoqueRepository.findAll();
+        Assertions.assertEquals(2, movimentos.size());
+        Assertions.assertEquals(this.produtoRepository.findById(7894900011517L).get().getQuantidade(),
+                movimentos.stream().mapToLong(movimento -> movimento.getDelta()).sum());
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.delete(URL_PRODUTO_COM_EAN.replace("{ean}", "7894900011517")))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        Assertions.assertEquals(0, this.movimentoEstoqueRepository.findAll().stream().mapToLong(movimento -> movimento.getDelta()).sum());
+    }
+
     @Test
     public void busca_deveRetornar204_naoEcontraNaBaseDeDados() throws Exception {
 
@@ -0,0 +1,87 @@
+package com.fiap.techchallenge4.performance;
+
+import com.fiap.techchallenge4.domain.Produto;
+import com.fiap.techchallenge4.infrastructure.batch.ArquivoBinarioProduto;
+import com.fiap.techchallenge4.infrastructure.batch.BatchConfig;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.BufferedWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Compara o reader do job lendo o mesmo catalogo em CSV e no formato binario.
+// Executar com: mvn -q test-compile exec:java -Dexec.mainClass=com.fiap.techchallenge4.performance.ImportacaoFormatoBenchmark -Dexec.classpathScope=test
+public class ImportacaoFormatoBenchmark {
+
+    private static final int AQUECIMENTO = 3;
+    private static final int MEDICOES = 5;
+
+    public static void main(final String[] args) throws Exception {
+        final var quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        final var diretorio = Files.createTempDirectory("benchmark-importacao");
+        final var produtos = geraProdutos(quantidade);
+
+        final var csv = diretorio.resolve("produtos.csv");
+        try (BufferedWriter saida = Files.newBufferedWriter(csv)) {
+            for (var produto : produtos) {
+                saida.write(produto.getEan() + "," + produto.getNome() + "," + produto.getDescricao() + ","
+                        + produto.getPreco() + "," + produto.getQuantidade());
+                saida.newLine();
+            }
+        }
+        final var binario = diretorio.resolve("produtos" + ArquivoBinarioProduto.EXTENSAO);
+        try (var saida = Files.newOutputStream(binario)) {
+            ArquivoBinarioProduto.escreve(saida, produtos);
+        }
+
+        System.out.println("Produtos: " + quantidade);
+        mede("CSV", csv);
+        mede("Binário", binario);
+    }
+
+    private static void mede(final String formato, final Path arquivo) throws Exception {
+        for (var i = 0; i < AQUECIMENTO; i++) {
+            le(arquivo);
+        }
+
+        var melhor = Long.MAX_VALUE;
+        var lidos = 0L;
+        for (var i = 0; i < MEDICOES; i++) {
+            final var inicio = System.nanoTime();
+            lidos = le(arquivo);
+            melhor = Math.min(melhor, System.nanoTime() - inicio);
+        }
+
+        System.out.printf("%-8s bytes lidos: %,d | melhor tempo: %,d ms | %,.0f produtos/s%n",
+                formato, Files.size(arquivo), melhor / 1_000_000, lidos * 1_000_000_000.0 / melhor);
+    }
+
+    private static long le(final Path arquivo) throws Exception {
+        final var reader = new BatchConfig().reader(arquivo.toString());
+        reader.open(new ExecutionContext());
+        var lidos = 0L;
+        while (reader.read() != null) {
+            lidos++;
+        }
+        reader.close();
+        return lidos;
+    }
+
+    private static List<Produto> geraProdutos(final int quantidade) {
+        final var produtos = new ArrayList<Produto>(quantidade);
+        for (var i = 0; i < quantidade; i++) {
+            produtos.add(new Produto(
+                    1_000_000_000L + i,
+                    "Produto " + i,
+                    "Descricao do produto " + i,
+                    BigDecimal.valueOf(100 + i % 10_000, 2),
+                    (long) (i % 500) + 1
+            ));
+        }
+        return produtos;
+    }
+
+}
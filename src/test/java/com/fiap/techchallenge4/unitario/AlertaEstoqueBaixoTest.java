@@ -0,0 +1,111 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.domain.event.LimiteEstoqueCruzadoEvent;
+import com.fiap.techchallenge4.infrastructure.estoque.AlertaEstoqueBaixo;
+import com.fiap.techchallenge4.infrastructure.estoque.AlertaEstoqueProperties;
+import com.fiap.techchallenge4.infrastructure.producer.ProducerAlertaEstoque;
+import com.fiap.techchallenge4.infrastructure.producer.request.AlertaEstoqueDTO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class AlertaEstoqueBaixoTest {
+
+    @Test
+    public void verifica_cruzaOLimiteDoEan_publicaEvento() {
+        // preparação
+        var eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+        var properties = new AlertaEstoqueProperties(true, 10, Map.of(7894900011517L, 50L), Duration.ofMinutes(5));
+        var alerta = new AlertaEstoqueBaixo(properties, eventPublisher, Mockito.mock(ProducerAlertaEstoque.class));
+
+        // execução
+        alerta.verifica(7894900011517L, 60, 50);
+        alerta.verifica(7894900011517L, 50, 40);
+        alerta.verifica(1111111111L, 60, 50);
+        alerta.verifica(1111111111L, 10, 11);
+
+        // avaliação
+        verify(eventPublisher, times(1)).publishEvent(new LimiteEstoqueCruzadoEvent(7894900011517L, 50, 50, true));
+        verify(eventPublisher, times(1)).publishEvent(new LimiteEstoqueCruzadoEvent(1111111111L, 11, 10, false));
+        Mockito.verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    public void verifica_desabilitado_naoPublicaEvento() {
+        // preparação
+        var eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+        var properties = new AlertaEstoqueProperties(false, 10, null, Duration.ofMinutes(5));
+        var alerta = new AlertaEstoqueBaixo(properties, eventPublisher, Mockito.mock(ProducerAlertaEstoque.class));
+
+        // execução
+        alerta.verifica(7894900011517L, 20, 5);
+
+        // avaliação
+        Mockito.verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void aoCruzarLimite_oscilandoDentroDoIntervalo_enviaSoOPrimeiro() {
+        // preparação
+        var producer = Mockito.mock(ProducerAlertaEstoque.class);
+        var properties = new AlertaEstoqueProperties(true, 10, null, Duration.ofHours(1));
+        var alerta = new AlertaEstoqueBaixo(properties, Mockito.mock(ApplicationEventPublisher.class), producer);
+
+        // execução
+        alerta.aoCruzarLimite(new LimiteEstoqueCruzadoEvent(7894900011517L, 9, 10, true));
+        alerta.aoCruzarLimite(new LimiteEstoqueCruzadoEvent(7894900011517L, 12, 10, false));
+        alerta.aoCruzarLimite(new LimiteEstoqueCruzadoEvent(7894900011517L, 8, 10, true));
+        alerta.enviaPendentes();
+
+        // avaliação
+        var alertas = ArgumentCaptor.forClass(AlertaEstoqueDTO.class);
+        verify(producer, times(1)).envia(alertas.capture());
+        Assertions.assertEquals(AlertaEstoqueBaixo.ESTOQUE_BAIXO, alertas.getValue().tipo());
+        Assertions.assertEquals(9L, alertas.getValue().quantidade());
+    }
+
+    @Test
+    public void enviaPendentes_intervaloVencido_enviaASituacaoFinal() throws Exception {
+        // preparação
+        var producer = Mockito.mock(ProducerAlertaEstoque.class);
+        var properties = new AlertaEstoqueProperties(true, 10, null, Duration.ofMillis(50));
+        var alerta = new AlertaEstoqueBaixo(properties, Mockito.mock(ApplicationEventPublisher.class), producer);
+        alerta.aoCruzarLimite(new LimiteEstoqueCruzadoEvent(7894900011517L, 9, 10, true));
+        alerta.aoCruzarLimite(new LimiteEstoqueCruzadoEvent(7894900011517L, 15, 10, false));
+
+        // execução
+        Thread.sleep(100);
+        alerta.enviaPendentes();
+        alerta.enviaPendentes();
+
+        // avaliação
+        var alertas = ArgumentCaptor.forClass(AlertaEstoqueDTO.class);
+        verify(producer, times(2)).envia(alertas.capture());
+        Assertions.assertEquals(AlertaEstoqueBaixo.ESTOQUE_NORMALIZADO, alertas.getAllValues().get(1).tipo());
+        Assertions.assertEquals(15L, alertas.getAllValues().get(1).quantidade());
+    }
+
+    @Test
+    public void aoCruzarLimite_falhaNoEnvio_naoPropagaAExcecao() {
+        // preparação
+        var producer = Mockito.mock(ProducerAlertaEstoque.class);
+        Mockito.when(producer.envia(Mockito.any()))
+                .thenThrow(new IllegalStateException("broker fora do ar"));
+        var properties = new AlertaEstoqueProperties(true, 10, null, Duration.ofMinutes(5));
+        var alerta = new AlertaEstoqueBaixo(properties, Mockito.mock(ApplicationEventPublisher.class), producer);
+
+        // execução e avaliação
+        Assertions.assertDoesNotThrow(
+                () -> alerta.aoCruzarLimite(new LimiteEstoqueCruzadoEvent(7894900011517L, 9, 10, true))
+        );
+    }
+
+}
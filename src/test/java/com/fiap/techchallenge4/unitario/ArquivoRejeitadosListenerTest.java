@@ -0,0 +1,70 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.domain.Produto;
+import com.fiap.techchallenge4.infrastructure.batch.ArquivoRejeitadosListener;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.item.file.FlatFileParseException;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class ArquivoRejeitadosListenerTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    public void afterStep_gravaLinhasRejeitadasComMotivo() throws Exception {
+        // preparação
+        var listener = new ArquivoRejeitadosListener(this.diretorio);
+        var execucao = new JobExecution(new JobInstance(7L, "importaProdutos"), 10L, new JobParameters());
+        var passo = execucao.createStepExecution("step");
+        var produto = new Produto();
+        produto.setEan(1111111111L);
+        produto.setNome("Ab");
+        produto.setDescricao("Verdura");
+        produto.setPreco(new BigDecimal("5.00"));
+        produto.setQuantidade(10);
+
+        // execução
+        listener.beforeStep(passo);
+        listener.onSkipInRead(new FlatFileParseException("erro", "abc,Alface", 3));
+        listener.onSkipInProcess(produto, new IllegalArgumentException("O NOME deve ter no mínimo 3 letras e no máximo 50 letras"));
+        listener.afterStep(passo);
+
+        // avaliação
+        var arquivo = this.diretorio.resolve("rejeitados-7.csv");
+        Assertions.assertEquals(arquivo.toString(), passo.getExecutionContext().getString(ArquivoRejeitadosListener.CHAVE_ARQUIVO_REJEITADOS));
+        Assertions.assertEquals(
+                List.of(
+                        "abc,Alface;linha 3: erro",
+                        "1111111111,Ab,Verdura,5.00,10;O NOME deve ter no mínimo 3 letras e no máximo 50 letras"
+                ),
+                Files.readAllLines(arquivo)
+        );
+    }
+
+    @Test
+    public void afterStep_semRejeitados_naoCriaArquivo() {
+        // preparação
+        var listener = new ArquivoRejeitadosListener(this.diretorio);
+        var execucao = new JobExecution(new JobInstance(7L, "importaProdutos"), 10L, new JobParameters());
+        var passo = execucao.createStepExecution("step");
+
+        // execução
+        listener.beforeStep(passo);
+        listener.afterStep(passo);
+
+        // avaliação
+        Assertions.assertFalse(Files.exists(this.diretorio.resolve("rejeitados-7.csv")));
+        Assertions.assertFalse(passo.getExecutionContext().containsKey(ArquivoRejeitadosListener.CHAVE_ARQUIVO_REJEITADOS));
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.infrastructure.batch.ArquivosImportacao;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+public class ArquivosImportacaoTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    public void resolve_arquivoDentroDoDiretorio_retornaCaminhoAbsoluto() throws Exception {
+        // preparação
+        Files.createDirectories(this.diretorio.resolve("fornecedor"));
+        Files.writeString(this.diretorio.resolve("fornecedor/produtos.csv"), "1111111111,Alface,Verdura,5.00,10");
+        var arquivosImportacao = new ArquivosImportacao(this.diretorio.toString(), Duration.ofDays(1));
+
+        // execução
+        var caminho = arquivosImportacao.resolve("fornecedor/produtos.csv");
+
+        // avaliação
+        Assertions.assertEquals(this.diretorio.resolve("fornecedor/produtos.csv").toString(), caminho);
+    }
+
+    @Test
+    public void resolve_arquivoForaDoDiretorio_lancaExcecao() {
+        // preparação
+        var arquivosImportacao = new ArquivosImportacao(this.diretorio.resolve("base").toString(), Duration.ofDays(1));
+
+        // execução e avaliação
+        var excecao = Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> arquivosImportacao.resolve("../../etc/passwd")
+        );
+        Assertions.assertEquals("O ARQUIVO DEVE ESTAR DENTRO DO DIRETORIO DE IMPORTACAO!", excecao.getMessage());
+    }
+
+    @Test
+    public void resolve_arquivoInexistente_lancaExcecao() {
+        // preparação
+        var arquivosImportacao = new ArquivosImportacao(this.diretorio.toString(), Duration.ofDays(1));
+
+        // execução e avaliação
+        var excecao = Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> arquivosImportacao.resolve("nao-existe.csv")
+        );
+        Assertions.assertEquals("ARQUIVO DE IMPORTACAO NAO ENCONTRADO!", excecao.getMessage());
+    }
+
+    @Test
+    public void armazena_gravaUploadNoDiretorioDeUpload() throws Exception {
+        // preparação
+        var arquivosImportacao = new ArquivosImportacao(this.diretorio.toString(), Duration.ofDays(1));
+        var arquivo = new MockMultipartFile("arquivo", "produtos.csv", "text/csv", "1111111111,Alface,Verdura,5.00,10".getBytes());
+
+        // execução
+        var caminho = Path.of(arquivosImportacao.armazena(arquivo));
+
+        // avaliação
+        Assertions.assertEquals(this.diretorio.resolve("upload"), caminho.getParent());
+        Assertions.assertTrue(caminho.getFileName().toString().endsWith("-produtos.csv"));
+        Assertions.assertEquals("1111111111,Alface,Verdura,5.00,10", Files.readString(caminho));
+    }
+
+    @Test
+    public void identificador_mesmoConteudoEmOutroUpload_mesmaIdentificacao() throws Exception {
+        // preparação
+        var arquivosImportacao = new ArquivosImportacao(this.diretorio.toString(), Duration.ofDays(1));
+        var conteudo = "1111111111,Alface,Verdura,5.00,10".getBytes();
+        var primeiro = arquivosImportacao.armazena(new MockMultipartFile("arquivo", "produtos.csv", "text/csv", conteudo));
+        var segundo = arquivosImportacao.armazena(new MockMultipartFile("arquivo", "outro.csv", "text/csv", conteudo));
+
+        // execução e avaliação
+        Assertions.assertEquals(ArquivosImportacao.identificador(primeiro), ArquivosImportacao.identificador(segundo));
+    }
+
+    @Test
+    public void identificador_conteudoDiferenteComMesmoTamanhoEData_outraIdentificacao() throws Exception {
+        // preparação
+        var arquivo = this.diretorio.resolve("produtos.csv");
+        var data = FileTime.fromMillis(1_700_000_000_000L);
+        Files.writeString(arquivo, "1111111111,Alface,Verdura,5.00,10");
+        Files.setLastModifiedTime(arquivo, data);
+        var antes = ArquivosImportacao.identificador(arquivo.toString());
+
+        // execução
+        Files.writeString(arquivo, "1111111111,Alface,Verdura,5.00,90");
+        Files.setLastModifiedTime(arquivo, data);
+
+        // avaliação
+        Assertions.assertNotEquals(antes, ArquivosImportacao.identificador(arquivo.toString()));
+    }
+
+    @Test
+    public void expiraUploads_removeSoOsUploadsAntigos() throws Exception {
+        // preparação
+        var arquivosImportacao = new ArquivosImportacao(this.diretorio.toString(), Duration.ofHours(1));
+        var antigo = Path.of(arquivosImportacao.armazena(new MockMultipartFile("arquivo", "antigo.csv", "text/csv", "1".getBytes())));
+        var recente = Path.of(arquivosImportacao.armazena(new MockMultipartFile("arquivo", "recente.csv", "text/csv", "2".getBytes())));
+        Files.setLastModifiedTime(antigo, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+        var foraDoUpload = this.diretorio.resolve("produtos.csv");
+        Files.writeString(foraDoUpload, "3");
+
+        // execução
+        arquivosImportacao.expiraUploads();
+        arquivosImportacao.removeUpload(foraDoUpload.toString());
+
+        // avaliação
+        Assertions.assertFalse(Files.exists(antigo));
+        Assertions.assertTrue(Files.exists(recente));
+        Assertions.assertTrue(Files.exists(foraDoUpload));
+    }
+
+    @Test
+    public void armazena_arquivoVazio_lancaExcecao() {
+        // preparação
+        var arquivosImportacao = new ArquivosImportacao(this.diretorio.toString(), Duration.ofDays(1));
+        var arquivo = new MockMultipartFile("arquivo", "produtos.csv", "text/csv", new byte[0]);
+
+        // execução e avaliação
+        Assertions.assertThrows(IllegalArgumentException.class, () -> arquivosImportacao.armazena(arquivo));
+    }
+
+}
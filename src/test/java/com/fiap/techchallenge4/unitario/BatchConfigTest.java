@@ -1,22 +1,50 @@
 package com.fiap.techchallenge4.unitario;
 
 import com.fiap.techchallenge4.domain.Produto;
+import com.fiap.techchallenge4.infrastructure.batch.ArquivoBinarioProduto;
 import com.fiap.techchallenge4.infrastructure.batch.BatchConfig;
+import com.fiap.techchallenge4.infrastructure.batch.ProdutoImportado;
+import com.github.luben.zstd.ZstdOutputStream;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.batch.item.ExecutionContext;
-import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.NonTransientResourceException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 public class BatchConfigTest {
 
+    private static final String CONTEUDO = """
+            1111111111,Alface,Verdura,5.00,10
+            2222222222,Laranja,Fruta,3.00,20
+            """;
+
+    private static final List<Produto> PRODUTOS = List.of(
+            new Produto(1111111111L, "Alface", "Verdura", new BigDecimal("5.00"), 10L),
+            new Produto(2222222222L, "Laranja", "Fruta", new BigDecimal("3.00"), 20L)
+    );
+
+    @TempDir
+    Path diretorio;
+
     @Test
     public void reader_sucesso() throws Exception {
         // preparação
         var batchConfig = new BatchConfig();
 
         // execução
-        var itemReader = batchConfig.reader();
-        ((FlatFileItemReader<Produto>)itemReader).open(new ExecutionContext());
+        var itemReader = batchConfig.reader(null);
+        itemReader.open(new ExecutionContext());
         var produto = itemReader.read();
         var count = 0;
         do {
@@ -34,4 +62,186 @@ public class BatchConfigTest {
 
     }
 
+    @Test
+    public void reader_arquivoGzip_descompactaDuranteALeitura() throws Exception {
+        // preparação
+        var arquivo = this.diretorio.resolve("produtos.csv.gz");
+        try (var saida = new GZIPOutputStream(Files.newOutputStream(arquivo))) {
+            saida.write(CONTEUDO.getBytes(StandardCharsets.UTF_8));
+        }
+        var batchConfig = new BatchConfig();
+
+        // execução
+        var itemReader = batchConfig.reader(arquivo.toString());
+
+        // avaliação
+        Assertions.assertEquals(2, this.contaProdutos(itemReader));
+    }
+
+    @Test
+    public void reader_arquivoZstd_descompactaDuranteALeitura() throws Exception {
+        // preparação
+        var arquivo = this.diretorio.resolve("produtos.csv.zst");
+        try (OutputStream saida = new ZstdOutputStream(Files.newOutputStream(arquivo))) {
+            saida.write(CONTEUDO.getBytes(StandardCharsets.UTF_8));
+        }
+        var batchConfig = new BatchConfig();
+
+        // execução
+        var itemReader = batchConfig.reader(arquivo.toString());
+
+        // avaliação
+        Assertions.assertEquals(2, this.contaProdutos(itemReader));
+    }
+
+    @Test
+    public void reader_diretorio_leTodosOsArquivos() throws Exception {
+        // preparação
+        Files.writeString(this.diretorio.resolve("fornecedor-a.csv"), CONTEUDO);
+        try (var saida = new GZIPOutputStream(Files.newOutputStream(this.diretorio.resolve("fornecedor-b.csv.gz")))) {
+            saida.write(CONTEUDO.getBytes(StandardCharsets.UTF_8));
+        }
+        Files.writeString(this.diretorio.resolve(".oculto.csv"), CONTEUDO);
+        var batchConfig = new BatchConfig();
+
+        // execução
+        var itemReader = batchConfig.reader(this.diretorio.toString());
+
+        // avaliação
+        Assertions.assertEquals(4, this.contaProdutos(itemReader));
+    }
+
+    @Test
+    public void reader_arquivoBinario_leProdutos() throws Exception {
+        // preparação
+        var arquivo = this.diretorio.resolve("produtos.prodbin");
+        try (var saida = Files.newOutputStream(arquivo)) {
+            ArquivoBinarioProduto.escreve(saida, PRODUTOS);
+        }
+        var batchConfig = new BatchConfig();
+
+        // execução
+        var itemReader = batchConfig.reader(arquivo.toString());
+        itemReader.open(new ExecutionContext());
+        var produto = itemReader.read();
+
+        // avaliação
+        Assertions.assertEquals(1111111111L, produto.getEan());
+        Assertions.assertEquals("Alface", produto.getNome());
+        Assertions.assertEquals("Verdura", produto.getDescricao());
+        Assertions.assertEquals(new BigDecimal("5.00"), produto.getPreco());
+        Assertions.assertEquals(10L, produto.getQuantidade());
+        Assertions.assertEquals(1, ((ProdutoImportado) produto).getLinha());
+        Assertions.assertNotNull(itemReader.read());
+        Assertions.assertNull(itemReader.read());
+        itemReader.close();
+    }
+
+    @Test
+    public void reader_diretorioComCsvEBinario_leTodosOsArquivos() throws Exception {
+        // preparação
+        Files.writeString(this.diretorio.resolve("fornecedor-a.csv"), CONTEUDO);
+        try (var saida = new ZstdOutputStream(Files.newOutputStream(this.diretorio.resolve("fornecedor-b.prodbin.zst")))) {
+            ArquivoBinarioProduto.escreve(saida, PRODUTOS);
+        }
+        Files.writeString(this.diretorio.resolve("fornecedor-c.csv"), CONTEUDO);
+        var batchConfig = new BatchConfig();
+
+        // execução
+        var itemReader = batchConfig.reader(this.diretorio.toString());
+
+        // avaliação
+        Assertions.assertEquals(6, this.contaProdutos(itemReader));
+    }
+
+    @Test
+    public void reader_arquivoBinarioRetomado_continuaDaUltimaPosicao() throws Exception {
+        // preparação
+        var arquivo = this.diretorio.resolve("produtos.prodbin");
+        try (var saida = Files.newOutputStream(arquivo)) {
+            ArquivoBinarioProduto.escreve(saida, PRODUTOS);
+        }
+        var batchConfig = new BatchConfig();
+        var contexto = new ExecutionContext();
+        var primeiraLeitura = batchConfig.reader(arquivo.toString());
+        primeiraLeitura.open(contexto);
+        primeiraLeitura.read();
+        primeiraLeitura.update(contexto);
+        primeiraLeitura.close();
+
+        // execução
+        var itemReader = batchConfig.reader(arquivo.toString());
+        itemReader.open(contexto);
+        var produto = itemReader.read();
+
+        // avaliação
+        Assertions.assertEquals(2222222222L, produto.getEan());
+        Assertions.assertNull(itemReader.read());
+        itemReader.close();
+    }
+
+    @Test
+    public void reader_arquivoBinarioTruncado_lancaExcecao() throws Exception {
+        // preparação
+        var arquivo = this.diretorio.resolve("produtos.prodbin");
+        var conteudo = new ByteArrayOutputStream();
+        ArquivoBinarioProduto.escreve(conteudo, PRODUTOS);
+        Files.write(arquivo, Arrays.copyOf(conteudo.toByteArray(), conteudo.size() - 10));
+        var batchConfig = new BatchConfig();
+        var itemReader = batchConfig.reader(arquivo.toString());
+        itemReader.open(new ExecutionContext());
+        itemReader.read();
+
+        // execução e avaliação
+        Assertions.assertThrows(NonTransientResourceException.class, itemReader::read);
+        itemReader.close();
+    }
+
+    @Test
+    public void escreve_arquivoBinario_menorQueOCsv() throws Exception {
+        // preparação
+        var conteudo = new ByteArrayOutputStream();
+
+        // execução
+        ArquivoBinarioProduto.escreve(conteudo, PRODUTOS);
+
+        // avaliação
+        Assertions.assertTrue(conteudo.size() < CONTEUDO.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    public void reader_arquivoBinario_eanDe13DigitosETextoComAcento() throws Exception {
+        // preparação
+        var arquivo = this.diretorio.resolve("produtos.prodbin");
+        try (var saida = Files.newOutputStream(arquivo)) {
+            ArquivoBinarioProduto.escreve(saida, List.of(
+                    new Produto(7894900011517L, "Café Torrado", "Pacote de 500g", new BigDecimal("1234.56"), 1000L)
+            ));
+        }
+        var batchConfig = new BatchConfig();
+
+        // execução
+        var itemReader = batchConfig.reader(arquivo.toString());
+        itemReader.open(new ExecutionContext());
+        var produto = itemReader.read();
+
+        // avaliação
+        Assertions.assertEquals(7894900011517L, produto.getEan());
+        Assertions.assertEquals("Café Torrado", produto.getNome());
+        Assertions.assertEquals(new BigDecimal("1234.56"), produto.getPreco());
+        Assertions.assertEquals(1000L, produto.getQuantidade());
+        Assertions.assertNull(itemReader.read());
+        itemReader.close();
+    }
+
+    private int contaProdutos(final ItemStreamReader<Produto> itemReader) throws Exception {
+        itemReader.open(new ExecutionContext());
+        var count = 0;
+        while (itemReader.read() != null) {
+            count++;
+        }
+        itemReader.close();
+        return count;
+    }
+
 }
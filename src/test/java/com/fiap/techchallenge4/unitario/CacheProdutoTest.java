@@ -0,0 +1,185 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.domain.event.ProdutoAlteradoEvent;
+import com.fiap.techchallenge4.infrastructure.cache.CacheCompartilhadoProduto;
+import com.fiap.techchallenge4.infrastructure.cache.CacheProduto;
+import com.fiap.techchallenge4.infrastructure.cache.MemoriaCacheCompartilhadoProduto;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ProdutoDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CacheProdutoTest {
+
+    private static final ProdutoDTO PRODUTO = new ProdutoDTO(
+            7894900011517L,
+            "Produto Teste",
+            "Descrição do Produto Teste",
+            new BigDecimal("100"),
+            100L,
+            LocalDateTime.now(),
+            0L,
+            LocalDateTime.now()
+    );
+
+    @Test
+    public void busca_segundaBusca_naoVaiAoBanco() {
+        // preparação
+        var meterRegistry = new SimpleMeterRegistry();
+        var cache = new CacheProduto(new MemoriaCacheCompartilhadoProduto(), meterRegistry, 100, Duration.ofMinutes(1), Duration.ofSeconds(10));
+        var buscasNoBanco = new AtomicInteger();
+
+        // execução
+        cache.busca(PRODUTO.ean(), ean -> {
+            buscasNoBanco.incrementAndGet();
+            return PRODUTO;
+        });
+        var produto = cache.busca(PRODUTO.ean(), ean -> {
+            buscasNoBanco.incrementAndGet();
+            return PRODUTO;
+        });
+
+        // avaliação
+        Assertions.assertEquals(PRODUTO, produto);
+        Assertions.assertEquals(1, buscasNoBanco.get());
+        Assertions.assertEquals(1.0, meterRegistry.counter("cache.produto.banco").count());
+        Assertions.assertEquals(1.0, meterRegistry.counter("cache.produto.acessos", "nivel", "local", "resultado", "acerto").count());
+    }
+
+    @Test
+    public void busca_outraInstancia_usaNivelCompartilhado() {
+        // preparação
+        var meterRegistry = new SimpleMeterRegistry();
+        var compartilhado = new MemoriaCacheCompartilhadoProduto();
+        new CacheProduto(compartilhado, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), Duration.ofSeconds(10))
+                .busca(PRODUTO.ean(), ean -> PRODUTO);
+        var cache = new CacheProduto(compartilhado, meterRegistry, 100, Duration.ofMinutes(1), Duration.ofSeconds(10));
+
+        // execução
+        var produto = cache.busca(PRODUTO.ean(), ean -> null);
+
+        // avaliação
+        Assertions.assertEquals(PRODUTO, produto);
+        Assertions.assertEquals(1.0, meterRegistry.counter("cache.produto.acessos", "nivel", "compartilhado", "resultado", "acerto").count());
+        Assertions.assertEquals(0.0, meterRegistry.counter("cache.produto.banco").count());
+    }
+
+    @Test
+    public void aoAlterarProduto_invalidaTodasAsInstancias() {
+        // preparação
+        var compartilhado = new MemoriaCacheCompartilhadoProduto();
+        var meterRegistry = new SimpleMeterRegistry();
+        var instanciaA = new CacheProduto(compartilhado, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), Duration.ofSeconds(10));
+        var instanciaB = new CacheProduto(compartilhado, meterRegistry, 100, Duration.ofMinutes(1), Duration.ofSeconds(10));
+        instanciaA.busca(PRODUTO.ean(), ean -> PRODUTO);
+        instanciaB.busca(PRODUTO.ean(), ean -> PRODUTO);
+
+        // execução
+        instanciaA.aoAlterarProduto(new ProdutoAlteradoEvent(PRODUTO.ean(), 1L));
+        var produto = instanciaB.busca(PRODUTO.ean(), ean -> null);
+
+        // avaliação
+        Assertions.assertNull(produto);
+        Assertions.assertEquals(1L, meterRegistry.timer("cache.produto.invalidacao.atraso").count());
+    }
+
+    @Test
+    public void aoAlterarProduto_importacao_esperaOFimDoJob() {
+        // preparação
+        var cache = new CacheProduto(new MemoriaCacheCompartilhadoProduto(), new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), Duration.ofSeconds(10));
+        cache.busca(PRODUTO.ean(), ean -> PRODUTO);
+
+        // execução
+        cache.aoAlterarProduto(new ProdutoAlteradoEvent(PRODUTO.ean(), 1L, true));
+        var antesDoFimDoJob = cache.busca(PRODUTO.ean(), ean -> null);
+        cache.invalidaTodos();
+        var depoisDoFimDoJob = cache.busca(PRODUTO.ean(), ean -> null);
+
+        // avaliação
+        Assertions.assertEquals(PRODUTO, antesDoFimDoJob);
+        Assertions.assertNull(depoisDoFimDoJob);
+    }
+
+    @Test
+    public void busca_invalidadoDuranteACarga_naoGuardaOProdutoLidoAntes() {
+        // preparação
+        var compartilhado = new MemoriaCacheCompartilhadoProduto();
+        var cache = new CacheProduto(compartilhado, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), Duration.ofSeconds(10));
+        var atualizado = versao(PRODUTO, 1L, 50L);
+
+        // execução
+        var lidoAntes = cache.busca(PRODUTO.ean(), ean -> {
+            // a gravacao concorrente faz commit e invalida depois da leitura e antes da carga guardar
+            cache.aoAlterarProduto(new ProdutoAlteradoEvent(PRODUTO.ean(), 50L));
+            return PRODUTO;
+        });
+        var lidoDepois = cache.busca(PRODUTO.ean(), ean -> atualizado);
+
+        // avaliação
+        Assertions.assertEquals(PRODUTO, lidoAntes);
+        Assertions.assertEquals(atualizado, lidoDepois);
+        Assertions.assertNull(compartilhado.busca(PRODUTO.ean()));
+    }
+
+    @Test
+    public void grava_compartilhadoInvalidado_recusaAGravacaoAteAMarcaExpirar() throws Exception {
+        // preparação
+        var compartilhado = new MemoriaCacheCompartilhadoProduto(Duration.ofMillis(50));
+        compartilhado.grava(PRODUTO);
+
+        // execução
+        compartilhado.invalida(PRODUTO.ean());
+        compartilhado.grava(PRODUTO);
+        var durante = compartilhado.busca(PRODUTO.ean());
+        Thread.sleep(100);
+        compartilhado.grava(PRODUTO);
+
+        // avaliação
+        Assertions.assertNull(durante);
+        Assertions.assertEquals(PRODUTO, compartilhado.busca(PRODUTO.ean()));
+    }
+
+    @Test
+    public void grava_versaoMaisAntiga_naoSubstituiAMaisNova() {
+        // preparação
+        var compartilhado = new MemoriaCacheCompartilhadoProduto();
+        var maisNova = versao(PRODUTO, 2L, 10L);
+
+        // execução
+        compartilhado.grava(maisNova);
+        compartilhado.grava(PRODUTO);
+
+        // avaliação
+        Assertions.assertEquals(maisNova, compartilhado.busca(PRODUTO.ean()));
+    }
+
+    @Test
+    public void busca_nivelCompartilhadoForaDoAr_vaiAoBanco() {
+        // preparação
+        var compartilhado = Mockito.mock(CacheCompartilhadoProduto.class);
+        Mockito.when(compartilhado.busca(Mockito.any()))
+                .thenThrow(new IllegalStateException("REDIS FORA DO AR"));
+        var meterRegistry = new SimpleMeterRegistry();
+        var cache = new CacheProduto(compartilhado, meterRegistry, 100, Duration.ofMinutes(1), Duration.ofSeconds(10));
+
+        // execução
+        var produto = cache.busca(PRODUTO.ean(), ean -> PRODUTO);
+
+        // avaliação
+        Assertions.assertEquals(PRODUTO, produto);
+        Assertions.assertEquals(1.0, meterRegistry.counter("cache.produto.erros", "nivel", "compartilhado").count());
+        Assertions.assertEquals(1.0, meterRegistry.counter("cache.produto.banco").count());
+    }
+
+    private static ProdutoDTO versao(final ProdutoDTO produto, final Long versao, final Long quantidade) {
+        return new ProdutoDTO(produto.ean(), produto.nome(), produto.descricao(), produto.preco(), quantidade,
+                produto.dataDeCriacao(), versao, LocalDateTime.now());
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.domain.MotivoMovimentoEstoqueEnum;
+import com.fiap.techchallenge4.infrastructure.agendamento.LeaseAgendamento;
+import com.fiap.techchallenge4.infrastructure.estoque.CompactacaoMovimentosEstoque;
+import com.fiap.techchallenge4.infrastructure.estoque.ParticoesMovimentoEstoque;
+import com.fiap.techchallenge4.infrastructure.model.MovimentoEstoqueDiarioEntity;
+import com.fiap.techchallenge4.infrastructure.model.MovimentoEstoqueDiarioId;
+import com.fiap.techchallenge4.infrastructure.repository.MovimentoEstoqueDiarioRepository;
+import com.fiap.techchallenge4.infrastructure.repository.MovimentoEstoqueRepository;
+import com.fiap.techchallenge4.infrastructure.repository.TotalMovimentosEstoque;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class CompactacaoMovimentosEstoqueTest {
+
+    @Test
+    public void compacta_somaOsDiasForaDaRetencao_eRemoveOsMovimentos() {
+        // preparação
+        var movimentoEstoqueRepository = Mockito.mock(MovimentoEstoqueRepository.class);
+        var movimentoEstoqueDiarioRepository = Mockito.mock(MovimentoEstoqueDiarioRepository.class);
+        var particoes = Mockito.mock(ParticoesMovimentoEstoque.class);
+        var dezDiasAtras = LocalDate.now().minusDays(10);
+        var noveDiasAtras = LocalDate.now().minusDays(9);
+
+        Mockito.when(movimentoEstoqueRepository.buscaDataDoMovimentoMaisAntigo())
+                .thenReturn(dezDiasAtras.atTime(10, 0))
+                .thenReturn(noveDiasAtras.atTime(23, 59))
+                .thenReturn(LocalDateTime.now());
+        Mockito.when(movimentoEstoqueRepository.totaliza(dezDiasAtras.atStartOfDay(), noveDiasAtras.atStartOfDay()))
+                .thenReturn(List.of(
+                        total(1L, MotivoMovimentoEstoqueEnum.RETIRADA, -7, 3),
+                        total(1L, MotivoMovimentoEstoqueEnum.DEVOLUCAO, 2, 1)
+                ));
+        Mockito.when(movimentoEstoqueRepository.totaliza(noveDiasAtras.atStartOfDay(), noveDiasAtras.plusDays(1).atStartOfDay()))
+                .thenReturn(List.of(
+                        total(1L, MotivoMovimentoEstoqueEnum.RETIRADA, -1, 1)
+                ));
+        Mockito.when(movimentoEstoqueDiarioRepository.findAllById(Mockito.any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(new MovimentoEstoqueDiarioEntity(
+                        new MovimentoEstoqueDiarioId(1L, noveDiasAtras, MotivoMovimentoEstoqueEnum.RETIRADA), -4, 2)));
+
+        var compactacao = new CompactacaoMovimentosEstoque(
+                movimentoEstoqueRepository,
+                movimentoEstoqueDiarioRepository,
+                particoes,
+                Mockito.mock(LeaseAgendamento.class),
+                Mockito.mock(PlatformTransactionManager.class),
+                Duration.ofDays(7)
+        );
+
+        // execução
+        compactacao.compacta();
+
+        // avaliação
+        ArgumentCaptor<Iterable<MovimentoEstoqueDiarioEntity>> diarios = ArgumentCaptor.forClass(Iterable.class);
+        verify(movimentoEstoqueDiarioRepository, times(2)).saveAll(diarios.capture());
+
+        var primeiroDia = new ArrayList<MovimentoEstoqueDiarioEntity>();
+        diarios.getAllValues().get(0).forEach(primeiroDia::add);
+        primeiroDia.sort(Comparator.comparing(diario -> diario.getId().getMotivo()));
+        Assertions.assertEquals(2, primeiroDia.size());
+        Assertions.assertEquals(-7, primeiroDia.get(0).getTotal());
+        Assertions.assertEquals(3, primeiroDia.get(0).getMovimentos());
+        Assertions.assertEquals(dezDiasAtras, primeiroDia.get(0).getId().getDia());
+
+        var segundoDia = diarios.getAllValues().get(1).iterator().next();
+        Assertions.assertEquals(-5, segundoDia.getTotal());
+        Assertions.assertEquals(3, segundoDia.getMovimentos());
+
+        var ordem = Mockito.inOrder(particoes, movimentoEstoqueRepository);
+        ordem.verify(particoes).bloqueiaDia(dezDiasAtras);
+        ordem.verify(movimentoEstoqueRepository).totaliza(dezDiasAtras.atStartOfDay(), noveDiasAtras.atStartOfDay());
+        ordem.verify(particoes).esvaziaDia(dezDiasAtras);
+        ordem.verify(particoes).removeParticao(dezDiasAtras);
+        ordem.verify(particoes).bloqueiaDia(noveDiasAtras);
+        ordem.verify(particoes).esvaziaDia(noveDiasAtras);
+        ordem.verify(particoes).removeParticao(noveDiasAtras);
+        ordem.verify(particoes).removeParticoesVaziasAntesDe(LocalDate.now().minusDays(7));
+    }
+
+    @Test
+    public void compacta_semMovimentosAntigos_naoAlteraNada() {
+        // preparação
+        var movimentoEstoqueRepository = Mockito.mock(MovimentoEstoqueRepository.class);
+        var movimentoEstoqueDiarioRepository = Mockito.mock(MovimentoEstoqueDiarioRepository.class);
+        var particoes = Mockito.mock(ParticoesMovimentoEstoque.class);
+        Mockito.when(movimentoEstoqueRepository.buscaDataDoMovimentoMaisAntigo())
+                .thenReturn(LocalDateTime.now().minusDays(2));
+
+        var compactacao = new CompactacaoMovimentosEstoque(
+                movimentoEstoqueRepository,
+                movimentoEstoqueDiarioRepository,
+                particoes,
+                Mockito.mock(LeaseAgendamento.class),
+                Mockito.mock(PlatformTransactionManager.class),
+                Duration.ofDays(7)
+        );
+
+        // execução
+        compactacao.compacta();
+
+        // avaliação
+        verify(movimentoEstoqueRepository, times(0)).totaliza(Mockito.any(), Mockito.any());
+        verify(particoes, times(0)).esvaziaDia(Mockito.any());
+        Mockito.verifyNoInteractions(movimentoEstoqueDiarioRepository);
+    }
+
+    private static TotalMovimentosEstoque total(final Long ean,
+                                                final MotivoMovimentoEstoqueEnum motivo,
+                                                final long total,
+                                                final long movimentos) {
+        return new TotalMovimentosEstoque() {
+            @Override
+            public Long getEan() {
+                return ean;
+            }
+
+            @Override
+            public MotivoMovimentoEstoqueEnum getMotivo() {
+                return motivo;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+
+            @Override
+            public long getMovimentos() {
+                return movimentos;
+            }
+        };
+    }
+
+}
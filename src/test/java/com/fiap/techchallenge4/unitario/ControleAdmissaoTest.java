@@ -0,0 +1,101 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.infrastructure.controller.ProdutoController;
+import com.fiap.techchallenge4.infrastructure.controller.TratamentoError;
+import com.fiap.techchallenge4.infrastructure.controller.admissao.AdmissaoProperties;
+import com.fiap.techchallenge4.infrastructure.controller.admissao.ControleAdmissao;
+import com.fiap.techchallenge4.infrastructure.controller.admissao.RequisicaoRecusadaException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class ControleAdmissaoTest {
+
+    private static final ProdutoController CONTROLLER = Mockito.mock(ProdutoController.class);
+
+    @Test
+    public void preHandle_capacidadeDasEscritasOcupada_recusaEscritaMasAdmiteTemEstoque() {
+        // preparação
+        var meterRegistry = new SimpleMeterRegistry();
+        var controle = new ControleAdmissao(properties(10, 20), meterRegistry);
+        for (var i = 0; i < 6; i++) {
+            Assertions.assertTrue(controle.preHandle(new MockHttpServletRequest("POST", "/produto"), new MockHttpServletResponse(), metodo("cadastra")));
+        }
+
+        // execução e avaliação
+        Assertions.assertThrows(
+                RequisicaoRecusadaException.class,
+                () -> controle.preHandle(new MockHttpServletRequest("POST", "/produto"), new MockHttpServletResponse(), metodo("cadastra"))
+        );
+        Assertions.assertThrows(
+                RequisicaoRecusadaException.class,
+                () -> controle.preHandle(new MockHttpServletRequest("POST", "/produto/importa"), new MockHttpServletResponse(), metodo("importa"))
+        );
+        Assertions.assertTrue(controle.preHandle(new MockHttpServletRequest("GET", "/produto/estoque/1/1"), new MockHttpServletResponse(), metodo("temEstoque")));
+        Assertions.assertEquals(1, meterRegistry.get("http.admissao.recusadas")
+                .tags("endpoint", "cadastra", "prioridade", "BAIXA", "motivo", "capacidade")
+                .counter()
+                .count());
+        Assertions.assertEquals(7, meterRegistry.get("http.admissao.em.andamento").gauge().value());
+    }
+
+    @Test
+    public void preHandle_limiteDoEndpointOcupado_recusaAteUmaRequisicaoTerminar() {
+        // preparação
+        var meterRegistry = new SimpleMeterRegistry();
+        var controle = new ControleAdmissao(properties(100, 2), meterRegistry);
+        var requisicoes = new ArrayList<MockHttpServletRequest>();
+        for (var i = 0; i < 2; i++) {
+            var requisicao = new MockHttpServletRequest("GET", "/produto/busca");
+            controle.preHandle(requisicao, new MockHttpServletResponse(), metodo("buscaPorTexto"));
+            requisicoes.add(requisicao);
+        }
+
+        // execução
+        Assertions.assertThrows(
+                RequisicaoRecusadaException.class,
+                () -> controle.preHandle(new MockHttpServletRequest("GET", "/produto/busca"), new MockHttpServletResponse(), metodo("buscaPorTexto"))
+        );
+        controle.afterCompletion(requisicoes.get(0), new MockHttpServletResponse(), metodo("buscaPorTexto"), null);
+
+        // avaliação
+        Assertions.assertTrue(controle.preHandle(new MockHttpServletRequest("GET", "/produto/busca"), new MockHttpServletResponse(), metodo("buscaPorTexto")));
+        Assertions.assertEquals(1, meterRegistry.get("http.admissao.recusadas")
+                .tags("endpoint", "buscaPorTexto", "prioridade", "NORMAL", "motivo", "limite-endpoint")
+                .counter()
+                .count());
+        Assertions.assertEquals(2, meterRegistry.get("http.admissao.em.andamento").gauge().value());
+    }
+
+    @Test
+    public void trataRequisicaoRecusada_deveRetornar503_comRetryAfter() {
+        // execução
+        var resposta = new TratamentoError().trataRequisicaoRecusada(new RequisicaoRecusadaException(Duration.ofSeconds(2)));
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, resposta.getStatusCode());
+        Assertions.assertEquals("2", resposta.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    private static AdmissaoProperties properties(final int capacidade, final int limiteInicial) {
+        return new AdmissaoProperties(true, capacidade, limiteInicial, 1, 100, 2.0, 0.9, Duration.ofSeconds(1));
+    }
+
+    private static HandlerMethod metodo(final String nome) {
+        return new HandlerMethod(CONTROLLER, Arrays.stream(ProdutoController.class.getMethods())
+                .filter(metodo -> metodo.getName().equals(nome))
+                .findFirst()
+                .orElseThrow());
+    }
+
+}
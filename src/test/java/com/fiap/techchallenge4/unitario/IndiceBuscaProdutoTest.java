@@ -0,0 +1,140 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.domain.event.ProdutoAlteradoEvent;
+import com.fiap.techchallenge4.infrastructure.busca.IndiceBuscaProduto;
+import com.fiap.techchallenge4.infrastructure.controller.dto.SugestaoProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.repository.NomeProduto;
+import com.fiap.techchallenge4.infrastructure.repository.ProdutoRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+public class IndiceBuscaProdutoTest {
+
+    @Test
+    public void sugere_prefixoSemAcento_encontraTodasAsPalavras() {
+        // preparação
+        var indice = carregado(1000,
+                nome(1L, "Feijão Carioca"),
+                nome(2L, "Feijão Preto"),
+                nome(3L, "Mamão Papaia"),
+                nome(4L, "Arroz Carioca")
+        );
+
+        // execução
+        var feijao = indice.sugere(List.of("feij"), 10);
+        var feijaoCarioca = indice.sugere(List.of("feij", "car"), 10);
+        var mamao = indice.sugere(List.of("mamao"), 10);
+        var nenhum = indice.sugere(List.of("feij", "papaia"), 10);
+
+        // avaliação
+        Assertions.assertEquals(List.of(new SugestaoProdutoDTO(1L, "Feijão Carioca"), new SugestaoProdutoDTO(2L, "Feijão Preto")), feijao);
+        Assertions.assertEquals(List.of(new SugestaoProdutoDTO(1L, "Feijão Carioca")), feijaoCarioca);
+        Assertions.assertEquals(List.of(new SugestaoProdutoDTO(3L, "Mamão Papaia")), mamao);
+        Assertions.assertTrue(nenhum.isEmpty());
+    }
+
+    @Test
+    public void sugere_respeitaOLimite() {
+        // preparação
+        var indice = carregado(1000,
+                nome(1L, "Arroz Integral"),
+                nome(2L, "Arroz Parboilizado"),
+                nome(3L, "Arroz Branco")
+        );
+
+        // execução
+        var sugestoes = indice.sugere(List.of("arroz"), 2);
+
+        // avaliação
+        Assertions.assertEquals(List.of(1L, 2L), sugestoes.stream().map(SugestaoProdutoDTO::ean).toList());
+    }
+
+    @Test
+    public void aoAlterarProduto_cadastroRenomeacaoERemocao_aparecemSemRecarga() {
+        // preparação
+        var indice = carregado(1000,
+                nome(1L, "Feijão Carioca"),
+                nome(2L, "Feijão Preto")
+        );
+
+        // execução
+        indice.aoAlterarProduto(new ProdutoAlteradoEvent(3L, 10L, false, "Feijoada Pronta"));
+        indice.aoAlterarProduto(new ProdutoAlteradoEvent(1L, 10L, false, "Lentilha"));
+        indice.aoAlterarProduto(ProdutoAlteradoEvent.removido(2L));
+
+        // avaliação
+        Assertions.assertEquals(List.of(new SugestaoProdutoDTO(3L, "Feijoada Pronta")), indice.sugere(List.of("feij"), 10));
+        Assertions.assertEquals(List.of(new SugestaoProdutoDTO(1L, "Lentilha")), indice.sugere(List.of("lent"), 10));
+    }
+
+    @Test
+    public void aoAlterarProduto_passaDoLimiteDeAlteracoes_remontaABaseSemPerderProdutos() {
+        // preparação
+        var indice = carregado(2, nome(1L, "Feijão Carioca"));
+
+        // execução
+        indice.aoAlterarProduto(new ProdutoAlteradoEvent(2L, 1L, false, "Feijão Preto"));
+        indice.aoAlterarProduto(new ProdutoAlteradoEvent(3L, 1L, false, "Feijão Branco"));
+        indice.aoAlterarProduto(new ProdutoAlteradoEvent(4L, 1L, false, "Feijão Fradinho"));
+        indice.aoAlterarProduto(ProdutoAlteradoEvent.removido(1L));
+
+        // avaliação
+        Assertions.assertEquals(List.of(2L, 3L, 4L), indice.sugere(List.of("feijao"), 10).stream().map(SugestaoProdutoDTO::ean).toList());
+    }
+
+    @Test
+    public void aoAlterarProduto_importacaoOuSemNome_naoAlteraOIndice() {
+        // preparação
+        var indice = carregado(1000, nome(1L, "Feijão Carioca"));
+
+        // execução
+        indice.aoAlterarProduto(new ProdutoAlteradoEvent(2L, 1L, true, "Feijão Preto"));
+        indice.aoAlterarProduto(new ProdutoAlteradoEvent(1L, 5L));
+
+        // avaliação
+        Assertions.assertEquals(List.of(new SugestaoProdutoDTO(1L, "Feijão Carioca")), indice.sugere(List.of("feij"), 10));
+    }
+
+    @Test
+    public void recarrega_falhaNoBanco_continuaNaoCarregado() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        Mockito.when(repository.buscaNomes(Mockito.any(), Mockito.any()))
+                .thenThrow(new IllegalStateException("banco fora do ar"));
+        var indice = new IndiceBuscaProduto(repository, 1000);
+
+        // execução
+        indice.recarrega();
+
+        // avaliação
+        Assertions.assertFalse(indice.carregado());
+    }
+
+    private static IndiceBuscaProduto carregado(final int limiteAlteracoes, final NomeProduto... nomes) {
+        var repository = Mockito.mock(ProdutoRepository.class);
+        Mockito.when(repository.buscaNomes(Mockito.eq(0L), Mockito.any()))
+                .thenReturn(List.of(nomes));
+        var indice = new IndiceBuscaProduto(repository, limiteAlteracoes);
+        indice.recarrega();
+        Assertions.assertTrue(indice.carregado());
+        return indice;
+    }
+
+    private static NomeProduto nome(final Long ean, final String nome) {
+        return new NomeProduto() {
+            @Override
+            public Long getEan() {
+                return ean;
+            }
+
+            @Override
+            public String getNome() {
+                return nome;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,206 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.domain.event.ProdutoAlteradoEvent;
+import com.fiap.techchallenge4.infrastructure.cache.MemoriaCacheCompartilhadoProduto;
+import com.fiap.techchallenge4.infrastructure.estoque.IndiceEstoque;
+import com.fiap.techchallenge4.infrastructure.repository.EstoqueProduto;
+import com.fiap.techchallenge4.infrastructure.repository.ProdutoRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+public class IndiceEstoqueTest {
+
+    @Test
+    public void recarrega_leTodasAsPaginas() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var primeiraPagina = new ArrayList<EstoqueProduto>();
+        for (var ean = 1L; ean <= 10_000L; ean++) {
+            primeiraPagina.add(estoque(ean, ean * 2));
+        }
+        Mockito.when(repository.buscaEstoques(Mockito.eq(0L), Mockito.any()))
+                .thenReturn(primeiraPagina);
+        Mockito.when(repository.buscaEstoques(Mockito.eq(10_000L), Mockito.any()))
+                .thenReturn(List.of(estoque(7894900011517L, 5)));
+        var indice = new IndiceEstoque(repository, new MemoriaCacheCompartilhadoProduto());
+
+        // execução
+        indice.recarrega();
+
+        // avaliação
+        Assertions.assertEquals(2L, indice.quantidade(1L));
+        Assertions.assertEquals(20_000L, indice.quantidade(10_000L));
+        Assertions.assertEquals(5L, indice.quantidade(7894900011517L));
+        Assertions.assertEquals(IndiceEstoque.AUSENTE, indice.quantidade(7894900011518L));
+    }
+
+    @Test
+    public void aoAlterarProduto_atualizaERemove() {
+        // preparação
+        var indice = new IndiceEstoque(Mockito.mock(ProdutoRepository.class), new MemoriaCacheCompartilhadoProduto());
+
+        // execução
+        indice.aoAlterarProduto(new ProdutoAlteradoEvent(7894900011517L, 10L));
+        indice.aoAlterarProduto(new ProdutoAlteradoEvent(7894900011517L, 0L));
+        indice.aoAlterarProduto(new ProdutoAlteradoEvent(7894900011524L, 3L));
+        indice.aoAlterarProduto(ProdutoAlteradoEvent.removido(7894900011524L));
+
+        // avaliação
+        Assertions.assertEquals(0L, indice.quantidade(7894900011517L));
+        Assertions.assertEquals(IndiceEstoque.AUSENTE, indice.quantidade(7894900011524L));
+    }
+
+    @Test
+    public void carregaSeAusente_naoSobrescreveAlteracaoNemRemocao() {
+        // preparação
+        var indice = new IndiceEstoque(Mockito.mock(ProdutoRepository.class), new MemoriaCacheCompartilhadoProduto());
+        indice.aoAlterarProduto(new ProdutoAlteradoEvent(7894900011517L, 10L));
+        indice.aoAlterarProduto(ProdutoAlteradoEvent.removido(7894900011524L));
+
+        // execução
+        indice.carregaSeAusente(7894900011517L, 99L);
+        indice.carregaSeAusente(7894900011524L, 99L);
+        indice.carregaSeAusente(7894900011531L, 7L);
+
+        // avaliação
+        Assertions.assertEquals(10L, indice.quantidade(7894900011517L));
+        Assertions.assertEquals(IndiceEstoque.AUSENTE, indice.quantidade(7894900011524L));
+        Assertions.assertEquals(7L, indice.quantidade(7894900011531L));
+    }
+
+    @Test
+    public void recarrega_alteracaoDuranteALeitura_prevaleceSobreOBanco() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var indice = new IndiceEstoque(repository, new MemoriaCacheCompartilhadoProduto());
+        Mockito.when(repository.buscaEstoques(Mockito.eq(0L), Mockito.any()))
+                .thenAnswer(invocacao -> {
+                    indice.aoAlterarProduto(new ProdutoAlteradoEvent(7894900011517L, 1L));
+                    return List.of(estoque(7894900011517L, 50));
+                });
+
+        // execução
+        indice.recarrega();
+
+        // avaliação
+        Assertions.assertEquals(1L, indice.quantidade(7894900011517L));
+    }
+
+    @Test
+    public void aoAlterarProduto_muitosProdutos_cresceATabela() {
+        // preparação
+        var indice = new IndiceEstoque(Mockito.mock(ProdutoRepository.class), new MemoriaCacheCompartilhadoProduto());
+
+        // execução
+        for (var ean = 1L; ean <= 100_000L; ean++) {
+            indice.aoAlterarProduto(new ProdutoAlteradoEvent(ean, ean));
+        }
+
+        // avaliação
+        for (var ean = 1L; ean <= 100_000L; ean++) {
+            Assertions.assertEquals(ean, indice.quantidade(ean));
+        }
+    }
+
+    @Test
+    public void invalidacaoDoCacheCompartilhado_marcaAusenteAteLerDoBanco() {
+        // preparação
+        var compartilhado = new MemoriaCacheCompartilhadoProduto();
+        var indice = new IndiceEstoque(Mockito.mock(ProdutoRepository.class), compartilhado);
+        indice.aoAlterarProduto(new ProdutoAlteradoEvent(7894900011517L, 10L));
+        indice.aoAlterarProduto(new ProdutoAlteradoEvent(7894900011524L, 3L));
+
+        // execução
+        compartilhado.invalida(7894900011517L);
+
+        // avaliação
+        Assertions.assertEquals(IndiceEstoque.AUSENTE, indice.quantidade(7894900011517L));
+        Assertions.assertEquals(3L, indice.quantidade(7894900011524L));
+        indice.carregaSeAusente(7894900011517L, 4L, indice.marca());
+        Assertions.assertEquals(4L, indice.quantidade(7894900011517L));
+    }
+
+    @Test
+    public void invalidacaoDeTodos_recarregaSemEsvaziarOIndice() throws Exception {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var compartilhado = new MemoriaCacheCompartilhadoProduto();
+        var indice = new IndiceEstoque(repository, compartilhado);
+        indice.aoAlterarProduto(new ProdutoAlteradoEvent(7894900011517L, 10L));
+        indice.aoAlterarProduto(new ProdutoAlteradoEvent(7894900011524L, 3L));
+        var liberaRecarga = new CountDownLatch(1);
+        Mockito.when(repository.buscaEstoques(Mockito.eq(0L), Mockito.any()))
+                .thenAnswer(invocacao -> {
+                    liberaRecarga.await();
+                    return List.of(estoque(7894900011517L, 60), estoque(7894900011524L, 3));
+                });
+
+        // execução
+        compartilhado.invalidaTodos();
+
+        // avaliação
+        Assertions.assertEquals(10L, indice.quantidade(7894900011517L));
+        liberaRecarga.countDown();
+        for (var tentativa = 0; tentativa < 100 && indice.quantidade(7894900011517L) != 60L; tentativa++) {
+            Thread.sleep(20);
+        }
+        Assertions.assertEquals(60L, indice.quantidade(7894900011517L));
+        Assertions.assertEquals(3L, indice.quantidade(7894900011524L));
+        indice.destroy();
+    }
+
+    @Test
+    public void carregaSeAusente_invalidadoDepoisDaLeitura_naoGuardaQuantidadeAntiga() {
+        // preparação
+        var compartilhado = new MemoriaCacheCompartilhadoProduto();
+        var indice = new IndiceEstoque(Mockito.mock(ProdutoRepository.class), compartilhado);
+        var marca = indice.marca();
+
+        // execução
+        compartilhado.invalida(7894900011517L);
+        indice.carregaSeAusente(7894900011517L, 10L, marca);
+
+        // avaliação
+        Assertions.assertEquals(IndiceEstoque.AUSENTE, indice.quantidade(7894900011517L));
+    }
+
+    @Test
+    public void recarrega_invalidacaoDuranteALeitura_prevaleceSobreOBanco() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var compartilhado = new MemoriaCacheCompartilhadoProduto();
+        var indice = new IndiceEstoque(repository, compartilhado);
+        Mockito.when(repository.buscaEstoques(Mockito.eq(0L), Mockito.any()))
+                .thenAnswer(invocacao -> {
+                    compartilhado.invalida(7894900011517L);
+                    return List.of(estoque(7894900011517L, 50), estoque(7894900011524L, 3));
+                });
+
+        // execução
+        indice.recarrega();
+
+        // avaliação
+        Assertions.assertEquals(IndiceEstoque.AUSENTE, indice.quantidade(7894900011517L));
+        Assertions.assertEquals(3L, indice.quantidade(7894900011524L));
+    }
+
+    private static EstoqueProduto estoque(final long ean, final long quantidade) {
+        return new EstoqueProduto() {
+            @Override
+            public Long getEan() {
+                return ean;
+            }
+
+            @Override
+            public long getQuantidade() {
+                return quantidade;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.infrastructure.agendamento.LeaseAgendamento;
+import com.fiap.techchallenge4.infrastructure.repository.LeaseAgendamentoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class LeaseAgendamentoTest {
+
+    @Test
+    public void executa_leaseLivre_executaTarefa() {
+        // preparação
+        var repository = Mockito.mock(LeaseAgendamentoRepository.class);
+        var meterRegistry = new SimpleMeterRegistry();
+        Mockito.when(repository.adquire(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(1);
+        Mockito.when(repository.renova(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(1);
+        var lease = new LeaseAgendamento(repository, meterRegistry, Duration.ofMinutes(10), Duration.ofMinutes(1), Duration.ofSeconds(30));
+        var executou = new AtomicBoolean();
+
+        // execução
+        var adquiriu = lease.executa("importaProdutos", () -> executou.set(true));
+
+        // avaliação
+        Assertions.assertTrue(adquiriu);
+        Assertions.assertTrue(executou.get());
+        verify(repository, times(1)).renova(Mockito.eq("importaProdutos"), Mockito.any(), Mockito.any(), Mockito.any());
+        Assertions.assertEquals(1.0, meterRegistry.counter("agendamento.lease", "nome", "importaProdutos", "resultado", "adquirido").count());
+    }
+
+    @Test
+    public void executa_primeiraVez_criaLease() {
+        // preparação
+        var repository = Mockito.mock(LeaseAgendamentoRepository.class);
+        Mockito.when(repository.cria(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(1);
+        var lease = new LeaseAgendamento(repository, new SimpleMeterRegistry(), Duration.ofMinutes(10), Duration.ofMinutes(1), Duration.ofSeconds(30));
+        var executou = new AtomicBoolean();
+
+        // execução
+        lease.executa("importaProdutos", () -> executou.set(true));
+
+        // avaliação
+        Assertions.assertTrue(executou.get());
+    }
+
+    @Test
+    public void executa_leaseComOutraReplica_naoExecutaTarefa() {
+        // preparação
+        var repository = Mockito.mock(LeaseAgendamentoRepository.class);
+        var meterRegistry = new SimpleMeterRegistry();
+        Mockito.when(repository.cria(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenThrow(new DataIntegrityViolationException("CHAVE DUPLICADA"));
+        var lease = new LeaseAgendamento(repository, meterRegistry, Duration.ofMinutes(10), Duration.ofMinutes(1), Duration.ofSeconds(30));
+        var executou = new AtomicBoolean();
+
+        // execução
+        var adquiriu = lease.executa("importaProdutos", () -> executou.set(true));
+
+        // avaliação
+        Assertions.assertFalse(adquiriu);
+        Assertions.assertFalse(executou.get());
+        Assertions.assertEquals(1.0, meterRegistry.counter("agendamento.lease", "nome", "importaProdutos", "resultado", "ignorado").count());
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.techchallenge4.domain.StatusItemLoteEnum;
+import com.fiap.techchallenge4.infrastructure.controller.LeitorLote;
+import com.fiap.techchallenge4.infrastructure.controller.dto.CriaProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ItemLoteDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ResultadoItemLoteDTO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LeitorLoteTest {
+
+    @Test
+    public void processa_gravaEmSubLotes_eDevolveOsResultadosNaOrdemDoArray() throws Exception {
+        // preparação
+        var leitor = new LeitorLote(new ObjectMapper(), 2);
+        var subLotes = new ArrayList<Integer>();
+
+        // execução
+        var resultados = leitor.processa(corpo("""
+                [
+                    {"ean": 1, "nome": "Produto 1", "descricao": "Descricao 1", "preco": 10.5, "quantidade": 10},
+                    {"ean": 2, "nome": "Produto 2", "descricao": "Descricao 2", "preco": 10.5, "quantidade": 10},
+                    {"ean": "nao e numero", "nome": "Produto 3"},
+                    {"ean": 4, "nome": "Produto 4", "descricao": "Descricao 4", "preco": 10.5, "quantidade": 10},
+                    {"ean": 5, "nome": "Produto 5", "descricao": "Descricao 5", "preco": 10.5, "quantidade": 10}
+                ]
+                """), CriaProdutoDTO.class, itens -> {
+            subLotes.add(itens.size());
+            return criados(itens);
+        });
+
+        // avaliação
+        Assertions.assertEquals(List.of(2, 2), subLotes);
+        Assertions.assertEquals(List.of(0, 1, 2, 3, 4), resultados.stream().map(ResultadoItemLoteDTO::indice).toList());
+        Assertions.assertEquals(StatusItemLoteEnum.INVALIDO, resultados.get(2).status());
+        Assertions.assertEquals(5L, resultados.get(4).ean());
+    }
+
+    @Test
+    public void processa_itemNulo_marcaComoInvalidoEGravaOsOutros() throws Exception {
+        // preparação
+        var leitor = new LeitorLote(new ObjectMapper(), 10);
+        var gravados = new ArrayList<Long>();
+
+        // execução
+        var resultados = leitor.processa(corpo("""
+                [
+                    {"ean": 1, "nome": "Produto 1", "descricao": "Descricao 1", "preco": 10.5, "quantidade": 10},
+                    null,
+                    {"ean": 3, "nome": "Produto 3", "descricao": "Descricao 3", "preco": 10.5, "quantidade": 10}
+                ]
+                """), CriaProdutoDTO.class, itens -> {
+            itens.forEach(item -> gravados.add(item.item().ean()));
+            return criados(itens);
+        });
+
+        // avaliação
+        Assertions.assertEquals(List.of(1L, 3L), gravados);
+        Assertions.assertEquals(List.of(0, 1, 2), resultados.stream().map(ResultadoItemLoteDTO::indice).toList());
+        Assertions.assertEquals(StatusItemLoteEnum.CRIADO, resultados.get(0).status());
+        Assertions.assertEquals(StatusItemLoteEnum.INVALIDO, resultados.get(1).status());
+        Assertions.assertEquals("ITEM NAO PODE SER NULO!", resultados.get(1).mensagem());
+        Assertions.assertEquals(StatusItemLoteEnum.CRIADO, resultados.get(2).status());
+    }
+
+    @Test
+    public void processa_jsonMalformado_mantemOsItensJaGravados() throws Exception {
+        // preparação
+        var leitor = new LeitorLote(new ObjectMapper(), 1);
+
+        // execução
+        var resultados = leitor.processa(corpo("""
+                [
+                    {"ean": 1, "nome": "Produto 1", "descricao": "Descricao 1", "preco": 10.5, "quantidade": 10},
+                    {"ean": 2, "nome": 
+                """), CriaProdutoDTO.class, LeitorLoteTest::criados);
+
+        // avaliação
+        Assertions.assertEquals(2, resultados.size());
+        Assertions.assertEquals(StatusItemLoteEnum.CRIADO, resultados.get(0).status());
+        Assertions.assertEquals(StatusItemLoteEnum.INVALIDO, resultados.get(1).status());
+    }
+
+    @Test
+    public void processa_erroNoBanco_marcaSoOSubLoteComErro() throws Exception {
+        // preparação
+        var leitor = new LeitorLote(new ObjectMapper(), 1);
+
+        // execução
+        var resultados = leitor.processa(corpo("""
+                [
+                    {"ean": 1, "nome": "Produto 1", "descricao": "Descricao 1", "preco": 10.5, "quantidade": 10},
+                    {"ean": 2, "nome": "Produto 2", "descricao": "Descricao 2", "preco": 10.5, "quantidade": 10}
+                ]
+                """), CriaProdutoDTO.class, itens -> {
+            if (itens.get(0).item().ean() == 2L) {
+                throw new DataIntegrityViolationException("duplicado");
+            }
+            return criados(itens);
+        });
+
+        // avaliação
+        Assertions.assertEquals(StatusItemLoteEnum.CRIADO, resultados.get(0).status());
+        Assertions.assertEquals(StatusItemLoteEnum.ERRO, resultados.get(1).status());
+    }
+
+    @Test
+    public void processa_corpoQueNaoEArray_lancaExcecao() {
+        // preparação
+        var leitor = new LeitorLote(new ObjectMapper(), 10);
+
+        // execução e avaliação
+        Assertions.assertThrows(IllegalArgumentException.class, () -> leitor.processa(corpo("{\"ean\": 1}"), CriaProdutoDTO.class, LeitorLoteTest::criados));
+    }
+
+    private static ByteArrayInputStream corpo(final String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<ResultadoItemLoteDTO> criados(final List<ItemLoteDTO<CriaProdutoDTO>> itens) {
+        return itens.stream()
+                .map(item -> new ResultadoItemLoteDTO(item.indice(), item.item().ean(), StatusItemLoteEnum.CRIADO, null))
+                .toList();
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.infrastructure.controller.admissao.LimiteAdaptativo;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LimiteAdaptativoTest {
+
+    private static final long RAPIDA = 10_000_000L;
+    private static final long LENTA = 100_000_000L;
+
+    @Test
+    public void tentaAdquirir_semVaga_recusa() {
+        // preparação
+        var limite = new LimiteAdaptativo(2, 1, 10, 2.0, 0.5);
+
+        // execução e avaliação
+        Assertions.assertTrue(limite.tentaAdquirir());
+        Assertions.assertTrue(limite.tentaAdquirir());
+        Assertions.assertFalse(limite.tentaAdquirir());
+        Assertions.assertEquals(2, limite.emAndamento());
+    }
+
+    @Test
+    public void libera_latenciaDentroDaReferenciaComLimiteOcupado_aumentaOLimite() {
+        // preparação
+        var limite = new LimiteAdaptativo(2, 1, 10, 2.0, 0.5);
+        limite.tentaAdquirir();
+        limite.tentaAdquirir();
+
+        // execução
+        limite.libera(RAPIDA);
+
+        // avaliação
+        Assertions.assertEquals(3, limite.limite());
+        Assertions.assertEquals(1, limite.emAndamento());
+    }
+
+    @Test
+    public void libera_latenciaAcimaDaTolerancia_reduzOLimiteAteOMinimo() {
+        // preparação
+        var limite = new LimiteAdaptativo(8, 2, 10, 2.0, 0.5);
+        limite.tentaAdquirir();
+        limite.libera(RAPIDA);
+
+        // execução
+        for (var i = 0; i < 5; i++) {
+            limite.tentaAdquirir();
+            limite.libera(LENTA);
+        }
+
+        // avaliação
+        Assertions.assertEquals(2, limite.limite());
+    }
+
+    @Test
+    public void libera_poucoOcupado_naoAumentaOLimite() {
+        // preparação
+        var limite = new LimiteAdaptativo(8, 2, 10, 2.0, 0.5);
+        limite.tentaAdquirir();
+
+        // execução
+        limite.libera(RAPIDA);
+
+        // avaliação
+        Assertions.assertEquals(8, limite.limite());
+    }
+
+}
@@ -0,0 +1,252 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.infrastructure.batch.ArquivosImportacao;
+import com.fiap.techchallenge4.infrastructure.batch.MonitorDiretorioEntrada;
+import com.fiap.techchallenge4.infrastructure.controller.dto.StatusImportacaoDTO;
+import com.fiap.techchallenge4.useCase.ProdutoUseCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class MonitorDiretorioEntradaTest {
+
+    @TempDir
+    Path diretorio;
+
+    @BeforeEach
+    public void criaDiretorios() throws Exception {
+        for (var nome : new String[] { "entrada", "processando", "processados", "falhos" }) {
+            Files.createDirectories(this.diretorio.resolve(nome));
+        }
+    }
+
+    @Test
+    public void processa_importacaoConcluida_moveParaProcessados() throws Exception {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCase.class);
+        var arquivo = Files.writeString(this.diretorio.resolve("entrada/produtos.csv"), "1111111111,Alface,Verdura,5.00,10");
+        Mockito.when(service.importa(this.diretorio.resolve("processando/produtos.csv").toString()))
+                .thenReturn(1L);
+        Mockito.when(service.statusImportacao(1L))
+                .thenReturn(status("STARTED"), status("COMPLETED"));
+
+        var monitor = new MonitorDiretorioEntrada(service, Mockito.mock(JobExplorer.class), Mockito.mock(JobRepository.class), new ArquivosImportacao(this.diretorio.toString(), Duration.ofDays(1)), 1, 0, 10, 60_000);
+
+        // execução
+        monitor.processa(arquivo);
+
+        // avaliação
+        Assertions.assertFalse(Files.exists(arquivo));
+        Assertions.assertFalse(Files.exists(this.diretorio.resolve("processando/produtos.csv")));
+        Assertions.assertTrue(Files.exists(this.diretorio.resolve("processados/1-produtos.csv")));
+        verify(service, times(2)).statusImportacao(1L);
+    }
+
+    @Test
+    public void processa_importacaoFalhou_moveParaFalhos() throws Exception {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCase.class);
+        var arquivo = Files.writeString(this.diretorio.resolve("entrada/produtos.csv"), "1111111111,Alface,Verdura,5.00,10");
+        Mockito.when(service.importa(Mockito.anyString()))
+                .thenReturn(1L);
+        Mockito.when(service.statusImportacao(1L))
+                .thenReturn(status("FAILED"));
+
+        var monitor = new MonitorDiretorioEntrada(service, Mockito.mock(JobExplorer.class), Mockito.mock(JobRepository.class), new ArquivosImportacao(this.diretorio.toString(), Duration.ofDays(1)), 1, 0, 10, 60_000);
+
+        // execução
+        monitor.processa(arquivo);
+
+        // avaliação
+        Assertions.assertTrue(Files.exists(this.diretorio.resolve("falhos/1-produtos.csv")));
+    }
+
+    @Test
+    public void processa_erroAoIniciar_moveParaFalhos() throws Exception {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCase.class);
+        var arquivo = Files.writeString(this.diretorio.resolve("entrada/produtos.csv"), "1111111111,Alface,Verdura,5.00,10");
+        Mockito.when(service.importa(Mockito.anyString()))
+                .thenThrow(new IllegalStateException("NAO FOI POSSIVEL INICIAR A IMPORTACAO!"));
+
+        var monitor = new MonitorDiretorioEntrada(service, Mockito.mock(JobExplorer.class), Mockito.mock(JobRepository.class), new ArquivosImportacao(this.diretorio.toString(), Duration.ofDays(1)), 1, 0, 10, 60_000);
+
+        // execução
+        monitor.processa(arquivo);
+
+        // avaliação
+        Assertions.assertTrue(Files.exists(this.diretorio.resolve("falhos/produtos.csv")));
+    }
+
+    @Test
+    public void processa_arquivoJaPegoPorOutraReplica_naoImporta() {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCase.class);
+        var monitor = new MonitorDiretorioEntrada(service, Mockito.mock(JobExplorer.class), Mockito.mock(JobRepository.class), new ArquivosImportacao(this.diretorio.toString(), Duration.ofDays(1)), 1, 0, 10, 60_000);
+
+        // execução
+        monitor.processa(this.diretorio.resolve("entrada/produtos.csv"));
+
+        // avaliação
+        verify(service, times(0)).importa(Mockito.anyString());
+    }
+
+    @Test
+    public void varre_ignoraArquivosEmGravacao() throws Exception {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCase.class);
+        Mockito.when(service.importa(Mockito.anyString()))
+                .thenReturn(1L);
+        Mockito.when(service.statusImportacao(1L))
+                .thenReturn(status("COMPLETED"));
+        Files.writeString(this.diretorio.resolve("entrada/produtos.csv.part"), "1111111111,Alface");
+        Files.writeString(this.diretorio.resolve("entrada/.produtos.csv"), "1111111111,Alface");
+        var recente = Files.writeString(this.diretorio.resolve("entrada/recente.csv"), "1111111111,Alface");
+        var completo = Files.writeString(this.diretorio.resolve("entrada/produtos.csv"), "1111111111,Alface,Verdura,5.00,10");
+        Files.setLastModifiedTime(completo, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        Files.setLastModifiedTime(recente, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+
+        var monitor = new MonitorDiretorioEntrada(service, Mockito.mock(JobExplorer.class), Mockito.mock(JobRepository.class), new ArquivosImportacao(this.diretorio.toString(), Duration.ofDays(1)), 1, 1000, 10, 60_000);
+
+        // execução
+        monitor.varre();
+
+        // avaliação
+        verify(service, Mockito.timeout(5000).times(1)).importa(this.diretorio.resolve("processando/produtos.csv").toString());
+        verify(service, times(1)).importa(Mockito.anyString());
+        Assertions.assertTrue(Files.exists(this.diretorio.resolve("entrada/produtos.csv.part")));
+        Assertions.assertTrue(Files.exists(recente));
+        monitor.destroy();
+    }
+
+    @Test
+    public void recuperaProcessando_arquivoParadoSemExecucaoAtiva_importaDeNovo() throws Exception {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCase.class);
+        var parado = this.arquivoParado();
+        Mockito.when(service.importa(parado.toString()))
+                .thenReturn(7L);
+        Mockito.when(service.statusImportacao(7L))
+                .thenReturn(status("COMPLETED"));
+        var monitor = new MonitorDiretorioEntrada(service, Mockito.mock(JobExplorer.class), Mockito.mock(JobRepository.class),
+                new ArquivosImportacao(this.diretorio.toString(), Duration.ofDays(1)), 1, 0, 10, 60_000);
+
+        // execução
+        monitor.recuperaProcessando();
+
+        // avaliação
+        verify(service, Mockito.timeout(5000).times(1)).importa(parado.toString());
+        var processado = this.diretorio.resolve("processados/7-produtos.csv");
+        for (var i = 0; i < 100 && !Files.exists(processado); i++) {
+            Thread.sleep(50);
+        }
+        Assertions.assertTrue(Files.exists(processado));
+        monitor.destroy();
+    }
+
+    @Test
+    public void recuperaProcessando_execucaoAtivaEmOutraReplica_naoImporta() throws Exception {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCase.class);
+        var parado = this.arquivoParado();
+        var execucao = execucao(parado, LocalDateTime.now());
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        Mockito.when(jobExplorer.findRunningJobExecutions("importaProdutos"))
+                .thenReturn(Set.of(execucao));
+        var jobRepository = Mockito.mock(JobRepository.class);
+        var monitor = new MonitorDiretorioEntrada(service, jobExplorer, jobRepository,
+                new ArquivosImportacao(this.diretorio.toString(), Duration.ofDays(1)), 1, 0, 10, 60_000);
+
+        // execução
+        monitor.recuperaProcessando();
+
+        // avaliação
+        verify(service, times(0)).importa(Mockito.anyString());
+        Mockito.verifyNoInteractions(jobRepository);
+        Assertions.assertTrue(Files.exists(parado));
+        monitor.destroy();
+    }
+
+    @Test
+    public void recuperaProcessando_execucaoDeReplicaQueCaiu_marcaComoFalhaERetoma() throws Exception {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCase.class);
+        var parado = this.arquivoParado();
+        var execucao = execucao(parado, LocalDateTime.now().minusHours(1));
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        Mockito.when(jobExplorer.findRunningJobExecutions("importaProdutos"))
+                .thenReturn(Set.of(execucao));
+        var jobRepository = Mockito.mock(JobRepository.class);
+        Mockito.when(service.importa(parado.toString()))
+                .thenReturn(execucao.getId());
+        Mockito.when(service.statusImportacao(execucao.getId()))
+                .thenReturn(status("COMPLETED"));
+        var monitor = new MonitorDiretorioEntrada(service, jobExplorer, jobRepository,
+                new ArquivosImportacao(this.diretorio.toString(), Duration.ofDays(1)), 1, 0, 10, 60_000);
+
+        // execução
+        monitor.recuperaProcessando();
+
+        // avaliação
+        verify(service, Mockito.timeout(5000).times(1)).importa(parado.toString());
+        verify(jobRepository, times(1)).update(execucao);
+        Assertions.assertEquals(BatchStatus.FAILED, execucao.getStatus());
+        monitor.destroy();
+    }
+
+    @Test
+    public void recuperaProcessando_arquivoRecemPego_naoImporta() throws Exception {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCase.class);
+        Files.writeString(this.diretorio.resolve("processando/produtos.csv"), "1111111111,Alface,Verdura,5.00,10");
+        var monitor = new MonitorDiretorioEntrada(service, Mockito.mock(JobExplorer.class), Mockito.mock(JobRepository.class),
+                new ArquivosImportacao(this.diretorio.toString(), Duration.ofDays(1)), 1, 0, 10, 60_000);
+
+        // execução
+        monitor.recuperaProcessando();
+
+        // avaliação
+        verify(service, times(0)).importa(Mockito.anyString());
+        monitor.destroy();
+    }
+
+    private Path arquivoParado() throws Exception {
+        var parado = Files.writeString(this.diretorio.resolve("processando/produtos.csv"), "1111111111,Alface,Verdura,5.00,10");
+        Files.setLastModifiedTime(parado, FileTime.fromMillis(System.currentTimeMillis() - 3_600_000));
+        return parado;
+    }
+
+    private static JobExecution execucao(final Path arquivo, final LocalDateTime ultimaAtualizacao) {
+        var execucao = new JobExecution(new JobInstance(1L, "importaProdutos"), 3L, new JobParametersBuilder()
+                .addString("arquivo", arquivo.toString(), false)
+                .addString("identificador", ArquivosImportacao.identificador(arquivo.toString()))
+                .toJobParameters());
+        execucao.setStatus(BatchStatus.STARTED);
+        execucao.setCreateTime(ultimaAtualizacao);
+        execucao.setLastUpdated(ultimaAtualizacao);
+        return execucao;
+    }
+
+    private static StatusImportacaoDTO status(final String status) {
+        return new StatusImportacaoDTO(1L, status, 0, 0, 0, 0.0, null, null, null);
+    }
+
+}
@@ -0,0 +1,218 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.infrastructure.estoque.ParticoesMovimentoEstoque;
+import com.fiap.techchallenge4.infrastructure.repository.MovimentoEstoqueRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ParticoesMovimentoEstoqueTest {
+
+    @Test
+    public void criaParticoesFuturas_tabelaParticionada_criaUmaParticaoPorDia() {
+        // preparação
+        var jdbcTemplate = tabelaParticionada(true);
+        var particoes = new ParticoesMovimentoEstoque(jdbcTemplate, Mockito.mock(MovimentoEstoqueRepository.class), true, 2, Duration.ofSeconds(2));
+        var hoje = LocalDate.now();
+
+        // execução
+        particoes.criaParticoesFuturas();
+
+        // avaliação
+        verify(jdbcTemplate, times(1)).execute("CREATE TABLE IF NOT EXISTS tb_movimento_estoque_padrao PARTITION OF tb_movimento_estoque DEFAULT");
+        verify(jdbcTemplate, times(4)).execute(Mockito.startsWith("CREATE TABLE IF NOT EXISTS tb_movimento_estoque_"));
+        verify(jdbcTemplate, times(1)).execute("CREATE TABLE IF NOT EXISTS " + ParticoesMovimentoEstoque.particao(hoje.plusDays(2))
+                + " PARTITION OF tb_movimento_estoque FOR VALUES FROM ('" + hoje.plusDays(2) + "') TO ('" + hoje.plusDays(3) + "')");
+    }
+
+    @Test
+    public void criaParticoesFuturas_defaultJaTemMovimentosDoDia_segueParaOsProximosDias() {
+        // preparação
+        var jdbcTemplate = tabelaParticionada(true);
+        var hoje = LocalDate.now();
+        Mockito.doThrow(new DataIntegrityViolationException("updated partition constraint for default partition would be violated"))
+                .when(jdbcTemplate).execute(Mockito.startsWith("CREATE TABLE IF NOT EXISTS " + ParticoesMovimentoEstoque.particao(hoje) + " "));
+        var particoes = new ParticoesMovimentoEstoque(jdbcTemplate, Mockito.mock(MovimentoEstoqueRepository.class), true, 2, Duration.ofSeconds(2));
+
+        // execução
+        particoes.criaParticoesFuturas();
+
+        // avaliação
+        verify(jdbcTemplate, times(1)).execute(Mockito.startsWith("CREATE TABLE IF NOT EXISTS " + ParticoesMovimentoEstoque.particao(hoje.plusDays(2))));
+    }
+
+    @Test
+    public void esvaziaDia_tabelaParticionada_truncaAParticaoSemDropNemDelete() {
+        // preparação
+        var jdbcTemplate = tabelaParticionada(true);
+        existem(jdbcTemplate, "tb_movimento_estoque_20240305", "tb_movimento_estoque_padrao");
+        var movimentoEstoqueRepository = Mockito.mock(MovimentoEstoqueRepository.class);
+        var particoes = new ParticoesMovimentoEstoque(jdbcTemplate, movimentoEstoqueRepository, true, 7, Duration.ofSeconds(2));
+
+        // execução
+        particoes.bloqueiaDia(LocalDate.of(2024, 3, 5));
+        particoes.esvaziaDia(LocalDate.of(2024, 3, 5));
+
+        // avaliação
+        verify(jdbcTemplate, times(1)).execute("LOCK TABLE tb_movimento_estoque_20240305 IN EXCLUSIVE MODE");
+        verify(jdbcTemplate, times(1)).execute("TRUNCATE TABLE tb_movimento_estoque_20240305");
+        verify(jdbcTemplate, times(0)).execute(Mockito.startsWith("DROP TABLE"));
+        verify(jdbcTemplate, times(0)).execute(Mockito.startsWith("ALTER TABLE"));
+        Mockito.verifyNoInteractions(movimentoEstoqueRepository);
+    }
+
+    @Test
+    public void esvaziaDia_diaNaParticaoDefault_bloqueiaADefaultEApagaPorIntervalo() {
+        // preparação
+        var jdbcTemplate = tabelaParticionada(true);
+        existem(jdbcTemplate, "tb_movimento_estoque_padrao");
+        var movimentoEstoqueRepository = Mockito.mock(MovimentoEstoqueRepository.class);
+        var particoes = new ParticoesMovimentoEstoque(jdbcTemplate, movimentoEstoqueRepository, true, 7, Duration.ofSeconds(2));
+        var dia = LocalDate.of(2024, 3, 5);
+
+        // execução
+        particoes.bloqueiaDia(dia);
+        particoes.esvaziaDia(dia);
+
+        // avaliação
+        verify(jdbcTemplate, times(1)).execute("LOCK TABLE tb_movimento_estoque_padrao IN EXCLUSIVE MODE");
+        verify(movimentoEstoqueRepository, times(1)).removePeriodo(dia.atStartOfDay(), dia.plusDays(1).atStartOfDay());
+    }
+
+    @Test
+    public void removeParticao_semParticaoDefault_desanexaConcorrentementeEDepoisRemove() {
+        // preparação
+        var jdbcTemplate = tabelaParticionada(true);
+        existem(jdbcTemplate, "tb_movimento_estoque_20240305");
+        var particoes = new ParticoesMovimentoEstoque(jdbcTemplate, Mockito.mock(MovimentoEstoqueRepository.class), true, 7, Duration.ofSeconds(2));
+
+        // execução
+        particoes.removeParticao(LocalDate.of(2024, 3, 5));
+
+        // avaliação
+        var ordem = Mockito.inOrder(jdbcTemplate);
+        ordem.verify(jdbcTemplate).execute("ALTER TABLE tb_movimento_estoque DETACH PARTITION tb_movimento_estoque_20240305 CONCURRENTLY");
+        ordem.verify(jdbcTemplate).execute("DROP TABLE IF EXISTS tb_movimento_estoque_20240305");
+    }
+
+    @Test
+    public void removeParticao_comParticaoDefault_desanexaComLimiteDeEsperaPeloLock() throws Exception {
+        // preparação
+        var jdbcTemplate = tabelaParticionada(true);
+        existem(jdbcTemplate, "tb_movimento_estoque_20240305", "tb_movimento_estoque_padrao");
+        var comando = Mockito.mock(Statement.class);
+        var conexao = Mockito.mock(Connection.class);
+        Mockito.when(conexao.createStatement()).thenReturn(comando);
+        Mockito.when(jdbcTemplate.execute(Mockito.<ConnectionCallback<Object>>any()))
+                .thenAnswer(invocacao -> invocacao.<ConnectionCallback<Object>>getArgument(0).doInConnection(conexao));
+        var particoes = new ParticoesMovimentoEstoque(jdbcTemplate, Mockito.mock(MovimentoEstoqueRepository.class), true, 7, Duration.ofSeconds(2));
+
+        // execução
+        particoes.removeParticao(LocalDate.of(2024, 3, 5));
+
+        // avaliação
+        var ordem = Mockito.inOrder(comando, jdbcTemplate);
+        ordem.verify(comando).execute("SET lock_timeout = 2000");
+        ordem.verify(comando).execute("ALTER TABLE tb_movimento_estoque DETACH PARTITION tb_movimento_estoque_20240305");
+        ordem.verify(comando).execute("RESET lock_timeout");
+        ordem.verify(jdbcTemplate).execute("DROP TABLE IF EXISTS tb_movimento_estoque_20240305");
+    }
+
+    @Test
+    public void removeParticao_lockNaoObtido_mantemAParticaoParaAProximaCompactacao() {
+        // preparação
+        var jdbcTemplate = tabelaParticionada(true);
+        existem(jdbcTemplate, "tb_movimento_estoque_20240305", "tb_movimento_estoque_padrao");
+        Mockito.when(jdbcTemplate.execute(Mockito.<ConnectionCallback<Object>>any()))
+                .thenThrow(new CannotAcquireLockException("canceling statement due to lock timeout"));
+        var particoes = new ParticoesMovimentoEstoque(jdbcTemplate, Mockito.mock(MovimentoEstoqueRepository.class), true, 7, Duration.ofSeconds(2));
+
+        // execução e avaliação
+        Assertions.assertDoesNotThrow(() -> particoes.removeParticao(LocalDate.of(2024, 3, 5)));
+        verify(jdbcTemplate, times(0)).execute(Mockito.startsWith("DROP TABLE"));
+    }
+
+    @Test
+    public void esvaziaDia_tabelaSemParticao_apagaPorIntervalo() {
+        // preparação
+        var jdbcTemplate = tabelaParticionada(false);
+        var movimentoEstoqueRepository = Mockito.mock(MovimentoEstoqueRepository.class);
+        var particoes = new ParticoesMovimentoEstoque(jdbcTemplate, movimentoEstoqueRepository, true, 7, Duration.ofSeconds(2));
+        var dia = LocalDate.of(2024, 3, 5);
+
+        // execução
+        particoes.criaParticoesFuturas();
+        particoes.esvaziaDia(dia);
+
+        // avaliação
+        verify(jdbcTemplate, times(0)).execute(Mockito.anyString());
+        verify(movimentoEstoqueRepository, times(1)).removePeriodo(dia.atStartOfDay(), dia.plusDays(1).atStartOfDay());
+    }
+
+    @Test
+    public void esvaziaDia_particionamentoDesabilitado_naoConsultaOCatalogo() {
+        // preparação
+        var jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        var movimentoEstoqueRepository = Mockito.mock(MovimentoEstoqueRepository.class);
+        var particoes = new ParticoesMovimentoEstoque(jdbcTemplate, movimentoEstoqueRepository, false, 7, Duration.ofSeconds(2));
+        var dia = LocalDate.of(2024, 3, 5);
+
+        // execução
+        particoes.bloqueiaDia(dia);
+        particoes.esvaziaDia(dia);
+
+        // avaliação
+        Mockito.verifyNoInteractions(jdbcTemplate);
+        verify(movimentoEstoqueRepository, times(1)).removePeriodo(dia.atStartOfDay(), dia.plusDays(1).atStartOfDay());
+    }
+
+    @Test
+    public void removeParticoesVaziasAntesDe_removeSomenteAsAntigasEVazias() {
+        // preparação
+        var jdbcTemplate = tabelaParticionada(true);
+        Mockito.when(jdbcTemplate.queryForList(Mockito.startsWith("SELECT c.relname"), Mockito.eq(String.class), Mockito.any(Object[].class)))
+                .thenReturn(List.of("tb_movimento_estoque_20240301", "tb_movimento_estoque_20240302", "tb_movimento_estoque_20240310"));
+        Mockito.when(jdbcTemplate.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM tb_movimento_estoque_20240301)", Boolean.class))
+                .thenReturn(true);
+        Mockito.when(jdbcTemplate.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM tb_movimento_estoque_20240302)", Boolean.class))
+                .thenReturn(false);
+        existem(jdbcTemplate, "tb_movimento_estoque_20240301", "tb_movimento_estoque_20240302");
+        var particoes = new ParticoesMovimentoEstoque(jdbcTemplate, Mockito.mock(MovimentoEstoqueRepository.class), true, 7, Duration.ofSeconds(2));
+
+        // execução
+        particoes.removeParticoesVaziasAntesDe(LocalDate.of(2024, 3, 5));
+
+        // avaliação
+        verify(jdbcTemplate, times(1)).execute("ALTER TABLE tb_movimento_estoque DETACH PARTITION tb_movimento_estoque_20240301 CONCURRENTLY");
+        verify(jdbcTemplate, times(1)).execute("DROP TABLE IF EXISTS tb_movimento_estoque_20240301");
+        verify(jdbcTemplate, times(1)).execute(Mockito.startsWith("DROP TABLE"));
+    }
+
+    private static JdbcTemplate tabelaParticionada(final boolean particionada) {
+        var jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        Mockito.when(jdbcTemplate.queryForObject(Mockito.startsWith("SELECT COUNT(*) FROM pg_partitioned_table"), Mockito.eq(Integer.class), Mockito.any(Object[].class)))
+                .thenReturn(particionada ? 1 : 0);
+        return jdbcTemplate;
+    }
+
+    private static void existem(final JdbcTemplate jdbcTemplate, final String... tabelas) {
+        for (var tabela : tabelas) {
+            Mockito.when(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, tabela))
+                    .thenReturn(true);
+        }
+    }
+
+}
@@ -45,4 +45,39 @@ public class ProcessadorProdutoTest {
         });
     }
 
+    @Test
+    public void process_nomeMenorQueTresLetras_lancaExcecao() {
+        // preparação
+        var processadorProduto = new ProcessadorProduto();
+        var produto = new Produto();
+        produto.setEan(7891234560L);
+        produto.setNome("Ab");
+        produto.setDescricao("Descrição do Produto Teste");
+        produto.setPreco(new BigDecimal("10.0"));
+        produto.setQuantidade(100);
+
+        // execução e avaliação
+        var excecao = Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            processadorProduto.process(produto);
+        });
+        Assertions.assertEquals("O NOME deve ter no mínimo 3 letras e no máximo 50 letras", excecao.getMessage());
+    }
+
+    @Test
+    public void process_quantidadeMaiorQueMil_lancaExcecao() {
+        // preparação
+        var processadorProduto = new ProcessadorProduto();
+        var produto = new Produto();
+        produto.setEan(7891234560L);
+        produto.setNome("Produto Teste");
+        produto.setDescricao("Descrição do Produto Teste");
+        produto.setPreco(new BigDecimal("10.0"));
+        produto.setQuantidade(1001);
+
+        // execução e avaliação
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            processadorProduto.process(produto);
+        });
+    }
+
 }
@@ -1,9 +1,19 @@
 package com.fiap.techchallenge4.unitario;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.techchallenge4.domain.StatusItemLoteEnum;
+import com.fiap.techchallenge4.infrastructure.controller.CorposProduto;
+import com.fiap.techchallenge4.infrastructure.controller.LeitorLote;
 import com.fiap.techchallenge4.infrastructure.controller.ProdutoController;
+import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaParcialProdutoDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaProdutoDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.CriaProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.FiltroProdutosDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.PaginaProdutosDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.ProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.SugestaoProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ResultadoItemLoteDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.StatusImportacaoDTO;
 import com.fiap.techchallenge4.useCase.impl.ProdutoUseCaseImpl;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -12,32 +22,46 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static org.mockito.ArgumentMatchers.any;
 
 public class ProdutoControllerTest {
 
+    private static final CorposProduto CORPOS_PRODUTO = new CorposProduto(new ObjectMapper().findAndRegisterModules(), 100);
+    private static final LeitorLote LEITOR_LOTE = new LeitorLote(new ObjectMapper(), 100);
+
     @Test
-    public void importa_deveRetornar200_salvaNaBaseDeDados() {
+    public void importa_deveRetornar202_iniciaImportacao() {
         // preparação
         var service = Mockito.mock(ProdutoUseCaseImpl.class);
-        Mockito.doNothing()
-                .when(service)
-                .importa();
+        Mockito.when(service.importa())
+                .thenReturn(10L);
 
-        var controller = new ProdutoController(service);
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
 
         // execução
-        var produto = controller.importa();
+        var produto = controller.importa(null, null);
 
         // avaliação
-        Assertions.assertEquals(HttpStatus.OK, produto.getStatusCode());
+        Assertions.assertEquals(HttpStatus.ACCEPTED, produto.getStatusCode());
+        Assertions.assertEquals(10L, produto.getBody());
+        Assertions.assertEquals("/produto/importa/10", produto.getHeaders().getLocation().toString());
     }
 
     @Test
@@ -50,10 +74,90 @@ public class ProdutoControllerTest {
                 .when(service)
                 .importa();
 
-        var controller = new ProdutoController(service);
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
 
         // execução e avaliação
-        var excecao = Assertions.assertThrows(RuntimeException.class, controller::importa);
+        var excecao = Assertions.assertThrows(RuntimeException.class, () -> controller.importa(null, null));
+    }
+
+    @Test
+    public void importa_comArquivoEnviado_deveRetornar202() {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        var arquivo = new MockMultipartFile("arquivo", "produtos.csv.gz", "application/gzip", new byte[] { 1 });
+        Mockito.when(service.importa(arquivo))
+                .thenReturn(11L);
+
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
+
+        // execução
+        var produto = controller.importa(arquivo, null);
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.ACCEPTED, produto.getStatusCode());
+        Assertions.assertEquals(11L, produto.getBody());
+    }
+
+    @Test
+    public void importa_comCaminho_deveRetornar202() {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        Mockito.when(service.importa("fornecedor"))
+                .thenReturn(12L);
+
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
+
+        // execução
+        var produto = controller.importa(null, "fornecedor");
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.ACCEPTED, produto.getStatusCode());
+        Assertions.assertEquals(12L, produto.getBody());
+    }
+
+    @Test
+    public void statusImportacao_deveRetornar200_importacaoEncontrada() {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        Mockito.when(service.statusImportacao(10L))
+                .thenReturn(
+                        new StatusImportacaoDTO(
+                                10L,
+                                "COMPLETED",
+                                10,
+                                10,
+                                0,
+                                5.0,
+                                LocalDateTime.now(),
+                                LocalDateTime.now(),
+                                null
+                        )
+                );
+
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
+
+        // execução
+        var status = controller.statusImportacao(10L);
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.OK, status.getStatusCode());
+        Assertions.assertEquals("COMPLETED", status.getBody().status());
+    }
+
+    @Test
+    public void statusImportacao_deveRetornar204_importacaoNaoEncontrada() {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        Mockito.when(service.statusImportacao(10L))
+                .thenReturn(null);
+
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
+
+        // execução
+        var status = controller.statusImportacao(10L);
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.NO_CONTENT, status.getStatusCode());
     }
 
     @Test
@@ -68,7 +172,7 @@ public class ProdutoControllerTest {
                         true
                 );
 
-        var controller = new ProdutoController(service);
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
 
         // execução
         var produto = controller.cadastra(
@@ -97,7 +201,7 @@ public class ProdutoControllerTest {
                         false
                 );
 
-        var controller = new ProdutoController(service);
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
 
         // execução
         var produto = controller.cadastra(
@@ -120,18 +224,20 @@ public class ProdutoControllerTest {
         var service = Mockito.mock(ProdutoUseCaseImpl.class);
         Mockito.when(service.atualiza(
                                 any(Long.class),
-                                any(AtualizaProdutoDTO.class)
+                                any(AtualizaProdutoDTO.class),
+                                any()
                         )
                 )
                 .thenReturn(
                         true
                 );
 
-        var controller = new ProdutoController(service);
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
 
         // execução
         var produto = controller.atualiza(
                 7894900011517L,
+                null,
                 new AtualizaProdutoDTO(
                         "Produto Teste",
                         "Descrição do Produto Teste",
@@ -150,18 +256,20 @@ public class ProdutoControllerTest {
         var service = Mockito.mock(ProdutoUseCaseImpl.class);
         Mockito.when(service.atualiza(
                                 any(Long.class),
-                                any(AtualizaProdutoDTO.class)
+                                any(AtualizaProdutoDTO.class),
+                                any()
                         )
                 )
                 .thenReturn(
                         false
                 );
 
-        var controller = new ProdutoController(service);
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
 
         // execução
         var produto = controller.atualiza(
                 7894900011517L,
+                null,
                 new AtualizaProdutoDTO(
                         "Produto Teste",
                         "Descrição do Produto Teste",
@@ -186,7 +294,7 @@ public class ProdutoControllerTest {
                         true
                 );
 
-        var controller = new ProdutoController(service);
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
 
         // execução
         var produto = controller.deleta(
@@ -209,7 +317,7 @@ public class ProdutoControllerTest {
                         false
                 );
 
-        var controller = new ProdutoController(service);
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
 
         // execução
         var produto = controller.deleta(
@@ -235,19 +343,193 @@ public class ProdutoControllerTest {
                                 "Descrição do Produto Teste",
                                 new BigDecimal("100"),
                                 100L,
-                                LocalDateTime.now()
+                                LocalDateTime.now(),
+                                3L,
+                                LocalDateTime.of(2024, 6, 1, 10, 0)
                         )
                 );
 
-        var controller = new ProdutoController(service);
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
 
         // execução
         var produto = controller.busca(
-                7894900011517L
+                7894900011517L,
+                null,
+                requisicao()
         );
 
         // avaliação
         Assertions.assertEquals(HttpStatus.OK, produto.getStatusCode());
+        Assertions.assertTrue(produto.getHeaders().getETag().startsWith("\"7894900011517-3-"));
+        Assertions.assertTrue(produto.getHeaders().getLastModified() > 0);
+        Assertions.assertTrue(new String(produto.getBody(), StandardCharsets.UTF_8).contains("\"nome\":\"Produto Teste\""));
+    }
+
+    @Test
+    public void buscaPorTexto_deveRetornar200_comAPagina() {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        var pagina = new PaginaProdutosDTO(List.of(), null);
+        Mockito.when(service.buscaPorTexto("arroz", null, 20))
+                .thenReturn(pagina);
+
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
+
+        // execução
+        var resposta = controller.buscaPorTexto("arroz", null, 20);
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        Assertions.assertSame(pagina, resposta.getBody());
+    }
+
+    @Test
+    public void lista_deveRetornar200_comAPagina() {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        var filtro = new FiltroProdutosDTO(null, null, null, 4L);
+        var pagina = new PaginaProdutosDTO(List.of(), null);
+        Mockito.when(service.lista(filtro, null, 20))
+                .thenReturn(pagina);
+
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
+
+        // execução
+        var resposta = controller.lista(filtro, null, 20);
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        Assertions.assertSame(pagina, resposta.getBody());
+    }
+
+    @Test
+    public void sugere_deveRetornar200_comAsSugestoes() {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        var sugestoes = List.of(new SugestaoProdutoDTO(7894900011517L, "Feijão Carioca"));
+        Mockito.when(service.sugere("feij", 10))
+                .thenReturn(sugestoes);
+
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
+
+        // execução
+        var resposta = controller.sugere("feij", 10);
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        Assertions.assertEquals(sugestoes, resposta.getBody());
+    }
+
+    @Test
+    public void busca_aceitaGzip_retornaCorpoCompactado() throws Exception {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        var produtoDTO = new ProdutoDTO(
+                7894900011517L,
+                "Produto Teste",
+                "Descrição do Produto Teste",
+                new BigDecimal("100"),
+                100L,
+                LocalDateTime.now(),
+                3L,
+                LocalDateTime.now()
+        );
+        Mockito.when(service.busca(7894900011517L))
+                .thenReturn(produtoDTO);
+
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
+
+        // execução
+        var produto = controller.busca(
+                7894900011517L,
+                "br;q=1.0, gzip;q=0.8",
+                requisicao()
+        );
+
+        // avaliação
+        Assertions.assertEquals("gzip", produto.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        Assertions.assertTrue(produto.getHeaders().getETag().endsWith("-gzip\""));
+        try (var entrada = new GZIPInputStream(new ByteArrayInputStream(produto.getBody()))) {
+            Assertions.assertArrayEquals(CORPOS_PRODUTO.corpo(produtoDTO).json(), entrada.readAllBytes());
+        }
+    }
+
+    @Test
+    public void busca_gzipRecusado_retornaJson() {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        Mockito.when(service.busca(7894900011517L))
+                .thenReturn(new ProdutoDTO(
+                        7894900011517L,
+                        "Produto Teste",
+                        "Descrição do Produto Teste",
+                        new BigDecimal("100"),
+                        100L,
+                        LocalDateTime.now(),
+                        3L,
+                        LocalDateTime.now()
+                ));
+
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
+
+        // execução
+        var produto = controller.busca(
+                7894900011517L,
+                "gzip;q=0, identity",
+                requisicao()
+        );
+
+        // avaliação
+        Assertions.assertNull(produto.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void busca_etagNaoMudou_retorna304SemMontarOCorpo() {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        var produtoDTO = new ProdutoDTO(
+                7894900011517L,
+                "Produto Teste",
+                "Descrição do Produto Teste",
+                new BigDecimal("100"),
+                100L,
+                LocalDateTime.now(),
+                3L,
+                LocalDateTime.of(2024, 6, 1, 10, 0)
+        );
+        Mockito.when(service.busca(7894900011517L))
+                .thenReturn(produtoDTO);
+        var corposProduto = Mockito.mock(CorposProduto.class);
+        var requisicao = new MockHttpServletRequest("GET", "/produto/7894900011517");
+        requisicao.addHeader(HttpHeaders.IF_NONE_MATCH, "\"" + CorposProduto.etag(produtoDTO) + "\"");
+        var resposta = new MockHttpServletResponse();
+
+        var controller = new ProdutoController(service, corposProduto, LEITOR_LOTE);
+
+        // execução
+        var produto = controller.busca(
+                7894900011517L,
+                null,
+                new ServletWebRequest(requisicao, resposta)
+        );
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, produto.getStatusCode());
+        Assertions.assertNull(produto.getBody());
+        Assertions.assertEquals("\"" + CorposProduto.etag(produtoDTO) + "\"", resposta.getHeader(HttpHeaders.ETAG));
+        Mockito.verifyNoInteractions(corposProduto);
+    }
+
+    @Test
+    public void etag_gravacoesDiferentes_etagsDiferentes() {
+        // preparação
+        var gravadoEm = LocalDateTime.of(2024, 6, 1, 10, 0);
+        var produto = new ProdutoDTO(7894900011517L, "Produto Teste", "Descrição do Produto Teste", new BigDecimal("100"), 100L, gravadoEm, 0L, gravadoEm);
+        var recadastrado = new ProdutoDTO(7894900011517L, "Produto Teste", "Descrição do Produto Teste", new BigDecimal("100"), 100L, gravadoEm, 0L, gravadoEm.plusNanos(1_000_000));
+
+        // execução e avaliação
+        Assertions.assertNotEquals(CorposProduto.etag(produto), CorposProduto.etag(recadastrado));
+        Assertions.assertEquals(CorposProduto.etag(produto), CorposProduto.etag(produto));
     }
 
     @Test
@@ -262,11 +544,13 @@ public class ProdutoControllerTest {
                         null
                 );
 
-        var controller = new ProdutoController(service);
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
 
         // execução
         var produto = controller.busca(
-                7894900011517L
+                7894900011517L,
+                null,
+                requisicao()
         );
 
         // avaliação
@@ -285,7 +569,7 @@ public class ProdutoControllerTest {
                         true
                 );
 
-        var controller = new ProdutoController(service);
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
 
         // execução
         var produto = controller.temEstoque(
@@ -309,7 +593,7 @@ public class ProdutoControllerTest {
                         false
                 );
 
-        var controller = new ProdutoController(service);
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
 
         // execução
         var produto = controller.temEstoque(
@@ -334,7 +618,7 @@ public class ProdutoControllerTest {
                         null
                 );
 
-        var controller = new ProdutoController(service);
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
 
         // execução
         var produto = controller.temEstoque(
@@ -363,7 +647,7 @@ public class ProdutoControllerTest {
                         any(CriaProdutoDTO.class)
                 );
 
-        var controller = new ProdutoController(service);
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(IllegalArgumentException.class, () -> {
@@ -394,15 +678,17 @@ public class ProdutoControllerTest {
                 .when(service)
                 .atualiza(
                         any(Long.class),
-                        any(AtualizaProdutoDTO.class)
+                        any(AtualizaProdutoDTO.class),
+                        any()
                 );
 
-        var controller = new ProdutoController(service);
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(IllegalArgumentException.class, () -> {
             controller.atualiza(
                     Objects.isNull(ean) ? -1L : ean,
+                    null,
                     new AtualizaProdutoDTO(
                             nome,
                             descricao,
@@ -429,7 +715,7 @@ public class ProdutoControllerTest {
                         any(Long.class)
                 );
 
-        var controller = new ProdutoController(service);
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(IllegalArgumentException.class, () -> {
@@ -455,12 +741,14 @@ public class ProdutoControllerTest {
                         any(Long.class)
                 );
 
-        var controller = new ProdutoController(service);
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(IllegalArgumentException.class, () -> {
             controller.busca(
-                    ean
+                    ean,
+                    null,
+                    requisicao()
             );
         });
     }
@@ -480,7 +768,7 @@ public class ProdutoControllerTest {
                         any(Long.class)
                 );
 
-        var controller = new ProdutoController(service);
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(IllegalArgumentException.class, () -> {
@@ -491,6 +779,159 @@ public class ProdutoControllerTest {
         });
     }
 
+    @Test
+    public void atualiza_comIfMatch_repassaOEtagInteiro() {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        Mockito.when(service.atualiza(
+                                any(Long.class),
+                                any(AtualizaProdutoDTO.class),
+                                any()
+                        )
+                )
+                .thenReturn(
+                        true
+                );
+
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
+
+        // execução
+        var produto = controller.atualiza(
+                7894900011517L,
+                "W/\"7894900011517-4-1a2b-gzip\"",
+                new AtualizaProdutoDTO(
+                        "Produto Teste",
+                        "Descrição do Produto Teste",
+                        new BigDecimal("100"),
+                        100L
+                )
+        );
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.OK, produto.getStatusCode());
+        Mockito.verify(service).atualiza(Mockito.eq(7894900011517L), any(AtualizaProdutoDTO.class), Mockito.eq(Set.of("7894900011517-4-1a2b")));
+    }
+
+    @Test
+    public void etagsDoIfMatch_normalizaOsEtagsEnviados() {
+        // execução e avaliação
+        Assertions.assertNull(CorposProduto.etagsDoIfMatch(null));
+        Assertions.assertNull(CorposProduto.etagsDoIfMatch("*"));
+        Assertions.assertEquals(
+                Set.of("123-9-ff", "7894900011517-2-ff"),
+                CorposProduto.etagsDoIfMatch("\"123-9-ff\", W/\"7894900011517-2-ff-gzip\"")
+        );
+    }
+
+    @Test
+    public void atualizaParcial_deveRetornar200_repassaSoOsCamposEnviados() throws Exception {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        Mockito.when(service.atualizaParcial(
+                                any(Long.class),
+                                any(AtualizaParcialProdutoDTO.class),
+                                any()
+                        )
+                )
+                .thenReturn(
+                        true
+                );
+
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
+
+        // execução
+        var produto = controller.atualizaParcial(
+                7894900011517L,
+                null,
+                new ObjectMapper().readTree("{\"preco\": 89.90}")
+        );
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.OK, produto.getStatusCode());
+        Mockito.verify(service).atualizaParcial(
+                7894900011517L,
+                new AtualizaParcialProdutoDTO(null, null, new BigDecimal("89.9")),
+                null
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "[]",
+            "{\"nome\": null}",
+            "{\"quantidade\": 10}",
+            "{\"preco\": \"caro\"}",
+            "{\"nome\": 10}"
+    })
+    public void atualizaParcial_patchInvalido_lancaExcecao(String patch) throws Exception {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
+        var json = new ObjectMapper().readTree(patch);
+
+        // execução e avaliação
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            controller.atualizaParcial(7894900011517L, null, json);
+        });
+        Mockito.verifyNoInteractions(service);
+    }
+
+    @Test
+    public void cadastraLote_deveRetornar200_comOResultadoDeCadaItem() throws Exception {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        Mockito.when(service.cadastraLote(any()))
+                .thenReturn(List.of(
+                        new ResultadoItemLoteDTO(0, 7894900011517L, StatusItemLoteEnum.CRIADO, null),
+                        new ResultadoItemLoteDTO(1, 7894900011518L, StatusItemLoteEnum.CONFLITO, "PRODUTO JA CADASTRADO!")
+                ));
+
+        var request = new MockHttpServletRequest();
+        request.setContent("""
+                [
+                    {"ean": 7894900011517, "nome": "Produto 1", "descricao": "Descricao 1", "preco": 10.5, "quantidade": 10},
+                    {"ean": 7894900011518, "nome": "Produto 2", "descricao": "Descricao 2", "preco": 11.5, "quantidade": 20}
+                ]
+                """.getBytes(StandardCharsets.UTF_8));
+
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
+
+        // execução
+        var resposta = controller.cadastraLote(request);
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        Assertions.assertEquals(2, resposta.getBody().size());
+        Assertions.assertEquals(StatusItemLoteEnum.CRIADO, resposta.getBody().get(0).status());
+        Assertions.assertEquals(StatusItemLoteEnum.CONFLITO, resposta.getBody().get(1).status());
+        Mockito.verify(service, Mockito.times(1)).cadastraLote(any());
+    }
+
+    @Test
+    public void atualizaLote_deveRetornar200_comOResultadoDeCadaItem() throws Exception {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        Mockito.when(service.atualizaLote(any()))
+                .thenReturn(List.of(
+                        new ResultadoItemLoteDTO(0, 7894900011517L, StatusItemLoteEnum.NAO_ENCONTRADO, "PRODUTO NAO ESTA CADASTRADO!")
+                ));
+
+        var request = new MockHttpServletRequest();
+        request.setContent("""
+                [{"ean": 7894900011517, "nome": "Produto 1", "descricao": "Descricao 1", "preco": 10.5, "quantidade": 10}]
+                """.getBytes(StandardCharsets.UTF_8));
+
+        var controller = new ProdutoController(service, CORPOS_PRODUTO, LEITOR_LOTE);
+
+        // execução
+        var resposta = controller.atualizaLote(request);
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        Assertions.assertEquals(1, resposta.getBody().size());
+        Assertions.assertEquals(StatusItemLoteEnum.NAO_ENCONTRADO, resposta.getBody().get(0).status());
+    }
+
     private static Stream<Arguments> requestValidandoCampos() {
         return Stream.of(
                 Arguments.of(null, "Nome de teste", "Descricao teste", new BigDecimal("100"), 100L),
@@ -528,4 +969,8 @@ public class ProdutoControllerTest {
         );
     }
 
+    private static ServletWebRequest requisicao() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/produto/7894900011517"), new MockHttpServletResponse());
+    }
+
 }
@@ -1,12 +1,32 @@
 package com.fiap.techchallenge4.unitario;
 
+import com.fiap.techchallenge4.domain.MotivoMovimentoEstoqueEnum;
 import com.fiap.techchallenge4.domain.StatusEstoqueEnum;
+import com.fiap.techchallenge4.domain.StatusItemLoteEnum;
+import com.fiap.techchallenge4.domain.exception.VersaoDivergenteException;
+import com.fiap.techchallenge4.infrastructure.batch.ArquivosImportacao;
+import com.fiap.techchallenge4.infrastructure.busca.IndiceBuscaProduto;
+import com.fiap.techchallenge4.infrastructure.cache.CacheBuscaProduto;
+import com.fiap.techchallenge4.infrastructure.cache.CacheProduto;
 import com.fiap.techchallenge4.infrastructure.consumer.response.AtualizaEstoqueDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaParcialProdutoDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.AtualizaProdutoLoteDTO;
 import com.fiap.techchallenge4.infrastructure.controller.dto.CriaProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.FiltroProdutosDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ItemLoteDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.ProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.controller.dto.SugestaoProdutoDTO;
+import com.fiap.techchallenge4.infrastructure.estoque.AlertaEstoqueBaixo;
+import com.fiap.techchallenge4.infrastructure.estoque.IndiceEstoque;
 import com.fiap.techchallenge4.infrastructure.model.ProdutoEntity;
+import com.fiap.techchallenge4.infrastructure.repository.MovimentoEstoqueRepository;
+import com.fiap.techchallenge4.infrastructure.repository.PosicaoBuscaProduto;
+import com.fiap.techchallenge4.infrastructure.repository.PosicaoListaProduto;
+import com.fiap.techchallenge4.infrastructure.repository.ProdutoEncontrado;
 import com.fiap.techchallenge4.infrastructure.repository.ProdutoRepository;
 import com.fiap.techchallenge4.useCase.impl.ProdutoUseCaseImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -14,12 +34,27 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mockito;
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import static org.mockito.Mockito.times;
@@ -27,12 +62,197 @@ import static org.mockito.Mockito.verify;
 
 public class ProdutoUseCaseTest {
 
+    @Test
+    public void importa_iniciaJob_retornaIdDaExecucao() throws Exception {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var jobLauncher = Mockito.mock(JobLauncher.class);
+        var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+
+        Mockito.when(jobLauncher.run(Mockito.any(), Mockito.any()))
+                .thenReturn(new JobExecution(new JobInstance(1L, "importaProdutos"), 10L, new JobParameters()));
+
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução
+        var id = service.importa();
+
+        // avaliação
+        verify(jobLauncher, times(1)).run(Mockito.any(), Mockito.any());
+        Assertions.assertEquals(10L, id);
+    }
+
+    @Test
+    public void importa_caminho_iniciaJobComArquivoResolvido() throws Exception {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var jobLauncher = Mockito.mock(JobLauncher.class);
+        var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+
+        var arquivo = Files.createTempFile("produtos", ".csv.gz");
+        Mockito.when(arquivosImportacao.resolve("fornecedor/produtos.csv.gz"))
+                .thenReturn(arquivo.toString());
+        Mockito.when(jobLauncher.run(Mockito.any(), Mockito.any()))
+                .thenReturn(new JobExecution(new JobInstance(1L, "importaProdutos"), 10L, new JobParameters()));
+
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução
+        service.importa("fornecedor/produtos.csv.gz");
+
+        // avaliação
+        verify(jobLauncher, times(1)).run(
+                Mockito.any(),
+                Mockito.argThat(params -> arquivo.toString().equals(params.getString("arquivo"))
+                        && Objects.nonNull(params.getString("identificador")))
+        );
+    }
+
+    @Test
+    public void importa_arquivoJaImportado_retornaUltimaExecucao() throws Exception {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var jobLauncher = Mockito.mock(JobLauncher.class);
+        var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+
+        var instancia = new JobInstance(1L, "importaProdutos");
+        Mockito.when(importaProdutosJob.getName())
+                .thenReturn("importaProdutos");
+        Mockito.when(jobLauncher.run(Mockito.any(), Mockito.any()))
+                .thenThrow(new JobInstanceAlreadyCompleteException("JA IMPORTADO"));
+        Mockito.when(jobExplorer.getJobInstance(Mockito.eq("importaProdutos"), Mockito.any()))
+                .thenReturn(instancia);
+        Mockito.when(jobExplorer.getLastJobExecution(instancia))
+                .thenReturn(new JobExecution(instancia, 10L, new JobParameters()));
+
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução
+        var id = service.importa();
+
+        // avaliação
+        Assertions.assertEquals(10L, id);
+    }
+
+    @Test
+    public void importa_caminhoInvalido_naoIniciaJob() throws Exception {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var jobLauncher = Mockito.mock(JobLauncher.class);
+        var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+
+        Mockito.when(arquivosImportacao.resolve(Mockito.any()))
+                .thenThrow(new IllegalArgumentException("ARQUIVO DE IMPORTACAO NAO ENCONTRADO!"));
+
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução e avaliação
+        Assertions.assertThrows(IllegalArgumentException.class, () -> service.importa("nao-existe.csv"));
+        verify(jobLauncher, times(0)).run(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void importa_erroAoIniciarJob_lancaExcecao() throws Exception {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var jobLauncher = Mockito.mock(JobLauncher.class);
+        var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+
+        Mockito.when(jobLauncher.run(Mockito.any(), Mockito.any()))
+                .thenThrow(new IllegalStateException("QUALQUER EXCECAO!!"));
+
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução e avaliação
+        Assertions.assertThrows(IllegalStateException.class, service::importa);
+    }
+
+    @Test
+    public void statusImportacao_retornaContadores() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var jobLauncher = Mockito.mock(JobLauncher.class);
+        var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+
+        var execucao = new JobExecution(new JobInstance(1L, "importaProdutos"), 10L, new JobParameters());
+        execucao.setStatus(BatchStatus.COMPLETED);
+        execucao.setStartTime(LocalDateTime.now().minusSeconds(2));
+        execucao.setEndTime(LocalDateTime.now());
+        var passo = execucao.createStepExecution("step");
+        passo.setReadCount(12);
+        passo.setWriteCount(10);
+        passo.setProcessSkipCount(2);
+        Mockito.when(jobExplorer.getJobExecution(10L))
+                .thenReturn(execucao);
+
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução
+        var status = service.statusImportacao(10L);
+
+        // avaliação
+        Assertions.assertEquals(10L, status.id());
+        Assertions.assertEquals("COMPLETED", status.status());
+        Assertions.assertEquals(12, status.lidos());
+        Assertions.assertEquals(10, status.escritos());
+        Assertions.assertEquals(2, status.ignorados());
+        Assertions.assertTrue(status.itensPorSegundo() > 0);
+    }
+
+    @Test
+    public void statusImportacao_naoEncontrada_retornaNulo() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var jobLauncher = Mockito.mock(JobLauncher.class);
+        var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução
+        var status = service.statusImportacao(10L);
+
+        // avaliação
+        Assertions.assertNull(status);
+    }
+
     @Test
     public void cadastra_salvaNaBaseDeDados() {
         // preparação
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
 
         Mockito.when(repository.save(Mockito.any()))
                 .thenReturn(
@@ -46,7 +266,7 @@ public class ProdutoUseCaseTest {
                         )
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução
         service.cadastra(
@@ -69,6 +289,10 @@ public class ProdutoUseCaseTest {
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
 
         Mockito.when(repository.findById(Mockito.any()))
                 .thenReturn(
@@ -84,7 +308,7 @@ public class ProdutoUseCaseTest {
                         )
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução
         service.cadastra(
@@ -108,6 +332,10 @@ public class ProdutoUseCaseTest {
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
 
         Mockito.when(repository.save(Mockito.any()))
                 .thenReturn(
@@ -132,7 +360,7 @@ public class ProdutoUseCaseTest {
                         ))
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução
         service.atualiza(
@@ -143,6 +371,8 @@ public class ProdutoUseCaseTest {
                         new BigDecimal("100"),
                         100L
                 )
+        ,
+                null
         );
 
         // avaliação
@@ -155,13 +385,17 @@ public class ProdutoUseCaseTest {
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
 
         Mockito.when(repository.findById(Mockito.any()))
                 .thenReturn(
                         Optional.empty()
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução
         service.atualiza(
@@ -172,6 +406,8 @@ public class ProdutoUseCaseTest {
                         new BigDecimal("100"),
                         100L
                 )
+        ,
+                null
         );
 
         // avaliação
@@ -179,12 +415,356 @@ public class ProdutoUseCaseTest {
         verify(repository, times(0)).save(Mockito.any());
     }
 
+    @Test
+    public void atualiza_versaoDiferenteDaEsperada_naoSalvaNaBaseDeDados() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var jobLauncher = Mockito.mock(JobLauncher.class);
+        var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+
+        var produtoNaBase = new ProdutoEntity(
+                7894900011517L,
+                "Produto Teste",
+                "Descrição do Produto Teste",
+                new BigDecimal("100"),
+                100,
+                LocalDateTime.now()
+        );
+        produtoNaBase.setVersao(5L);
+        Mockito.when(repository.findById(Mockito.any()))
+                .thenReturn(
+                        Optional.of(produtoNaBase)
+                );
+
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução e avaliação
+        Assertions.assertThrows(VersaoDivergenteException.class, () -> {
+            service.atualiza(
+                    7894900011517L,
+                    new AtualizaProdutoDTO(
+                            "Produto Teste",
+                            "Descrição do Produto Teste",
+                            new BigDecimal("100"),
+                            100L
+                    ),
+                    Set.of("7894900011517-4-" + Long.toHexString(produtoNaBase.getDataDeCriacao().toInstant(ZoneOffset.UTC).toEpochMilli()))
+            );
+        });
+        verify(repository, times(0)).save(Mockito.any());
+    }
+
+    @Test
+    public void atualiza_mesmaVersaoComOutraDataDeGravacao_naoSalvaNaBaseDeDados() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+
+        // removido e cadastrado de novo: a versao volta a 0, mas o ETag e outro
+        var produtoNaBase = new ProdutoEntity(
+                7894900011517L,
+                "Produto Teste",
+                "Descrição do Produto Teste",
+                new BigDecimal("100"),
+                100,
+                LocalDateTime.now()
+        );
+        Mockito.when(repository.findById(Mockito.any()))
+                .thenReturn(
+                        Optional.of(produtoNaBase)
+                );
+
+        var service = new ProdutoUseCaseImpl(repository, Mockito.mock(JobLauncher.class), Mockito.mock(Job.class), Mockito.mock(JobExplorer.class), Mockito.mock(ArquivosImportacao.class), Mockito.mock(IndiceEstoque.class), Mockito.mock(CacheProduto.class), Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução e avaliação
+        Assertions.assertThrows(VersaoDivergenteException.class, () -> {
+            service.atualizaParcial(
+                    7894900011517L,
+                    new AtualizaParcialProdutoDTO("Produto novo", null, null),
+                    Set.of("7894900011517-0-" + Long.toHexString(produtoNaBase.getDataDeCriacao().minusDays(1).toInstant(ZoneOffset.UTC).toEpochMilli()))
+            );
+        });
+        verify(repository, times(0)).save(Mockito.any());
+    }
+
+    @Test
+    public void atualiza_comIfMatchEProdutoInexistente_naoSalvaNaBaseDeDados() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        Mockito.when(repository.findById(Mockito.any()))
+                .thenReturn(Optional.empty());
+
+        var service = new ProdutoUseCaseImpl(repository, Mockito.mock(JobLauncher.class), Mockito.mock(Job.class), Mockito.mock(JobExplorer.class), Mockito.mock(ArquivosImportacao.class), Mockito.mock(IndiceEstoque.class), Mockito.mock(CacheProduto.class), Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução e avaliação
+        Assertions.assertThrows(VersaoDivergenteException.class, () -> {
+            service.atualiza(
+                    7894900011517L,
+                    new AtualizaProdutoDTO(
+                            "Produto Teste",
+                            "Descrição do Produto Teste",
+                            new BigDecimal("100"),
+                            100L
+                    ),
+                    Set.of("7894900011517-0-ff")
+            );
+        });
+        verify(repository, times(0)).save(Mockito.any());
+    }
+
+    @Test
+    public void atualiza_versaoIgualAEsperada_salvaComAVersaoLida() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var jobLauncher = Mockito.mock(JobLauncher.class);
+        var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+
+        var produtoNaBase = new ProdutoEntity(
+                7894900011517L,
+                "Produto Teste",
+                "Descrição do Produto Teste",
+                new BigDecimal("100"),
+                100,
+                LocalDateTime.now()
+        );
+        produtoNaBase.setVersao(5L);
+        Mockito.when(repository.findById(Mockito.any()))
+                .thenReturn(
+                        Optional.of(produtoNaBase)
+                );
+
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução
+        var atualizou = service.atualiza(
+                7894900011517L,
+                new AtualizaProdutoDTO(
+                        "Produto Teste",
+                        "Descrição do Produto Teste",
+                        new BigDecimal("100"),
+                        100L
+                ),
+                Set.of("7894900011517-5-" + Long.toHexString(produtoNaBase.getDataDeCriacao().toInstant(ZoneOffset.UTC).toEpochMilli()))
+        );
+
+        // avaliação
+        Assertions.assertTrue(atualizou);
+        verify(repository, times(1)).save(Mockito.argThat(produto -> produto.getVersao() == 5L && produto.getQuantidade() == 200L));
+    }
+
+    @Test
+    public void atualizaParcial_alteraSoOsCamposEnviados() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var jobLauncher = Mockito.mock(JobLauncher.class);
+        var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+
+        var dataDeCriacao = LocalDateTime.now().minusDays(1);
+        var produtoNaBase = new ProdutoEntity(
+                7894900011517L,
+                "Produto Teste",
+                "Descrição do Produto Teste",
+                new BigDecimal("100"),
+                100,
+                dataDeCriacao
+        );
+        Mockito.when(repository.findById(Mockito.any()))
+                .thenReturn(
+                        Optional.of(produtoNaBase)
+                );
+
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução
+        var atualizou = service.atualizaParcial(
+                7894900011517L,
+                new AtualizaParcialProdutoDTO(null, null, new BigDecimal("89.90")),
+                null
+        );
+
+        // avaliação
+        Assertions.assertTrue(atualizou);
+        Assertions.assertEquals(new BigDecimal("89.90"), produtoNaBase.getPreco());
+        Assertions.assertEquals("Produto Teste", produtoNaBase.getNome());
+        Assertions.assertEquals("Descrição do Produto Teste", produtoNaBase.getDescricao());
+        Assertions.assertEquals(100L, produtoNaBase.getQuantidade());
+        Assertions.assertEquals(dataDeCriacao, produtoNaBase.getDataDeCriacao());
+        verify(repository, times(1)).save(produtoNaBase);
+    }
+
+    @Test
+    public void atualizaParcial_produtoNaoEstaCadastrado_naoSalvaNaBaseDeDados() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var jobLauncher = Mockito.mock(JobLauncher.class);
+        var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+
+        Mockito.when(repository.findById(Mockito.any()))
+                .thenReturn(
+                        Optional.empty()
+                );
+
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução
+        var atualizou = service.atualizaParcial(
+                7894900011517L,
+                new AtualizaParcialProdutoDTO("Produto novo", null, null),
+                null
+        );
+
+        // avaliação
+        Assertions.assertFalse(atualizou);
+        verify(repository, times(0)).save(Mockito.any());
+    }
+
+    @ParameterizedTest
+    @MethodSource("alteracoesParciaisInvalidas")
+    public void atualizaParcial_camposInvalidos_naoEntraNoFluxo(String nome,
+                                                                 String descricao,
+                                                                 BigDecimal preco) {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var jobLauncher = Mockito.mock(JobLauncher.class);
+        var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução e avaliação
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            service.atualizaParcial(
+                    7894900011517L,
+                    new AtualizaParcialProdutoDTO(nome, descricao, preco),
+                    null
+            );
+        });
+        verify(repository, times(0)).findById(Mockito.any());
+    }
+
+    private static Stream<Arguments> alteracoesParciaisInvalidas() {
+        return Stream.of(
+                Arguments.of("ab", null, null),
+                Arguments.of("", null, null),
+                Arguments.of(null, "abc", null),
+                Arguments.of(null, null, BigDecimal.ZERO),
+                Arguments.of(null, null, new BigDecimal("-1"))
+        );
+    }
+
+    @Test
+    public void cadastraLote_informaOStatusDeCadaItem_eGravaSoOsNovos() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var jobLauncher = Mockito.mock(JobLauncher.class);
+        var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+
+        Mockito.when(repository.findAllById(Mockito.any()))
+                .thenReturn(List.of(
+                        new ProdutoEntity(
+                                7894900011518L,
+                                "Produto 2",
+                                "Descricao 2",
+                                new BigDecimal("11.5"),
+                                20L,
+                                LocalDateTime.now()
+                        )
+                ));
+
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução
+        var resultados = service.cadastraLote(List.of(
+                new ItemLoteDTO<>(0, new CriaProdutoDTO(7894900011517L, "Produto 1", "Descricao 1", new BigDecimal("10.5"), 10L)),
+                new ItemLoteDTO<>(1, new CriaProdutoDTO(7894900011518L, "Produto 2", "Descricao 2", new BigDecimal("11.5"), 20L)),
+                new ItemLoteDTO<>(2, new CriaProdutoDTO(7894900011519L, "", "Descricao 3", new BigDecimal("12.5"), 30L)),
+                new ItemLoteDTO<>(3, new CriaProdutoDTO(7894900011517L, "Produto 1", "Descricao 1", new BigDecimal("10.5"), 10L))
+        ));
+
+        // avaliação
+        Assertions.assertEquals(4, resultados.size());
+        Assertions.assertEquals(StatusItemLoteEnum.INVALIDO, resultados.stream().filter(resultado -> resultado.indice() == 2).findFirst().orElseThrow().status());
+        Assertions.assertEquals(StatusItemLoteEnum.CONFLITO, resultados.stream().filter(resultado -> resultado.indice() == 3).findFirst().orElseThrow().status());
+        Assertions.assertEquals(StatusItemLoteEnum.CONFLITO, resultados.stream().filter(resultado -> resultado.indice() == 1).findFirst().orElseThrow().status());
+        Assertions.assertEquals(StatusItemLoteEnum.CRIADO, resultados.stream().filter(resultado -> resultado.indice() == 0).findFirst().orElseThrow().status());
+        verify(repository, times(1)).findAllById(Mockito.any());
+        verify(repository, times(1)).saveAll(Mockito.argThat((List<ProdutoEntity> novos) ->
+                novos.size() == 1 && novos.get(0).getEan() == 7894900011517L && novos.get(0).isNew()));
+    }
+
+    @Test
+    public void atualizaLote_alteraOsProdutosCadastrados_eInformaOsNaoEncontrados() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var jobLauncher = Mockito.mock(JobLauncher.class);
+        var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+
+        var cadastrado = new ProdutoEntity(
+                7894900011517L,
+                "Produto 1",
+                "Descricao 1",
+                new BigDecimal("10.5"),
+                10L,
+                LocalDateTime.now()
+        );
+        cadastrado.setVersao(3L);
+        Mockito.when(repository.findAllById(Mockito.any()))
+                .thenReturn(List.of(cadastrado));
+
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução
+        var resultados = service.atualizaLote(List.of(
+                new ItemLoteDTO<>(0, new AtualizaProdutoLoteDTO(7894900011517L, "Produto novo", "Descricao nova", new BigDecimal("20.5"), 5L)),
+                new ItemLoteDTO<>(1, new AtualizaProdutoLoteDTO(7894900011518L, "Produto 2", "Descricao 2", new BigDecimal("11.5"), 20L)),
+                new ItemLoteDTO<>(2, new AtualizaProdutoLoteDTO(null, "Produto 3", "Descricao 3", new BigDecimal("12.5"), 30L))
+        ));
+
+        // avaliação
+        Assertions.assertEquals(StatusItemLoteEnum.ATUALIZADO, resultados.stream().filter(resultado -> resultado.indice() == 0).findFirst().orElseThrow().status());
+        Assertions.assertEquals(StatusItemLoteEnum.NAO_ENCONTRADO, resultados.stream().filter(resultado -> resultado.indice() == 1).findFirst().orElseThrow().status());
+        Assertions.assertEquals(StatusItemLoteEnum.INVALIDO, resultados.stream().filter(resultado -> resultado.indice() == 2).findFirst().orElseThrow().status());
+        Assertions.assertEquals("Produto novo", cadastrado.getNome());
+        Assertions.assertEquals(15L, cadastrado.getQuantidade());
+        Assertions.assertEquals(3L, cadastrado.getVersao());
+    }
+
     @Test
     public void deleta_deletaNaBaseDeDados() {
         // preparação
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
 
         Mockito.doNothing().when(repository).deleteById(Mockito.any());
         Mockito.when(repository.findById(Mockito.any()))
@@ -199,7 +779,7 @@ public class ProdutoUseCaseTest {
                         ))
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução
         service.deleta(
@@ -217,13 +797,17 @@ public class ProdutoUseCaseTest {
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
 
         Mockito.when(repository.findById(Mockito.any()))
                 .thenReturn(
                         Optional.empty()
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução
         service.deleta(
@@ -241,6 +825,12 @@ public class ProdutoUseCaseTest {
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+        Mockito.when(cacheProduto.busca(Mockito.any(), Mockito.any()))
+                .thenAnswer(invocacao -> invocacao.<Function<Long, ProdutoDTO>>getArgument(1).apply(invocacao.getArgument(0)));
 
         Mockito.when(repository.findById(Mockito.any()))
                 .thenReturn(
@@ -254,7 +844,7 @@ public class ProdutoUseCaseTest {
                         ))
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução
         service.busca(
@@ -265,19 +855,198 @@ public class ProdutoUseCaseTest {
         verify(repository, times(1)).findById(Mockito.any());
     }
 
+    @Test
+    public void buscaPorTexto_maisResultadosQueOTamanho_retornaProximaPagina() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var cacheBuscaProduto = new CacheBuscaProduto(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+        Mockito.when(repository.buscaPorTexto(List.of("arroz", "int"), null, 3))
+                .thenReturn(List.of(
+                        new ProdutoEncontrado(new ProdutoEntity(1111111111L, "Arroz Integral", "Tipo 1", new BigDecimal("10"), 5, LocalDateTime.now()), 0.9f),
+                        new ProdutoEncontrado(new ProdutoEntity(2222222222L, "Arroz Integral", "Tipo 2", new BigDecimal("12"), 7, LocalDateTime.now()), 0.5f),
+                        new ProdutoEncontrado(new ProdutoEntity(3333333333L, "Arroz", "Integral parboilizado", new BigDecimal("9"), 2, LocalDateTime.now()), 0.2f)
+                ));
+
+        var service = new ProdutoUseCaseImpl(repository, Mockito.mock(JobLauncher.class), Mockito.mock(Job.class), Mockito.mock(JobExplorer.class), Mockito.mock(ArquivosImportacao.class), Mockito.mock(IndiceEstoque.class), Mockito.mock(CacheProduto.class), cacheBuscaProduto, Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução
+        var pagina = service.buscaPorTexto("  Arroz, INT ", null, 2);
+        var repetida = service.buscaPorTexto("arroz int", null, 2);
+
+        // avaliação
+        Assertions.assertEquals(2, pagina.produtos().size());
+        Assertions.assertEquals(1111111111L, pagina.produtos().get(0).ean());
+        Assertions.assertEquals(2222222222L, pagina.produtos().get(1).ean());
+        Assertions.assertEquals(new PosicaoBuscaProduto(0.5f, 2222222222L), PosicaoBuscaProduto.decodifica(pagina.proximaPagina()));
+        Assertions.assertSame(pagina, repetida);
+        verify(repository, times(1)).buscaPorTexto(Mockito.any(), Mockito.any(), Mockito.anyInt());
+    }
+
+    @Test
+    public void buscaPorTexto_ultimaPagina_naoRetornaProximaPagina() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var cacheBuscaProduto = new CacheBuscaProduto(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+        var depoisDe = new PosicaoBuscaProduto(0.5f, 2222222222L);
+        Mockito.when(repository.buscaPorTexto(List.of("arroz"), depoisDe, 3))
+                .thenReturn(List.of(
+                        new ProdutoEncontrado(new ProdutoEntity(3333333333L, "Arroz", "Integral parboilizado", new BigDecimal("9"), 2, LocalDateTime.now()), 0.2f)
+                ));
+
+        var service = new ProdutoUseCaseImpl(repository, Mockito.mock(JobLauncher.class), Mockito.mock(Job.class), Mockito.mock(JobExplorer.class), Mockito.mock(ArquivosImportacao.class), Mockito.mock(IndiceEstoque.class), Mockito.mock(CacheProduto.class), cacheBuscaProduto, Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução
+        var pagina = service.buscaPorTexto("arroz", depoisDe.codifica(), 2);
+
+        // avaliação
+        Assertions.assertEquals(1, pagina.produtos().size());
+        Assertions.assertNull(pagina.proximaPagina());
+    }
+
+    @Test
+    public void lista_filtroDePreco_cursorPeloPrecoDoUltimo() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        Mockito.when(repository.lista(Mockito.any(), Mockito.isNull(), Mockito.eq(3)))
+                .thenReturn(List.of(
+                        new ProdutoEntity(3333333333L, "Macarrao", "Espaguete", new BigDecimal("4.00"), 5, LocalDateTime.now()),
+                        new ProdutoEntity(2222222222L, "Feijao Carioca", "Pacote de 1kg", new BigDecimal("8.50"), 2, LocalDateTime.now()),
+                        new ProdutoEntity(1111111111L, "Arroz Integral", "Pacote de 1kg", new BigDecimal("10.00"), 9, LocalDateTime.now())
+                ));
+
+        var service = new ProdutoUseCaseImpl(repository, Mockito.mock(JobLauncher.class), Mockito.mock(Job.class), Mockito.mock(JobExplorer.class), Mockito.mock(ArquivosImportacao.class), Mockito.mock(IndiceEstoque.class), Mockito.mock(CacheProduto.class), Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução
+        var pagina = service.lista(new FiltroProdutosDTO(new BigDecimal("1"), new BigDecimal("20"), null, 9L), null, 2);
+
+        // avaliação
+        Assertions.assertEquals(List.of(3333333333L, 2222222222L), pagina.produtos().stream().map(ProdutoDTO::ean).toList());
+        Assertions.assertEquals(new PosicaoListaProduto("8.50", 2222222222L), PosicaoListaProduto.decodifica(pagina.proximaPagina()));
+    }
+
+    @Test
+    public void lista_semFiltro_ultimaPaginaSemCursor() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var depoisDe = new PosicaoListaProduto(null, 1111111111L);
+        Mockito.when(repository.lista(Mockito.any(), Mockito.eq(depoisDe), Mockito.eq(21)))
+                .thenReturn(List.of(
+                        new ProdutoEntity(2222222222L, "Feijao Carioca", "Pacote de 1kg", new BigDecimal("8.50"), 2, LocalDateTime.now())
+                ));
+
+        var service = new ProdutoUseCaseImpl(repository, Mockito.mock(JobLauncher.class), Mockito.mock(Job.class), Mockito.mock(JobExplorer.class), Mockito.mock(ArquivosImportacao.class), Mockito.mock(IndiceEstoque.class), Mockito.mock(CacheProduto.class), Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução
+        var pagina = service.lista(new FiltroProdutosDTO(null, null, null, null), depoisDe.codifica(), 20);
+
+        // avaliação
+        Assertions.assertEquals(1, pagina.produtos().size());
+        Assertions.assertNull(pagina.proximaPagina());
+    }
+
+    @ParameterizedTest
+    @MethodSource("filtrosInvalidos")
+    public void lista_filtroInvalido_naoBuscaNaBaseDeDados(FiltroProdutosDTO filtro, int tamanho) {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+
+        var service = new ProdutoUseCaseImpl(repository, Mockito.mock(JobLauncher.class), Mockito.mock(Job.class), Mockito.mock(JobExplorer.class), Mockito.mock(ArquivosImportacao.class), Mockito.mock(IndiceEstoque.class), Mockito.mock(CacheProduto.class), Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução e avaliação
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> service.lista(filtro, null, tamanho)
+        );
+        Mockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    public void sugere_indiceCarregado_naoBuscaNoBanco() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var indiceBuscaProduto = Mockito.mock(IndiceBuscaProduto.class);
+        Mockito.when(indiceBuscaProduto.carregado()).thenReturn(true);
+        Mockito.when(indiceBuscaProduto.sugere(List.of("feijao", "car"), 10))
+                .thenReturn(List.of(new SugestaoProdutoDTO(1111111111L, "Feijão Carioca")));
+
+        var service = new ProdutoUseCaseImpl(repository, Mockito.mock(JobLauncher.class), Mockito.mock(Job.class), Mockito.mock(JobExplorer.class), Mockito.mock(ArquivosImportacao.class), Mockito.mock(IndiceEstoque.class), Mockito.mock(CacheProduto.class), Mockito.mock(CacheBuscaProduto.class), indiceBuscaProduto, Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução
+        var sugestoes = service.sugere("Feijão car", 10);
+
+        // avaliação
+        Assertions.assertEquals(List.of(new SugestaoProdutoDTO(1111111111L, "Feijão Carioca")), sugestoes);
+        Mockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    public void sugere_indiceNaoCarregado_buscaNoBanco() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        Mockito.when(repository.buscaPorTexto(List.of("feijão"), null, 10))
+                .thenReturn(List.of(new ProdutoEncontrado(new ProdutoEntity(1111111111L, "Feijão Carioca", "Tipo 1", new BigDecimal("8"), 5, LocalDateTime.now()), 0.9f)));
+
+        var service = new ProdutoUseCaseImpl(repository, Mockito.mock(JobLauncher.class), Mockito.mock(Job.class), Mockito.mock(JobExplorer.class), Mockito.mock(ArquivosImportacao.class), Mockito.mock(IndiceEstoque.class), Mockito.mock(CacheProduto.class), Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução
+        var sugestoes = service.sugere("Feijão", 10);
+
+        // avaliação
+        Assertions.assertEquals(List.of(new SugestaoProdutoDTO(1111111111L, "Feijão Carioca")), sugestoes);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 0, 51 })
+    public void sugere_limiteInvalido_naoBusca(int limite) {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var indiceBuscaProduto = Mockito.mock(IndiceBuscaProduto.class);
+
+        var service = new ProdutoUseCaseImpl(repository, Mockito.mock(JobLauncher.class), Mockito.mock(Job.class), Mockito.mock(JobExplorer.class), Mockito.mock(ArquivosImportacao.class), Mockito.mock(IndiceEstoque.class), Mockito.mock(CacheProduto.class), Mockito.mock(CacheBuscaProduto.class), indiceBuscaProduto, Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução e avaliação
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> service.sugere("arroz", limite)
+        );
+        Mockito.verifyNoInteractions(repository, indiceBuscaProduto);
+    }
+
+    @ParameterizedTest
+    @MethodSource("requestValidandoBuscaPorTexto")
+    public void buscaPorTexto_parametrosInvalidos_naoBuscaNaBaseDeDados(String termo, String pagina, int tamanho) {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+
+        var service = new ProdutoUseCaseImpl(repository, Mockito.mock(JobLauncher.class), Mockito.mock(Job.class), Mockito.mock(JobExplorer.class), Mockito.mock(ArquivosImportacao.class), Mockito.mock(IndiceEstoque.class), Mockito.mock(CacheProduto.class), Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução e avaliação
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> service.buscaPorTexto(termo, pagina, tamanho)
+        );
+        Mockito.verifyNoInteractions(repository);
+    }
+
     @Test
     public void busca_produtoNaoEstaCadastrado_naoEncontraNaBaseDeDados() {
         // preparação
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+        Mockito.when(cacheProduto.busca(Mockito.any(), Mockito.any()))
+                .thenAnswer(invocacao -> invocacao.<Function<Long, ProdutoDTO>>getArgument(1).apply(invocacao.getArgument(0)));
 
         Mockito.when(repository.findById(Mockito.any()))
                 .thenReturn(
                         Optional.empty()
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução
         service.busca(
@@ -294,6 +1063,11 @@ public class ProdutoUseCaseTest {
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+        Mockito.when(indiceEstoque.quantidade(Mockito.anyLong())).thenReturn(IndiceEstoque.AUSENTE);
 
         Mockito.when(repository.findById(Mockito.any()))
                 .thenReturn(
@@ -307,7 +1081,7 @@ public class ProdutoUseCaseTest {
                         ))
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução
         Boolean response = service.temEstoque(
@@ -326,6 +1100,11 @@ public class ProdutoUseCaseTest {
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+        Mockito.when(indiceEstoque.quantidade(Mockito.anyLong())).thenReturn(IndiceEstoque.AUSENTE);
 
         Mockito.when(repository.findById(Mockito.any()))
                 .thenReturn(
@@ -339,7 +1118,7 @@ public class ProdutoUseCaseTest {
                         ))
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução
         Boolean response = service.temEstoque(
@@ -358,6 +1137,11 @@ public class ProdutoUseCaseTest {
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+        Mockito.when(indiceEstoque.quantidade(Mockito.anyLong())).thenReturn(IndiceEstoque.AUSENTE);
 
         Mockito.when(repository.findById(Mockito.any()))
                 .thenReturn(
@@ -371,7 +1155,7 @@ public class ProdutoUseCaseTest {
                         ))
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução
         Boolean response = service.temEstoque(
@@ -390,13 +1174,18 @@ public class ProdutoUseCaseTest {
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+        Mockito.when(indiceEstoque.quantidade(Mockito.anyLong())).thenReturn(IndiceEstoque.AUSENTE);
 
         Mockito.when(repository.findById(Mockito.any()))
                 .thenReturn(
                         Optional.empty()
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução
         service.temEstoque(
@@ -408,12 +1197,182 @@ public class ProdutoUseCaseTest {
         verify(repository, times(1)).findById(Mockito.any());
     }
 
+    @Test
+    public void temEstoque_produtoNoIndice_naoBuscaNaBaseDeDados() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var jobLauncher = Mockito.mock(JobLauncher.class);
+        var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+        Mockito.when(indiceEstoque.quantidade(7894900011517L)).thenReturn(100L);
+
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução
+        var response = service.temEstoque(
+                7894900011517L,
+                101L
+        );
+
+        // avaliação
+        verify(repository, times(0)).findById(Mockito.any());
+        Assertions.assertFalse(response);
+    }
+
+    @Test
+    public void temEstoque_produtoForaDoIndice_leDoPrimarioECarregaNoIndice() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var jobLauncher = Mockito.mock(JobLauncher.class);
+        var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+        var transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        Mockito.when(indiceEstoque.quantidade(Mockito.anyLong())).thenReturn(IndiceEstoque.AUSENTE);
+
+        Mockito.when(repository.findById(Mockito.any()))
+                .thenReturn(
+                        Optional.of(new ProdutoEntity(
+                                7894900011517L,
+                                "Produto Teste",
+                                "Descrição do Produto Teste",
+                                new BigDecimal("100"),
+                                100,
+                                LocalDateTime.now()
+                        ))
+                );
+
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), transactionManager, 3);
+
+        // execução
+        service.temEstoque(
+                7894900011517L,
+                1L
+        );
+
+        // avaliação
+        verify(indiceEstoque, times(1)).carregaSeAusente(7894900011517L, 100L, 0L);
+        verify(transactionManager, times(1)).getTransaction(Mockito.argThat(definicao -> !definicao.isReadOnly()));
+    }
+
+    @Test
+    public void atualizaEstoque_gravacaoConcorrente_reaplicaSobreOProdutoRelido() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var jobLauncher = Mockito.mock(JobLauncher.class);
+        var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+
+        var lidoAntes = new ProdutoEntity(7894900011517L, "Produto Teste", "Descrição do Produto Teste", new BigDecimal("100"), 100, LocalDateTime.now());
+        var lidoDepois = new ProdutoEntity(7894900011517L, "Produto Teste", "Descrição do Produto Teste", new BigDecimal("100"), 50, LocalDateTime.now());
+        lidoDepois.setVersao(1L);
+        Mockito.when(repository.findById(Mockito.any()))
+                .thenReturn(Optional.of(lidoAntes))
+                .thenReturn(Optional.of(lidoDepois));
+        Mockito.when(repository.save(Mockito.any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(ProdutoEntity.class, 7894900011517L))
+                .thenAnswer(invocacao -> invocacao.getArgument(0));
+
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução
+        service.atualizaEstoque(
+                new AtualizaEstoqueDTO(
+                        7894900011517L,
+                        10L,
+                        StatusEstoqueEnum.RETIRA_DO_ESTOQUE.name()
+                )
+        );
+
+        // avaliação
+        verify(repository, times(2)).findById(Mockito.any());
+        verify(repository, times(1)).save(Mockito.argThat(produto -> produto.getVersao() == 1L && produto.getQuantidade() == 40L));
+    }
+
+    @Test
+    public void atualizaEstoque_gravacaoConcorrenteEmTodasAsTentativas_lancaExcecao() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var jobLauncher = Mockito.mock(JobLauncher.class);
+        var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+
+        Mockito.when(repository.findById(Mockito.any()))
+                .thenReturn(Optional.of(new ProdutoEntity(7894900011517L, "Produto Teste", "Descrição do Produto Teste", new BigDecimal("100"), 100, LocalDateTime.now())));
+        Mockito.when(repository.save(Mockito.any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(ProdutoEntity.class, 7894900011517L));
+
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução e avaliação
+        Assertions.assertThrows(ObjectOptimisticLockingFailureException.class, () -> {
+            service.atualizaEstoque(
+                    new AtualizaEstoqueDTO(
+                            7894900011517L,
+                            10L,
+                            StatusEstoqueEnum.RETIRA_DO_ESTOQUE.name()
+                    )
+            );
+        });
+        verify(repository, times(3)).save(Mockito.any());
+    }
+
+    @Test
+    public void atualizaEstoque_retira_registraOMovimentoDeEstoque() {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var jobLauncher = Mockito.mock(JobLauncher.class);
+        var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+        var movimentoEstoqueRepository = Mockito.mock(MovimentoEstoqueRepository.class);
+        var alertaEstoqueBaixo = Mockito.mock(AlertaEstoqueBaixo.class);
+
+        Mockito.when(repository.findById(Mockito.any()))
+                .thenReturn(Optional.of(new ProdutoEntity(7894900011517L, "Produto Teste", "Descrição do Produto Teste", new BigDecimal("100"), 100, LocalDateTime.now())));
+
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), movimentoEstoqueRepository, alertaEstoqueBaixo, Mockito.mock(PlatformTransactionManager.class), 3);
+
+        // execução
+        service.atualizaEstoque(
+                new AtualizaEstoqueDTO(
+                        7894900011517L,
+                        10L,
+                        StatusEstoqueEnum.RETIRA_DO_ESTOQUE.name()
+                )
+        );
+
+        // avaliação
+        verify(movimentoEstoqueRepository, times(1)).save(Mockito.argThat(movimento ->
+                movimento.getEan() == 7894900011517L
+                        && movimento.getDelta() == -10L
+                        && movimento.getMotivo() == MotivoMovimentoEstoqueEnum.RETIRADA));
+        verify(alertaEstoqueBaixo, times(1)).verifica(7894900011517L, 100, 90);
+    }
+
     @Test
     public void atualizaEstoque_retira_quantidadeIgual_buscaNaBaseDeDados() {
         // preparação
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
 
         Mockito.when(repository.findById(Mockito.any()))
                 .thenReturn(
@@ -427,7 +1386,7 @@ public class ProdutoUseCaseTest {
                         ))
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução
         service.atualizaEstoque(
@@ -449,6 +1408,10 @@ public class ProdutoUseCaseTest {
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
 
         Mockito.when(repository.findById(Mockito.any()))
                 .thenReturn(
@@ -462,7 +1425,7 @@ public class ProdutoUseCaseTest {
                         ))
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução
         service.atualizaEstoque(
@@ -484,6 +1447,10 @@ public class ProdutoUseCaseTest {
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
 
         Mockito.when(repository.findById(Mockito.any()))
                 .thenReturn(
@@ -497,7 +1464,7 @@ public class ProdutoUseCaseTest {
                         ))
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução e avaliação
         service.atualizaEstoque(
@@ -519,13 +1486,17 @@ public class ProdutoUseCaseTest {
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
 
         Mockito.when(repository.findById(Mockito.any()))
                 .thenReturn(
                         Optional.empty()
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução e avaliação
         service.atualizaEstoque(
@@ -547,6 +1518,10 @@ public class ProdutoUseCaseTest {
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
 
         Mockito.when(repository.findById(Mockito.any()))
                 .thenReturn(
@@ -560,7 +1535,7 @@ public class ProdutoUseCaseTest {
                         ))
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução
         service.atualizaEstoque(
@@ -587,6 +1562,10 @@ public class ProdutoUseCaseTest {
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
 
         Mockito.when(repository.save(Mockito.any()))
                 .thenReturn(
@@ -600,7 +1579,7 @@ public class ProdutoUseCaseTest {
                         )
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(RuntimeException.class, () -> {
@@ -628,6 +1607,10 @@ public class ProdutoUseCaseTest {
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
 
         Mockito.when(repository.save(Mockito.any()))
                 .thenReturn(
@@ -652,7 +1635,7 @@ public class ProdutoUseCaseTest {
                         ))
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(RuntimeException.class, () -> {
@@ -664,7 +1647,9 @@ public class ProdutoUseCaseTest {
                             preco,
                             quantidade
                     )
-            );
+            ,
+                null
+        );
         });
         verify(repository, times(0)).save(Mockito.any());
     }
@@ -680,8 +1665,12 @@ public class ProdutoUseCaseTest {
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(RuntimeException.class, () -> {
@@ -704,8 +1693,14 @@ public class ProdutoUseCaseTest {
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+        Mockito.when(cacheProduto.busca(Mockito.any(), Mockito.any()))
+                .thenAnswer(invocacao -> invocacao.<Function<Long, ProdutoDTO>>getArgument(1).apply(invocacao.getArgument(0)));
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(RuntimeException.class, () -> {
@@ -725,6 +1720,11 @@ public class ProdutoUseCaseTest {
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
+        Mockito.when(indiceEstoque.quantidade(Mockito.anyLong())).thenReturn(IndiceEstoque.AUSENTE);
 
         Mockito.when(repository.findById(Mockito.any()))
                 .thenReturn(
@@ -738,7 +1738,7 @@ public class ProdutoUseCaseTest {
                         ))
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(RuntimeException.class, () -> {
@@ -759,6 +1759,10 @@ public class ProdutoUseCaseTest {
         var repository = Mockito.mock(ProdutoRepository.class);
         var jobLauncher = Mockito.mock(JobLauncher.class);
         var importaProdutosJob = Mockito.mock(Job.class);
+        var jobExplorer = Mockito.mock(JobExplorer.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var indiceEstoque = Mockito.mock(IndiceEstoque.class);
+        var cacheProduto = Mockito.mock(CacheProduto.class);
 
         Mockito.when(repository.findById(Mockito.any()))
                 .thenReturn(
@@ -772,7 +1776,7 @@ public class ProdutoUseCaseTest {
                         ))
                 );
 
-        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob);
+        var service = new ProdutoUseCaseImpl(repository, jobLauncher, importaProdutosJob, jobExplorer, arquivosImportacao, indiceEstoque, cacheProduto, Mockito.mock(CacheBuscaProduto.class), Mockito.mock(IndiceBuscaProduto.class), Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class), Mockito.mock(PlatformTransactionManager.class), 3);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(RuntimeException.class, () -> {
@@ -841,4 +1845,27 @@ public class ProdutoUseCaseTest {
         );
     }
 
+    private static Stream<Arguments> filtrosInvalidos() {
+        return Stream.of(
+                Arguments.of(new FiltroProdutosDTO(new BigDecimal("-1"), null, null, null), 20),
+                Arguments.of(new FiltroProdutosDTO(new BigDecimal("10"), new BigDecimal("5"), null, null), 20),
+                Arguments.of(new FiltroProdutosDTO(null, null, -1L, null), 20),
+                Arguments.of(new FiltroProdutosDTO(null, null, 10L, 5L), 20),
+                Arguments.of(new FiltroProdutosDTO(null, null, null, null), 0),
+                Arguments.of(new FiltroProdutosDTO(null, null, null, null), 101)
+        );
+    }
+
+    private static Stream<Arguments> requestValidandoBuscaPorTexto() {
+        return Stream.of(
+                Arguments.of(null, null, 20),
+                Arguments.of("", null, 20),
+                Arguments.of("   ", null, 20),
+                Arguments.of("%%% ---", null, 20),
+                Arguments.of("arroz", null, 0),
+                Arguments.of("arroz", null, 101),
+                Arguments.of("arroz", "nao-e-uma-pagina", 20)
+        );
+    }
+
 }
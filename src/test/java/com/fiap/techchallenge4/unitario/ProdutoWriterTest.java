@@ -0,0 +1,148 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.domain.MotivoMovimentoEstoqueEnum;
+import com.fiap.techchallenge4.infrastructure.batch.ProdutoWriter;
+import com.fiap.techchallenge4.infrastructure.estoque.AlertaEstoqueBaixo;
+import com.fiap.techchallenge4.infrastructure.model.ImportacaoArquivoEntity;
+import com.fiap.techchallenge4.infrastructure.model.MovimentoEstoqueEntity;
+import com.fiap.techchallenge4.infrastructure.model.ProdutoEntity;
+import com.fiap.techchallenge4.infrastructure.repository.ImportacaoArquivoRepository;
+import com.fiap.techchallenge4.infrastructure.repository.MovimentoEstoqueRepository;
+import com.fiap.techchallenge4.infrastructure.repository.ProdutoRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.batch.item.Chunk;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ProdutoWriterTest {
+
+    @Test
+    public void write_produtoExistente_somaQuantidadeEGravaUltimaLinha() throws Exception {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var importacaoArquivoRepository = Mockito.mock(ImportacaoArquivoRepository.class);
+        Mockito.when(repository.findAllById(Mockito.any()))
+                .thenReturn(List.of(produto(2222222222L, 10, null, 0)));
+        Mockito.when(repository.save(Mockito.any()))
+                .thenAnswer(invocacao -> invocacao.getArgument(0));
+        var alertaEstoqueBaixo = Mockito.mock(AlertaEstoqueBaixo.class);
+        var writer = new ProdutoWriter(repository, importacaoArquivoRepository, Mockito.mock(MovimentoEstoqueRepository.class), alertaEstoqueBaixo);
+
+        // execução
+        writer.write(new Chunk<>(
+                produto(1111111111L, 5, "arquivo", 1),
+                produto(2222222222L, 20, "arquivo", 2)
+        ));
+
+        // avaliação
+        var produtos = ArgumentCaptor.forClass(ProdutoEntity.class);
+        verify(repository, times(2)).save(produtos.capture());
+        Assertions.assertEquals(5, produtos.getAllValues().get(0).getQuantidade());
+        Assertions.assertEquals(30, produtos.getAllValues().get(1).getQuantidade());
+        verify(alertaEstoqueBaixo, times(1)).verifica(2222222222L, 10, 30);
+        verify(alertaEstoqueBaixo, Mockito.never()).verifica(Mockito.eq(1111111111L), Mockito.anyLong(), Mockito.anyLong());
+
+        ArgumentCaptor<Iterable<ImportacaoArquivoEntity>> importacoes = ArgumentCaptor.forClass(Iterable.class);
+        verify(importacaoArquivoRepository, times(1)).saveAll(importacoes.capture());
+        var importacao = importacoes.getValue().iterator().next();
+        Assertions.assertEquals("arquivo", importacao.getIdentificador());
+        Assertions.assertEquals(2, importacao.getUltimaLinha());
+    }
+
+    @Test
+    public void write_registraUmMovimentoDeEstoquePorLinha() throws Exception {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var importacaoArquivoRepository = Mockito.mock(ImportacaoArquivoRepository.class);
+        var movimentoEstoqueRepository = Mockito.mock(MovimentoEstoqueRepository.class);
+        Mockito.when(repository.findAllById(Mockito.any()))
+                .thenReturn(List.of(produto(2222222222L, 10, null, 0)));
+        Mockito.when(repository.save(Mockito.any()))
+                .thenAnswer(invocacao -> invocacao.getArgument(0));
+        var writer = new ProdutoWriter(repository, importacaoArquivoRepository, movimentoEstoqueRepository, Mockito.mock(AlertaEstoqueBaixo.class));
+
+        // execução
+        writer.write(new Chunk<>(
+                produto(1111111111L, 5, "arquivo", 1),
+                produto(2222222222L, 20, "arquivo", 2)
+        ));
+
+        // avaliação
+        ArgumentCaptor<List<MovimentoEstoqueEntity>> movimentos = ArgumentCaptor.forClass(List.class);
+        verify(movimentoEstoqueRepository, times(1)).saveAll(movimentos.capture());
+        Assertions.assertEquals(List.of(5L, 20L), movimentos.getValue().stream().map(MovimentoEstoqueEntity::getDelta).toList());
+        Assertions.assertEquals("arquivo:2", movimentos.getValue().get(1).getOrigem());
+        Assertions.assertEquals(MotivoMovimentoEstoqueEnum.IMPORTACAO, movimentos.getValue().get(1).getMotivo());
+    }
+
+    @Test
+    public void write_linhasJaImportadas_naoSomaQuantidadeDeNovo() throws Exception {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var importacaoArquivoRepository = Mockito.mock(ImportacaoArquivoRepository.class);
+        Mockito.when(importacaoArquivoRepository.findAllById(Mockito.any()))
+                .thenReturn(List.of(new ImportacaoArquivoEntity("arquivo", 2, LocalDateTime.now())));
+        Mockito.when(repository.save(Mockito.any()))
+                .thenAnswer(invocacao -> invocacao.getArgument(0));
+        var writer = new ProdutoWriter(repository, importacaoArquivoRepository, Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class));
+
+        // execução
+        writer.write(new Chunk<>(
+                produto(1111111111L, 5, "arquivo", 1),
+                produto(2222222222L, 20, "arquivo", 2),
+                produto(3333333333L, 15, "arquivo", 3)
+        ));
+
+        // avaliação
+        var produtos = ArgumentCaptor.forClass(ProdutoEntity.class);
+        verify(repository, times(1)).save(produtos.capture());
+        Assertions.assertEquals(3333333333L, produtos.getValue().getEan());
+    }
+
+    @Test
+    public void write_mesmoEanNoChunk_acumulaQuantidade() throws Exception {
+        // preparação
+        var repository = Mockito.mock(ProdutoRepository.class);
+        var importacaoArquivoRepository = Mockito.mock(ImportacaoArquivoRepository.class);
+        Mockito.when(repository.save(Mockito.any()))
+                .thenAnswer(invocacao -> invocacao.getArgument(0));
+        var writer = new ProdutoWriter(repository, importacaoArquivoRepository, Mockito.mock(MovimentoEstoqueRepository.class), Mockito.mock(AlertaEstoqueBaixo.class));
+
+        // execução
+        writer.write(new Chunk<>(
+                produto(1111111111L, 5, "arquivo", 1),
+                produto(1111111111L, 7, "arquivo", 2)
+        ));
+
+        // avaliação
+        var produtos = ArgumentCaptor.forClass(ProdutoEntity.class);
+        verify(repository, times(2)).save(produtos.capture());
+        Assertions.assertEquals(12, produtos.getAllValues().get(1).getQuantidade());
+    }
+
+    private static ProdutoEntity produto(final Long ean,
+                                         final long quantidade,
+                                         final String arquivo,
+                                         final long linha) {
+        var produto = new ProdutoEntity(
+                ean,
+                "Produto Teste",
+                "Descrição do Produto Teste",
+                new BigDecimal("10.00"),
+                quantidade,
+                LocalDateTime.now()
+        );
+        produto.setArquivoDeOrigem(arquivo);
+        produto.setLinhaDeOrigem(linha);
+        return produto;
+    }
+
+}
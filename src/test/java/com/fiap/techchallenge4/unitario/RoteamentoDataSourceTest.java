@@ -0,0 +1,113 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.infrastructure.datasource.LeituraReplica;
+import com.fiap.techchallenge4.infrastructure.datasource.MonitorAtrasoReplica;
+import com.fiap.techchallenge4.infrastructure.datasource.RoteamentoDataSource;
+import com.fiap.techchallenge4.infrastructure.datasource.TipoDataSourceEnum;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class RoteamentoDataSourceTest {
+
+    @AfterEach
+    void limpaTransacao() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setCurrentTransactionName(null);
+    }
+
+    @Test
+    public void getConnection_leituraReplica_replicaDisponivel_usaReplica() throws Exception {
+        // preparação
+        var primario = Mockito.mock(DataSource.class);
+        var replica = Mockito.mock(DataSource.class);
+        var monitor = Mockito.mock(MonitorAtrasoReplica.class);
+        Mockito.when(monitor.replicaDisponivel()).thenReturn(true);
+        var roteamento = criaRoteamento(monitor, primario, replica);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        TransactionSynchronizationManager.setCurrentTransactionName(LeituraReplica.NOME_TRANSACAO);
+
+        // execução
+        roteamento.getConnection();
+
+        // avaliação
+        verify(replica, times(1)).getConnection();
+        verify(primario, times(0)).getConnection();
+    }
+
+    @Test
+    public void getConnection_leituraReplica_replicaAtrasada_usaPrimario() throws Exception {
+        // preparação
+        var primario = Mockito.mock(DataSource.class);
+        var replica = Mockito.mock(DataSource.class);
+        var monitor = Mockito.mock(MonitorAtrasoReplica.class);
+        Mockito.when(monitor.replicaDisponivel()).thenReturn(false);
+        var roteamento = criaRoteamento(monitor, primario, replica);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        TransactionSynchronizationManager.setCurrentTransactionName(LeituraReplica.NOME_TRANSACAO);
+
+        // execução
+        roteamento.getConnection();
+
+        // avaliação
+        verify(primario, times(1)).getConnection();
+        verify(replica, times(0)).getConnection();
+    }
+
+    @Test
+    public void getConnection_outraTransacaoReadOnly_usaPrimario() throws Exception {
+        // preparação
+        var primario = Mockito.mock(DataSource.class);
+        var replica = Mockito.mock(DataSource.class);
+        var monitor = Mockito.mock(MonitorAtrasoReplica.class);
+        Mockito.when(monitor.replicaDisponivel()).thenReturn(true);
+        var roteamento = criaRoteamento(monitor, primario, replica);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        TransactionSynchronizationManager.setCurrentTransactionName("org.springframework.data.jpa.repository.support.SimpleJpaRepository.findById");
+
+        // execução
+        roteamento.getConnection();
+
+        // avaliação
+        verify(primario, times(1)).getConnection();
+        verify(replica, times(0)).getConnection();
+    }
+
+    @Test
+    public void getConnection_transacaoDeEscrita_usaPrimario() throws Exception {
+        // preparação
+        var primario = Mockito.mock(DataSource.class);
+        var replica = Mockito.mock(DataSource.class);
+        var monitor = Mockito.mock(MonitorAtrasoReplica.class);
+        Mockito.when(monitor.replicaDisponivel()).thenReturn(true);
+        var roteamento = criaRoteamento(monitor, primario, replica);
+
+        // execução
+        roteamento.getConnection();
+
+        // avaliação
+        verify(primario, times(1)).getConnection();
+        verify(replica, times(0)).getConnection();
+    }
+
+    private static RoteamentoDataSource criaRoteamento(final MonitorAtrasoReplica monitor,
+                                                       final DataSource primario,
+                                                       final DataSource replica) {
+        var roteamento = new RoteamentoDataSource(monitor);
+        roteamento.setTargetDataSources(Map.of(
+                TipoDataSourceEnum.PRIMARIO, primario,
+                TipoDataSourceEnum.REPLICA, replica
+        ));
+        roteamento.setDefaultTargetDataSource(primario);
+        roteamento.afterPropertiesSet();
+        return roteamento;
+    }
+
+}
@@ -0,0 +1,347 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.infrastructure.agendamento.LeaseAgendamento;
+import com.fiap.techchallenge4.infrastructure.batch.ArquivosImportacao;
+import com.fiap.techchallenge4.infrastructure.batch.FimImportacaoListener;
+import com.fiap.techchallenge4.infrastructure.controller.dto.StatusImportacaoDTO;
+import com.fiap.techchallenge4.infrastructure.model.ImportacaoAgendadaEntity;
+import com.fiap.techchallenge4.infrastructure.repository.ImportacaoAgendadaRepository;
+import com.fiap.techchallenge4.infrastructure.repository.LeaseAgendamentoRepository;
+import com.fiap.techchallenge4.useCase.ScheduleUseCase;
+import com.fiap.techchallenge4.useCase.impl.ProdutoUseCaseImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ScheduleUseCaseTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    public void importaProdutos_primeiraExecucao_importaArquivo() throws Exception {
+        // preparação
+        var arquivo = this.criaArquivo("1111111111,Alface,Verdura,5.00,10\n");
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        var repository = Mockito.mock(ImportacaoAgendadaRepository.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var leaseAgendamento = leaseAdquirido();
+        Mockito.when(arquivosImportacao.resolve("produtos.csv")).thenReturn(arquivo.toString());
+        Mockito.when(service.importa(arquivo.toString())).thenReturn(10L);
+
+        var schedule = new ScheduleUseCase(service, repository, arquivosImportacao, leaseAgendamento, fimConcluido(), "produtos.csv", false);
+
+        // execução
+        schedule.importaProdutos();
+
+        // avaliação
+        verify(service, times(1)).importa(arquivo.toString());
+        var importacao = ArgumentCaptor.forClass(ImportacaoAgendadaEntity.class);
+        verify(repository, times(1)).save(importacao.capture());
+        Assertions.assertEquals(10L, importacao.getValue().getIdExecucao());
+        Assertions.assertNotNull(importacao.getValue().getHash());
+    }
+
+    @Test
+    public void importaProdutos_tamanhoEDataIguais_naoImporta() throws Exception {
+        // preparação
+        var arquivo = this.criaArquivo("1111111111,Alface,Verdura,5.00,10\n");
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        var repository = Mockito.mock(ImportacaoAgendadaRepository.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var leaseAgendamento = leaseAdquirido();
+        Mockito.when(arquivosImportacao.resolve("produtos.csv")).thenReturn(arquivo.toString());
+        Mockito.when(repository.findById(arquivo.toString()))
+                .thenReturn(Optional.of(ImportacaoAgendadaEntity.builder()
+                        .arquivo(arquivo.toString())
+                        .tamanho(Files.size(arquivo))
+                        .modificadoEm(Files.getLastModifiedTime(arquivo).toMillis())
+                        .hash("qualquer")
+                        .idExecucao(10L)
+                        .build()));
+        Mockito.when(service.statusImportacao(10L))
+                .thenReturn(new StatusImportacaoDTO(10L, "COMPLETED", 1, 1, 0, 1.0, null, null, null));
+
+        var schedule = new ScheduleUseCase(service, repository, arquivosImportacao, leaseAgendamento, fimConcluido(), "produtos.csv", false);
+
+        // execução
+        schedule.importaProdutos();
+
+        // avaliação
+        verify(service, times(0)).importa(Mockito.anyString());
+        verify(repository, times(0)).save(Mockito.any());
+    }
+
+    @Test
+    public void importaProdutos_arquivoTocadoComMesmoConteudo_naoImporta() throws Exception {
+        // preparação
+        var arquivo = this.criaArquivo("1111111111,Alface,Verdura,5.00,10\n");
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        var repository = Mockito.mock(ImportacaoAgendadaRepository.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var leaseAgendamento = leaseAdquirido();
+        Mockito.when(arquivosImportacao.resolve("produtos.csv")).thenReturn(arquivo.toString());
+        Mockito.when(service.importa(arquivo.toString())).thenReturn(10L);
+
+        var schedule = new ScheduleUseCase(service, repository, arquivosImportacao, leaseAgendamento, fimConcluido(), "produtos.csv", false);
+        schedule.importaProdutos();
+        var importacao = ArgumentCaptor.forClass(ImportacaoAgendadaEntity.class);
+        verify(repository).save(importacao.capture());
+        Mockito.when(repository.findById(arquivo.toString())).thenReturn(Optional.of(importacao.getValue()));
+        Files.setLastModifiedTime(arquivo, FileTime.fromMillis(Files.getLastModifiedTime(arquivo).toMillis() + 60_000));
+
+        // execução
+        schedule.importaProdutos();
+
+        // avaliação
+        verify(service, times(1)).importa(arquivo.toString());
+    }
+
+    @Test
+    public void importaProdutos_execucaoAnteriorFalhou_retomaImportacao() throws Exception {
+        // preparação
+        var arquivo = this.criaArquivo("1111111111,Alface,Verdura,5.00,10\n");
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        var repository = Mockito.mock(ImportacaoAgendadaRepository.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var leaseAgendamento = leaseAdquirido();
+        Mockito.when(arquivosImportacao.resolve("produtos.csv")).thenReturn(arquivo.toString());
+        Mockito.when(repository.findById(arquivo.toString()))
+                .thenReturn(Optional.of(ImportacaoAgendadaEntity.builder()
+                        .arquivo(arquivo.toString())
+                        .tamanho(Files.size(arquivo))
+                        .modificadoEm(Files.getLastModifiedTime(arquivo).toMillis())
+                        .hash("qualquer")
+                        .arquivoImportado(arquivo.toString())
+                        .idExecucao(10L)
+                        .build()));
+        Mockito.when(service.statusImportacao(10L))
+                .thenReturn(new StatusImportacaoDTO(10L, "FAILED", 1, 0, 0, 0.0, null, null, null));
+        Mockito.when(service.importa(arquivo.toString())).thenReturn(11L);
+
+        var schedule = new ScheduleUseCase(service, repository, arquivosImportacao, leaseAgendamento, fimConcluido(), "produtos.csv", false);
+
+        // execução
+        schedule.importaProdutos();
+
+        // avaliação
+        verify(service, times(1)).importa(arquivo.toString());
+    }
+
+    @Test
+    public void importaProdutos_somenteLinhasAlteradas_importaApenasADiferenca() throws Exception {
+        // preparação
+        var arquivo = this.criaArquivo("""
+                1111111111,Alface,Verdura,5.00,10
+                2222222222,Laranja,Fruta,3.00,20
+                """);
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        var repository = Mockito.mock(ImportacaoAgendadaRepository.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var leaseAgendamento = leaseAdquirido();
+        Mockito.when(arquivosImportacao.resolve("produtos.csv")).thenReturn(arquivo.toString());
+        Mockito.when(arquivosImportacao.diretorio("agendamento")).thenReturn(this.diretorio.resolve("agendamento"));
+
+        var schedule = new ScheduleUseCase(service, repository, arquivosImportacao, leaseAgendamento, fimConcluido(), "produtos.csv", true);
+        schedule.importaProdutos();
+        Files.writeString(arquivo, """
+                1111111111,Alface,Verdura,5.00,10
+                2222222222,Laranja,Fruta,3.00,25
+                3333333333,Ancho,Carne,30.00,15
+                """);
+
+        // execução
+        schedule.importaProdutos();
+
+        // avaliação
+        var importados = ArgumentCaptor.forClass(String.class);
+        verify(service, times(2)).importa(importados.capture());
+        Assertions.assertEquals(2, linhas(Path.of(importados.getAllValues().get(0))).size());
+        Assertions.assertEquals(
+                List.of("2222222222,Laranja,Fruta,3.00,25", "3333333333,Ancho,Carne,30.00,15"),
+                linhas(Path.of(importados.getAllValues().get(1)))
+        );
+    }
+
+    @Test
+    public void importaProdutos_somenteLinhasAlteradas_disparoFalhou_proximoDisparoImportaAsMesmasLinhas() throws Exception {
+        // preparação
+        var arquivo = this.criaArquivo("""
+                1111111111,Alface,Verdura,5.00,10
+                """);
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        var repository = Mockito.mock(ImportacaoAgendadaRepository.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var leaseAgendamento = leaseAdquirido();
+        Mockito.when(arquivosImportacao.resolve("produtos.csv")).thenReturn(arquivo.toString());
+        Mockito.when(arquivosImportacao.diretorio("agendamento")).thenReturn(this.diretorio.resolve("agendamento"));
+        var importados = new ArrayList<List<String>>();
+        Mockito.when(service.importa(Mockito.anyString()))
+                .thenAnswer(invocacao -> {
+                    importados.add(linhas(Path.of(invocacao.<String>getArgument(0))));
+                    return (long) importados.size();
+                });
+
+        var schedule = new ScheduleUseCase(service, repository, arquivosImportacao, leaseAgendamento, fimConcluido(), "produtos.csv", true);
+        schedule.importaProdutos();
+        var importacao = ArgumentCaptor.forClass(ImportacaoAgendadaEntity.class);
+        verify(repository).save(importacao.capture());
+        Mockito.when(repository.findById(arquivo.toString())).thenReturn(Optional.of(importacao.getValue()));
+
+        Files.writeString(arquivo, """
+                1111111111,Alface,Verdura,5.00,10
+                2222222222,Laranja,Fruta,3.00,25
+                """);
+        Mockito.doThrow(new TaskRejectedException("FILA DE IMPORTACAO CHEIA"))
+                .when(service).importa(Mockito.anyString());
+        Assertions.assertThrows(TaskRejectedException.class, schedule::importaProdutos);
+        Mockito.doAnswer(invocacao -> {
+                    importados.add(linhas(Path.of(invocacao.<String>getArgument(0))));
+                    return (long) importados.size();
+                })
+                .when(service).importa(Mockito.anyString());
+
+        // execução
+        schedule.importaProdutos();
+
+        // avaliação
+        Assertions.assertEquals(2, importados.size());
+        Assertions.assertEquals(List.of("2222222222,Laranja,Fruta,3.00,25"), importados.get(1));
+        verify(repository, times(2)).save(Mockito.any());
+    }
+
+    @Test
+    public void importaProdutos_somenteLinhasAlteradas_jobFalhou_naoAvancaAImportacao() throws Exception {
+        // preparação
+        var arquivo = this.criaArquivo("""
+                1111111111,Alface,Verdura,5.00,10
+                """);
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        var repository = Mockito.mock(ImportacaoAgendadaRepository.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var fimImportacao = Mockito.mock(FimImportacaoListener.class);
+        Mockito.when(fimImportacao.aguarda(Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(BatchStatus.FAILED));
+        Mockito.when(arquivosImportacao.resolve("produtos.csv")).thenReturn(arquivo.toString());
+        Mockito.when(arquivosImportacao.diretorio("agendamento")).thenReturn(this.diretorio.resolve("agendamento"));
+
+        var schedule = new ScheduleUseCase(service, repository, arquivosImportacao, leaseAdquirido(), fimImportacao, "produtos.csv", true);
+
+        // execução
+        schedule.importaProdutos();
+        schedule.importaProdutos();
+
+        // avaliação
+        var importados = ArgumentCaptor.forClass(String.class);
+        verify(service, times(2)).importa(importados.capture());
+        Assertions.assertEquals(List.of("1111111111,Alface,Verdura,5.00,10"), linhas(Path.of(importados.getAllValues().get(1))));
+        verify(repository, times(0)).save(Mockito.any());
+    }
+
+    @Test
+    public void importaProdutos_jobAindaRodando_mantemOLeaseAteOFim() throws Exception {
+        // preparação
+        var arquivo = this.criaArquivo("1111111111,Alface,Verdura,5.00,10\n");
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        var repository = Mockito.mock(ImportacaoAgendadaRepository.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var fimImportacao = Mockito.mock(FimImportacaoListener.class);
+        var fimDoJob = new CompletableFuture<BatchStatus>();
+        var leaseRepository = Mockito.mock(LeaseAgendamentoRepository.class);
+        Mockito.when(leaseRepository.adquire(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(1);
+        Mockito.when(leaseRepository.renova(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(1);
+        var leaseAgendamento = new LeaseAgendamento(leaseRepository, new SimpleMeterRegistry(), Duration.ofMinutes(10), Duration.ZERO, Duration.ofMillis(20));
+        Mockito.when(arquivosImportacao.resolve("produtos.csv")).thenReturn(arquivo.toString());
+        Mockito.when(service.importa(arquivo.toString())).thenReturn(10L);
+        Mockito.when(fimImportacao.aguarda(10L)).thenReturn(fimDoJob);
+
+        var schedule = new ScheduleUseCase(service, repository, arquivosImportacao, leaseAgendamento, fimImportacao, "produtos.csv", false);
+
+        // execução
+        schedule.importaProdutos();
+        Thread.sleep(150);
+
+        // avaliação
+        var renovacoes = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(leaseRepository, Mockito.atLeast(2)).renova(Mockito.eq("importaProdutos"), Mockito.any(), Mockito.any(), renovacoes.capture());
+        var limite = LocalDateTime.now().plusMinutes(9);
+        Assertions.assertTrue(renovacoes.getAllValues().stream().allMatch(ate -> ate.isAfter(limite)));
+
+        fimDoJob.complete(BatchStatus.COMPLETED);
+        verify(leaseRepository, Mockito.timeout(1000)).renova(Mockito.eq("importaProdutos"), Mockito.any(), Mockito.any(),
+                Mockito.argThat(ate -> ate.isBefore(LocalDateTime.now().plusMinutes(1))));
+        leaseAgendamento.destroy();
+    }
+
+    @Test
+    public void importaProdutos_leaseComOutraReplica_naoImporta() throws Exception {
+        // preparação
+        var service = Mockito.mock(ProdutoUseCaseImpl.class);
+        var repository = Mockito.mock(ImportacaoAgendadaRepository.class);
+        var arquivosImportacao = Mockito.mock(ArquivosImportacao.class);
+        var leaseAgendamento = Mockito.mock(LeaseAgendamento.class);
+        Mockito.when(leaseAgendamento.executaAteConcluir(Mockito.eq("importaProdutos"), Mockito.any()))
+                .thenReturn(false);
+
+        var schedule = new ScheduleUseCase(service, repository, arquivosImportacao, leaseAgendamento, fimConcluido(), "produtos.csv", false);
+
+        // execução
+        schedule.importaProdutos();
+
+        // avaliação
+        verify(service, times(0)).importa(Mockito.anyString());
+        verify(repository, times(0)).findById(Mockito.any());
+    }
+
+    private static FimImportacaoListener fimConcluido() {
+        var fimImportacao = Mockito.mock(FimImportacaoListener.class);
+        Mockito.when(fimImportacao.aguarda(Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(BatchStatus.COMPLETED));
+        return fimImportacao;
+    }
+
+    private static LeaseAgendamento leaseAdquirido() {
+        var leaseAgendamento = Mockito.mock(LeaseAgendamento.class);
+        Mockito.when(leaseAgendamento.executaAteConcluir(Mockito.any(), Mockito.any()))
+                .thenAnswer(invocacao -> {
+                    invocacao.<Supplier<?>>getArgument(1).get();
+                    return true;
+                });
+        return leaseAgendamento;
+    }
+
+    // Sem o cabecalho de comentario do arquivo de alteracoes
+    private static List<String> linhas(final Path arquivo) throws Exception {
+        return Files.readAllLines(arquivo).stream()
+                .filter(linha -> !linha.startsWith("#"))
+                .toList();
+    }
+
+    private Path criaArquivo(final String conteudo) throws Exception {
+        var arquivo = this.diretorio.resolve("produtos.csv");
+        Files.writeString(arquivo, conteudo);
+        return arquivo;
+    }
+
+}
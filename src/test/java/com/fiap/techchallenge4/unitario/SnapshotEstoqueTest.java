@@ -0,0 +1,96 @@
+package com.fiap.techchallenge4.unitario;
+
+import com.fiap.techchallenge4.domain.event.ProdutoAlteradoEvent;
+import com.fiap.techchallenge4.infrastructure.cache.MemoriaCacheCompartilhadoProduto;
+import com.fiap.techchallenge4.infrastructure.estoque.IndiceEstoque;
+import com.fiap.techchallenge4.infrastructure.estoque.SnapshotEstoque;
+import com.fiap.techchallenge4.infrastructure.repository.ProdutoRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class SnapshotEstoqueTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    public void grava_carrega_restauraOIndice() {
+        // preparação
+        var arquivo = this.diretorio.resolve("indice-estoque.snapshot").toString();
+        var indice = new IndiceEstoque(Mockito.mock(ProdutoRepository.class), new MemoriaCacheCompartilhadoProduto());
+        indice.aoAlterarProduto(new ProdutoAlteradoEvent(7894900011517L, 10L));
+        indice.aoAlterarProduto(new ProdutoAlteradoEvent(7894900011524L, 0L));
+        indice.aoAlterarProduto(ProdutoAlteradoEvent.removido(7894900011531L));
+        new SnapshotEstoque(indice, arquivo, Duration.ofHours(1)).grava();
+
+        var novoIndice = new IndiceEstoque(Mockito.mock(ProdutoRepository.class), new MemoriaCacheCompartilhadoProduto());
+
+        // execução
+        var carregados = new SnapshotEstoque(novoIndice, arquivo, Duration.ofHours(1)).carrega();
+
+        // avaliação
+        Assertions.assertEquals(2, carregados);
+        Assertions.assertEquals(10L, novoIndice.quantidade(7894900011517L));
+        Assertions.assertEquals(0L, novoIndice.quantidade(7894900011524L));
+        Assertions.assertEquals(IndiceEstoque.AUSENTE, novoIndice.quantidade(7894900011531L));
+    }
+
+    @Test
+    public void carrega_snapshotAntigo_ignora() {
+        // preparação
+        var arquivo = this.diretorio.resolve("indice-estoque.snapshot").toString();
+        var indice = new IndiceEstoque(Mockito.mock(ProdutoRepository.class), new MemoriaCacheCompartilhadoProduto());
+        indice.aoAlterarProduto(new ProdutoAlteradoEvent(7894900011517L, 10L));
+        new SnapshotEstoque(indice, arquivo, Duration.ofHours(1)).grava();
+
+        var novoIndice = new IndiceEstoque(Mockito.mock(ProdutoRepository.class), new MemoriaCacheCompartilhadoProduto());
+
+        // execução
+        var carregados = new SnapshotEstoque(novoIndice, arquivo, Duration.ZERO).carrega();
+
+        // avaliação
+        Assertions.assertEquals(-1, carregados);
+        Assertions.assertEquals(IndiceEstoque.AUSENTE, novoIndice.quantidade(7894900011517L));
+    }
+
+    @Test
+    public void carrega_snapshotTruncado_ignora() throws Exception {
+        // preparação
+        var arquivo = this.diretorio.resolve("indice-estoque.snapshot");
+        var indice = new IndiceEstoque(Mockito.mock(ProdutoRepository.class), new MemoriaCacheCompartilhadoProduto());
+        indice.aoAlterarProduto(new ProdutoAlteradoEvent(7894900011517L, 10L));
+        new SnapshotEstoque(indice, arquivo.toString(), Duration.ofHours(1)).grava();
+        var conteudo = Files.readAllBytes(arquivo);
+        Files.write(arquivo, Arrays.copyOf(conteudo, conteudo.length - 4));
+
+        // execução
+        var carregados = new SnapshotEstoque(new IndiceEstoque(Mockito.mock(ProdutoRepository.class), new MemoriaCacheCompartilhadoProduto()), arquivo.toString(), Duration.ofHours(1)).carrega();
+
+        // avaliação
+        Assertions.assertEquals(-1, carregados);
+    }
+
+    @Test
+    public void run_semSnapshot_carregaDoBanco() {
+        // preparação
+        var indice = Mockito.mock(IndiceEstoque.class);
+        var snapshot = new SnapshotEstoque(indice, this.diretorio.resolve("nao-existe.snapshot").toString(), Duration.ofHours(1));
+
+        // execução
+        snapshot.run(null);
+
+        // avaliação
+        verify(indice, times(1)).recarrega();
+    }
+
+}